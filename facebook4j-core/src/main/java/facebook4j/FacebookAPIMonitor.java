@@ -15,11 +15,22 @@
  */
 package facebook4j;
 
+import facebook4j.conf.Configuration;
 import facebook4j.conf.ConfigurationContext;
+import facebook4j.internal.http.EndpointClassifier;
+import facebook4j.internal.http.HttpResponse;
+import facebook4j.internal.http.ConcurrencyLimiter;
+import facebook4j.internal.http.RequestScheduler;
+import facebook4j.internal.http.RequestTimings;
 import facebook4j.internal.logging.Logger;
 import facebook4j.management.APIStatistics;
 import facebook4j.management.APIStatisticsMBean;
 import facebook4j.management.APIStatisticsOpenMBean;
+import facebook4j.management.CacheStatistics;
+import facebook4j.management.OpenMetricsExporter;
+import facebook4j.management.RequestPhase;
+import facebook4j.management.ConcurrencyLimitStatistics;
+import facebook4j.management.SchedulerStatistics;
 
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.MBeanRegistrationException;
@@ -28,35 +39,42 @@ import javax.management.MalformedObjectNameException;
 import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
 import java.lang.management.ManagementFactory;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Singleton instance of all Twitter API monitoring. Handles URL parsing and "wire off" logic.
- * We could avoid using a singleton here if Twitter objects were instantiated
- * from a factory.
+ * API monitoring of the Facebook instances sharing a configuration. Handles URL parsing and "wire off" logic.<br>
+ * Monitors are created lazily, one per MBean name and app ID, so that the configurations of the users of an app
+ * share a monitor whatever their access tokens. Each monitor is registered to the platform MBeanServer
+ * with its own ObjectName: <code>facebook4j.mbean:type=APIStatisticsOpenMBean,name=&lt;name&gt;</code>,
+ * where the name is {@link Configuration#getMBeanName()}, the app ID or "default".
  *
  * @author Nick Dellamaggiore (nick.dellamaggiore <at> gmail.com)
  * @since Twitter4J 2.2.1
  */
 public class FacebookAPIMonitor {
     private static final Logger logger = Logger.getLogger(FacebookAPIMonitor.class);
-    // https?:\/\/[^\/]+\/([a-zA-Z_\.]*).*
-    // finds the "method" part a Twitter REST API url, ignoring member-specific resource names
-    private static final Pattern pattern =
-            Pattern.compile("https?:\\/\\/[^\\/]+\\/\\d+\\/([a-zA-Z_\\.]*).*");
 
-    private static final FacebookAPIMonitor SINGLETON = new FacebookAPIMonitor();
+    // by MBean name and app ID, not by configuration, which differs by access token
+    private static final Map<String, FacebookAPIMonitor> instanceMap = new HashMap<String, FacebookAPIMonitor>();
+    private static final Set<String> registeredNames = new HashSet<String>();
+    private static final OpenMetricsExporter exporter = new OpenMetricsExporter();
 
-    private static final APIStatistics STATISTICS = new APIStatistics(100);
+    private static final String APP_USAGE_HEADER = "X-App-Usage";
+    private static final String CALL_COUNT = "\"call_count\":";
+    private static final String TOTAL_TIME = "\"total_time\":";
+    private static final String TOTAL_CPUTIME = "\"total_cputime\":";
 
+    private static final boolean isJDK14orEarlier;
 
     static {
-        boolean isJDK14orEarlier = false;
+        boolean isJDK14 = false;
         try {
             String versionStr = System.getProperty("java.specification.version");
             if (versionStr != null) {
-                isJDK14orEarlier = 1.5d > Double.parseDouble(versionStr);
+                isJDK14 = 1.5d > Double.parseDouble(versionStr);
             }
             if (ConfigurationContext.getInstance().isDalvik()) {
                 // quick and dirty workaround for TFJ-296
@@ -65,16 +83,83 @@ public class FacebookAPIMonitor {
             }
         } catch (SecurityException ignore) {
             // Unsigned applets are not allowed to access System properties
-            isJDK14orEarlier = true;
+            isJDK14 = true;
         }
-        try {
+        isJDK14orEarlier = isJDK14;
+    }
+
+    private final APIStatistics STATISTICS;
+    private final String name;
 
+    /**
+     * Constructor
+     */
+    private FacebookAPIMonitor(String name, int historySize) {
+        this.name = name;
+        this.STATISTICS = new APIStatistics(historySize);
+    }
+
+    /**
+     * @return the monitor of the default configuration
+     * @deprecated use {@link #getInstance(facebook4j.conf.Configuration)}
+     */
+    @Deprecated
+    public static FacebookAPIMonitor getInstance() {
+        return getInstance(ConfigurationContext.getInstance());
+    }
+
+    /**
+     * @param conf configuration
+     * @return the monitor of the MBean name and app ID of the configuration, registered to the MBeanServer on the first call
+     */
+    public static synchronized FacebookAPIMonitor getInstance(Configuration conf) {
+        String key = conf.getMBeanName() + "/" + conf.getOAuthAppId();
+        FacebookAPIMonitor monitor = instanceMap.get(key);
+        if (monitor == null) {
+            monitor = new FacebookAPIMonitor(uniqueName(conf), conf.getMBeanHistorySize());
+            monitor.register();
+            exporter.register(monitor.name, monitor.STATISTICS);
+            RequestScheduler scheduler = RequestScheduler.getInstance(conf);
+            if (scheduler != null) {
+                monitor.registerSchedulerStatistics(scheduler.getStatistics());
+            }
+            ConcurrencyLimiter limiter = ConcurrencyLimiter.getInstance(conf);
+            if (limiter != null) {
+                monitor.registerConcurrencyLimitStatistics(limiter.getStatistics());
+            }
+            instanceMap.put(key, monitor);
+        }
+        return monitor;
+    }
+
+    /**
+     * @return the exporter rendering the statistics of all the monitors in the OpenMetrics text format
+     */
+    public static OpenMetricsExporter getOpenMetricsExporter() {
+        return exporter;
+    }
+
+    private static String uniqueName(Configuration conf) {
+        String baseName = conf.getMBeanName();
+        if (baseName == null) {
+            baseName = conf.getOAuthAppId() != null ? conf.getOAuthAppId() : "default";
+        }
+        String name = baseName;
+        for (int i = 2; registeredNames.contains(name); i++) {
+            name = baseName + "#" + i;
+        }
+        registeredNames.add(name);
+        return name;
+    }
+
+    private void register() {
+        try {
             MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
             if (isJDK14orEarlier) {
-                ObjectName oName = new ObjectName("facebook4j.mbean:type=APIStatistics");
+                ObjectName oName = new ObjectName("facebook4j.mbean:type=APIStatistics,name=" + ObjectName.quote(name));
                 mbs.registerMBean(STATISTICS, oName);
             } else {
-                ObjectName oName = new ObjectName("facebook4j.mbean:type=APIStatisticsOpenMBean");
+                ObjectName oName = new ObjectName("facebook4j.mbean:type=APIStatisticsOpenMBean,name=" + ObjectName.quote(name));
                 APIStatisticsOpenMBean openMBean = new APIStatisticsOpenMBean(STATISTICS);
                 mbs.registerMBean(openMBean, oName);
             }
@@ -94,24 +179,126 @@ public class FacebookAPIMonitor {
     }
 
     /**
-     * Constructor
+     * Registers the statistics of a cache to the MBeanServer, as
+     * <code>facebook4j.mbean:type=CacheStatistics,name=&lt;name&gt;,cache=&lt;cache name&gt;</code>.
+     *
+     * @param statistics statistics of the cache
      */
-    private FacebookAPIMonitor() {
+    /*package*/ void registerCacheStatistics(CacheStatistics statistics) {
+        try {
+            ObjectName oName = new ObjectName("facebook4j.mbean:type=CacheStatistics,name=" + ObjectName.quote(name)
+                    + ",cache=" + ObjectName.quote(statistics.getName()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(statistics, oName);
+        } catch (InstanceAlreadyExistsException e) {
+            logger.error(e.getMessage());
+        } catch (MBeanRegistrationException e) {
+            logger.error(e.getMessage());
+        } catch (NotCompliantMBeanException e) {
+            logger.error(e.getMessage());
+        } catch (MalformedObjectNameException e) {
+            logger.error(e.getMessage());
+        }
     }
 
-    public static FacebookAPIMonitor getInstance() {
-        return SINGLETON;
+    /**
+     * Registers the statistics of the request scheduler to the MBeanServer, as
+     * <code>facebook4j.mbean:type=SchedulerStatistics,name=&lt;name&gt;</code>.
+     *
+     * @param statistics statistics of the scheduler
+     */
+    private void registerSchedulerStatistics(SchedulerStatistics statistics) {
+        try {
+            ObjectName oName = new ObjectName("facebook4j.mbean:type=SchedulerStatistics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(statistics, oName);
+        } catch (InstanceAlreadyExistsException e) {
+            logger.error(e.getMessage());
+        } catch (MBeanRegistrationException e) {
+            logger.error(e.getMessage());
+        } catch (NotCompliantMBeanException e) {
+            logger.error(e.getMessage());
+        } catch (MalformedObjectNameException e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Registers the statistics of the adaptive concurrency limiter to the MBeanServer, as
+     * <code>facebook4j.mbean:type=ConcurrencyLimitStatistics,name=&lt;name&gt;</code>.
+     *
+     * @param statistics statistics of the limiter
+     */
+    private void registerConcurrencyLimitStatistics(ConcurrencyLimitStatistics statistics) {
+        try {
+            ObjectName oName = new ObjectName("facebook4j.mbean:type=ConcurrencyLimitStatistics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(statistics, oName);
+        } catch (InstanceAlreadyExistsException e) {
+            logger.error(e.getMessage());
+        } catch (MBeanRegistrationException e) {
+            logger.error(e.getMessage());
+        } catch (NotCompliantMBeanException e) {
+            logger.error(e.getMessage());
+        } catch (MalformedObjectNameException e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    /**
+     * @return the name this monitor is registered with
+     */
+    public String getName() {
+        return name;
     }
 
     public APIStatisticsMBean getStatistics() {
         return STATISTICS;
     }
 
-    void methodCalled(String twitterUrl, long elapsedTime, boolean success) {
-        Matcher matcher = pattern.matcher(twitterUrl);
-        if (matcher.matches() && matcher.groupCount() > 0) {
-            String method = matcher.group(1);
-            STATISTICS.methodCalled(method, elapsedTime, success);
+    void methodStarted() {
+        STATISTICS.requestStarted();
+    }
+
+    /**
+     * @param response the response of the call, or null if it failed. the phases of the request are aggregated per method
+     */
+    void methodCalled(String url, long elapsedTime, boolean success, HttpResponse response) {
+        STATISTICS.requestFinished();
+        // finds the endpoint template of a Graph API url, ignoring object ids
+        final String method = EndpointClassifier.classify(url);
+        STATISTICS.methodCalled(method, elapsedTime, success, response != null ? response.getTimings().getRetryCount() : 0);
+        if (response != null) {
+            String appUsage = response.getResponseHeader(APP_USAGE_HEADER);
+            if (appUsage != null) {
+                // {"call_count":28,"total_time":25,"total_cputime":25}
+                STATISTICS.appUsageReported(usage(appUsage, CALL_COUNT), usage(appUsage, TOTAL_TIME),
+                        usage(appUsage, TOTAL_CPUTIME));
+            }
+            // read, parse and bind phases are recorded after this point, as the caller consumes the response
+            response.getTimings().setListener(new RequestTimings.Listener() {
+                public void phaseRecorded(RequestPhase phase, long nanos) {
+                    STATISTICS.phaseRecorded(method, phase, nanos);
+                }
+            });
+        }
+    }
+
+    private static int usage(String appUsage, String key) {
+        int index = appUsage.indexOf(key);
+        if (index == -1) {
+            return -1;
+        }
+        index += key.length();
+        while (index < appUsage.length() && appUsage.charAt(index) == ' ') {
+            index++;
+        }
+        int value = 0;
+        int start = index;
+        for (; index < appUsage.length(); index++) {
+            char c = appUsage.charAt(index);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
         }
+        return index == start ? -1 : value;
     }
 }
@@ -90,6 +90,52 @@ public interface FacebookBase {
      */
     <T> ResponseList<T> fetchPrevious(Paging<T> paging) throws FacebookException;
 
+    /**
+     * Returns the elements of the given page and of all the following pages.<br>
+     * The following pages are fetched lazily, the next one in the background while the current one is consumed.
+     * Limits on the number of pages, the number of elements and the time spent can be set on the returned object.
+     *
+     * @param firstPage the first page, as returned by a Graph API method
+     * @return the elements across pages
+     */
+    <T> PageIterable<T> iterate(ResponseList<T> firstPage);
+
+    /**
+     * Returns the objects specified by IDs.<br>
+     * The IDs are fetched 50 at a time, with up to {@link Configuration#getMultiGetParallelism()} requests in flight.
+     * A nonexistent or inaccessible ID does not fail the others: it is reported by {@link ResponseMap#getErrors()}.
+     *
+     * @param type the type of the objects, such as User.class, Post.class, Photo.class, Event.class or Group.class
+     * @param ids  the IDs of the objects
+     * @return the objects keyed by ID
+     * @throws FacebookException when the calling thread is interrupted
+     * @see <a href="https://developers.facebook.com/docs/reference/api/#reading">Graph API#reading - Facebook Developers</a>
+     */
+    <T> ResponseMap<T> getObjects(Class<T> type, String... ids) throws FacebookException;
+
+    /**
+     * Returns the objects specified by IDs.
+     *
+     * @param type    the type of the objects, such as User.class, Post.class, Photo.class, Event.class or Group.class
+     * @param reading optional reading parameters. see {@link Reading}
+     * @param ids     the IDs of the objects
+     * @return the objects keyed by ID
+     * @throws FacebookException when the calling thread is interrupted
+     * @see #getObjects(Class, String...)
+     */
+    <T> ResponseMap<T> getObjects(Class<T> type, Reading reading, String... ids) throws FacebookException;
+
+    /**
+     * Returns the summary of a connection, such as the total number of likes or comments on an object.<br>
+     * Only the summary is requested (<code>summary=true&amp;limit=0</code>), so no entry of the connection is transferred.
+     *
+     * @param objectId   the ID of the object
+     * @param connection connection name, such as "likes" or "comments"
+     * @return the summary of the connection
+     * @throws FacebookException when Facebook service or network is unavailable
+     */
+    Summary getSummary(String objectId, String connection) throws FacebookException;
+
     /**
      * Shuts down this instance and releases allocated resources.
      */
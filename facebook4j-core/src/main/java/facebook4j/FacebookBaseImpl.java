@@ -19,6 +19,9 @@ package facebook4j;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import facebook4j.auth.AccessToken;
 import facebook4j.auth.Authorization;
@@ -29,6 +32,9 @@ import facebook4j.conf.Configuration;
 import facebook4j.internal.http.HttpClientWrapper;
 import facebook4j.internal.json.z_F4JInternalFactory;
 import facebook4j.internal.json.z_F4JInternalJSONImplFactory;
+import facebook4j.internal.json.z_F4JInternalTimingFactory;
+import facebook4j.internal.util.EntityCache;
+import facebook4j.internal.util.NegativeCache;
 
 /**
  * Base class of Facebook supports OAuth.
@@ -38,7 +44,17 @@ import facebook4j.internal.json.z_F4JInternalJSONImplFactory;
 abstract class FacebookBaseImpl implements Serializable, OAuthSupport {
     private static final long serialVersionUID = 5812835429308976884L;
 
+    // caches are shared by the instances of an app with the same settings, not by configuration,
+    // which differs by access token. their entries are scoped by access token
+    private static final Map<String, EntityCache> entityCaches = new HashMap<String, EntityCache>();
+    private static final Map<String, NegativeCache> negativeCaches = new HashMap<String, NegativeCache>();
+
     protected transient HttpClientWrapper http;
+    private transient FacebookAPIMonitor monitor;
+    private transient volatile EntityCache entityCache;
+    private transient volatile NegativeCache negativeCache;
+    // the engine this instance is a view of, or null if it owns its client
+    private transient FacebookEngine engine;
     protected z_F4JInternalFactory factory;
 
     protected Configuration conf;
@@ -54,6 +70,14 @@ abstract class FacebookBaseImpl implements Serializable, OAuthSupport {
         init();
     }
 
+    /*package*/ FacebookBaseImpl(Configuration conf, Authorization auth, FacebookEngine engine) {
+        this.conf = conf;
+        this.auth = auth;
+        this.engine = engine;
+        http = engine.getHttp();
+        factory = engine.getFactory();
+    }
+
     private void init() {
         if (null == auth) {
             // try to populate OAuthAuthorization if available in the configuration
@@ -76,7 +100,85 @@ abstract class FacebookBaseImpl implements Serializable, OAuthSupport {
     }
 
     protected void setFactory() {
-        factory = new z_F4JInternalJSONImplFactory(conf);
+        factory = newFactory(conf);
+    }
+
+    /*package*/ static z_F4JInternalFactory newFactory(Configuration conf) {
+        z_F4JInternalFactory factory = new z_F4JInternalJSONImplFactory(conf);
+        if (conf.isMBeanEnabled()) {
+            // measures the bind phase of each call for APIStatistics
+            factory = z_F4JInternalTimingFactory.wrap(factory);
+        }
+        return factory;
+    }
+
+    /*package*/ FacebookAPIMonitor getMonitor() {
+        if (monitor == null) {
+            monitor = FacebookAPIMonitor.getInstance(conf);
+        }
+        return monitor;
+    }
+
+    /**
+     * @return the entity cache of the app of the configuration, or null if it is disabled
+     */
+    /*package*/ EntityCache getEntityCache() {
+        if (!conf.isEntityCacheEnabled()) {
+            return null;
+        }
+        EntityCache cache = entityCache;
+        if (cache == null) {
+            cache = entityCache = getSharedEntityCache();
+        }
+        return cache;
+    }
+
+    private EntityCache getSharedEntityCache() {
+        String key = conf.getOAuthAppId() + "@" + conf.getRestBaseURL()
+                + "/" + conf.getEntityCacheMaxWeight() + "/" + conf.getEntityCacheStaleSeconds();
+        synchronized (entityCaches) {
+            EntityCache cache = entityCaches.get(key);
+            if (cache == null) {
+                cache = new EntityCache("entity", conf.getEntityCacheMaxWeight(),
+                        TimeUnit.SECONDS.toNanos(conf.getEntityCacheStaleSeconds()), FanOut.getDefaultExecutor());
+                if (conf.isMBeanEnabled()) {
+                    getMonitor().registerCacheStatistics(cache.getStatistics());
+                }
+                entityCaches.put(key, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * @return the negative cache of the app of the configuration, or null if it is disabled
+     */
+    /*package*/ NegativeCache getNegativeCache() {
+        if (conf.getNegativeCacheTTLSeconds() <= 0) {
+            return null;
+        }
+        NegativeCache cache = negativeCache;
+        if (cache == null) {
+            cache = negativeCache = getSharedNegativeCache();
+        }
+        return cache;
+    }
+
+    private NegativeCache getSharedNegativeCache() {
+        String key = conf.getOAuthAppId() + "@" + conf.getRestBaseURL()
+                + "/" + conf.getNegativeCacheTTLSeconds() + "/" + conf.getNegativeCacheMaxEntries();
+        synchronized (negativeCaches) {
+            NegativeCache cache = negativeCaches.get(key);
+            if (cache == null) {
+                cache = new NegativeCache("negative", conf.getNegativeCacheMaxEntries(),
+                        TimeUnit.SECONDS.toNanos(conf.getNegativeCacheTTLSeconds()));
+                if (conf.isMBeanEnabled()) {
+                    getMonitor().registerCacheStatistics(cache.getStatistics());
+                }
+                negativeCaches.put(key, cache);
+            }
+            return cache;
+        }
     }
 
     /**
@@ -147,7 +249,8 @@ abstract class FacebookBaseImpl implements Serializable, OAuthSupport {
      * {@inheritDoc}
      */
     public void shutdown() {
-        if (http != null) http.shutdown();
+        // the client of a view belongs to its engine
+        if (http != null && engine == null) http.shutdown();
     }
 
     protected final void ensureAuthorizationEnabled() {
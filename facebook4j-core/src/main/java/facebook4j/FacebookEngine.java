@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import facebook4j.auth.AccessToken;
+import facebook4j.auth.OAuthAuthorization;
+import facebook4j.conf.Configuration;
+import facebook4j.internal.http.HttpClientWrapper;
+import facebook4j.internal.json.z_F4JInternalFactory;
+
+/**
+ * Serves many access tokens with one HTTP client, one JSON factory and the caches of its configuration.<br>
+ * {@link #getInstance(AccessToken)} returns a lightweight view bound to a token. A view holds little more than its
+ * OAuthAuthorization, so views can be kept per tenant or created per call, and memory and connection usage stay flat
+ * as the number of tenants grows.<br>
+ * An instance of this class is thread safe and can be shared.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ * @see FacebookFactory#getEngine()
+ */
+public final class FacebookEngine {
+    private final Configuration conf;
+    private final HttpClientWrapper http;
+    private final z_F4JInternalFactory factory;
+
+    /**
+     * @param conf the configuration shared by the views
+     */
+    public FacebookEngine(Configuration conf) {
+        if (conf == null) {
+            throw new NullPointerException("configuration cannot be null");
+        }
+        if (null == conf.getOAuthAppId() && null == conf.getOAuthAppSecret()) {
+            throw new IllegalStateException("App id and App secret not supplied.");
+        }
+        this.conf = conf;
+        this.http = new HttpClientWrapper(conf);
+        this.factory = FacebookBaseImpl.newFactory(conf);
+    }
+
+    /**
+     * Returns a view of this engine authorized with the given token.<br>
+     * Calling {@link Facebook#shutdown()} on a view does not affect the engine.
+     *
+     * @param accessToken access token
+     * @return a view of this engine
+     */
+    public Facebook getInstance(AccessToken accessToken) {
+        OAuthAuthorization oauth = new OAuthAuthorization(conf);
+        oauth.setOAuthAccessToken(accessToken);
+        return new FacebookImpl(conf, oauth, this);
+    }
+
+    /**
+     * Returns a view of this engine authorized with the given token.
+     *
+     * @param accessToken access token
+     * @return a view of this engine
+     */
+    public Facebook getInstance(String accessToken) {
+        return getInstance(new AccessToken(accessToken, null));
+    }
+
+    public Configuration getConfiguration() {
+        return conf;
+    }
+
+    /**
+     * Shuts down the HTTP client shared by the views.
+     */
+    public void shutdown() {
+        http.shutdown();
+    }
+
+    /*package*/ HttpClientWrapper getHttp() {
+        return http;
+    }
+
+    /*package*/ z_F4JInternalFactory getFactory() {
+        return factory;
+    }
+}
@@ -30,6 +30,9 @@ import facebook4j.internal.org.json.JSONObject;
  */
 public class FacebookException extends Exception {
     private static final long serialVersionUID = 8394133786720654641L;
+    // rate limiting may come with HTTP 403, but goes away
+    private static final int[] THROTTLING_ERRORS = {4, 17, 32, 341, 368, 613};
+    private static final int ERROR_ACCESS_TOKEN = 190;
     
     private int statusCode = -1;
     private HttpResponse response;
@@ -121,6 +124,29 @@ public class FacebookException extends Exception {
         return statusCode == 404;
     }
 
+    /**
+     * Tests if the exception is caused by the rate limits of the application, user or page
+     *
+     * @return if the exception is caused by the rate limits
+     */
+    public boolean isCausedByThrottling() {
+        for (int throttling : THROTTLING_ERRORS) {
+            if (errorCode == throttling) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests if the exception is caused by an invalid or expired access token
+     *
+     * @return if the exception is caused by the access token
+     */
+    public boolean isCausedByAccessToken() {
+        return errorCode == ERROR_ACCESS_TOKEN;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
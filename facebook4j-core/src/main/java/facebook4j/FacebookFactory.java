@@ -19,6 +19,8 @@ package facebook4j;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
 
 import facebook4j.auth.AccessToken;
 import facebook4j.auth.Authorization;
@@ -43,6 +45,8 @@ public final class FacebookFactory implements java.io.Serializable {
     /*AsyncFacebookFactory and TWitterStream will access this field*/
     static final Authorization DEFAULT_AUTHORIZATION = AuthorizationFactory.getInstance(ConfigurationContext.getInstance());
     private static final Facebook SINGLETON;
+    // engines are shared by the factories having the same configuration
+    private static final Map<Configuration, FacebookEngine> engines = new HashMap<Configuration, FacebookEngine>();
     private static final long serialVersionUID = 5193900138477709155L;
     private final Configuration conf;
 
@@ -140,6 +144,23 @@ public final class FacebookFactory implements java.io.Serializable {
         return getInstance(oauth);
     }
 
+    /**
+     * Returns the engine of the configuration bound to this factory, to serve many access tokens with one HTTP client.<br>
+     * app Id and app Secret must be provided by facebook4j.properties, or system properties.
+     *
+     * @return the engine shared by the factories with the same configuration
+     */
+    public FacebookEngine getEngine() {
+        synchronized (engines) {
+            FacebookEngine engine = engines.get(conf);
+            if (engine == null) {
+                engine = new FacebookEngine(conf);
+                engines.put(conf, engine);
+            }
+            return engine;
+        }
+    }
+
     public Facebook getInstance(Authorization auth) {
         try {
             return FACEBOOK_CONSTRUCTOR.newInstance(conf, auth);
@@ -23,18 +23,32 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import facebook4j.Question.Option;
+import facebook4j.auth.AccessToken;
+import facebook4j.auth.AccessTokenManager;
 import facebook4j.auth.Authorization;
+import facebook4j.auth.OAuthAuthorization;
 import facebook4j.conf.Configuration;
 import facebook4j.internal.http.HttpParameter;
 import facebook4j.internal.http.HttpResponse;
+import facebook4j.internal.http.HttpResponseCode;
 import facebook4j.internal.org.json.JSONArray;
 import facebook4j.internal.org.json.JSONException;
 import facebook4j.internal.org.json.JSONObject;
+import facebook4j.internal.util.EntityCache;
+import facebook4j.internal.util.NegativeCache;
 import facebook4j.internal.util.z_F4JInternalStringUtil;
 
 /**
@@ -47,11 +61,27 @@ import facebook4j.internal.util.z_F4JInternalStringUtil;
 class FacebookImpl extends FacebookBaseImpl implements Facebook {
     private static final long serialVersionUID = 6277119018105563020L;
 
+    // the number of IDs Graph API accepts in a single request
+    private static final int MAX_IDS_PER_REQUEST = 50;
+    // failures of a single object, which fail a request for several objects
+    private static final int ERROR_INVALID_PARAMETER = 100;
+    private static final int ERROR_ALIAS_NOT_FOUND = 803;
+    // the weight of a cached entity whose response size is unknown
+    private static final int DEFAULT_ENTITY_WEIGHT = 4096;
+    // the entity type of picture urls, see Configuration#getEntityCacheTTLs()
+    private static final String PICTURE = "picture";
+
+    private transient volatile Map<String, Long> entityTTLs;
+
     /*package*/
     FacebookImpl(Configuration conf, Authorization auth) {
         super(conf, auth);
     }
 
+    /*package*/ FacebookImpl(Configuration conf, Authorization auth, FacebookEngine engine) {
+        super(conf, auth, engine);
+    }
+
     private String buildURL(String id) {
         return buildURL(id, null, null);
     }
@@ -109,8 +139,11 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
     }
     public User getUser(String userId, Reading reading) throws FacebookException {
         ensureAuthorizationEnabled();
-        User user = factory.createUser(get(buildURL(userId, reading)));
-        return user;
+        return (User) getEntity("user", userId, reading, new EntityLoader(buildURL(userId, reading)) {
+            Object create(HttpResponse res) throws FacebookException {
+                return factory.createUser(res);
+            }
+        });
     }
     
     public URL getPictureURL() throws FacebookException {
@@ -125,24 +158,15 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         return getPictureURL(userId, null);
     }
     public URL getPictureURL(String userId, PictureSize size) throws FacebookException {
-        String url = buildURL(userId, "picture");
-        HttpResponse res;
-        if (size != null) {
-            res = get(url, new HttpParameter[]{new HttpParameter("type", size.toString())});
-        } else {
-            res = get(url);
-        }
-        try {
-            return new URL(res.getResponseHeader("Location"));
-        } catch (MalformedURLException urle) {
-            throw new FacebookException(urle.getMessage(), urle);
-        }
+        return _getPictureURL(userId, "picture", size);
     }
     
     public List<User> getUsers(String... ids) throws FacebookException {
-        ensureAuthorizationEnabled();
-        return factory.createUserArray(get(conf.getRestBaseURL(), new HttpParameter[] {
-                                        new HttpParameter("ids", z_F4JInternalStringUtil.join(ids))}));
+        ResponseMap<User> users = getObjects(User.class, ids);
+        if (users.isEmpty() && !users.isComplete()) {
+            throw users.getErrors().values().iterator().next();
+        }
+        return new ArrayList<User>(users.values());
     }
     
     /* Account Methods */
@@ -161,6 +185,21 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         return factory.createAccountList(get(buildURL(userId, "accounts", reading)));
     }
 
+    public AccessToken getPageAccessToken(final String pageId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        String key = "page:" + pageId + ":" + getTokenScope();
+        return AccessTokenManager.getInstance().get(key, new AccessTokenManager.TokenSource() {
+            public AccessToken fetch() throws FacebookException {
+                JSONObject json = get(buildURL(pageId, new Reading().fields("access_token"))).asJSONObject();
+                String token = getRawString("access_token", json);
+                if (token == null) {
+                    throw new FacebookException("No access token for page " + pageId);
+                }
+                return new AccessToken(token, null);
+            }
+        });
+    }
+
     /* Achievement Methods */
     
     public ResponseList<Achievement> getAchievements() throws FacebookException {
@@ -239,7 +278,11 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
     }
     public Album getAlbum(String albumId, Reading reading) throws FacebookException {
         ensureAuthorizationEnabled();
-        return factory.createAlbum(get(buildURL(albumId, reading)));
+        return (Album) getEntity("album", albumId, reading, new EntityLoader(buildURL(albumId, reading)) {
+            Object create(HttpResponse res) throws FacebookException {
+                return factory.createAlbum(res);
+            }
+        });
     }
     
     public String createAlbum(AlbumCreate albumCreate) throws FacebookException {
@@ -291,6 +334,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getComments(albumId, reading);
     }
+    public Integer getAlbumCommentsCount(String albumId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(albumId, "comments");
+    }
 
     public String commentAlbum(String albumId, String message) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -304,6 +351,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return factory.createLikeList(get(buildURL(albumId, "likes", reading)));
     }
+    public Integer getAlbumLikesCount(String albumId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(albumId, "likes");
+    }
 
     public boolean likeAlbum(String albumId) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -381,6 +432,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getComments(checkinId, reading);
     }
+    public Integer getCheckinCommentsCount(String checkinId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(checkinId, "comments");
+    }
     public String commentCheckin(String checkinId, String message) throws FacebookException {
         ensureAuthorizationEnabled();
         return _comment(checkinId, message);
@@ -393,6 +448,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return factory.createLikeList(get(buildURL(checkinId, "likes", reading)));
     }
+    public Integer getCheckinLikesCount(String checkinId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(checkinId, "likes");
+    }
     public boolean likeCheckin(String checkinId) throws FacebookException {
         ensureAuthorizationEnabled();
         return _like(checkinId);
@@ -448,12 +507,15 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
     }
     public Event getEvent(String eventId, Reading reading) throws FacebookException {
         ensureAuthorizationEnabled();
-        HttpResponse res = get(buildURL(eventId, reading));
-        String resStr = res.asString().trim();
-        if (resStr.equals("false")) {
-            return null;
-        }
-        return factory.createEvent(res);
+        return (Event) getEntity("event", eventId, reading, new EntityLoader(buildURL(eventId, reading)) {
+            Object create(HttpResponse res) throws FacebookException {
+                String resStr = res.asString().trim();
+                if (resStr.equals("false")) {
+                    return null;
+                }
+                return factory.createEvent(res);
+            }
+        });
     }
 
     public boolean editEvent(String eventId, EventUpdate eventUpdate) throws FacebookException {
@@ -733,6 +795,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getComments(postId, reading);
     }
+    public Integer getPostCommentsCount(String postId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(postId, "comments");
+    }
 
     public String commentPost(String postId, String message) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -746,6 +812,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return factory.createLikeList(get(buildURL(postId, "likes", reading)));
     }
+    public Integer getPostLikesCount(String postId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(postId, "likes");
+    }
 
     public boolean likePost(String postId) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -999,7 +1069,11 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
     }
     public Group getGroup(String groupId, Reading reading) throws FacebookException {
         ensureAuthorizationEnabled();
-        return factory.createGroup(get(buildURL(groupId, reading)));
+        return (Group) getEntity("group", groupId, reading, new EntityLoader(buildURL(groupId, reading)) {
+            Object create(HttpResponse res) throws FacebookException {
+                return factory.createGroup(res);
+            }
+        });
     }
 
     public ResponseList<Post> getGroupFeed(String groupId) throws FacebookException {
@@ -1020,12 +1094,7 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
 
     public URL getGroupPictureURL(String groupId) throws FacebookException {
         ensureAuthorizationEnabled();
-        HttpResponse res = get(buildURL(groupId, "picture"));
-        try {
-            return new URL(res.getResponseHeader("Location"));
-        } catch (MalformedURLException urle) {
-            throw new FacebookException(urle.getMessage(), urle);
-        }
+        return _getPictureURL(groupId, "picture", null);
     }
 
     public ResponseList<GroupDoc> getGroupDocs(String groupId) throws FacebookException {
@@ -1164,6 +1233,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return factory.createLikeList(get(buildURL(commentId, "likes", reading)));
     }
+    public Integer getCommentLikesCount(String commentId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(commentId, "likes");
+    }
     public boolean likeComment(String commentId) throws FacebookException {
         ensureAuthorizationEnabled();
         return _like(commentId);
@@ -1204,6 +1277,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getComments(linkId, reading);
     }
+    public Integer getLinkCommentsCount(String linkId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(linkId, "comments");
+    }
 
     public String commentLink(String linkId, String message) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -1217,6 +1294,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getLikes(linkId, reading);
     }
+    public Integer getLinkLikesCount(String linkId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(linkId, "likes");
+    }
 
     public boolean likeLink(String linkId) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -1307,6 +1388,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getComments(noteId, reading);
     }
+    public Integer getNoteCommentsCount(String noteId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(noteId, "comments");
+    }
 
     public String commentNote(String noteId, String message) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -1320,6 +1405,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getLikes(noteId, reading);
     }
+    public Integer getNoteLikesCount(String noteId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(noteId, "likes");
+    }
 
     public boolean likeNote(String noteId) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -1421,6 +1510,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getComments(photoId, reading);
     }
+    public Integer getPhotoCommentsCount(String photoId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(photoId, "comments");
+    }
 
     public String commentPhoto(String photoId, String message) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -1434,6 +1527,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getLikes(photoId, reading);
     }
+    public Integer getPhotoLikesCount(String photoId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(photoId, "likes");
+    }
 
     public boolean likePhoto(String photoId) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -1742,6 +1839,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getLikes(videoId, reading);
     }
+    public Integer getVideoLikesCount(String videoId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(videoId, "likes");
+    }
 
     public boolean likeVideo(String videoId) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -1759,6 +1860,10 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         ensureAuthorizationEnabled();
         return _getComments(videoId, reading);
     }
+    public Integer getVideoCommentsCount(String videoId) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return _getCount(videoId, "comments");
+    }
 
     public String commentVideo(String videoId, String message) throws FacebookException {
         ensureAuthorizationEnabled();
@@ -1993,12 +2098,192 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
         return (ResponseList<T>) fetchPaging(url, paging.getJSONObjectType());
     }
 
+    public <T> PageIterable<T> iterate(ResponseList<T> firstPage) {
+        return new PageIterable<T>(this, firstPage);
+    }
+
     private <T> ResponseList<T> fetchPaging(URL url, Class<T> jsonObjectType) throws FacebookException {
         ensureAuthorizationEnabled();
         HttpResponse res = getRaw(url.toString());
         return (ResponseList<T>) factory.createResponseList(res, jsonObjectType);
     }
 
+    public <T> ResponseMap<T> getObjects(Class<T> type, String... ids) throws FacebookException {
+        return getObjects(type, null, ids);
+    }
+
+    public <T> ResponseMap<T> getObjects(final Class<T> type, Reading reading, String... ids) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return getObjectMap(buildURL("", reading), new ObjectMapReader<T>() {
+            public Map<String, T> read(HttpResponse res) throws FacebookException {
+                return factory.createObjectMap(res, type);
+            }
+        }, new ArrayList<String>(new LinkedHashSet<String>(Arrays.asList(ids))));
+    }
+
+    public ResponseMap<URL> getPictureURLs(PictureSize size, String... ids) throws FacebookException {
+        ensureAuthorizationEnabled();
+        EntityCache cache = getEntityCache();
+        long ttl = cache == null ? 0 : getEntityTTL(PICTURE);
+        String query = size != null ? size.name() : null;
+        Map<String, URL> cached = new HashMap<String, URL>();
+        List<String> missingIds = new ArrayList<String>();
+        for (String id : new LinkedHashSet<String>(Arrays.asList(ids))) {
+            URL url = ttl > 0 ? (URL) cache.getIfPresent(new EntityCache.Key(PICTURE, id, query, getTokenScope())) : null;
+            if (url != null) {
+                cached.put(id, url);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        ResponseMap<URL> fetched = missingIds.isEmpty() ? new ResponseMap<URL>()
+                : getObjectMap(buildURL("picture") + "?redirect=false" + (size != null ? "&type=" + size.toString() : ""),
+                new ObjectMapReader<URL>() {
+                    public Map<String, URL> read(HttpResponse res) throws FacebookException {
+                        return createPictureURLMap(res.asJSONObject());
+                    }
+                }, missingIds);
+        if (ttl > 0) {
+            for (Map.Entry<String, URL> entry : fetched.entrySet()) {
+                cache.put(new EntityCache.Key(PICTURE, entry.getKey(), query, getTokenScope()), entry.getValue(),
+                        weighPictureURL(entry.getValue()), ttl);
+            }
+        }
+
+        ResponseMap<URL> result = new ResponseMap<URL>();
+        for (String id : new LinkedHashSet<String>(Arrays.asList(ids))) {
+            URL url = cached.containsKey(id) ? cached.get(id) : fetched.get(id);
+            if (url != null) {
+                result.put(id, url);
+            } else {
+                result.putError(id, fetched.getErrors().get(id));
+            }
+        }
+        return result;
+    }
+
+    // {"4":{"data":{"url":"https://...","is_silhouette":false}}, ...}
+    private Map<String, URL> createPictureURLMap(JSONObject json) throws FacebookException {
+        Map<String, URL> urls = new HashMap<String, URL>();
+        try {
+            Iterator<?> ids = json.keys();
+            while (ids.hasNext()) {
+                String id = (String) ids.next();
+                JSONObject data = json.getJSONObject(id).optJSONObject("data");
+                String url = data != null ? getRawString("url", data) : null;
+                if (url != null) {
+                    urls.put(id, new URL(url));
+                }
+            }
+            return urls;
+        } catch (JSONException jsone) {
+            throw new FacebookException(jsone.getMessage(), jsone);
+        } catch (MalformedURLException urle) {
+            throw new FacebookException(urle.getMessage(), urle);
+        }
+    }
+
+    private static int weighPictureURL(URL url) {
+        return 2 * url.toString().length() + 64;
+    }
+
+    private interface ObjectMapReader<T> {
+        Map<String, T> read(HttpResponse res) throws FacebookException;
+    }
+
+    // fetches the objects 50 IDs at a time, with up to multiGetParallelism requests in flight
+    private <T> ResponseMap<T> getObjectMap(final String url, final ObjectMapReader<T> reader, List<String> uniqueIds)
+            throws FacebookException {
+        final Queue<List<String>> chunks = new ConcurrentLinkedQueue<List<String>>();
+        for (int i = 0; i < uniqueIds.size(); i += MAX_IDS_PER_REQUEST) {
+            chunks.add(uniqueIds.subList(i, Math.min(i + MAX_IDS_PER_REQUEST, uniqueIds.size())));
+        }
+        final Map<String, T> objects = new ConcurrentHashMap<String, T>();
+        final Map<String, FacebookException> errors = new ConcurrentHashMap<String, FacebookException>();
+        int workers = Math.min(conf.getMultiGetParallelism(), chunks.size());
+        if (workers <= 1) {
+            fetchObjects(url, reader, chunks, objects, errors);
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(workers);
+            for (int i = 0; i < workers; i++) {
+                tasks.add(new Callable<Void>() {
+                    public Void call() {
+                        fetchObjects(url, reader, chunks, objects, errors);
+                        return null;
+                    }
+                });
+            }
+            FanOut.invokeAll(FanOut.getDefaultExecutor(), tasks);
+        }
+
+        ResponseMap<T> result = new ResponseMap<T>();
+        for (String id : uniqueIds) {
+            T object = objects.get(id);
+            if (object != null) {
+                result.put(id, object);
+            } else {
+                FacebookException error = errors.get(id);
+                result.putError(id, error != null ? error : new FacebookException("No object was returned for ID: " + id));
+            }
+        }
+        return result;
+    }
+
+    public Summary getSummary(String objectId, String connection) throws FacebookException {
+        ensureAuthorizationEnabled();
+        return factory.createSummary(get(buildURL(objectId, connection, new Reading().summary().limit(0))));
+    }
+
+    private <T> void fetchObjects(String url, ObjectMapReader<T> reader, Queue<List<String>> chunks,
+                                  Map<String, T> objects, Map<String, FacebookException> errors) {
+        List<String> chunk;
+        while ((chunk = chunks.poll()) != null) {
+            FacebookException fatal = fetchObjects(url, reader, chunk, objects, errors);
+            if (fatal != null) {
+                // the other chunks would fail the same way
+                while ((chunk = chunks.poll()) != null) {
+                    putErrors(chunk, fatal, errors);
+                }
+            }
+        }
+    }
+
+    // a single nonexistent or inaccessible ID fails the whole request, so the IDs are split in halves until it is isolated.
+    // returns the failure if it concerns every request rather than an ID, such as throttling or an invalid access token
+    private <T> FacebookException fetchObjects(String url, ObjectMapReader<T> reader, List<String> ids,
+                                               Map<String, T> objects, Map<String, FacebookException> errors) {
+        try {
+            HttpResponse res = get(url, new HttpParameter[] {
+                    new HttpParameter("ids", z_F4JInternalStringUtil.join(ids.toArray(new String[ids.size()])))});
+            objects.putAll(reader.read(res));
+            return null;
+        } catch (FacebookException fe) {
+            if (fe.isCausedByThrottling() || fe.isCausedByAccessToken()) {
+                putErrors(ids, fe, errors);
+                return fe;
+            }
+            int errorCode = fe.getErrorCode();
+            if (ids.size() > 1 && (fe.getStatusCode() == HttpResponseCode.NOT_FOUND
+                    || errorCode == ERROR_INVALID_PARAMETER || errorCode == ERROR_ALIAS_NOT_FOUND)) {
+                int half = ids.size() / 2;
+                FacebookException fatal = fetchObjects(url, reader, ids.subList(0, half), objects, errors);
+                if (fatal != null) {
+                    putErrors(ids.subList(half, ids.size()), fatal, errors);
+                    return fatal;
+                }
+                return fetchObjects(url, reader, ids.subList(half, ids.size()), objects, errors);
+            }
+            putErrors(ids, fe, errors);
+            return null;
+        }
+    }
+
+    private static void putErrors(List<String> ids, FacebookException fe, Map<String, FacebookException> errors) {
+        for (String id : ids) {
+            errors.put(id, fe);
+        }
+    }
+
 
     /* common methods */
     
@@ -2009,20 +2294,27 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
     private ResponseList<Like> _getLikes(String objectId, Reading reading) throws FacebookException {
         return factory.createLikeList(get(buildURL(objectId, "likes", reading)));
     }
+
+    private Integer _getCount(String objectId, String connection) throws FacebookException {
+        return getSummary(objectId, connection).getTotalCount();
+    }
     
     private URL _getPictureURL(String objectId, String connection, PictureSize size) throws FacebookException {
-        String url = buildURL(objectId, connection);
-        HttpResponse res;
-        if (size != null) {
-            res = get(url, new HttpParameter[]{new HttpParameter("type", size.toString())});
-        } else {
-            res = get(url);
-        }
-        try {
-            return new URL(res.getResponseHeader("Location"));
-        } catch (MalformedURLException urle) {
-            throw new FacebookException(urle.getMessage(), urle);
-        }
+        String url = buildURL(objectId, connection) + (size != null ? "?type=" + size.toString() : "");
+        return (URL) getEntity(PICTURE, objectId, size != null ? size.name() : null, new EntityLoader(url) {
+            Object create(HttpResponse res) throws FacebookException {
+                try {
+                    return new URL(res.getResponseHeader("Location"));
+                } catch (MalformedURLException urle) {
+                    throw new FacebookException(urle.getMessage(), urle);
+                }
+            }
+
+            @Override
+            public int weigh(Object value) {
+                return weighPictureURL((URL) value);
+            }
+        });
     }
 
     private String _comment(String objectId, String message) throws FacebookException {
@@ -2088,122 +2380,374 @@ class FacebookImpl extends FacebookBaseImpl implements Facebook {
     }
 
     
+    /* entity cache */
+
+    private Object getEntity(String type, String id, Reading reading, EntityLoader loader) throws FacebookException {
+        return getEntity(type, id, reading == null ? null : reading.getQuery(), loader);
+    }
+
+    private Object getEntity(String type, String id, String query, EntityLoader loader) throws FacebookException {
+        EntityCache cache = getEntityCache();
+        long ttl = cache == null ? 0 : getEntityTTL(type);
+        if (ttl <= 0) {
+            return loader.load();
+        }
+        EntityCache.Key key = new EntityCache.Key(type, id, query, getTokenScope());
+        return cache.get(key, ttl, loader);
+    }
+
+    private long getEntityTTL(String type) {
+        Map<String, Long> ttls = entityTTLs;
+        if (ttls == null) {
+            // "user=3600,group=3600,event=300,album=600"
+            ttls = new HashMap<String, Long>();
+            String spec = conf.getEntityCacheTTLs();
+            if (spec != null) {
+                for (String ttl : spec.split(",")) {
+                    int index = ttl.indexOf('=');
+                    if (index != -1) {
+                        try {
+                            ttls.put(ttl.substring(0, index).trim(),
+                                    TimeUnit.SECONDS.toNanos(Long.parseLong(ttl.substring(index + 1).trim())));
+                        } catch (NumberFormatException ignore) {
+                        }
+                    }
+                }
+            }
+            entityTTLs = ttls;
+        }
+        Long ttl = ttls.get(type);
+        return ttl != null ? ttl : 0;
+    }
+
+    // the entries are not shared among access tokens, which may not see the same fields
+    private String getTokenScope() {
+        if (auth instanceof OAuthAuthorization) {
+            AccessToken accessToken = ((OAuthAuthorization) auth).getOAuthAccessToken();
+            if (accessToken != null) {
+                return accessToken.getToken();
+            }
+        }
+        return null;
+    }
+
+    // a write to an object, or to one of its connections, makes its cached entries obsolete
+    private void invalidateEntity(String url) {
+        EntityCache cache = getEntityCache();
+        NegativeCache negativeCache = getNegativeCache();
+        if (cache == null && negativeCache == null) {
+            return;
+        }
+        String[] path = splitPath(url);
+        if (path == null) {
+            return;
+        }
+        if (cache != null) {
+            cache.invalidate(path[0]);
+        }
+        if (negativeCache != null) {
+            negativeCache.invalidate(path[0]);
+        }
+    }
+
+    // {object id, connection or null} of a Graph API url, or null for other urls
+    private String[] splitPath(String url) {
+        String base = url.startsWith(conf.getRestBaseURL()) ? conf.getRestBaseURL()
+                : url.startsWith(conf.getVideoBaseURL()) ? conf.getVideoBaseURL() : null;
+        if (base == null) {
+            return null;
+        }
+        int start = base.length();
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+            end++;
+        }
+        if (end == start) {
+            return null;
+        }
+        if (end < url.length() && url.charAt(end) == '/' && isVersion(url.substring(start, end))) {
+            // a versioned url, such as a paging url
+            start = ++end;
+            while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+                end++;
+            }
+            if (end == start) {
+                return null;
+            }
+        }
+        String id = url.substring(start, end);
+        if (end == url.length() || url.charAt(end) == '?') {
+            return new String[]{id, null};
+        }
+        int edgeEnd = ++end;
+        while (edgeEnd < url.length() && url.charAt(edgeEnd) != '/' && url.charAt(edgeEnd) != '?') {
+            edgeEnd++;
+        }
+        return new String[]{id, edgeEnd == end ? null : url.substring(end, edgeEnd)};
+    }
+
+    // "v2.0"
+    private static boolean isVersion(String segment) {
+        if (segment.length() < 2 || segment.charAt(0) != 'v' || !Character.isDigit(segment.charAt(1))) {
+            return false;
+        }
+        for (int i = 2; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (!Character.isDigit(c) && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private abstract class EntityLoader implements EntityCache.Loader {
+        private final String url;
+        private volatile long bytes;
+
+        EntityLoader(String url) {
+            this.url = url;
+        }
+
+        public Object load() throws FacebookException {
+            HttpResponse res = get(url);
+            Object entity = create(res);
+            bytes = res.getTimings().getBytes();
+            return entity;
+        }
+
+        // parsed objects take about twice the size of their JSON form
+        public int weigh(Object value) {
+            return bytes > 0 ? (int) Math.min(Integer.MAX_VALUE / 2, bytes) * 2 : DEFAULT_ENTITY_WEIGHT;
+        }
+
+        abstract Object create(HttpResponse res) throws FacebookException;
+    }
+
     /* http methods */
     
+    // objects known to be missing or inaccessible fail without a request
     private HttpResponse get(String url) throws FacebookException {
+        String scope = getTokenScope();
+        String[] path = checkFailure(url, scope);
+        try {
+            return _get(url);
+        } catch (FacebookException fe) {
+            rememberFailure(path, scope, fe);
+            throw fe;
+        }
+    }
+
+    // the object and connection of the url if its failures are remembered, otherwise null
+    private String[] checkFailure(String url, String scope) throws FacebookException {
+        NegativeCache negativeCache = getNegativeCache();
+        String[] path = negativeCache != null ? splitPath(url) : null;
+        if (path != null) {
+            negativeCache.check(path[0], path[1], scope);
+        }
+        return path;
+    }
+
+    private void rememberFailure(String[] path, String scope, FacebookException fe) {
+        if (path != null) {
+            getNegativeCache().failed(path[0], path[1], scope, fe);
+        }
+    }
+
+    // the access token a url or the parameters carry themselves
+    private static String getTokenScope(String url, HttpParameter[] parameters) {
+        if (parameters != null) {
+            for (HttpParameter parameter : parameters) {
+                if (parameter.getName().equals("access_token")) {
+                    return parameter.getValue();
+                }
+            }
+        }
+        int query = url.indexOf('?');
+        if (query != -1) {
+            for (String param : url.substring(query + 1).split("&")) {
+                if (param.startsWith("access_token=")) {
+                    return param.substring("access_token=".length());
+                }
+            }
+        }
+        return null;
+    }
+
+    private HttpResponse _get(String url) throws FacebookException {
         if (!conf.isMBeanEnabled()) {
             return http.get(url, auth);
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
+            getMonitor().methodStarted();
             long start = System.currentTimeMillis();
             try {
                 response = http.get(url, auth);
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                FacebookAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                getMonitor().methodCalled(url, elapsedTime, isOk(response), response);
             }
             return response;
         }
     }
 
     private HttpResponse get(String url, HttpParameter[] parameters) throws FacebookException {
+        String scope = containsAccessToken(parameters) ? getTokenScope(url, parameters) : getTokenScope();
+        String[] path = checkFailure(url, scope);
+        try {
+            return _get(url, parameters);
+        } catch (FacebookException fe) {
+            rememberFailure(path, scope, fe);
+            throw fe;
+        }
+    }
+
+    private HttpResponse _get(String url, HttpParameter[] parameters) throws FacebookException {
         if (!conf.isMBeanEnabled()) {
             return http.get(url, parameters, (containsAccessToken(parameters) ? null : auth));
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
+            getMonitor().methodStarted();
             long start = System.currentTimeMillis();
             try {
                 response = http.get(url, parameters, (containsAccessToken(parameters) ? null : auth));
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                FacebookAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                getMonitor().methodCalled(url, elapsedTime, isOk(response), response);
             }
             return response;
         }
     }
 
     private HttpResponse getRaw(String url) throws FacebookException {
+        String scope = getTokenScope(url, null);
+        String[] path = checkFailure(url, scope);
+        try {
+            return _getRaw(url);
+        } catch (FacebookException fe) {
+            rememberFailure(path, scope, fe);
+            throw fe;
+        }
+    }
+
+    private HttpResponse _getRaw(String url) throws FacebookException {
         if (!conf.isMBeanEnabled()) {
             return http.get(url);
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
+            getMonitor().methodStarted();
             long start = System.currentTimeMillis();
             try {
                 response = http.get(url);
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                FacebookAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                getMonitor().methodCalled(url, elapsedTime, isOk(response), response);
             }
             return response;
         }
     }
 
     private HttpResponse post(String url) throws FacebookException {
+        try {
+            return _post(url);
+        } finally {
+            invalidateEntity(url);
+        }
+    }
+
+    private HttpResponse _post(String url) throws FacebookException {
         if (!conf.isMBeanEnabled()) {
             return http.post(url, auth);
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
+            getMonitor().methodStarted();
             long start = System.currentTimeMillis();
             try {
                 response = http.post(url, auth);
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                FacebookAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                getMonitor().methodCalled(url, elapsedTime, isOk(response), response);
             }
             return response;
         }
     }
 
     private HttpResponse post(String url, HttpParameter[] parameters) throws FacebookException {
+        try {
+            return _post(url, parameters);
+        } finally {
+            invalidateEntity(url);
+        }
+    }
+
+    private HttpResponse _post(String url, HttpParameter[] parameters) throws FacebookException {
         if (!conf.isMBeanEnabled()) {
             return http.post(url, parameters, (containsAccessToken(parameters) ? null : auth));
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
+            getMonitor().methodStarted();
             long start = System.currentTimeMillis();
             try {
                 response = http.post(url, parameters, (containsAccessToken(parameters) ? null : auth));
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                FacebookAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                getMonitor().methodCalled(url, elapsedTime, isOk(response), response);
             }
             return response;
         }
     }
 
     private HttpResponse delete(String url) throws FacebookException {
+        try {
+            return _delete(url);
+        } finally {
+            invalidateEntity(url);
+        }
+    }
+
+    private HttpResponse _delete(String url) throws FacebookException {
         if (!conf.isMBeanEnabled()) {
             return http.delete(url, auth);
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
+            getMonitor().methodStarted();
             long start = System.currentTimeMillis();
             try {
                 response = http.delete(url, auth);
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                FacebookAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                getMonitor().methodCalled(url, elapsedTime, isOk(response), response);
             }
             return response;
         }
     }
 
     private HttpResponse delete(String url, HttpParameter[] parameters) throws FacebookException {
+        try {
+            return _delete(url, parameters);
+        } finally {
+            invalidateEntity(url);
+        }
+    }
+
+    private HttpResponse _delete(String url, HttpParameter[] parameters) throws FacebookException {
         if (!conf.isMBeanEnabled()) {
             return http.delete(url, (containsAccessToken(parameters) ? null : auth));
         } else {
             // intercept HTTP call for monitoring purposes
             HttpResponse response = null;
+            getMonitor().methodStarted();
             long start = System.currentTimeMillis();
             try {
                 response = http.delete(url, parameters, (containsAccessToken(parameters) ? null : auth));
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                FacebookAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                getMonitor().methodCalled(url, elapsedTime, isOk(response), response);
             }
             return response;
         }
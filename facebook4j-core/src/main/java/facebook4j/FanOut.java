@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs independent Graph API calls concurrently and collects their results in order.<br>
+ * Facebook instances are thread safe, so a call such as
+ * <pre>
+ * List&lt;Callable&lt;User&gt;&gt; calls = ...; // facebook.getUser(id) for each id
+ * List&lt;User&gt; users = FanOut.invokeAll(FanOut.newExecutor(), calls);
+ * </pre>
+ * spends the latency of the slowest request rather than the sum of them.
+ * On Java 21 or later {@link #newExecutor()} starts a virtual thread per call, so that thousands of blocking requests
+ * do not need as many platform threads.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class FanOut {
+    private static ExecutorService defaultExecutor;
+
+    private FanOut() {
+        throw new AssertionError("not intended to be instantiated.");
+    }
+
+    /**
+     * Returns an executor starting a virtual thread per task when the runtime supports them,
+     * otherwise a cached pool of daemon threads.<br>
+     * The returned executor should be shut down once it is no longer used.
+     *
+     * @return a new executor
+     */
+    public static ExecutorService newExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception ignore) {
+            // Java 20 or earlier
+        }
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Facebook4J FanOut-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Returns the executor shared by the library for its own background work, such as prefetching pages.
+     *
+     * @return the shared executor
+     */
+    public static synchronized ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            defaultExecutor = newExecutor();
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * Runs the tasks on the executor and waits for all of them.<br>
+     * When a task fails, the remaining tasks are cancelled and its exception is rethrown.
+     *
+     * @param executor executor to run the tasks on
+     * @param tasks    tasks to run
+     * @param <T>      result type
+     * @return the results, in the order of the tasks
+     * @throws FacebookException when a task fails or the calling thread is interrupted
+     */
+    public static <T> List<T> invokeAll(Executor executor, List<? extends Callable<T>> tasks) throws FacebookException {
+        List<FutureTask<T>> futures = new ArrayList<FutureTask<T>>(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                FutureTask<T> future = new FutureTask<T>(RequestPriority.getCurrent().wrap(task));
+                futures.add(future);
+                executor.execute(future);
+            }
+            List<T> results = new ArrayList<T>(futures.size());
+            for (FutureTask<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException ee) {
+            cancel(futures);
+            Throwable cause = ee.getCause();
+            if (cause instanceof FacebookException) {
+                throw (FacebookException) cause;
+            }
+            throw new FacebookException(String.valueOf(cause.getMessage()), cause);
+        } catch (InterruptedException ie) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new FacebookException(ie);
+        } catch (RuntimeException re) {
+            // rejected by the executor
+            cancel(futures);
+            throw re;
+        }
+    }
+
+    private static void cancel(List<? extends FutureTask<?>> futures) {
+        for (FutureTask<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+}
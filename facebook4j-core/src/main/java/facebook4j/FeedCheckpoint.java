@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The high-water mark of a feed synchronized by {@link FeedSync}: the time of the newest post seen,
+ * and the posts seen within the look-back period along with the time they were last updated.<br>
+ * When a call reads fewer pages than there are new posts, the checkpoint also holds the backlog: the time of the
+ * oldest post read so far, from which the next call continues, and the high-water mark to move to once the backlog
+ * is read.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class FeedCheckpoint implements java.io.Serializable {
+    private static final long serialVersionUID = -2459473924366734916L;
+
+    private final long highWaterMark;
+    private final Map<String, Long> seen;
+    private final long backlogUntil;
+    private final long backlogHighWaterMark;
+
+    /**
+     * @param highWaterMark the time of the newest post seen, in milliseconds
+     * @param seen          the time each recent post was last updated, in milliseconds, by post id
+     */
+    public FeedCheckpoint(long highWaterMark, Map<String, Long> seen) {
+        this(highWaterMark, seen, 0, 0);
+    }
+
+    /**
+     * @param highWaterMark        the time of the newest post seen before the backlog, in milliseconds
+     * @param seen                 the time each recent post was last updated, in milliseconds, by post id
+     * @param backlogUntil         the time of the oldest post read so far, in milliseconds, or 0 if there is no backlog
+     * @param backlogHighWaterMark the time of the newest post seen, in milliseconds
+     */
+    public FeedCheckpoint(long highWaterMark, Map<String, Long> seen, long backlogUntil, long backlogHighWaterMark) {
+        this.highWaterMark = highWaterMark;
+        this.seen = Collections.unmodifiableMap(new HashMap<String, Long>(seen));
+        this.backlogUntil = backlogUntil;
+        this.backlogHighWaterMark = backlogHighWaterMark;
+    }
+
+    /**
+     * @return the time of the newest post seen, in milliseconds
+     */
+    public long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * @return the time each recent post was last updated, in milliseconds, by post id
+     */
+    public Map<String, Long> getSeen() {
+        return seen;
+    }
+
+    /**
+     * @return the time of the oldest post read so far, in milliseconds, or 0 if all posts since the high-water mark were read
+     */
+    public long getBacklogUntil() {
+        return backlogUntil;
+    }
+
+    /**
+     * @return the high-water mark once the backlog is read, in milliseconds
+     */
+    public long getBacklogHighWaterMark() {
+        return backlogHighWaterMark;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FeedCheckpoint that = (FeedCheckpoint) o;
+
+        if (highWaterMark != that.highWaterMark) return false;
+        if (!seen.equals(that.seen)) return false;
+        if (backlogUntil != that.backlogUntil) return false;
+        if (backlogHighWaterMark != that.backlogHighWaterMark) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (highWaterMark ^ (highWaterMark >>> 32));
+        result = 31 * result + seen.hashCode();
+        result = 31 * result + (int) (backlogUntil ^ (backlogUntil >>> 32));
+        result = 31 * result + (int) (backlogHighWaterMark ^ (backlogHighWaterMark >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FeedCheckpoint{" +
+                "highWaterMark=" + highWaterMark +
+                ", seen=" + seen +
+                ", backlogUntil=" + backlogUntil +
+                ", backlogHighWaterMark=" + backlogHighWaterMark +
+                '}';
+    }
+}
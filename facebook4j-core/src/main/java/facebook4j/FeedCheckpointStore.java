@@ -0,0 +1,39 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+/**
+ * Persists the checkpoints of {@link FeedSync}. Implementations must be thread safe.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ * @see FileFeedCheckpointStore
+ */
+public interface FeedCheckpointStore {
+    /**
+     * @param key the feed, such as "feed/12345"
+     * @return the checkpoint, or null if the feed has never been synchronized
+     * @throws FacebookException when the checkpoint cannot be read
+     */
+    FeedCheckpoint load(String key) throws FacebookException;
+
+    /**
+     * @param key        the feed, such as "feed/12345"
+     * @param checkpoint the checkpoint replacing the previous one
+     * @throws FacebookException when the checkpoint cannot be written
+     */
+    void save(String key, FeedCheckpoint checkpoint) throws FacebookException;
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crawls the posts of a feed published in a time range, by splitting the range into windows and paging through
+ * each window independently.<br>
+ * The next page of a feed can only be requested once the previous one is received, so that a backfill walking
+ * a single cursor is bound by the round-trip latency. Windows are paged concurrently instead:
+ * <pre>
+ * List&lt;Post&gt; posts = new FeedCrawler(facebook, pageId, since, until)
+ *         .windows(12)
+ *         .parallelism(4)
+ *         .crawl();
+ * </pre>
+ * A window still having more than {@link #maxPagesPerWindow(int)} pages is split in two, so that dense periods
+ * are spread over several workers. The posts are returned newest first, without the duplicates that adjacent
+ * windows may return on their boundary.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class FeedCrawler {
+    private final Facebook facebook;
+    private final String objectId;
+    private final long since;
+    private final long until;
+    private int windows = 8;
+    private int parallelism = 4;
+    private int maxPagesPerWindow = 5;
+    private long minWindowSeconds = 60;
+    private Integer limit;
+    private String[] fields;
+    private boolean postsOnly;
+    private Executor executor;
+    private RequestPriority priority = RequestPriority.BACKGROUND;
+
+    private final AtomicInteger pageCount = new AtomicInteger();
+    private final AtomicInteger splitCount = new AtomicInteger();
+
+    /**
+     * @param facebook Facebook instance
+     * @param objectId the ID of the user, page or group
+     * @param since    the start of the range
+     * @param until    the end of the range
+     */
+    public FeedCrawler(Facebook facebook, String objectId, Date since, Date until) {
+        if (!since.before(until)) {
+            throw new IllegalArgumentException("since must be before until");
+        }
+        this.facebook = facebook;
+        this.objectId = objectId;
+        this.since = since.getTime() / 1000;
+        this.until = until.getTime() / 1000;
+    }
+
+    /**
+     * @param windows the number of windows the range is initially split into
+     * @return this instance
+     */
+    public FeedCrawler windows(int windows) {
+        if (windows < 1) {
+            throw new IllegalArgumentException("windows must be positive");
+        }
+        this.windows = windows;
+        return this;
+    }
+
+    /**
+     * @param parallelism the maximum number of windows paged at the same time
+     * @return this instance
+     */
+    public FeedCrawler parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * @param maxPagesPerWindow the number of pages read from a window before the rest of it is split in two
+     * @return this instance
+     */
+    public FeedCrawler maxPagesPerWindow(int maxPagesPerWindow) {
+        if (maxPagesPerWindow < 1) {
+            throw new IllegalArgumentException("maxPagesPerWindow must be positive");
+        }
+        this.maxPagesPerWindow = maxPagesPerWindow;
+        return this;
+    }
+
+    /**
+     * @param minWindowSeconds windows shorter than this are paged to their end instead of being split. at least 1
+     * @return this instance
+     */
+    public FeedCrawler minWindowSeconds(long minWindowSeconds) {
+        if (minWindowSeconds < 1) {
+            throw new IllegalArgumentException("minWindowSeconds must be positive");
+        }
+        this.minWindowSeconds = minWindowSeconds;
+        return this;
+    }
+
+    /**
+     * @param limit the number of posts per page
+     * @return this instance
+     */
+    public FeedCrawler limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * @param fields the fields of the posts to return
+     * @return this instance
+     */
+    public FeedCrawler fields(String... fields) {
+        this.fields = fields;
+        return this;
+    }
+
+    /**
+     * Crawls the posts published by the owner only ({@link facebook4j.api.PostMethods#getPosts(String, Reading)})
+     * instead of the whole feed.
+     *
+     * @return this instance
+     */
+    public FeedCrawler postsOnly() {
+        this.postsOnly = true;
+        return this;
+    }
+
+    /**
+     * @param executor executor paging the windows. a shared pool of daemon threads is used by default
+     * @return this instance
+     */
+    public FeedCrawler executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @param priority the priority of the requests of the crawl. BACKGROUND by default, so that a crawl does not hold up interactive calls
+     * @return this instance
+     */
+    public FeedCrawler priority(RequestPriority priority) {
+        if (priority == null) {
+            throw new IllegalArgumentException("priority must not be null");
+        }
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * @return the number of pages read by the last crawl
+     */
+    public int getPageCount() {
+        return pageCount.get();
+    }
+
+    /**
+     * @return the number of windows split by the last crawl because they were dense
+     */
+    public int getSplitCount() {
+        return splitCount.get();
+    }
+
+    /**
+     * Crawls the range and waits for all windows.<br>
+     * When a window fails, the other windows are cancelled and its exception is rethrown.
+     *
+     * @return the posts of the range, newest first
+     * @throws FacebookException when Facebook service or network is unavailable
+     */
+    public List<Post> crawl() throws FacebookException {
+        pageCount.set(0);
+        splitCount.set(0);
+        ConcurrentMap<String, Post> posts = new ConcurrentHashMap<String, Post>();
+        List<Post> anonymousPosts = Collections.synchronizedList(new ArrayList<Post>());
+
+        LinkedList<Window> pending = new LinkedList<Window>();
+        long step = Math.max(1, (until - since + windows - 1) / windows);
+        for (long start = since; start < until; start += step) {
+            pending.add(new Window(start, Math.min(until, start + step)));
+        }
+
+        ExecutorCompletionService<List<Window>> completion = new ExecutorCompletionService<List<Window>>(
+                executor != null ? executor : FanOut.getDefaultExecutor());
+        List<Future<List<Window>>> running = new ArrayList<Future<List<Window>>>();
+        try {
+            while (!pending.isEmpty() || !running.isEmpty()) {
+                while (running.size() < parallelism && !pending.isEmpty()) {
+                    running.add(completion.submit(priority.wrap(new WindowTask(pending.removeFirst(), posts, anonymousPosts))));
+                }
+                Future<List<Window>> done = completion.take();
+                running.remove(done);
+                pending.addAll(done.get());
+            }
+        } catch (ExecutionException ee) {
+            cancel(running);
+            Throwable cause = ee.getCause();
+            if (cause instanceof FacebookException) {
+                throw (FacebookException) cause;
+            }
+            throw new FacebookException(String.valueOf(cause.getMessage()), cause);
+        } catch (InterruptedException ie) {
+            cancel(running);
+            Thread.currentThread().interrupt();
+            throw new FacebookException(ie);
+        } catch (RuntimeException re) {
+            // rejected by the executor
+            cancel(running);
+            throw re;
+        }
+
+        List<Post> result = new ArrayList<Post>(posts.size() + anonymousPosts.size());
+        result.addAll(posts.values());
+        result.addAll(anonymousPosts);
+        Collections.sort(result, NEWEST_FIRST);
+        return result;
+    }
+
+    private static void cancel(List<Future<List<Window>>> futures) {
+        for (Future<List<Window>> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private ResponseList<Post> fetchFirstPage(Window window) throws FacebookException {
+        // both bounds are inclusive on the Graph API side, adjacent windows overlap by one second
+        Reading reading = new Reading().since(String.valueOf(window.since)).until(String.valueOf(window.until));
+        if (limit != null) {
+            reading.limit(limit);
+        }
+        if (fields != null) {
+            reading.fields(fields);
+        }
+        return postsOnly ? facebook.getPosts(objectId, reading) : facebook.getFeed(objectId, reading);
+    }
+
+    private static final class Window {
+        private final long since;
+        private final long until;
+
+        private Window(long since, long until) {
+            this.since = since;
+            this.until = until;
+        }
+    }
+
+    private final class WindowTask implements Callable<List<Window>> {
+        private final Window window;
+        private final ConcurrentMap<String, Post> posts;
+        private final List<Post> anonymousPosts;
+
+        private WindowTask(Window window, ConcurrentMap<String, Post> posts, List<Post> anonymousPosts) {
+            this.window = window;
+            this.posts = posts;
+            this.anonymousPosts = anonymousPosts;
+        }
+
+        public List<Window> call() throws FacebookException {
+            ResponseList<Post> page = fetchFirstPage(window);
+            int pages = 0;
+            long oldest = window.until;
+            while (true) {
+                pages++;
+                pageCount.incrementAndGet();
+                for (Post post : page) {
+                    if (post.getId() != null) {
+                        posts.putIfAbsent(post.getId(), post);
+                    } else {
+                        anonymousPosts.add(post);
+                    }
+                    if (post.getCreatedTime() != null) {
+                        oldest = Math.min(oldest, post.getCreatedTime().getTime() / 1000);
+                    }
+                }
+                Paging<Post> paging = page.getPaging();
+                if (paging == null || paging.getNext() == null || page.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return Collections.emptyList();
+                }
+                if (pages >= maxPagesPerWindow && oldest - window.since >= minWindowSeconds * 2) {
+                    // dense window, the rest of it is paged by two workers
+                    splitCount.incrementAndGet();
+                    long middle = window.since + (oldest - window.since) / 2;
+                    List<Window> halves = new ArrayList<Window>(2);
+                    halves.add(new Window(middle, oldest));
+                    halves.add(new Window(window.since, middle));
+                    return halves;
+                }
+                page = facebook.fetchNext(paging);
+                if (page == null) {
+                    return Collections.emptyList();
+                }
+            }
+        }
+    }
+
+    private static final Comparator<Post> NEWEST_FIRST = new Comparator<Post>() {
+        public int compare(Post p1, Post p2) {
+            Date d1 = p1.getCreatedTime();
+            Date d2 = p2.getCreatedTime();
+            if (d1 == null || d2 == null) {
+                return d1 == null ? (d2 == null ? 0 : 1) : -1;
+            }
+            return d2.compareTo(d1);
+        }
+    };
+}
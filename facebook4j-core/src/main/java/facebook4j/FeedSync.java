@@ -0,0 +1,270 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Polls feeds incrementally: only the posts published since the last checkpoint of a feed are requested,
+ * and only the posts not returned by a previous call, or updated since, are returned.
+ * <pre>
+ * FeedSync sync = new FeedSync(facebook, new FileFeedCheckpointStore(new File("checkpoints")))
+ *         .lookBack(15 * 60 * 1000);
+ * for (Post post : sync.sync(FeedSync.Edge.FEED, pageId)) {
+ *     ...
+ * }
+ * </pre>
+ * Posts may show up late, or be edited after they were returned, so the feed is requested from the
+ * high-water mark minus the look-back period, and the posts of this period are remembered in the checkpoint
+ * along with their update time.<br>
+ * A call reads at most {@link #maxPages(int)} pages, newest first. When there are more, the checkpoint keeps the
+ * high-water mark and records the oldest post read, and the next call continues from there, so that no post is
+ * skipped however far behind a feed is, the first synchronization included.<br>
+ * The checkpoint is saved once the pages were read, before the posts are returned. A feed is synchronized
+ * by one caller at a time, while different feeds can be synchronized concurrently.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class FeedSync {
+    /**
+     * The connections that can be synchronized.
+     */
+    public enum Edge {
+        /** {@link facebook4j.api.PostMethods#getFeed(String, Reading)} */
+        FEED("feed"),
+        /** {@link facebook4j.api.PostMethods#getPosts(String, Reading)} */
+        POSTS("posts"),
+        /** {@link facebook4j.api.GroupMethods#getGroupFeed(String, Reading)} */
+        GROUP_FEED("groupfeed"),
+        /** {@link facebook4j.api.EventMethods#getEventFeed(String, Reading)} */
+        EVENT_FEED("eventfeed"),
+        ;
+
+        private final String name;
+
+        private Edge(String name) {
+            this.name = name;
+        }
+
+        private ResponseList<Post> fetch(Facebook facebook, String objectId, Reading reading) throws FacebookException {
+            switch (this) {
+                case POSTS:
+                    return facebook.getPosts(objectId, reading);
+                case GROUP_FEED:
+                    return facebook.getGroupFeed(objectId, reading);
+                case EVENT_FEED:
+                    return facebook.getEventFeed(objectId, reading);
+                default:
+                    return facebook.getFeed(objectId, reading);
+            }
+        }
+    }
+
+    private final Facebook facebook;
+    private final FeedCheckpointStore store;
+    private final ConcurrentMap<String, Object> locks = new ConcurrentHashMap<String, Object>();
+    private long lookBackMillis = 10 * 60 * 1000;
+    private int maxPages = 10;
+    private Integer limit;
+    private String[] fields;
+
+    /**
+     * @param facebook Facebook instance
+     * @param store    store keeping the checkpoints
+     */
+    public FeedSync(Facebook facebook, FeedCheckpointStore store) {
+        this.facebook = facebook;
+        this.store = store;
+    }
+
+    /**
+     * @param lookBackMillis the period before the high-water mark requested again to catch late and edited posts. 10 minutes by default
+     * @return this instance
+     */
+    public FeedSync lookBack(long lookBackMillis) {
+        if (lookBackMillis < 0) {
+            throw new IllegalArgumentException("lookBackMillis must not be negative");
+        }
+        this.lookBackMillis = lookBackMillis;
+        return this;
+    }
+
+    /**
+     * @param maxPages the maximum number of pages read by a call. the rest is read by the next calls. 10 by default
+     * @return this instance
+     */
+    public FeedSync maxPages(int maxPages) {
+        if (maxPages < 1) {
+            throw new IllegalArgumentException("maxPages must be positive");
+        }
+        this.maxPages = maxPages;
+        return this;
+    }
+
+    /**
+     * @param limit the number of posts per page
+     * @return this instance
+     */
+    public FeedSync limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * @param fields the fields of the posts to return. <code>updated_time</code> should be included to detect edits
+     * @return this instance
+     */
+    public FeedSync fields(String... fields) {
+        this.fields = fields;
+        return this;
+    }
+
+    /**
+     * Returns the posts of the feed that are new or were updated since the last call, newest first,
+     * and advances the checkpoint of the feed.
+     *
+     * @param edge     the connection to synchronize
+     * @param objectId the ID of the user, page, group or event
+     * @return new and updated posts
+     * @throws FacebookException when Facebook service or network is unavailable, or the checkpoint cannot be stored
+     */
+    public List<Post> sync(Edge edge, String objectId) throws FacebookException {
+        String key = getKey(edge, objectId);
+        Object lock = locks.get(key);
+        if (lock == null) {
+            Object newLock = new Object();
+            lock = locks.putIfAbsent(key, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        synchronized (lock) {
+            return doSync(edge, objectId, key);
+        }
+    }
+
+    /**
+     * @param edge     the connection
+     * @param objectId the ID of the user, page, group or event
+     * @return the key of the checkpoint of the feed in the store
+     */
+    public static String getKey(Edge edge, String objectId) {
+        return edge.name + "/" + objectId;
+    }
+
+    private List<Post> doSync(Edge edge, String objectId, String key) throws FacebookException {
+        FeedCheckpoint checkpoint = store.load(key);
+        Map<String, Long> seen = checkpoint != null ? checkpoint.getSeen() : new HashMap<String, Long>();
+        long highWaterMark = checkpoint != null ? checkpoint.getHighWaterMark() : 0;
+        long backlogUntil = checkpoint != null ? checkpoint.getBacklogUntil() : 0;
+
+        Reading reading = new Reading();
+        if (checkpoint != null) {
+            // "since" and "until" are in seconds and inclusive
+            reading.since(String.valueOf(Math.max(0, highWaterMark - lookBackMillis) / 1000));
+        }
+        if (backlogUntil != 0) {
+            reading.until(String.valueOf(backlogUntil / 1000));
+        }
+        if (limit != null) {
+            reading.limit(limit);
+        }
+        if (fields != null) {
+            reading.fields(fields);
+        }
+
+        List<Post> changed = new ArrayList<Post>();
+        Map<String, Long> nextSeen = new HashMap<String, Long>();
+        long nextHighWaterMark = backlogUntil != 0 ? checkpoint.getBacklogHighWaterMark() : highWaterMark;
+        long oldest = Long.MAX_VALUE;
+        boolean truncated = false;
+        ResponseList<Post> page = edge.fetch(facebook, objectId, reading);
+        for (int pages = 1; page != null; pages++) {
+            for (Post post : page) {
+                long created = post.getCreatedTime() != null ? post.getCreatedTime().getTime() : 0;
+                long updated = getUpdatedTime(post);
+                nextHighWaterMark = Math.max(nextHighWaterMark, created);
+                if (created != 0) {
+                    oldest = Math.min(oldest, created);
+                }
+                String id = post.getId();
+                if (id == null) {
+                    changed.add(post);
+                    continue;
+                }
+                if (nextSeen.containsKey(id)) {
+                    // moved to the next page while paging
+                    continue;
+                }
+                nextSeen.put(id, updated);
+                Long previous = seen.get(id);
+                if (previous != null ? previous < updated
+                        : checkpoint == null || updated >= highWaterMark - lookBackMillis) {
+                    changed.add(post);
+                }
+            }
+            Paging<Post> paging = page.getPaging();
+            if (page.isEmpty() || paging == null || paging.getNext() == null) {
+                break;
+            }
+            if (pages >= maxPages) {
+                truncated = true;
+                break;
+            }
+            page = facebook.fetchNext(paging);
+        }
+
+        if (truncated && oldest != Long.MAX_VALUE) {
+            // the posts of the oldest second read are requested again, unless a whole call was spent within it
+            long nextUntil = backlogUntil != 0 && oldest / 1000 >= backlogUntil / 1000 ? backlogUntil - 1000 : oldest;
+            Map<String, Long> retained = retain(seen, nextSeen, nextHighWaterMark - lookBackMillis, nextUntil / 1000 * 1000);
+            store.save(key, new FeedCheckpoint(highWaterMark, retained, nextUntil, nextHighWaterMark));
+            return changed;
+        }
+        // posts older than the next look-back period will not be requested again
+        Map<String, Long> retained = retain(seen, nextSeen, nextHighWaterMark - lookBackMillis, Long.MAX_VALUE);
+        store.save(key, new FeedCheckpoint(nextHighWaterMark, retained));
+        return changed;
+    }
+
+    // the posts that may be returned again: updated after the horizon, or seen at the boundary of the backlog
+    private static Map<String, Long> retain(Map<String, Long> seen, Map<String, Long> nextSeen, long horizon, long boundary) {
+        Map<String, Long> retained = new HashMap<String, Long>();
+        for (Map.Entry<String, Long> entry : seen.entrySet()) {
+            if (entry.getValue() >= horizon) {
+                retained.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Long> entry : nextSeen.entrySet()) {
+            if (entry.getValue() >= horizon || entry.getValue() >= boundary) {
+                retained.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return retained;
+    }
+
+    private static long getUpdatedTime(Post post) {
+        Date updated = post.getUpdatedTime() != null ? post.getUpdatedTime() : post.getCreatedTime();
+        return updated != null ? updated.getTime() : 0;
+    }
+}
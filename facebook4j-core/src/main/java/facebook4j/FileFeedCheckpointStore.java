@@ -0,0 +1,163 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Stores each checkpoint as a properties file in a directory.<br>
+ * A checkpoint is written to a temporary file which then replaces the previous one,
+ * so that a crash while saving leaves the previous checkpoint intact. Where a file cannot be renamed over another,
+ * the previous checkpoint is moved to a backup first, which is loaded if the crash happened in between.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class FileFeedCheckpointStore implements FeedCheckpointStore {
+    private static final String HIGH_WATER_MARK = "highWaterMark";
+    private static final String BACKLOG_UNTIL = "backlogUntil";
+    private static final String BACKLOG_HIGH_WATER_MARK = "backlogHighWaterMark";
+    private static final String SEEN_PREFIX = "seen.";
+    private static final String SUFFIX = ".properties";
+    private static final String BACKUP_SUFFIX = ".bak";
+
+    private final File directory;
+
+    /**
+     * @param directory the directory storing the checkpoints. created if it does not exist
+     */
+    public FileFeedCheckpointStore(File directory) {
+        this.directory = directory;
+    }
+
+    public synchronized FeedCheckpoint load(String key) throws FacebookException {
+        File file = getFile(key);
+        if (!file.exists()) {
+            file = getBackup(file);
+            if (!file.exists()) {
+                return null;
+            }
+        }
+        Properties props = new Properties();
+        InputStream is = null;
+        try {
+            is = new FileInputStream(file);
+            props.load(is);
+        } catch (IOException ioe) {
+            throw new FacebookException("Cannot read " + file, ioe);
+        } finally {
+            close(is);
+        }
+        try {
+            long highWaterMark = Long.parseLong(props.getProperty(HIGH_WATER_MARK));
+            Map<String, Long> seen = new HashMap<String, Long>();
+            for (Enumeration<?> names = props.propertyNames(); names.hasMoreElements(); ) {
+                String name = (String) names.nextElement();
+                if (name.startsWith(SEEN_PREFIX)) {
+                    seen.put(name.substring(SEEN_PREFIX.length()), Long.valueOf(props.getProperty(name)));
+                }
+            }
+            long backlogUntil = Long.parseLong(props.getProperty(BACKLOG_UNTIL, "0"));
+            long backlogHighWaterMark = Long.parseLong(props.getProperty(BACKLOG_HIGH_WATER_MARK, "0"));
+            return new FeedCheckpoint(highWaterMark, seen, backlogUntil, backlogHighWaterMark);
+        } catch (NumberFormatException nfe) {
+            throw new FacebookException("Broken checkpoint " + file, nfe);
+        }
+    }
+
+    public synchronized void save(String key, FeedCheckpoint checkpoint) throws FacebookException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new FacebookException("Cannot create " + directory);
+        }
+        Properties props = new Properties();
+        props.setProperty(HIGH_WATER_MARK, String.valueOf(checkpoint.getHighWaterMark()));
+        if (checkpoint.getBacklogUntil() != 0) {
+            props.setProperty(BACKLOG_UNTIL, String.valueOf(checkpoint.getBacklogUntil()));
+            props.setProperty(BACKLOG_HIGH_WATER_MARK, String.valueOf(checkpoint.getBacklogHighWaterMark()));
+        }
+        for (Map.Entry<String, Long> entry : checkpoint.getSeen().entrySet()) {
+            props.setProperty(SEEN_PREFIX + entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        File file = getFile(key);
+        File temp = new File(directory, file.getName() + ".tmp");
+        FileOutputStream os = null;
+        try {
+            os = new FileOutputStream(temp);
+            props.store(os, key);
+            os.getFD().sync();
+        } catch (IOException ioe) {
+            throw new FacebookException("Cannot write " + temp, ioe);
+        } finally {
+            close(os);
+        }
+        File backup = getBackup(file);
+        // renameTo does not replace an existing file on some platforms
+        if (!temp.renameTo(file)) {
+            if (file.exists()) {
+                // a backup left by an earlier save is older than the file
+                backup.delete();
+                if (!file.renameTo(backup)) {
+                    throw new FacebookException("Cannot replace " + file);
+                }
+            }
+            if (!temp.renameTo(file)) {
+                throw new FacebookException("Cannot replace " + file);
+            }
+        }
+        backup.delete();
+    }
+
+    private File getBackup(File file) {
+        return new File(directory, file.getName() + BACKUP_SUFFIX);
+    }
+
+    private File getFile(String key) {
+        try {
+            return new File(directory, URLEncoder.encode(key, "UTF-8") + SUFFIX);
+        } catch (UnsupportedEncodingException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+    }
+
+    private static void close(InputStream is) {
+        if (is != null) {
+            try {
+                is.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private static void close(OutputStream os) {
+        if (os != null) {
+            try {
+                os.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+}
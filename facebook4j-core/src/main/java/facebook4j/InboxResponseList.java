@@ -24,7 +24,7 @@ import java.util.Date;
 public interface InboxResponseList<T> extends ResponseList<T> {
     InboxResponseList.Summary getSummary();
     
-    interface Summary {
+    interface Summary extends facebook4j.Summary {
         Integer getUnseenCount();
         Integer getUnreadCount();
         Date getUpdatedTime();
@@ -23,4 +23,9 @@ import java.util.List;
  */
 public interface PagableList<T> extends List<T> {
     Paging<T> getPaging();
+
+    /**
+     * @return the summary of the connection if it was requested, otherwise null
+     */
+    Summary getSummary();
 }
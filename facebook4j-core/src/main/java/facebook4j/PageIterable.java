@@ -0,0 +1,264 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import java.net.URL;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Iterates over the elements of a paged result, fetching the following pages as needed.<br>
+ * The next page is fetched in the background while the elements of the current page are consumed,
+ * so that the network latency overlaps with the processing of the caller.
+ * <pre>
+ * for (Post post : facebook.iterate(facebook.getFeed()).maxItems(1000)) {
+ *     ...
+ * }
+ * </pre>
+ * When fetching a page fails or is interrupted, the iterator stops and throws an IllegalStateException having
+ * a FacebookException as its cause, rather than silently returning fewer elements.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ * @see FacebookBase#iterate(ResponseList)
+ */
+public final class PageIterable<T> implements Iterable<T> {
+    private final FacebookBase facebook;
+    private final ResponseList<T> firstPage;
+    private int maxPages = Integer.MAX_VALUE;
+    private int maxItems = Integer.MAX_VALUE;
+    private long timeBudgetMillis = -1;
+    private boolean prefetch = true;
+    private Executor executor;
+
+    /*package*/ PageIterable(FacebookBase facebook, ResponseList<T> firstPage) {
+        this.facebook = facebook;
+        this.firstPage = firstPage;
+    }
+
+    /**
+     * @param maxPages the maximum number of pages to read, including the first one
+     * @return this instance
+     */
+    public PageIterable<T> maxPages(int maxPages) {
+        this.maxPages = maxPages;
+        return this;
+    }
+
+    /**
+     * @param maxItems the maximum number of elements to return
+     * @return this instance
+     */
+    public PageIterable<T> maxItems(int maxItems) {
+        this.maxItems = maxItems;
+        return this;
+    }
+
+    /**
+     * Limits the iteration to the given time, like {@link #maxPages(int)} limits it to a number of pages.<br>
+     * Once the time has elapsed since the iteration started, no further page is requested, and a page still being
+     * fetched is abandoned. The elements of the pages already fetched are returned, then the iteration ends normally;
+     * {@link PageIterator#isTimeBudgetExceeded()} tells whether it ended because of the budget.
+     *
+     * @param timeBudgetMillis time budget in milliseconds
+     * @return this instance
+     */
+    public PageIterable<T> timeBudget(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        return this;
+    }
+
+    /**
+     * @param prefetch false to fetch the next page only once the current one is exhausted
+     * @return this instance
+     */
+    public PageIterable<T> prefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    /**
+     * @param executor executor fetching the next pages in the background. a shared pool of daemon threads is used by default
+     * @return this instance
+     */
+    public PageIterable<T> executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public PageIterator<T> iterator() {
+        Executor executor = this.executor;
+        if (executor == null && prefetch) {
+            executor = FanOut.getDefaultExecutor();
+        }
+        return new PageIterator<T>(this, prefetch ? executor : null);
+    }
+
+    /**
+     * An iterator over the elements of a paged result.<br>
+     * {@link #close()} should be called when the iteration is abandoned before reaching its end, to cancel the prefetch of the next page.
+     */
+    public static final class PageIterator<T> implements Iterator<T> {
+        private final FacebookBase facebook;
+        private final Executor executor;
+        private final int maxPages;
+        private final int maxItems;
+        private final long deadline;
+
+        private Iterator<T> current;
+        private Paging<T> paging;
+        private FutureTask<ResponseList<T>> nextPage;
+        private int pageCount;
+        private int itemCount;
+        private boolean closed;
+        private boolean timeBudgetExceeded;
+
+        private PageIterator(PageIterable<T> iterable, Executor executor) {
+            this.facebook = iterable.facebook;
+            this.executor = executor;
+            this.maxPages = iterable.maxPages;
+            this.maxItems = iterable.maxItems;
+            this.deadline = iterable.timeBudgetMillis < 0 ? Long.MAX_VALUE
+                    : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(iterable.timeBudgetMillis);
+            startPage(iterable.firstPage);
+        }
+
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (itemCount >= maxItems) {
+                close();
+                return false;
+            }
+            while (current == null || !current.hasNext()) {
+                if (nextPage == null) {
+                    close();
+                    return false;
+                }
+                ResponseList<T> page = awaitNextPage();
+                if (timeBudgetExceeded) {
+                    close();
+                    return false;
+                }
+                startPage(page);
+            }
+            return true;
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            itemCount++;
+            return current.next();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return the number of pages fetched so far, including the first one
+         */
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        /**
+         * @return true if pages were left unread because the time budget ran out
+         */
+        public boolean isTimeBudgetExceeded() {
+            return timeBudgetExceeded;
+        }
+
+        /**
+         * Stops the iteration and cancels the prefetch of the next page.
+         */
+        public void close() {
+            closed = true;
+            current = null;
+            if (nextPage != null) {
+                nextPage.cancel(true);
+                nextPage = null;
+            }
+        }
+
+        private void startPage(ResponseList<T> page) {
+            pageCount++;
+            current = page != null ? page.iterator() : null;
+            paging = page != null ? page.getPaging() : null;
+            nextPage = null;
+            if (paging == null || paging.getNext() == null || pageCount >= maxPages) {
+                return;
+            }
+            if (System.nanoTime() >= deadline) {
+                timeBudgetExceeded = true;
+                return;
+            }
+            final Paging<T> nextPaging = paging;
+            nextPage = new FutureTask<ResponseList<T>>(RequestPriority.getCurrent().wrap(new Callable<ResponseList<T>>() {
+                public ResponseList<T> call() throws Exception {
+                    return facebook.fetchNext(nextPaging);
+                }
+            }));
+            if (executor != null) {
+                executor.execute(nextPage);
+            }
+        }
+
+        private ResponseList<T> awaitNextPage() {
+            FutureTask<ResponseList<T>> future = nextPage;
+            nextPage = null;
+            if (executor == null) {
+                future.run();
+            }
+            try {
+                if (deadline == Long.MAX_VALUE) {
+                    return future.get();
+                }
+                return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException te) {
+                future.cancel(true);
+                timeBudgetExceeded = true;
+                return null;
+            } catch (InterruptedException ie) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw failed(new FacebookException("Interrupted while fetching " + describeNextPage(), ie));
+            } catch (ExecutionException ee) {
+                throw failed(ee.getCause());
+            }
+        }
+
+        private IllegalStateException failed(Throwable cause) {
+            close();
+            return new IllegalStateException("Failed to fetch " + describeNextPage(), cause);
+        }
+
+        // the paging URL carries the access token (and appsecret_proof), so its query is left out
+        private String describeNextPage() {
+            URL next = paging.getNext();
+            return "page " + (pageCount + 1) + " (" + next.getProtocol() + "://" + next.getHost() + next.getPath() + ")";
+        }
+    }
+}
@@ -47,6 +47,33 @@ public class Reading implements java.io.Serializable {
         return z_F4JInternalStringUtil.join(array, "&");
     }
 
+    /**
+     * Returns a field expansion of the connection, to be passed to {@link #fields(Object...)} in order to read
+     * the connection of each returned object within the same request, for example:
+     * <pre>
+     * new Reading().fields("id", "message",
+     *         Reading.edge("comments").limit(5).fields("from", "message"),
+     *         Reading.edge("likes").limit(0).summary(true))
+     * </pre>
+     *
+     * @param name connection name, such as "comments" or "likes"
+     * @return field expansion of the connection
+     * @see <a href="https://developers.facebook.com/docs/reference/api/field_expansion/">Field Expansion - Facebook Developers</a>
+     */
+    public static Edge edge(String name) {
+        return new Edge(name);
+    }
+
+    /**
+     * Selects fields and field expansions.
+     *
+     * @param fields field names as String, or field expansions as {@link Edge}
+     * @return this instance
+     */
+    public Reading fields(Object... fields) {
+        return fields(Edge.toExpressions(fields));
+    }
+
     public Reading fields(String... fields) {
         if (fields == null) {
             throw new NullPointerException("fields is null");
@@ -125,6 +152,20 @@ public class Reading implements java.io.Serializable {
         return this;
     }
 
+    /**
+     * Requests the summary of the connection, see {@link PagableList#getSummary()}.
+     * Together with <code>limit(0)</code>, only the summary is returned.
+     *
+     * @return this instance
+     */
+    public Reading summary() {
+        if (parameterMap.containsKey("summary")) {
+            throw new IllegalStateException("'summary' already sets");
+        }
+        parameterMap.put("summary", "true");
+        return this;
+    }
+
     public Reading metadata() {
         if (parameterMap.containsKey("metadata")) {
             throw new IllegalStateException("'metadata' already sets");
@@ -193,5 +234,119 @@ public class Reading implements java.io.Serializable {
     public String toString() {
         return "Reading [" + getQuery() + "]";
     }
-    
+
+    /**
+     * A field expansion: a connection read as a field of the objects returned, with its own options.
+     *
+     * @see Reading#edge(String)
+     */
+    public static final class Edge implements java.io.Serializable {
+        private static final long serialVersionUID = 6406361563117431219L;
+
+        private final String name;
+        private final Map<String, String> modifiers = new LinkedHashMap<String, String>();
+
+        private Edge(String name) {
+            if (name == null) {
+                throw new NullPointerException("name is null");
+            }
+            this.name = name;
+        }
+
+        public Edge limit(int limit) {
+            return modifier("limit", String.valueOf(limit));
+        }
+
+        public Edge since(Date datetime) {
+            if (datetime == null) {
+                throw new NullPointerException("datetime is null");
+            }
+            return modifier("since", new SimpleDateFormat(FACEBOOK_DATE_FORMAT).format(datetime));
+        }
+
+        public Edge until(Date datetime) {
+            if (datetime == null) {
+                throw new NullPointerException("datetime is null");
+            }
+            return modifier("until", new SimpleDateFormat(FACEBOOK_DATE_FORMAT).format(datetime));
+        }
+
+        /**
+         * @param summary true to get the total count of the connection, see {@link PagableList#getSummary()}
+         * @return this instance
+         */
+        public Edge summary(boolean summary) {
+            return modifier("summary", String.valueOf(summary));
+        }
+
+        /**
+         * @param fields field names as String, or nested field expansions as Edge
+         * @return this instance
+         */
+        public Edge fields(Object... fields) {
+            if (fields == null) {
+                throw new NullPointerException("fields is null");
+            }
+            String value = modifiers.get("fields");
+            String newValue = z_F4JInternalStringUtil.join(toExpressions(fields));
+            return modifier("fields", value == null ? newValue : value + "," + newValue);
+        }
+
+        private Edge modifier(String key, String value) {
+            if (!"fields".equals(key) && modifiers.containsKey(key)) {
+                throw new IllegalStateException("'" + key + "' already sets");
+            }
+            modifiers.put(key, value);
+            return this;
+        }
+
+        /**
+         * @return the expression of this expansion, e.g. <code>comments.limit(5).fields(from,message)</code>
+         */
+        public String getExpression() {
+            StringBuilder expression = new StringBuilder(name);
+            for (Map.Entry<String, String> modifier : modifiers.entrySet()) {
+                expression.append('.').append(modifier.getKey())
+                        .append('(').append(modifier.getValue()).append(')');
+            }
+            return expression.toString();
+        }
+
+        private static String[] toExpressions(Object... fields) {
+            if (fields == null) {
+                throw new NullPointerException("fields is null");
+            }
+            String[] expressions = new String[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i] instanceof Edge) {
+                    expressions[i] = ((Edge) fields[i]).getExpression();
+                } else if (fields[i] instanceof String) {
+                    expressions[i] = (String) fields[i];
+                } else {
+                    throw new IllegalArgumentException("field must be a String or an Edge: " + fields[i]);
+                }
+            }
+            return expressions;
+        }
+
+        @Override
+        public int hashCode() {
+            return getExpression().hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Edge))
+                return false;
+            return getExpression().equals(((Edge) obj).getExpression());
+        }
+
+        @Override
+        public String toString() {
+            return "Edge [" + getExpression() + "]";
+        }
+    }
+
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import java.util.concurrent.Callable;
+
+/**
+ * The priority class of Graph API calls, used by the request scheduler when requests have to wait.<br>
+ * Calls are tagged per thread: a call made while {@link #getCurrent()} is BACKGROUND waits behind the
+ * INTERACTIVE calls queued by other threads, and never takes the slots reserved for them.
+ * <pre>
+ * RequestPriority previous = RequestPriority.setCurrent(RequestPriority.BACKGROUND);
+ * try {
+ *     facebook.getFeed(pageId);
+ * } finally {
+ *     RequestPriority.setCurrent(previous);
+ * }
+ * </pre>
+ * The tasks run by {@link FanOut} and the pages prefetched by {@link PageIterable} inherit the priority of the
+ * calling thread, while {@link FeedCrawler} runs in the background unless told otherwise.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ * @see facebook4j.internal.http.RequestScheduler
+ */
+public enum RequestPriority {
+    /** User-facing calls. The default. */
+    INTERACTIVE,
+    /** Crawls, backfills and other calls nobody is waiting for. */
+    BACKGROUND,
+    ;
+
+    private static final ThreadLocal<RequestPriority> current = new ThreadLocal<RequestPriority>() {
+        @Override
+        protected RequestPriority initialValue() {
+            return INTERACTIVE;
+        }
+    };
+
+    /**
+     * @return the priority of the calls made by the current thread
+     */
+    public static RequestPriority getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Sets the priority of the calls made by the current thread.
+     *
+     * @param priority the priority, or null for INTERACTIVE
+     * @return the previous priority, to be restored afterwards
+     */
+    public static RequestPriority setCurrent(RequestPriority priority) {
+        RequestPriority previous = current.get();
+        current.set(priority != null ? priority : INTERACTIVE);
+        return previous;
+    }
+
+    // the task, run at this priority on whichever thread runs it
+    /*package*/ <T> Callable<T> wrap(final Callable<T> task) {
+        final RequestPriority priority = this;
+        return new Callable<T>() {
+            public T call() throws Exception {
+                RequestPriority previous = setCurrent(priority);
+                try {
+                    return task.call();
+                } finally {
+                    setCurrent(previous);
+                }
+            }
+        };
+    }
+}
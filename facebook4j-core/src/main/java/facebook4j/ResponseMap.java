@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Objects fetched by their IDs, keyed by ID in the order they were requested.<br>
+ * IDs that could not be fetched are not contained in the map; the reason of each is returned by {@link #getErrors()}.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class ResponseMap<T> extends LinkedHashMap<String, T> {
+    private static final long serialVersionUID = -3263578497231632473L;
+
+    private final Map<String, FacebookException> errors = new LinkedHashMap<String, FacebookException>();
+
+    /*package*/ ResponseMap() {
+    }
+
+    /**
+     * @return the IDs that could not be fetched, mapped to the errors returned for them
+     */
+    public Map<String, FacebookException> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * @return true if all the requested IDs were fetched
+     */
+    public boolean isComplete() {
+        return errors.isEmpty();
+    }
+
+    /*package*/ void putError(String id, FacebookException error) {
+        errors.put(id, error);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResponseMap)) return false;
+        return super.equals(o) && errors.equals(((ResponseMap) o).errors);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + errors.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseMap{" +
+                "objects=" + super.toString() +
+                ", errors=" + errors +
+                '}';
+    }
+}
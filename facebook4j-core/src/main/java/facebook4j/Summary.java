@@ -0,0 +1,31 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+/**
+ * The summary of a connection, returned when it is read with <code>summary=true</code>.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ * @see Reading#summary()
+ * @see Reading.Edge#summary(boolean)
+ */
+public interface Summary {
+    /**
+     * @return the total number of entries of the connection, or null if not returned
+     */
+    Integer getTotalCount();
+}
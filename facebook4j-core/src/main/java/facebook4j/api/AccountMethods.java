@@ -20,6 +20,7 @@ import facebook4j.Account;
 import facebook4j.FacebookException;
 import facebook4j.Reading;
 import facebook4j.ResponseList;
+import facebook4j.auth.AccessToken;
 
 /**
  * @author Ryuji Yamashita - roundrop at gmail.com
@@ -61,4 +62,14 @@ public interface AccountMethods {
      */
     ResponseList<Account> getAccounts(String userId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the access token of a page the current user manages.<br>
+     * The token is cached per page and user access token, and requested once when several threads need it.
+     * @param pageId the ID of a page
+     * @return page access token
+     * @throws FacebookException when Facebook service or network is unavailable, or the user does not manage the page
+     * @see <a href="https://developers.facebook.com/docs/reference/api/page/">Page - Facebook Developers</a> - Page Access Tokens
+     */
+    AccessToken getPageAccessToken(String pageId) throws FacebookException;
+
 }
@@ -169,6 +169,16 @@ public interface AlbumMethods {
      */
     ResponseList<Comment> getAlbumComments(String albumId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of comments on a album.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no comment is transferred.
+     * @param albumId the ID of a album
+     * @return the number of comments, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/album/#comments">Album#comments - Facebook Developers</a>
+     */
+    Integer getAlbumCommentsCount(String albumId) throws FacebookException;
+
     /**
      * Comments on the album.
      * @param albumId the ID of a album
@@ -199,6 +209,16 @@ public interface AlbumMethods {
      */
     ResponseList<Like> getAlbumLikes(String albumId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of likes on a album.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no like is transferred.
+     * @param albumId the ID of a album
+     * @return the number of likes, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/album/#likes">Album#likes - Facebook Developers</a>
+     */
+    Integer getAlbumLikesCount(String albumId) throws FacebookException;
+
     /**
      * Likes the album.
      * @param albumId the ID of a album
@@ -124,6 +124,16 @@ public interface CheckinMethods {
      */
     ResponseList<Comment> getCheckinComments(String checkinId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of comments on a checkin.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no comment is transferred.
+     * @param checkinId the ID of a checkin
+     * @return the number of comments, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/checkin/#comments">Checkin#comments - Facebook Developers</a>
+     */
+    Integer getCheckinCommentsCount(String checkinId) throws FacebookException;
+
     /**
      * Comments on a checkin.
      * @param checkinId the ID of a checkin
@@ -154,6 +164,16 @@ public interface CheckinMethods {
      */
     ResponseList<Like> getCheckinLikes(String checkinId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of likes on a checkin.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no like is transferred.
+     * @param checkinId the ID of a checkin
+     * @return the number of likes, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/checkin/#likes">Checkin#likes - Facebook Developers</a>
+     */
+    Integer getCheckinLikesCount(String checkinId) throws FacebookException;
+
     /**
      * Likes the checkin.
      * @param checkinId the ID of a checkin
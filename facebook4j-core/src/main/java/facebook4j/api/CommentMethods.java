@@ -64,6 +64,16 @@ public interface CommentMethods {
      */
     ResponseList<Like> getCommentLikes(String commentId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of likes on a comment.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no like is transferred.
+     * @param commentId the ID of a comment
+     * @return the number of likes, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/Comment/#likes">Comment#likes - Facebook Developers</a>
+     */
+    Integer getCommentLikesCount(String commentId) throws FacebookException;
+
     /**
      * Likes the comment.
      * @param commentId the ID of a comment
@@ -63,6 +63,16 @@ public interface LinkMethods {
      */
     ResponseList<Comment> getLinkComments(String linkId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of comments on a link.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no comment is transferred.
+     * @param linkId the ID of a link
+     * @return the number of comments, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/link/#comments">Link#comments - Facebook Developers</a>
+     */
+    Integer getLinkCommentsCount(String linkId) throws FacebookException;
+
     /**
      * Comments on the link.
      * @param linkId the ID of the link
@@ -93,6 +103,16 @@ public interface LinkMethods {
      */
     ResponseList<Like> getLinkLikes(String linkId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of likes on a link.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no like is transferred.
+     * @param linkId the ID of a link
+     * @return the number of likes, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/link/#likes">Link#likes - Facebook Developers</a>
+     */
+    Integer getLinkLikesCount(String linkId) throws FacebookException;
+
     /**
      * Likes the link.
      * @param linkId the ID of the link
@@ -125,6 +125,16 @@ public interface NoteMethods {
      */
     ResponseList<Comment> getNoteComments(String noteId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of comments on a note.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no comment is transferred.
+     * @param noteId the ID of a note
+     * @return the number of comments, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/note/#comments">Note#comments - Facebook Developers</a>
+     */
+    Integer getNoteCommentsCount(String noteId) throws FacebookException;
+
     /**
      * Comments on the note.
      * @param noteId the ID of the note
@@ -155,6 +165,16 @@ public interface NoteMethods {
      */
     ResponseList<Like> getNoteLikes(String noteId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of likes on a note.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no like is transferred.
+     * @param noteId the ID of a note
+     * @return the number of likes, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/note/#likes">Note#likes - Facebook Developers</a>
+     */
+    Integer getNoteLikesCount(String noteId) throws FacebookException;
+
     /**
      * Likes the note.
      * @param noteId the ID of the note
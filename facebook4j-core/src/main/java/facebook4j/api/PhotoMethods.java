@@ -163,6 +163,16 @@ public interface PhotoMethods {
      */
     ResponseList<Comment> getPhotoComments(String photoId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of comments on a photo.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no comment is transferred.
+     * @param photoId the ID of a photo
+     * @return the number of comments, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/photo/#comments">Photo#comments - Facebook Developers</a>
+     */
+    Integer getPhotoCommentsCount(String photoId) throws FacebookException;
+
     /**
      * Comments on the photo.
      * @param photoId the ID of the photo
@@ -193,6 +203,16 @@ public interface PhotoMethods {
      */
     ResponseList<Like> getPhotoLikes(String photoId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of likes on a photo.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no like is transferred.
+     * @param photoId the ID of a photo
+     * @return the number of likes, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/photo/#likes">Photo#likes - Facebook Developers</a>
+     */
+    Integer getPhotoLikesCount(String photoId) throws FacebookException;
+
     /**
      * Likes the photo.
      * @param photoId the ID of the photo
@@ -273,6 +273,16 @@ public interface PostMethods {
      */
     ResponseList<Comment> getPostComments(String postId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of comments on a post.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no comment is transferred.
+     * @param postId the ID of a post
+     * @return the number of comments, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/post/#comments">Post#comments - Facebook Developers</a>
+     */
+    Integer getPostCommentsCount(String postId) throws FacebookException;
+
     /**
      * Comments on the post.
      * @param postId the ID of the post
@@ -303,6 +313,16 @@ public interface PostMethods {
      */
     ResponseList<Like> getPostLikes(String postId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of likes on a post.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no like is transferred.
+     * @param postId the ID of a post
+     * @return the number of likes, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/post/#likes">Post#likes - Facebook Developers</a>
+     */
+    Integer getPostLikesCount(String postId) throws FacebookException;
+
     /**
      * Likes the post.
      * @param postId the ID of the post
@@ -22,6 +22,7 @@ import java.util.List;
 import facebook4j.FacebookException;
 import facebook4j.PictureSize;
 import facebook4j.Reading;
+import facebook4j.ResponseMap;
 import facebook4j.User;
 
 
@@ -103,7 +104,8 @@ public interface UserMethods {
     URL getPictureURL(String userId, PictureSize size) throws FacebookException;
     
     /**
-     * Returns the users specified by IDs.
+     * Returns the users specified by IDs.<br>
+     * Users that do not exist or cannot be accessed are left out; use {@link facebook4j.FacebookBase#getObjects(Class, String...)} to get the reason.
      * @param ids the IDs of users
      * @return users
      * @throws FacebookException
@@ -111,4 +113,16 @@ public interface UserMethods {
      */
     List<User> getUsers(String... ids) throws FacebookException;
 
+    /**
+     * Returns the urls of the pictures of users, pages, groups or events.<br>
+     * The urls are read 50 objects at a time with <code>?ids=...&amp;redirect=false</code>, instead of following
+     * a redirect per object, and cached along with the other entities when the entity cache is enabled.
+     * @param size {@link PictureSize picture size}, or null for the default size
+     * @param ids the IDs of the objects
+     * @return the urls keyed by ID. objects that do not exist or cannot be accessed are reported by {@link ResponseMap#getErrors()}
+     * @throws FacebookException when the calling thread is interrupted
+     * @see #getPictureURL(String, PictureSize)
+     */
+    ResponseMap<URL> getPictureURLs(PictureSize size, String... ids) throws FacebookException;
+
 }
@@ -149,6 +149,16 @@ public interface VideoMethods {
      */
     ResponseList<Like> getVideoLikes(String videoId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of likes on a video.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no like is transferred.
+     * @param videoId the ID of a video
+     * @return the number of likes, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/video/#likes">Video#likes - Facebook Developers</a>
+     */
+    Integer getVideoLikesCount(String videoId) throws FacebookException;
+
     /**
      * Likes the video.
      * @param videoId the ID of the video
@@ -187,6 +197,16 @@ public interface VideoMethods {
      */
     ResponseList<Comment> getVideoComments(String videoId, Reading reading) throws FacebookException;
 
+    /**
+     * Returns the number of comments on a video.<br>
+     * Only the summary of the connection is requested (<code>summary=true&amp;limit=0</code>), so no comment is transferred.
+     * @param videoId the ID of a video
+     * @return the number of comments, or null if not returned
+     * @throws FacebookException when Facebook service or network is unavailable
+     * @see <a href="https://developers.facebook.com/docs/reference/api/video/#comments">Video#comments - Facebook Developers</a>
+     */
+    Integer getVideoCommentsCount(String videoId) throws FacebookException;
+
     /**
      * Comments on the video.
      * @param videoId the ID of the video
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.auth;
+
+import facebook4j.FacebookException;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Caches app and page access tokens until they expire.<br>
+ * Acquisition is single-flight: when many threads need a token that is not cached, only one of them requests it
+ * and the others wait for its result. A token whose expiry is known is refreshed before it expires: the first caller
+ * past the refresh point requests a new one, while the others keep using the current token.<br>
+ * Tokens that do not expire, such as page access tokens, are cached until a request using them fails with an
+ * invalid access token, see {@link #invalidateToken(String)}.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class AccessTokenManager {
+    /**
+     * Requests a token from Facebook.
+     */
+    public interface TokenSource {
+        AccessToken fetch() throws FacebookException;
+    }
+
+    /**
+     * The time tokens expire by.
+     */
+    public interface Clock {
+        /**
+         * @return the current time in milliseconds
+         */
+        long currentTimeMillis();
+    }
+
+    /**
+     * {@link System#currentTimeMillis()}
+     */
+    public static final Clock SYSTEM_CLOCK = new Clock() {
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private static final AccessTokenManager instance = new AccessTokenManager(10000, 3600 * 1000L);
+
+    private final int maxEntries;
+    private final long maxRefreshMarginMillis;
+    private final Clock clock;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final ConcurrentMap<String, FutureTask<AccessToken>> flights = new ConcurrentHashMap<String, FutureTask<AccessToken>>();
+
+    /**
+     * @return the manager shared by all OAuthAuthorization instances
+     */
+    public static AccessTokenManager getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param maxEntries             the maximum number of cached tokens
+     * @param maxRefreshMarginMillis tokens are refreshed when a tenth of their lifetime is left, but no earlier than this before they expire
+     */
+    public AccessTokenManager(int maxEntries, long maxRefreshMarginMillis) {
+        this(maxEntries, maxRefreshMarginMillis, SYSTEM_CLOCK);
+    }
+
+    /**
+     * @param maxEntries             the maximum number of cached tokens
+     * @param maxRefreshMarginMillis tokens are refreshed when a tenth of their lifetime is left, but no earlier than this before they expire
+     * @param clock                  the time tokens expire by
+     */
+    public AccessTokenManager(int maxEntries, long maxRefreshMarginMillis, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.maxRefreshMarginMillis = maxRefreshMarginMillis;
+        this.clock = clock;
+    }
+
+    private static final class Entry {
+        private final AccessToken token;
+        private final long refreshAt;
+        private final long expiresAt;
+
+        Entry(AccessToken token, long refreshAt, long expiresAt) {
+            this.token = token;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Returns the cached token of the key, requesting it from the source if it is missing or about to expire.
+     *
+     * @param key    identifies the token, e.g. the app id
+     * @param source requests the token
+     * @return the token
+     * @throws FacebookException when the token cannot be acquired
+     */
+    public AccessToken get(final String key, final TokenSource source) throws FacebookException {
+        Entry entry = entries.get(key);
+        long now = clock.currentTimeMillis();
+        if (entry != null && now < entry.refreshAt) {
+            return entry.token;
+        }
+        boolean usable = entry != null && now < entry.expiresAt;
+        FutureTask<AccessToken> flight = new FutureTask<AccessToken>(new Callable<AccessToken>() {
+            public AccessToken call() throws Exception {
+                // another flight may have completed since the entry was read
+                Entry current = entries.get(key);
+                if (current != null && clock.currentTimeMillis() < current.refreshAt) {
+                    return current.token;
+                }
+                AccessToken token = source.fetch();
+                put(key, token);
+                return token;
+            }
+        });
+        FutureTask<AccessToken> existing = flights.putIfAbsent(key, flight);
+        if (existing == null) {
+            try {
+                flight.run();
+            } finally {
+                flights.remove(key, flight);
+            }
+            try {
+                return await(flight);
+            } catch (FacebookException fe) {
+                if (usable) {
+                    // the current token is still valid; the next caller retries the refresh
+                    return entry.token;
+                }
+                throw fe;
+            }
+        }
+        if (usable) {
+            return entry.token;
+        }
+        return await(existing);
+    }
+
+    /**
+     * Caches a token.
+     *
+     * @param key   identifies the token
+     * @param token the token. {@link AccessToken#getExpires()} is read as seconds from now, and null means it does not expire
+     */
+    public void put(String key, AccessToken token) {
+        long now = clock.currentTimeMillis();
+        long refreshAt = Long.MAX_VALUE;
+        long expiresAt = Long.MAX_VALUE;
+        if (token.getExpires() != null) {
+            long lifetime = token.getExpires() * 1000L;
+            expiresAt = now + lifetime;
+            refreshAt = expiresAt - Math.min(lifetime / 10, maxRefreshMarginMillis);
+        }
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(key, new Entry(token, refreshAt, expiresAt));
+    }
+
+    /**
+     * Drops a cached token, e.g. when Facebook has rejected it.
+     *
+     * @param key identifies the token
+     */
+    public void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drops the cached entries of a token that Facebook has rejected, whatever their key.
+     *
+     * @param token the token, as sent with the request
+     */
+    public void invalidateToken(String token) {
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            if (token.equals(iterator.next().token.getToken())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of cached tokens
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    // drops the expired tokens first, then arbitrary ones until there is room
+    private void evict(long now) {
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().expiresAt <= now) {
+                iterator.remove();
+            }
+        }
+        for (Iterator<String> iterator = entries.keySet().iterator(); iterator.hasNext() && entries.size() >= maxEntries; ) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static AccessToken await(FutureTask<AccessToken> flight) throws FacebookException {
+        try {
+            return flight.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new FacebookException("interrupted while waiting for an access token", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof FacebookException) {
+                throw (FacebookException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new FacebookException(cause.getMessage(), cause);
+        }
+    }
+}
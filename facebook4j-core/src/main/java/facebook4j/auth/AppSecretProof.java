@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.auth;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Computes <code>appsecret_proof</code>, the HMAC-SHA256 of an access token keyed with the app secret.<br>
+ * Proofs are memoized per app secret and token, and each thread keeps its own Mac, as Mac.getInstance() is expensive
+ * and a Mac is not thread-safe.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ * @see <a href="https://developers.facebook.com/docs/graph-api/securing-requests/">Securing Graph API Requests</a>
+ */
+final class AppSecretProof {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_ENTRIES = 10000;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ConcurrentMap<String, String> proofs = new ConcurrentHashMap<String, String>();
+
+    private static final ThreadLocal<Mac> mac = new ThreadLocal<Mac>() {
+        @Override
+        protected Mac initialValue() {
+            try {
+                return Mac.getInstance(ALGORITHM);
+            } catch (GeneralSecurityException gse) {
+                throw new AssertionError(gse);
+            }
+        }
+    };
+
+    private AppSecretProof() {
+        throw new AssertionError("not intended to be instantiated.");
+    }
+
+    /**
+     * @param appSecret the app secret
+     * @param token     the access token
+     * @return the proof as a lower case hex string
+     */
+    static String get(String appSecret, String token) {
+        String key = appSecret + '\n' + token;
+        String proof = proofs.get(key);
+        if (proof == null) {
+            proof = compute(appSecret, token);
+            if (proofs.size() >= MAX_ENTRIES) {
+                evict();
+            }
+            proofs.put(key, proof);
+        }
+        return proof;
+    }
+
+    /*package*/ static String compute(String appSecret, String token) {
+        try {
+            Mac hmac = mac.get();
+            hmac.init(new SecretKeySpec(appSecret.getBytes("UTF-8"), ALGORITHM));
+            byte[] digest = hmac.doFinal(token.getBytes("UTF-8"));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return new String(hex);
+        } catch (GeneralSecurityException gse) {
+            throw new IllegalStateException(gse);
+        } catch (UnsupportedEncodingException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+    }
+
+    /*package*/ static int getSize() {
+        return proofs.size();
+    }
+
+    // drops arbitrary entries until there is room
+    private static void evict() {
+        for (Iterator<String> iterator = proofs.keySet().iterator(); iterator.hasNext() && proofs.size() >= MAX_ENTRIES; ) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
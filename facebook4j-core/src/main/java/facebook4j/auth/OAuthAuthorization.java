@@ -30,7 +30,7 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
     private static final long serialVersionUID = -5790157037375431464L;
 
     private final Configuration conf;
-    private transient static HttpClientWrapper http;
+    private transient HttpClientWrapper http;
 
     private String appId = "";
     private String appSecret;
@@ -45,7 +45,6 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
      */
     public OAuthAuthorization(Configuration conf) {
         this.conf = conf;
-        http = new HttpClientWrapper(conf);
         setOAuthAppId(conf.getOAuthAppId(), conf.getOAuthAppSecret());
         if (conf.getOAuthPermissions() != null) {
             setOAuthPermissions(conf.getOAuthPermissions());
@@ -91,7 +90,7 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
 
     public AccessToken getOAuthAccessToken(String oauthCode) throws FacebookException {
         String url = getExchangeAccessTokenURL(oauthCode);
-        HttpResponse response = http.get(url);
+        HttpResponse response = getHttp().get(url);
         if (response.getStatusCode() != 200) {
             throw new FacebookException("authorization failed.");
         }
@@ -99,6 +98,14 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
         return this.oauthToken;
     }
 
+    // created lazily, as the client is not serialized
+    private synchronized HttpClientWrapper getHttp() {
+        if (http == null) {
+            http = new HttpClientWrapper(conf);
+        }
+        return http;
+    }
+
     protected String getExchangeAccessTokenURL(String oauthCode) {
         return conf.getOAuthAccessTokenURL() +
                 "?client_id=" + this.appId + 
@@ -112,13 +119,21 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
         return this.oauthToken;
     }
     
+    /**
+     * {@inheritDoc}<br>
+     * The token is shared by the instances with the same app id and secret, and requested once for all of them.
+     */
     public AccessToken getOAuthAppAccessToken() throws FacebookException {
-        String url = getAppAccessTokenURL();
-        HttpResponse response = http.get(url);
-        if (response.getStatusCode() != 200) {
-            throw new FacebookException("authorization failed.");
-        }
-        this.oauthToken = new AccessToken(response);
+        final String url = getAppAccessTokenURL();
+        this.oauthToken = AccessTokenManager.getInstance().get(url, new AccessTokenManager.TokenSource() {
+            public AccessToken fetch() throws FacebookException {
+                HttpResponse response = getHttp().get(url);
+                if (response.getStatusCode() != 200) {
+                    throw new FacebookException("authorization failed.");
+                }
+                return new AccessToken(response);
+            }
+        });
         return this.oauthToken;
     }
 
@@ -129,6 +144,19 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
                 "&grant_type=client_credentials";
     }
 
+    /**
+     * Returns the <code>appsecret_proof</code> to send along with an access token, if enabled in the configuration.
+     *
+     * @param accessToken access token
+     * @return the proof, or null if it is disabled or no app secret is set
+     */
+    public String getAppSecretProof(String accessToken) {
+        if (!conf.isAppSecretProofEnabled() || accessToken == null || appSecret == null || appSecret.length() == 0) {
+            return null;
+        }
+        return AppSecretProof.get(appSecret, accessToken);
+    }
+
     public void setOAuthAccessToken(AccessToken accessToken) {
         this.oauthToken = accessToken;
     }
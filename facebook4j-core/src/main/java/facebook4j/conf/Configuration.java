@@ -56,4 +56,24 @@ public interface Configuration extends HttpClientConfiguration
 
     boolean isMBeanEnabled();
 
+    String getMBeanName();
+
+    int getMBeanHistorySize();
+
+    int getMultiGetParallelism();
+
+    boolean isEntityCacheEnabled();
+
+    int getEntityCacheMaxWeight();
+
+    String getEntityCacheTTLs();
+
+    int getEntityCacheStaleSeconds();
+
+    int getNegativeCacheTTLSeconds();
+
+    int getNegativeCacheMaxEntries();
+
+    boolean isAppSecretProofEnabled();
+
 }
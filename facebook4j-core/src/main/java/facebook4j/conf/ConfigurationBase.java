@@ -69,6 +69,24 @@ public class ConfigurationBase implements Configuration, Serializable {
     private boolean jsonStoreEnabled;
 
     private boolean mbeanEnabled;
+    private String mbeanName;
+    private int mbeanHistorySize;
+    private int multiGetParallelism;
+    private boolean entityCacheEnabled;
+    private int entityCacheMaxWeight;
+    private String entityCacheTTLs;
+    private int entityCacheStaleSeconds;
+    private int negativeCacheTTLSeconds;
+    private int negativeCacheMaxEntries;
+    private boolean appSecretProofEnabled;
+    private int requestSchedulerMaxConcurrency;
+    private int requestSchedulerTenantConcurrency;
+    private int requestSchedulerInteractiveReserve;
+    private String httpCacheDirectory;
+    private int httpCacheMaxBytes;
+    private int httpCacheTTLSeconds;
+    private int adaptiveConcurrencyMaxLimit;
+    private int adaptiveConcurrencyInitialLimit;
 
     // hidden portion
     private String clientVersion;
@@ -135,6 +153,24 @@ public class ConfigurationBase implements Configuration, Serializable {
         setJSONStoreEnabled(false);
 
         setMBeanEnabled(false);
+        setMBeanName(null);
+        setMBeanHistorySize(100);
+        setMultiGetParallelism(4);
+        setEntityCacheEnabled(false);
+        setEntityCacheMaxWeight(16777216);
+        setEntityCacheTTLs("user=3600,group=3600,event=300,album=600,picture=3600");
+        setEntityCacheStaleSeconds(60);
+        setNegativeCacheTTLSeconds(0);
+        setNegativeCacheMaxEntries(10000);
+        setAppSecretProofEnabled(false);
+        setRequestSchedulerMaxConcurrency(0);
+        setRequestSchedulerTenantConcurrency(0);
+        setRequestSchedulerInteractiveReserve(0);
+        setHttpCacheDirectory(null);
+        setHttpCacheMaxBytes(268435456);
+        setHttpCacheTTLSeconds(300);
+        setAdaptiveConcurrencyMaxLimit(0);
+        setAdaptiveConcurrencyInitialLimit(10);
 
         setOAuthAuthorizationURL(DEFAULT_OAUTH_AUTHORIZATION_URL);
         setOAuthAccessTokenURL(DEFAULT_OAUTH_ACCESS_TOKEN_URL);
@@ -435,6 +471,150 @@ public class ConfigurationBase implements Configuration, Serializable {
         this.mbeanEnabled = enabled;
     }
 
+    public String getMBeanName() {
+        return this.mbeanName;
+    }
+
+    protected final void setMBeanName(String mbeanName) {
+        this.mbeanName = mbeanName;
+    }
+
+    public int getMBeanHistorySize() {
+        return this.mbeanHistorySize;
+    }
+
+    protected final void setMBeanHistorySize(int mbeanHistorySize) {
+        this.mbeanHistorySize = mbeanHistorySize;
+    }
+
+    public int getMultiGetParallelism() {
+        return this.multiGetParallelism;
+    }
+
+    protected final void setMultiGetParallelism(int multiGetParallelism) {
+        this.multiGetParallelism = multiGetParallelism;
+    }
+
+    public boolean isEntityCacheEnabled() {
+        return this.entityCacheEnabled;
+    }
+
+    protected final void setEntityCacheEnabled(boolean entityCacheEnabled) {
+        this.entityCacheEnabled = entityCacheEnabled;
+    }
+
+    public int getEntityCacheMaxWeight() {
+        return this.entityCacheMaxWeight;
+    }
+
+    protected final void setEntityCacheMaxWeight(int entityCacheMaxWeight) {
+        this.entityCacheMaxWeight = entityCacheMaxWeight;
+    }
+
+    public String getEntityCacheTTLs() {
+        return this.entityCacheTTLs;
+    }
+
+    protected final void setEntityCacheTTLs(String entityCacheTTLs) {
+        this.entityCacheTTLs = entityCacheTTLs;
+    }
+
+    public int getEntityCacheStaleSeconds() {
+        return this.entityCacheStaleSeconds;
+    }
+
+    protected final void setEntityCacheStaleSeconds(int entityCacheStaleSeconds) {
+        this.entityCacheStaleSeconds = entityCacheStaleSeconds;
+    }
+
+    public int getNegativeCacheTTLSeconds() {
+        return this.negativeCacheTTLSeconds;
+    }
+
+    protected final void setNegativeCacheTTLSeconds(int negativeCacheTTLSeconds) {
+        this.negativeCacheTTLSeconds = negativeCacheTTLSeconds;
+    }
+
+    public int getNegativeCacheMaxEntries() {
+        return this.negativeCacheMaxEntries;
+    }
+
+    protected final void setNegativeCacheMaxEntries(int negativeCacheMaxEntries) {
+        this.negativeCacheMaxEntries = negativeCacheMaxEntries;
+    }
+
+    public boolean isAppSecretProofEnabled() {
+        return this.appSecretProofEnabled;
+    }
+
+    protected final void setAppSecretProofEnabled(boolean appSecretProofEnabled) {
+        this.appSecretProofEnabled = appSecretProofEnabled;
+    }
+
+    public int getRequestSchedulerMaxConcurrency() {
+        return this.requestSchedulerMaxConcurrency;
+    }
+
+    protected final void setRequestSchedulerMaxConcurrency(int requestSchedulerMaxConcurrency) {
+        this.requestSchedulerMaxConcurrency = requestSchedulerMaxConcurrency;
+    }
+
+    public int getRequestSchedulerTenantConcurrency() {
+        return this.requestSchedulerTenantConcurrency;
+    }
+
+    protected final void setRequestSchedulerTenantConcurrency(int requestSchedulerTenantConcurrency) {
+        this.requestSchedulerTenantConcurrency = requestSchedulerTenantConcurrency;
+    }
+
+    public int getRequestSchedulerInteractiveReserve() {
+        return this.requestSchedulerInteractiveReserve;
+    }
+
+    protected final void setRequestSchedulerInteractiveReserve(int requestSchedulerInteractiveReserve) {
+        this.requestSchedulerInteractiveReserve = requestSchedulerInteractiveReserve;
+    }
+
+    public String getHttpCacheDirectory() {
+        return this.httpCacheDirectory;
+    }
+
+    protected final void setHttpCacheDirectory(String httpCacheDirectory) {
+        this.httpCacheDirectory = httpCacheDirectory;
+    }
+
+    public int getHttpCacheMaxBytes() {
+        return this.httpCacheMaxBytes;
+    }
+
+    protected final void setHttpCacheMaxBytes(int httpCacheMaxBytes) {
+        this.httpCacheMaxBytes = httpCacheMaxBytes;
+    }
+
+    public int getHttpCacheTTLSeconds() {
+        return this.httpCacheTTLSeconds;
+    }
+
+    protected final void setHttpCacheTTLSeconds(int httpCacheTTLSeconds) {
+        this.httpCacheTTLSeconds = httpCacheTTLSeconds;
+    }
+
+    public int getAdaptiveConcurrencyMaxLimit() {
+        return this.adaptiveConcurrencyMaxLimit;
+    }
+
+    protected final void setAdaptiveConcurrencyMaxLimit(int adaptiveConcurrencyMaxLimit) {
+        this.adaptiveConcurrencyMaxLimit = adaptiveConcurrencyMaxLimit;
+    }
+
+    public int getAdaptiveConcurrencyInitialLimit() {
+        return this.adaptiveConcurrencyInitialLimit;
+    }
+
+    protected final void setAdaptiveConcurrencyInitialLimit(int adaptiveConcurrencyInitialLimit) {
+        this.adaptiveConcurrencyInitialLimit = adaptiveConcurrencyInitialLimit;
+    }
+
     public String getOAuthPermissions() {
         return oAuthPermissions;
     }
@@ -485,6 +665,24 @@ public class ConfigurationBase implements Configuration, Serializable {
         result = 31 * result + (restBaseURL != null ? restBaseURL.hashCode() : 0);
         result = 31 * result + (jsonStoreEnabled ? 1 : 0);
         result = 31 * result + (mbeanEnabled ? 1 : 0);
+        result = 31 * result + (mbeanName != null ? mbeanName.hashCode() : 0);
+        result = 31 * result + mbeanHistorySize;
+        result = 31 * result + multiGetParallelism;
+        result = 31 * result + (entityCacheEnabled ? 1 : 0);
+        result = 31 * result + entityCacheMaxWeight;
+        result = 31 * result + (entityCacheTTLs != null ? entityCacheTTLs.hashCode() : 0);
+        result = 31 * result + entityCacheStaleSeconds;
+        result = 31 * result + negativeCacheTTLSeconds;
+        result = 31 * result + negativeCacheMaxEntries;
+        result = 31 * result + (appSecretProofEnabled ? 1 : 0);
+        result = 31 * result + requestSchedulerMaxConcurrency;
+        result = 31 * result + requestSchedulerTenantConcurrency;
+        result = 31 * result + requestSchedulerInteractiveReserve;
+        result = 31 * result + (httpCacheDirectory != null ? httpCacheDirectory.hashCode() : 0);
+        result = 31 * result + httpCacheMaxBytes;
+        result = 31 * result + httpCacheTTLSeconds;
+        result = 31 * result + adaptiveConcurrencyMaxLimit;
+        result = 31 * result + adaptiveConcurrencyInitialLimit;
         result = 31 * result + (clientVersion != null ? clientVersion.hashCode() : 0);
         result = 31 * result + (clientURL != null ? clientURL.hashCode() : 0);
         result = 31 * result + (IS_DALVIK ? 1 : 0);
@@ -513,6 +711,25 @@ public class ConfigurationBase implements Configuration, Serializable {
             return false;
         if (maxTotalConnections != that.maxTotalConnections) return false;
         if (mbeanEnabled != that.mbeanEnabled) return false;
+        if (mbeanHistorySize != that.mbeanHistorySize) return false;
+        if (multiGetParallelism != that.multiGetParallelism) return false;
+        if (entityCacheEnabled != that.entityCacheEnabled) return false;
+        if (entityCacheMaxWeight != that.entityCacheMaxWeight) return false;
+        if (entityCacheTTLs != null ? !entityCacheTTLs.equals(that.entityCacheTTLs) : that.entityCacheTTLs != null)
+            return false;
+        if (entityCacheStaleSeconds != that.entityCacheStaleSeconds) return false;
+        if (negativeCacheTTLSeconds != that.negativeCacheTTLSeconds) return false;
+        if (negativeCacheMaxEntries != that.negativeCacheMaxEntries) return false;
+        if (appSecretProofEnabled != that.appSecretProofEnabled) return false;
+        if (requestSchedulerMaxConcurrency != that.requestSchedulerMaxConcurrency) return false;
+        if (requestSchedulerTenantConcurrency != that.requestSchedulerTenantConcurrency) return false;
+        if (requestSchedulerInteractiveReserve != that.requestSchedulerInteractiveReserve) return false;
+        if (httpCacheDirectory != null ? !httpCacheDirectory.equals(that.httpCacheDirectory) : that.httpCacheDirectory != null)
+            return false;
+        if (httpCacheMaxBytes != that.httpCacheMaxBytes) return false;
+        if (httpCacheTTLSeconds != that.httpCacheTTLSeconds) return false;
+        if (adaptiveConcurrencyMaxLimit != that.adaptiveConcurrencyMaxLimit) return false;
+        if (adaptiveConcurrencyInitialLimit != that.adaptiveConcurrencyInitialLimit) return false;
         if (prettyDebug != that.prettyDebug) return false;
         if (useSSL != that.useSSL) return false;
         if (clientURL != null ? !clientURL.equals(that.clientURL) : that.clientURL != null)
@@ -525,6 +742,8 @@ public class ConfigurationBase implements Configuration, Serializable {
             return false;
         if (httpProxyUser != null ? !httpProxyUser.equals(that.httpProxyUser) : that.httpProxyUser != null)
             return false;
+        if (mbeanName != null ? !mbeanName.equals(that.mbeanName) : that.mbeanName != null)
+            return false;
         if (oAuthAccessToken != null ? !oAuthAccessToken.equals(that.oAuthAccessToken) : that.oAuthAccessToken != null)
             return false;
         if (oAuthAccessTokenURL != null ? !oAuthAccessTokenURL.equals(that.oAuthAccessTokenURL) : that.oAuthAccessTokenURL != null)
@@ -571,6 +790,24 @@ public class ConfigurationBase implements Configuration, Serializable {
                 ", oAuthAccessTokenURL='" + oAuthAccessTokenURL + '\'' +
                 ", restBaseURL='" + restBaseURL + '\'' +
                 ", mbeanEnabled=" + mbeanEnabled +
+                ", mbeanName='" + mbeanName + '\'' +
+                ", mbeanHistorySize=" + mbeanHistorySize +
+                ", multiGetParallelism=" + multiGetParallelism +
+                ", entityCacheEnabled=" + entityCacheEnabled +
+                ", entityCacheMaxWeight=" + entityCacheMaxWeight +
+                ", entityCacheTTLs='" + entityCacheTTLs + '\'' +
+                ", entityCacheStaleSeconds=" + entityCacheStaleSeconds +
+                ", negativeCacheTTLSeconds=" + negativeCacheTTLSeconds +
+                ", negativeCacheMaxEntries=" + negativeCacheMaxEntries +
+                ", appSecretProofEnabled=" + appSecretProofEnabled +
+                ", requestSchedulerMaxConcurrency=" + requestSchedulerMaxConcurrency +
+                ", requestSchedulerTenantConcurrency=" + requestSchedulerTenantConcurrency +
+                ", requestSchedulerInteractiveReserve=" + requestSchedulerInteractiveReserve +
+                ", httpCacheDirectory='" + httpCacheDirectory + '\'' +
+                ", httpCacheMaxBytes=" + httpCacheMaxBytes +
+                ", httpCacheTTLSeconds=" + httpCacheTTLSeconds +
+                ", adaptiveConcurrencyMaxLimit=" + adaptiveConcurrencyMaxLimit +
+                ", adaptiveConcurrencyInitialLimit=" + adaptiveConcurrencyInitialLimit +
                 ", clientVersion='" + clientVersion + '\'' +
                 ", clientURL='" + clientURL + '\'' +
                 ", IS_DALVIK=" + IS_DALVIK +
@@ -197,6 +197,114 @@ public final class ConfigurationBuilder {
         return this;
     }
 
+    public ConfigurationBuilder setMBeanName(String mbeanName) {
+        checkNotBuilt();
+        configurationBean.setMBeanName(mbeanName);
+        return this;
+    }
+
+    public ConfigurationBuilder setMBeanHistorySize(int mbeanHistorySize) {
+        checkNotBuilt();
+        configurationBean.setMBeanHistorySize(mbeanHistorySize);
+        return this;
+    }
+
+    public ConfigurationBuilder setMultiGetParallelism(int multiGetParallelism) {
+        checkNotBuilt();
+        configurationBean.setMultiGetParallelism(multiGetParallelism);
+        return this;
+    }
+
+    public ConfigurationBuilder setEntityCacheEnabled(boolean entityCacheEnabled) {
+        checkNotBuilt();
+        configurationBean.setEntityCacheEnabled(entityCacheEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setEntityCacheMaxWeight(int entityCacheMaxWeight) {
+        checkNotBuilt();
+        configurationBean.setEntityCacheMaxWeight(entityCacheMaxWeight);
+        return this;
+    }
+
+    public ConfigurationBuilder setEntityCacheTTLs(String entityCacheTTLs) {
+        checkNotBuilt();
+        configurationBean.setEntityCacheTTLs(entityCacheTTLs);
+        return this;
+    }
+
+    public ConfigurationBuilder setEntityCacheStaleSeconds(int entityCacheStaleSeconds) {
+        checkNotBuilt();
+        configurationBean.setEntityCacheStaleSeconds(entityCacheStaleSeconds);
+        return this;
+    }
+
+    public ConfigurationBuilder setNegativeCacheTTLSeconds(int negativeCacheTTLSeconds) {
+        checkNotBuilt();
+        configurationBean.setNegativeCacheTTLSeconds(negativeCacheTTLSeconds);
+        return this;
+    }
+
+    public ConfigurationBuilder setNegativeCacheMaxEntries(int negativeCacheMaxEntries) {
+        checkNotBuilt();
+        configurationBean.setNegativeCacheMaxEntries(negativeCacheMaxEntries);
+        return this;
+    }
+
+    public ConfigurationBuilder setAppSecretProofEnabled(boolean appSecretProofEnabled) {
+        checkNotBuilt();
+        configurationBean.setAppSecretProofEnabled(appSecretProofEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setRequestSchedulerMaxConcurrency(int requestSchedulerMaxConcurrency) {
+        checkNotBuilt();
+        configurationBean.setRequestSchedulerMaxConcurrency(requestSchedulerMaxConcurrency);
+        return this;
+    }
+
+    public ConfigurationBuilder setRequestSchedulerTenantConcurrency(int requestSchedulerTenantConcurrency) {
+        checkNotBuilt();
+        configurationBean.setRequestSchedulerTenantConcurrency(requestSchedulerTenantConcurrency);
+        return this;
+    }
+
+    public ConfigurationBuilder setRequestSchedulerInteractiveReserve(int requestSchedulerInteractiveReserve) {
+        checkNotBuilt();
+        configurationBean.setRequestSchedulerInteractiveReserve(requestSchedulerInteractiveReserve);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpCacheDirectory(String httpCacheDirectory) {
+        checkNotBuilt();
+        configurationBean.setHttpCacheDirectory(httpCacheDirectory);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpCacheMaxBytes(int httpCacheMaxBytes) {
+        checkNotBuilt();
+        configurationBean.setHttpCacheMaxBytes(httpCacheMaxBytes);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpCacheTTLSeconds(int httpCacheTTLSeconds) {
+        checkNotBuilt();
+        configurationBean.setHttpCacheTTLSeconds(httpCacheTTLSeconds);
+        return this;
+    }
+
+    public ConfigurationBuilder setAdaptiveConcurrencyMaxLimit(int adaptiveConcurrencyMaxLimit) {
+        checkNotBuilt();
+        configurationBean.setAdaptiveConcurrencyMaxLimit(adaptiveConcurrencyMaxLimit);
+        return this;
+    }
+
+    public ConfigurationBuilder setAdaptiveConcurrencyInitialLimit(int adaptiveConcurrencyInitialLimit) {
+        checkNotBuilt();
+        configurationBean.setAdaptiveConcurrencyInitialLimit(adaptiveConcurrencyInitialLimit);
+        return this;
+    }
+
     public Configuration build() {
         checkNotBuilt();
         configurationBean.cacheInstance();
@@ -73,6 +73,24 @@ public final class PropertyConfiguration extends ConfigurationBase implements Se
 
     public static final String JSON_STORE_ENABLED = "jsonStoreEnabled";
     public static final String MBEAN_ENABLED = "mbeanEnabled";
+    public static final String MBEAN_NAME = "mbeanName";
+    public static final String MBEAN_HISTORY_SIZE = "mbeanHistorySize";
+    public static final String MULTI_GET_PARALLELISM = "multiGetParallelism";
+    public static final String ENTITY_CACHE_ENABLED = "entityCacheEnabled";
+    public static final String ENTITY_CACHE_MAX_WEIGHT = "entityCacheMaxWeight";
+    public static final String ENTITY_CACHE_TTLS = "entityCacheTTLs";
+    public static final String ENTITY_CACHE_STALE_SECONDS = "entityCacheStaleSeconds";
+    public static final String NEGATIVE_CACHE_TTL_SECONDS = "negativeCacheTTLSeconds";
+    public static final String NEGATIVE_CACHE_MAX_ENTRIES = "negativeCacheMaxEntries";
+    public static final String APP_SECRET_PROOF_ENABLED = "appSecretProofEnabled";
+    public static final String REQUEST_SCHEDULER_MAX_CONCURRENCY = "requestSchedulerMaxConcurrency";
+    public static final String REQUEST_SCHEDULER_TENANT_CONCURRENCY = "requestSchedulerTenantConcurrency";
+    public static final String REQUEST_SCHEDULER_INTERACTIVE_RESERVE = "requestSchedulerInteractiveReserve";
+    public static final String HTTP_CACHE_DIRECTORY = "httpCacheDirectory";
+    public static final String HTTP_CACHE_MAX_BYTES = "httpCacheMaxBytes";
+    public static final String HTTP_CACHE_TTL_SECONDS = "httpCacheTTLSeconds";
+    public static final String ADAPTIVE_CONCURRENCY_MAX_LIMIT = "adaptiveConcurrencyMaxLimit";
+    public static final String ADAPTIVE_CONCURRENCY_INITIAL_LIMIT = "adaptiveConcurrencyInitialLimit";
 
     // hidden portion
     public static final String CLIENT_VERSION = "clientVersion";
@@ -300,6 +318,60 @@ public final class PropertyConfiguration extends ConfigurationBase implements Se
         if (notNull(props, prefix, MBEAN_ENABLED)) {
             setMBeanEnabled(getBoolean(props, prefix, MBEAN_ENABLED));
         }
+        if (notNull(props, prefix, MBEAN_NAME)) {
+            setMBeanName(getString(props, prefix, MBEAN_NAME));
+        }
+        if (notNull(props, prefix, MBEAN_HISTORY_SIZE)) {
+            setMBeanHistorySize(getIntProperty(props, prefix, MBEAN_HISTORY_SIZE));
+        }
+        if (notNull(props, prefix, MULTI_GET_PARALLELISM)) {
+            setMultiGetParallelism(getIntProperty(props, prefix, MULTI_GET_PARALLELISM));
+        }
+        if (notNull(props, prefix, ENTITY_CACHE_ENABLED)) {
+            setEntityCacheEnabled(getBoolean(props, prefix, ENTITY_CACHE_ENABLED));
+        }
+        if (notNull(props, prefix, ENTITY_CACHE_MAX_WEIGHT)) {
+            setEntityCacheMaxWeight(getIntProperty(props, prefix, ENTITY_CACHE_MAX_WEIGHT));
+        }
+        if (notNull(props, prefix, ENTITY_CACHE_TTLS)) {
+            setEntityCacheTTLs(getString(props, prefix, ENTITY_CACHE_TTLS));
+        }
+        if (notNull(props, prefix, ENTITY_CACHE_STALE_SECONDS)) {
+            setEntityCacheStaleSeconds(getIntProperty(props, prefix, ENTITY_CACHE_STALE_SECONDS));
+        }
+        if (notNull(props, prefix, NEGATIVE_CACHE_TTL_SECONDS)) {
+            setNegativeCacheTTLSeconds(getIntProperty(props, prefix, NEGATIVE_CACHE_TTL_SECONDS));
+        }
+        if (notNull(props, prefix, NEGATIVE_CACHE_MAX_ENTRIES)) {
+            setNegativeCacheMaxEntries(getIntProperty(props, prefix, NEGATIVE_CACHE_MAX_ENTRIES));
+        }
+        if (notNull(props, prefix, APP_SECRET_PROOF_ENABLED)) {
+            setAppSecretProofEnabled(getBoolean(props, prefix, APP_SECRET_PROOF_ENABLED));
+        }
+        if (notNull(props, prefix, REQUEST_SCHEDULER_MAX_CONCURRENCY)) {
+            setRequestSchedulerMaxConcurrency(getIntProperty(props, prefix, REQUEST_SCHEDULER_MAX_CONCURRENCY));
+        }
+        if (notNull(props, prefix, REQUEST_SCHEDULER_TENANT_CONCURRENCY)) {
+            setRequestSchedulerTenantConcurrency(getIntProperty(props, prefix, REQUEST_SCHEDULER_TENANT_CONCURRENCY));
+        }
+        if (notNull(props, prefix, REQUEST_SCHEDULER_INTERACTIVE_RESERVE)) {
+            setRequestSchedulerInteractiveReserve(getIntProperty(props, prefix, REQUEST_SCHEDULER_INTERACTIVE_RESERVE));
+        }
+        if (notNull(props, prefix, HTTP_CACHE_DIRECTORY)) {
+            setHttpCacheDirectory(getString(props, prefix, HTTP_CACHE_DIRECTORY));
+        }
+        if (notNull(props, prefix, HTTP_CACHE_MAX_BYTES)) {
+            setHttpCacheMaxBytes(getIntProperty(props, prefix, HTTP_CACHE_MAX_BYTES));
+        }
+        if (notNull(props, prefix, HTTP_CACHE_TTL_SECONDS)) {
+            setHttpCacheTTLSeconds(getIntProperty(props, prefix, HTTP_CACHE_TTL_SECONDS));
+        }
+        if (notNull(props, prefix, ADAPTIVE_CONCURRENCY_MAX_LIMIT)) {
+            setAdaptiveConcurrencyMaxLimit(getIntProperty(props, prefix, ADAPTIVE_CONCURRENCY_MAX_LIMIT));
+        }
+        if (notNull(props, prefix, ADAPTIVE_CONCURRENCY_INITIAL_LIMIT)) {
+            setAdaptiveConcurrencyInitialLimit(getIntProperty(props, prefix, ADAPTIVE_CONCURRENCY_INITIAL_LIMIT));
+        }
         cacheInstance();
     }
 
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A response served from the {@link DiskResponseCache} instead of the network.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+final class CachedHttpResponse extends HttpResponse {
+    private final DiskResponseCache.Entry entry;
+
+    CachedHttpResponse(HttpClientConfiguration conf, DiskResponseCache.Entry entry) {
+        super(conf);
+        this.entry = entry;
+        this.statusCode = HttpResponseCode.OK;
+        this.is = new ByteArrayInputStream(entry.getBody());
+    }
+
+    @Override
+    public String getResponseHeader(String name) {
+        return "ETag".equalsIgnoreCase(name) ? entry.getETag() : null;
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaderFields() {
+        Map<String, List<String>> fields = new HashMap<String, List<String>>();
+        if (entry.getETag() != null) {
+            fields.put("ETag", Collections.singletonList(entry.getETag()));
+        }
+        return fields;
+    }
+
+    @Override
+    public void disconnect() {
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import facebook4j.conf.Configuration;
+import facebook4j.management.ConcurrencyLimitStatistics;
+import facebook4j.management.EndpointLimitStatistics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits the number of concurrent requests per endpoint, adapting the limit to the observed round-trip time
+ * instead of a hand-tuned pool size.<br>
+ * The limit of an endpoint is raised by one per round trip (additive increase) while its requests use at least
+ * half of it and the smoothed round-trip time stays within twice the one measured without load. It is cut by 10%
+ * when latency inflates beyond that, and halved on 5xx, throttling and time-out responses (multiplicative
+ * decrease). After a cut, the responses of the requests that were already running are not counted again.<br>
+ * Endpoints are grouped by method and {@link EndpointClassifier} template. The round-trip time is measured from
+ * the request being sent to the response headers, so that neither connecting nor uploading counts as latency,
+ * and requests over the limit wait for a running one to complete.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class ConcurrencyLimiter implements ConcurrencyLimitStatistics.Source {
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 2.0;
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double OVERLOAD_BACKOFF = 0.5;
+    // the round-trip time without load is the minimum of the last this many samples, so that an endpoint that
+    // became slower for good is not held at the minimum limit
+    private static final int MIN_RTT_SAMPLES = 1000;
+
+    // by app and settings, not by configuration, which differs by access token
+    private static final Map<String, ConcurrencyLimiter> instances = new HashMap<String, ConcurrencyLimiter>();
+
+    private final int initialLimit;
+    private final int maxLimit;
+    private final ConcurrencyLimitStatistics statistics;
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<String, Endpoint>();
+
+    /**
+     * @param conf configuration
+     * @return the limiter shared by the clients of the app and settings of the configuration,
+     *         or null if requests are not limited
+     */
+    public static ConcurrencyLimiter getInstance(HttpClientConfiguration conf) {
+        if (conf.getAdaptiveConcurrencyMaxLimit() <= 0) {
+            return null;
+        }
+        String key = (conf instanceof Configuration
+                ? ((Configuration) conf).getOAuthAppId() + "@" + ((Configuration) conf).getRestBaseURL() : "")
+                + "/" + conf.getAdaptiveConcurrencyInitialLimit() + "/" + conf.getAdaptiveConcurrencyMaxLimit();
+        synchronized (instances) {
+            ConcurrencyLimiter limiter = instances.get(key);
+            if (limiter == null) {
+                limiter = new ConcurrencyLimiter(conf.getAdaptiveConcurrencyInitialLimit(),
+                        conf.getAdaptiveConcurrencyMaxLimit());
+                instances.put(key, limiter);
+            }
+            return limiter;
+        }
+    }
+
+    /**
+     * @param initialLimit the limit of an endpoint before any request completes
+     * @param maxLimit     the highest limit an endpoint may reach
+     */
+    public ConcurrencyLimiter(int initialLimit, int maxLimit) {
+        if (maxLimit <= 0) {
+            throw new IllegalArgumentException("maxLimit must be positive: " + maxLimit);
+        }
+        this.initialLimit = Math.max(1, Math.min(initialLimit, maxLimit));
+        this.maxLimit = maxLimit;
+        this.statistics = new ConcurrencyLimitStatistics("limiter", this);
+    }
+
+    private final class Endpoint {
+        private final String name;
+        // guarded by this
+        private double limit = initialLimit;
+        private int inFlight = 0;
+        private long completedCount = 0;
+        // responses completed up to this count were requested before the last cut
+        private long decreasableAt = 0;
+        private double smoothedRttNanos = 0;
+        private long minRttNanos = 0;
+        // the minimum of the samples since minRttNanos was last replaced
+        private long nextMinRttNanos = 0;
+        private int minRttSamples = 0;
+        private long increaseCount = 0;
+        private long decreaseCount = 0;
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        void sample(long rttNanos, int inFlightAtStart) {
+            smoothedRttNanos = smoothedRttNanos == 0 ? rttNanos : smoothedRttNanos + (rttNanos - smoothedRttNanos) * SMOOTHING;
+            if (minRttNanos == 0 || rttNanos < minRttNanos) {
+                minRttNanos = rttNanos;
+            }
+            if (nextMinRttNanos == 0 || rttNanos < nextMinRttNanos) {
+                nextMinRttNanos = rttNanos;
+            }
+            if (++minRttSamples >= MIN_RTT_SAMPLES) {
+                minRttNanos = nextMinRttNanos;
+                nextMinRttNanos = 0;
+                minRttSamples = 0;
+            }
+            if (smoothedRttNanos > minRttNanos * TOLERANCE) {
+                decrease(LATENCY_BACKOFF);
+            } else if (inFlightAtStart * 2 >= limit && limit < maxLimit) {
+                // +1 once a full limit of requests completed, that is about once per round trip
+                limit = Math.min(maxLimit, limit + 1 / limit);
+                increaseCount++;
+            }
+        }
+
+        void decrease(double backoff) {
+            if (completedCount <= decreasableAt) {
+                return;
+            }
+            limit = Math.max(1, limit * backoff);
+            decreasableAt = completedCount + inFlight;
+            decreaseCount++;
+        }
+    }
+
+    /**
+     * The permission of a request to run, to be passed to {@link ConcurrencyLimiter#release(Permit)} once its
+     * response headers are received or it fails.
+     */
+    public static final class Permit {
+        private final Endpoint endpoint;
+        private final int inFlightAtStart;
+        private long rttNanos = -1;
+        private boolean overloaded = false;
+
+        private Permit(Endpoint endpoint, int inFlightAtStart) {
+            this.endpoint = endpoint;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Reports a successful response.
+         *
+         * @param rttNanos the time from the request being sent to the response headers
+         */
+        public void measured(long rttNanos) {
+            this.rttNanos = rttNanos;
+        }
+
+        /**
+         * Reports a response telling the endpoint is overloaded: a 5xx, throttling or time-out.
+         */
+        public void overloaded() {
+            this.overloaded = true;
+        }
+    }
+
+    /**
+     * Waits until a request to the endpoint may run.
+     *
+     * @param endpoint the method and endpoint template, see {@link #getEndpoint(HttpRequest)}
+     * @return the permit to release when the request completes
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public Permit acquire(String endpoint) throws InterruptedException {
+        Endpoint target = getEndpoint(endpoint);
+        synchronized (target) {
+            while (target.inFlight >= (int) target.limit) {
+                target.wait();
+            }
+            target.inFlight++;
+            return new Permit(target, target.inFlight);
+        }
+    }
+
+    /**
+     * Frees the slot of a request and adapts the limit of its endpoint to the outcome reported to the permit.
+     * Requests reported neither measured nor overloaded, such as client errors, leave the limit as is.
+     *
+     * @param permit the permit returned by {@link #acquire(String)}
+     */
+    public void release(Permit permit) {
+        Endpoint endpoint = permit.endpoint;
+        synchronized (endpoint) {
+            endpoint.inFlight--;
+            endpoint.completedCount++;
+            if (permit.overloaded) {
+                endpoint.decrease(OVERLOAD_BACKOFF);
+            } else if (permit.rttNanos >= 0) {
+                endpoint.sample(permit.rttNanos, permit.inFlightAtStart);
+            }
+            endpoint.notifyAll();
+        }
+    }
+
+    /**
+     * @param req request
+     * @return the endpoint of the request: its method and {@link EndpointClassifier} template, e.g. "GET {id}/feed"
+     */
+    public static String getEndpoint(HttpRequest req) {
+        return req.getMethod().name() + " " + EndpointClassifier.classify(req.getURL());
+    }
+
+    public ConcurrencyLimitStatistics getStatistics() {
+        return statistics;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * @param endpoint the endpoint template
+     * @return the number of requests to the endpoint currently let run at once
+     */
+    public int getLimit(String endpoint) {
+        Endpoint target = getEndpoint(endpoint);
+        synchronized (target) {
+            return (int) target.limit;
+        }
+    }
+
+    public List<EndpointLimitStatistics> getEndpointLimitStatistics() {
+        List<EndpointLimitStatistics> list = new ArrayList<EndpointLimitStatistics>(endpoints.size());
+        for (Endpoint endpoint : endpoints.values()) {
+            synchronized (endpoint) {
+                list.add(new EndpointLimitStatistics(endpoint.name, (int) endpoint.limit, endpoint.inFlight,
+                        (long) endpoint.smoothedRttNanos, endpoint.minRttNanos,
+                        endpoint.increaseCount, endpoint.decreaseCount));
+            }
+        }
+        return list;
+    }
+
+    private Endpoint getEndpoint(String name) {
+        Endpoint endpoint = endpoints.get(name);
+        if (endpoint == null) {
+            Endpoint created = new Endpoint(name);
+            endpoint = endpoints.putIfAbsent(name, created);
+            if (endpoint == null) {
+                endpoint = created;
+            }
+        }
+        return endpoint;
+    }
+}
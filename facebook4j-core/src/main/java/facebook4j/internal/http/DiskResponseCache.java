@@ -0,0 +1,988 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import facebook4j.FanOut;
+import facebook4j.internal.logging.Logger;
+import facebook4j.management.CacheStatistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+
+/**
+ * A response cache kept on local disk, so that it survives restarts.<br>
+ * Responses are appended to segment files which are memory-mapped for reads. The index of
+ * key to (segment, offset, length, expiry) lives off-heap in a direct buffer; etags and bodies stay in the
+ * segments until an entry is requested.<br>
+ * On the first access after a start, the record headers are scanned to rebuild the index. Records carry a CRC32:
+ * a record torn by a crash at the tail of the last segment is cut off, and a corrupt record is dropped when read.
+ * The oldest segment is compacted when most of it is dead, and dropped when the cache grows beyond its maximum size.
+ * This runs in the background once a segment is sealed, a batch of records at a time, so the cache may exceed
+ * the maximum by about one segment until it catches up.<br>
+ * Hits are copied out of the segment under the lock, and their digest and CRC are checked outside of it.
+ * Invalidations find the responses of an object through an index by object id, and their tombstones are
+ * forced to disk before returning, so that an invalidated response does not come back after a crash.<br>
+ * Keys are stored as SHA-256 digests only, so the access tokens in URLs are not written to disk. Bodies are stored
+ * as is, which is why responses that carry tokens must not be cached, see {@link #isCacheable(String)}.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class DiskResponseCache implements CacheStatistics.SizeSource {
+    private static final Logger logger = Logger.getLogger(DiskResponseCache.class);
+
+    private static final int MAGIC = 0x46344a43;
+    // record: magic, key digest, tag, expiresAt, etag length, body length, etag, body, crc32
+    private static final int KEY_OFFSET = 4;
+    private static final int KEY_LENGTH = 32;
+    private static final int TAG_OFFSET = KEY_OFFSET + KEY_LENGTH;
+    private static final int EXPIRES_AT_OFFSET = TAG_OFFSET + 8;
+    private static final int ETAG_LENGTH_OFFSET = EXPIRES_AT_OFFSET + 8;
+    private static final int BODY_LENGTH_OFFSET = ETAG_LENGTH_OFFSET + 4;
+    private static final int HEADER_SIZE = BODY_LENGTH_OFFSET + 4;
+    private static final int CRC_SIZE = 4;
+    // tombstones carry the 64 bit key hash only
+    private static final int TOMBSTONE = -1;
+
+    private static final int MIN_SEGMENT_SIZE = 4096;
+    private static final int MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final byte[] EMPTY = new byte[0];
+    // records moved or dropped per lock acquisition while reclaiming a segment
+    private static final int RECLAIM_BATCH = 256;
+
+    private static final Map<File, DiskResponseCache> instances = new HashMap<File, DiskResponseCache>();
+
+    private final File directory;
+    private final long maxBytes;
+    private final int segmentSize;
+    private final CacheStatistics statistics;
+    private final Executor reclaimer;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+    // key hashes by object tag, so that invalidation does not scan the index
+    private final Map<Long, Set<Long>> keysByTag = new HashMap<Long, Set<Long>>();
+    private Index index;
+    private Segment active;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private boolean opened = false;
+    private boolean failed = false;
+    private boolean reclaimScheduled = false;
+    private long totalBytes = 0;
+
+    /**
+     * Returns the cache shared by all clients using the given directory.
+     *
+     * @param directory the cache directory, created on the first access
+     * @param maxBytes  the maximum size of the cache in bytes
+     * @return the cache
+     */
+    public static synchronized DiskResponseCache getInstance(File directory, long maxBytes) {
+        File key = directory.getAbsoluteFile();
+        DiskResponseCache cache = instances.get(key);
+        if (cache == null) {
+            cache = new DiskResponseCache(key, maxBytes);
+            instances.put(key, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * @param directory the cache directory, created on the first access
+     * @param maxBytes  the maximum size of the cache in bytes
+     */
+    public DiskResponseCache(File directory, long maxBytes) {
+        this(directory, maxBytes, FanOut.getDefaultExecutor());
+    }
+
+    /**
+     * @param directory the cache directory, created on the first access
+     * @param maxBytes  the maximum size of the cache in bytes
+     * @param reclaimer executor compacting and dropping old segments
+     */
+    public DiskResponseCache(File directory, long maxBytes, Executor reclaimer) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentSize = (int) Math.max(MIN_SEGMENT_SIZE, Math.min(MAX_SEGMENT_SIZE, maxBytes / 8));
+        this.statistics = new CacheStatistics("http", this);
+        this.reclaimer = reclaimer;
+    }
+
+    /**
+     * A cached response.
+     */
+    public static final class Entry {
+        private final String etag;
+        private final byte[] body;
+        private final long expiresAt;
+
+        Entry(String etag, byte[] body, long expiresAt) {
+            this.etag = etag;
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * @return the etag of the response, or null
+         */
+        public String getETag() {
+            return etag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        /**
+         * @return true if the response has to be revalidated before use
+         */
+        public boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Returns the cached response of the URL, expired or not.
+     *
+     * @param url the request URL
+     * @return the cached response, or null
+     */
+    public Entry get(String url) {
+        byte[] digest = digest(url);
+        long keyHash = keyHash(digest);
+        Segment segment;
+        int offset;
+        long expiresAt;
+        byte[] record;
+        synchronized (this) {
+            if (!open()) {
+                return null;
+            }
+            int slot = index.find(keyHash);
+            if (slot == -1) {
+                statistics.miss();
+                return null;
+            }
+            segment = segments.get(index.getSegment(slot));
+            offset = index.getOffset(slot);
+            expiresAt = index.getExpiresAt(slot);
+            record = new byte[index.getLength(slot)];
+            try {
+                ByteBuffer buf = segment.map(offset + record.length).duplicate();
+                buf.position(offset);
+                buf.get(record);
+            } catch (IOException ioe) {
+                logger.warn("Failed to read the response cache: ", ioe.getMessage());
+                statistics.miss();
+                return null;
+            }
+        }
+        ByteBuffer buf = ByteBuffer.wrap(record);
+        if (checkRecord(buf, 0, record.length, true) != record.length || !digestEquals(buf, 0, digest)) {
+            logger.warn("Dropping a corrupt record in ", segment.file.getName());
+            drop(keyHash, segment.id, offset);
+            statistics.miss();
+            return null;
+        }
+        int etagLength = buf.getInt(ETAG_LENGTH_OFFSET);
+        int bodyLength = buf.getInt(BODY_LENGTH_OFFSET);
+        byte[] body = new byte[bodyLength];
+        System.arraycopy(record, HEADER_SIZE + etagLength, body, 0, bodyLength);
+        Entry entry;
+        try {
+            entry = new Entry(etagLength == 0 ? null : new String(record, HEADER_SIZE, etagLength, "UTF-8"), body, expiresAt);
+        } catch (UnsupportedEncodingException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+        if (entry.isExpired()) {
+            statistics.staleHit();
+        } else {
+            statistics.hit();
+        }
+        return entry;
+    }
+
+    // removes the record unless it was replaced in the meantime
+    private synchronized void drop(long keyHash, int segment, int offset) {
+        if (!opened) {
+            return;
+        }
+        int slot = index.find(keyHash);
+        if (slot != -1 && index.getSegment(slot) == segment && index.getOffset(slot) == offset) {
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * Stores a response, replacing the previous one of the URL.
+     *
+     * @param url       the request URL
+     * @param etag      the etag of the response, or null
+     * @param body      the response body
+     * @param expiresAt the time the response has to be revalidated, in milliseconds
+     */
+    public synchronized void put(String url, String etag, byte[] body, long expiresAt) {
+        if (!open()) {
+            return;
+        }
+        byte[] etagBytes = etag == null ? EMPTY : toUTF8(etag);
+        if (recordLength(etagBytes.length, body.length) > maxBytes / 2) {
+            return;
+        }
+        byte[] digest = digest(url);
+        try {
+            ByteBuffer record = encode(digest, tagOf(objectIdOf(url)), expiresAt, etagBytes, body);
+            int length = record.remaining();
+            int offset = append(record);
+            link(keyHash(digest), tagOf(objectIdOf(url)), active, offset, length, expiresAt);
+        } catch (IOException ioe) {
+            logger.warn("Failed to write the response cache: ", ioe.getMessage());
+        }
+    }
+
+    /**
+     * Removes the responses of an object and its connections, e.g. of "123", "123/feed" and "v2.0/123/likes".<br>
+     * Responses of requests for several ids at once are not removed, and expire with their TTL.
+     *
+     * @param objectId the object id
+     */
+    public synchronized void invalidate(String objectId) {
+        if (objectId == null || !open()) {
+            return;
+        }
+        long tag = tagOf(objectId);
+        Set<Long> keys = keysByTag.get(tag);
+        if (keys == null) {
+            return;
+        }
+        long[] keyHashes = new long[keys.size()];
+        int i = 0;
+        for (long keyHash : keys) {
+            keyHashes[i++] = keyHash;
+        }
+        try {
+            for (long keyHash : keyHashes) {
+                byte[] key = new byte[KEY_LENGTH];
+                ByteBuffer.wrap(key).putLong(keyHash);
+                append(encode(key, tag, 0, EMPTY, null));
+            }
+            // a lost data record is a miss, a lost tombstone would serve the stale response again
+            active.channel.force(false);
+            for (long keyHash : keyHashes) {
+                int slot = index.find(keyHash);
+                if (slot != -1) {
+                    removeSlot(slot);
+                    statistics.invalidated();
+                }
+            }
+        } catch (IOException ioe) {
+            logger.warn("Failed to write the response cache: ", ioe.getMessage());
+        }
+    }
+
+    /**
+     * Flushes the cache to disk and releases the directory. The cache is reopened on the next access.
+     */
+    public synchronized void close() {
+        if (!opened) {
+            return;
+        }
+        try {
+            active.channel.force(true);
+        } catch (IOException ignore) {
+        }
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+        keysByTag.clear();
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException ignore) {
+        }
+        index = null;
+        active = null;
+        totalBytes = 0;
+        opened = false;
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return the number of cached responses
+     */
+    public synchronized int getSize() {
+        return index == null ? 0 : index.getSize();
+    }
+
+    /**
+     * @return the size of the segment files in bytes
+     */
+    public synchronized long getWeight() {
+        return totalBytes;
+    }
+
+    /**
+     * @return the number of segment files
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Tells whether the response of a GET request may be cached. Responses that carry access tokens are not:
+     * those of the <code>oauth/*</code> endpoints, of <code>accounts</code> connections, and of requests for
+     * the <code>access_token</code> field.
+     *
+     * @param url Graph API URL
+     * @return true if the response may be stored on disk
+     */
+    public static boolean isCacheable(String url) {
+        int hostStart = url.indexOf("://");
+        int pos = hostStart == -1 ? 0 : url.indexOf('/', hostStart + 3);
+        if (pos == -1) {
+            return true;
+        }
+        int queryStart = url.indexOf('?', pos);
+        int pathEnd = queryStart == -1 ? url.length() : queryStart;
+        boolean first = true;
+        while (pos < pathEnd) {
+            pos++;
+            int end = segmentEnd(url, pos);
+            String segment = url.substring(pos, end);
+            if ((first && segment.equals("oauth")) || segment.equals("accounts")) {
+                return false;
+            }
+            // the version does not count as the first segment
+            first = first && end - pos >= 2 && segment.charAt(0) == 'v' && Character.isDigit(segment.charAt(1));
+            pos = end;
+        }
+        return queryStart == -1 || !requestsAccessToken(url.substring(queryStart + 1));
+    }
+
+    // whether the fields parameter of the query contains access_token, at any depth of field expansion
+    private static boolean requestsAccessToken(String query) {
+        for (String param : query.split("&")) {
+            if (param.startsWith("fields=")) {
+                String fields;
+                try {
+                    fields = URLDecoder.decode(param.substring("fields=".length()), "UTF-8");
+                } catch (UnsupportedEncodingException neverHappen) {
+                    throw new AssertionError("will never happen");
+                } catch (IllegalArgumentException malformed) {
+                    return true;
+                }
+                int from = 0;
+                int found;
+                while ((found = fields.indexOf("access_token", from)) != -1) {
+                    int end = found + "access_token".length();
+                    if ((found == 0 || !isFieldChar(fields.charAt(found - 1)))
+                            && (end == fields.length() || !isFieldChar(fields.charAt(end)))) {
+                        return true;
+                    }
+                    from = end;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFieldChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * Returns the id of the object a Graph API URL refers to, that is, its first path segment after the version.
+     *
+     * @param url Graph API URL
+     * @return the object id, or null if the URL refers to several ids at once
+     */
+    public static String objectIdOf(String url) {
+        int hostStart = url.indexOf("://");
+        int pos = hostStart == -1 ? 0 : url.indexOf('/', hostStart + 3);
+        if (pos == -1) {
+            return null;
+        }
+        pos++;
+        int end = segmentEnd(url, pos);
+        if (end - pos >= 2 && url.charAt(pos) == 'v' && Character.isDigit(url.charAt(pos + 1))) {
+            pos = end + 1;
+            end = segmentEnd(url, pos);
+        }
+        return pos < end ? url.substring(pos, end) : null;
+    }
+
+    private static int segmentEnd(String url, int start) {
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+            end++;
+        }
+        return end;
+    }
+
+    // opens the directory and rebuilds the index on the first access
+    private boolean open() {
+        if (opened) {
+            return true;
+        }
+        if (failed) {
+            return false;
+        }
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            lockChannel = new RandomAccessFile(new File(directory, "lock"), "rw").getChannel();
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                lockChannel.close();
+                throw new IOException(directory + " is used by another cache");
+            }
+            index = new Index(1024);
+            TreeMap<Integer, File> files = new TreeMap<Integer, File>();
+            File[] children = directory.listFiles();
+            for (File file : children == null ? new File[0] : children) {
+                String name = file.getName();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        files.put(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                                name.length() - SEGMENT_SUFFIX.length())), file);
+                    } catch (NumberFormatException ignore) {
+                    }
+                }
+            }
+            for (Map.Entry<Integer, File> file : files.entrySet()) {
+                Segment segment = new Segment(file.getKey(), file.getValue());
+                segments.put(segment.id, segment);
+                recover(segment, file.getKey().equals(files.lastKey()));
+                totalBytes += segment.size;
+            }
+            if (segments.isEmpty()) {
+                active = newSegment(0);
+            } else {
+                active = segments.get(segments.lastKey());
+                if (active.size >= segmentSize) {
+                    active = newSegment(active.id + 1);
+                }
+            }
+            opened = true;
+            logger.debug("Opened the response cache: ", directory + ", " + index.getSize() + " entries");
+            return true;
+        } catch (IOException ioe) {
+            logger.warn("The response cache is disabled: ", ioe.getMessage());
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+            failed = true;
+            return false;
+        }
+    }
+
+    // sealed segments were forced to disk, so only the records of the last one are checked against their crc
+    private void recover(Segment segment, boolean last) throws IOException {
+        if (segment.size == 0) {
+            return;
+        }
+        ByteBuffer buf = segment.map(segment.size);
+        long pos = 0;
+        while (pos < segment.size) {
+            int length = checkRecord(buf, (int) pos, segment.size, last);
+            if (length == -1) {
+                logger.warn("Truncating a torn record in ", segment.file.getName() + " at " + pos);
+                segment.truncate(pos);
+                break;
+            }
+            long keyHash = normalize(buf.getLong((int) pos + KEY_OFFSET));
+            if (buf.getInt((int) pos + BODY_LENGTH_OFFSET) != TOMBSTONE) {
+                link(keyHash, buf.getLong((int) pos + TAG_OFFSET), segment, (int) pos, length,
+                        buf.getLong((int) pos + EXPIRES_AT_OFFSET));
+            } else {
+                int slot = index.find(keyHash);
+                if (slot != -1) {
+                    removeSlot(slot);
+                }
+            }
+            pos += length;
+        }
+    }
+
+    // returns the length of the record at the position, or -1 if it is incomplete or corrupt
+    private static int checkRecord(ByteBuffer buf, int pos, long limit, boolean verify) {
+        if (limit - pos < HEADER_SIZE + CRC_SIZE || buf.getInt(pos) != MAGIC) {
+            return -1;
+        }
+        int etagLength = buf.getInt(pos + ETAG_LENGTH_OFFSET);
+        int bodyLength = buf.getInt(pos + BODY_LENGTH_OFFSET);
+        if (etagLength < 0 || bodyLength < TOMBSTONE) {
+            return -1;
+        }
+        long length = recordLength(etagLength, bodyLength);
+        if (pos + length > limit) {
+            return -1;
+        }
+        if (verify) {
+            CRC32 crc = new CRC32();
+            byte[] chunk = new byte[8192];
+            ByteBuffer record = buf.duplicate();
+            record.position(pos);
+            int remaining = (int) length - CRC_SIZE;
+            while (remaining > 0) {
+                int n = Math.min(remaining, chunk.length);
+                record.get(chunk, 0, n);
+                crc.update(chunk, 0, n);
+                remaining -= n;
+            }
+            if (record.getInt() != (int) crc.getValue()) {
+                return -1;
+            }
+        }
+        return (int) length;
+    }
+
+    private static long recordLength(int etagLength, int bodyLength) {
+        return HEADER_SIZE + etagLength + Math.max(bodyLength, 0) + CRC_SIZE;
+    }
+
+    private static ByteBuffer encode(byte[] digest, long tag, long expiresAt, byte[] etag, byte[] body) {
+        int bodyLength = body == null ? TOMBSTONE : body.length;
+        ByteBuffer buf = ByteBuffer.allocate((int) recordLength(etag.length, bodyLength));
+        buf.putInt(MAGIC).put(digest).putLong(tag).putLong(expiresAt).putInt(etag.length).putInt(bodyLength).put(etag);
+        if (body != null) {
+            buf.put(body);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+        return buf;
+    }
+
+    // appends a record to the active segment, and returns its offset
+    private int append(ByteBuffer record) throws IOException {
+        int length = record.remaining();
+        if (active.size > 0 && active.size + length > segmentSize) {
+            roll();
+        }
+        long offset = active.size;
+        long pos = offset;
+        while (record.hasRemaining()) {
+            pos += active.channel.write(record, pos);
+        }
+        active.size += length;
+        totalBytes += length;
+        return (int) offset;
+    }
+
+    private void roll() throws IOException {
+        active.channel.force(true);
+        active = newSegment(active.id + 1);
+        if (!reclaimScheduled) {
+            reclaimScheduled = true;
+            reclaimer.execute(new Runnable() {
+                public void run() {
+                    reclaim();
+                }
+            });
+        }
+    }
+
+    private Segment newSegment(int id) throws IOException {
+        Segment segment = new Segment(id, new File(directory, SEGMENT_PREFIX + String.format("%08d", id) + SEGMENT_SUFFIX));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    // the oldest segment is compacted first, as its tombstones no longer shadow anything
+    private void reclaim() {
+        try {
+            while (true) {
+                Segment oldest;
+                boolean compact;
+                synchronized (this) {
+                    oldest = opened && segments.size() > 1 ? segments.get(segments.firstKey()) : null;
+                    if (oldest != null && oldest.liveBytes * 2 < oldest.size) {
+                        compact = true;
+                    } else if (oldest != null && totalBytes > maxBytes) {
+                        compact = false;
+                    } else {
+                        reclaimScheduled = false;
+                        return;
+                    }
+                }
+                reclaim(oldest, compact);
+            }
+        } catch (IOException ioe) {
+            logger.warn("Failed to compact the response cache: ", ioe.getMessage());
+            synchronized (this) {
+                reclaimScheduled = false;
+            }
+        }
+    }
+
+    // copies the live records to the active segment, or drops them, then deletes the segment
+    private void reclaim(Segment segment, boolean compact) throws IOException {
+        long now = System.currentTimeMillis();
+        long pos = 0;
+        while (true) {
+            synchronized (this) {
+                if (!opened || segments.get(segment.id) != segment) {
+                    return;
+                }
+                ByteBuffer buf = segment.map(segment.size);
+                for (int i = 0; i < RECLAIM_BATCH && pos < segment.size; i++) {
+                    // sealed segments hold whole records only
+                    int length = checkRecord(buf, (int) pos, segment.size, false);
+                    if (length == -1) {
+                        pos = segment.size;
+                        break;
+                    }
+                    int offset = (int) pos;
+                    pos += length;
+                    int slot = index.find(normalize(buf.getLong(offset + KEY_OFFSET)));
+                    if (slot == -1 || index.getSegment(slot) != segment.id || index.getOffset(slot) != offset) {
+                        // replaced, invalidated, or a tombstone
+                        continue;
+                    }
+                    if (!compact || (index.getExpiresAt(slot) <= now && buf.getInt(offset + ETAG_LENGTH_OFFSET) == 0)) {
+                        // dropped, or cannot be revalidated
+                        removeSlot(slot);
+                        statistics.evicted();
+                        continue;
+                    }
+                    ByteBuffer record = buf.duplicate();
+                    record.position(offset);
+                    record.limit(offset + length);
+                    int newOffset = append(record.slice());
+                    segment.liveBytes -= length;
+                    index.set(slot, index.getTag(slot), active.id, newOffset, length, index.getExpiresAt(slot));
+                    active.liveBytes += length;
+                }
+                if (pos >= segment.size) {
+                    active.channel.force(true);
+                    delete(segment);
+                    return;
+                }
+            }
+        }
+    }
+
+    // indexes a record, replacing the previous one of the key
+    private void link(long keyHash, long tag, Segment segment, int offset, int length, long expiresAt) {
+        int slot = index.find(keyHash);
+        if (slot == -1) {
+            slot = index.insert(keyHash);
+        } else {
+            unlink(slot);
+            untag(index.getTag(slot), keyHash);
+        }
+        index.set(slot, tag, segment.id, offset, length, expiresAt);
+        segment.liveBytes += length;
+        if (tag != 0) {
+            Set<Long> keys = keysByTag.get(tag);
+            if (keys == null) {
+                keys = new HashSet<Long>();
+                keysByTag.put(tag, keys);
+            }
+            keys.add(keyHash);
+        }
+    }
+
+    private void removeSlot(int slot) {
+        unlink(slot);
+        untag(index.getTag(slot), index.getKeyHash(slot));
+        index.remove(slot);
+    }
+
+    private void untag(long tag, long keyHash) {
+        Set<Long> keys = keysByTag.get(tag);
+        if (keys != null && keys.remove(keyHash) && keys.isEmpty()) {
+            keysByTag.remove(tag);
+        }
+    }
+
+    private void delete(Segment segment) {
+        segments.remove(segment.id);
+        totalBytes -= segment.size;
+        segment.close();
+        if (!segment.file.delete()) {
+            logger.warn("Failed to delete ", segment.file.getPath());
+        }
+    }
+
+    private void unlink(int slot) {
+        Segment segment = segments.get(index.getSegment(slot));
+        if (segment != null) {
+            segment.liveBytes -= index.getLength(slot);
+        }
+    }
+
+    private static boolean digestEquals(ByteBuffer buf, int offset, byte[] digest) {
+        for (int i = 0; i < KEY_LENGTH; i++) {
+            if (buf.get(offset + KEY_OFFSET + i) != digest[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] digest(String url) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(toUTF8(url));
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new AssertionError(nsae);
+        }
+    }
+
+    private static long keyHash(byte[] digest) {
+        return normalize(ByteBuffer.wrap(digest).getLong());
+    }
+
+    // 0 marks an empty slot of the index
+    private static long normalize(long keyHash) {
+        return keyHash == 0 ? 1 : keyHash;
+    }
+
+    // FNV-1a
+    private static long tagOf(String objectId) {
+        if (objectId == null) {
+            return 0;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < objectId.length(); i++) {
+            hash ^= objectId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static byte[] toUTF8(String str) {
+        try {
+            return str.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final File file;
+        private final FileChannel channel;
+        private long size;
+        private long liveBytes = 0;
+        private MappedByteBuffer mapped;
+
+        Segment(int id, File file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+            this.size = channel.size();
+        }
+
+        // remaps the segment once it has grown past the mapped region
+        ByteBuffer map(long end) throws IOException {
+            if (mapped == null || mapped.capacity() < end) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return mapped;
+        }
+
+        void truncate(long length) throws IOException {
+            channel.truncate(length);
+            channel.force(true);
+            size = length;
+            mapped = null;
+        }
+
+        void close() {
+            mapped = null;
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    /**
+     * An open addressing hash table in a direct buffer, so that the index does not weigh on the heap.
+     */
+    private static final class Index {
+        // key hash, tag, expiresAt, segment, offset, length, padding
+        private static final int SLOT_SIZE = 40;
+        private static final int TAG = 8;
+        private static final int EXPIRES_AT = 16;
+        private static final int SEGMENT = 24;
+        private static final int OFFSET = 28;
+        private static final int LENGTH = 32;
+
+        private ByteBuffer slots;
+        private int capacity;
+        private int size = 0;
+
+        Index(int capacity) {
+            this.capacity = capacity;
+            this.slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+        }
+
+        int getSize() {
+            return size;
+        }
+
+        boolean isUsed(int slot) {
+            return getKeyHash(slot) != 0;
+        }
+
+        long getKeyHash(int slot) {
+            return slots.getLong(slot * SLOT_SIZE);
+        }
+
+        long getTag(int slot) {
+            return slots.getLong(slot * SLOT_SIZE + TAG);
+        }
+
+        long getExpiresAt(int slot) {
+            return slots.getLong(slot * SLOT_SIZE + EXPIRES_AT);
+        }
+
+        int getSegment(int slot) {
+            return slots.getInt(slot * SLOT_SIZE + SEGMENT);
+        }
+
+        int getOffset(int slot) {
+            return slots.getInt(slot * SLOT_SIZE + OFFSET);
+        }
+
+        int getLength(int slot) {
+            return slots.getInt(slot * SLOT_SIZE + LENGTH);
+        }
+
+        int find(long keyHash) {
+            int slot = home(keyHash);
+            long current;
+            while ((current = getKeyHash(slot)) != 0) {
+                if (current == keyHash) {
+                    return slot;
+                }
+                slot = (slot + 1) & (capacity - 1);
+            }
+            return -1;
+        }
+
+        // the key must not be in the table yet
+        int insert(long keyHash) {
+            if ((size + 1) * 2 > capacity) {
+                resize();
+            }
+            int slot = home(keyHash);
+            while (isUsed(slot)) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            slots.putLong(slot * SLOT_SIZE, keyHash);
+            size++;
+            return slot;
+        }
+
+        void set(int slot, long tag, int segment, int offset, int length, long expiresAt) {
+            int base = slot * SLOT_SIZE;
+            slots.putLong(base + TAG, tag);
+            slots.putLong(base + EXPIRES_AT, expiresAt);
+            slots.putInt(base + SEGMENT, segment);
+            slots.putInt(base + OFFSET, offset);
+            slots.putInt(base + LENGTH, length);
+        }
+
+        // backward shift deletion, so that no tombstones are needed
+        void remove(int slot) {
+            int hole = slot;
+            int next = (hole + 1) & (capacity - 1);
+            while (isUsed(next)) {
+                int home = home(getKeyHash(next));
+                // moves the entry into the hole unless its home lies cyclically in (hole, next]
+                if ((next > hole && (home <= hole || home > next)) || (next < hole && home <= hole && home > next)) {
+                    copy(next, hole);
+                    hole = next;
+                }
+                next = (next + 1) & (capacity - 1);
+            }
+            clear(hole);
+            size--;
+        }
+
+        private void copy(int from, int to) {
+            for (int i = 0; i < SLOT_SIZE; i += 8) {
+                slots.putLong(to * SLOT_SIZE + i, slots.getLong(from * SLOT_SIZE + i));
+            }
+        }
+
+        private void clear(int slot) {
+            for (int i = 0; i < SLOT_SIZE; i += 8) {
+                slots.putLong(slot * SLOT_SIZE + i, 0);
+            }
+        }
+
+        private int home(long keyHash) {
+            return (int) (keyHash ^ (keyHash >>> 32)) & (capacity - 1);
+        }
+
+        private void resize() {
+            ByteBuffer old = slots;
+            int oldCapacity = capacity;
+            capacity *= 2;
+            slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+            for (int i = 0; i < oldCapacity; i++) {
+                long keyHash = old.getLong(i * SLOT_SIZE);
+                if (keyHash != 0) {
+                    int slot = home(keyHash);
+                    while (isUsed(slot)) {
+                        slot = (slot + 1) & (capacity - 1);
+                    }
+                    for (int j = 0; j < SLOT_SIZE; j += 8) {
+                        slots.putLong(slot * SLOT_SIZE + j, old.getLong(i * SLOT_SIZE + j));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+/**
+ * Maps Graph API URLs to a small set of endpoint templates such as <code>{id}/feed</code>,
+ * <code>me/friends</code>, <code>search?type=place</code> or <code>fql</code>,
+ * so that statistics are not collected per object id.<br>
+ * URLs are scanned in place: templates of well-known connections are precomputed, and no regular expression is involved.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class EndpointClassifier {
+    /**
+     * the template of URLs that cannot be classified
+     */
+    public static final String OTHER = "other";
+
+    private static final String ID = "{id}";
+    private static final String ME = "me";
+    private static final String IDS = "?ids";
+    private static final String FQL = "fql";
+    private static final String SEARCH = "search";
+    private static final String OAUTH = "oauth";
+
+    private static final int MAX_DEPTH = 4;
+    private static final int MAX_LITERAL_LENGTH = 40;
+
+    private static final String[] CONNECTIONS = {
+            "accounts", "achievements", "activities", "albums", "attending", "books", "checkins",
+            "comments", "declined", "docs", "events", "family", "feed", "friendlists", "friendrequests",
+            "friends", "games", "groups", "home", "inbox", "insights", "interests", "invited", "likes",
+            "links", "locations", "maybe", "members", "movies", "music", "noreply", "notes",
+            "notifications", "options", "outbox", "permissions", "photos", "picture", "pokes", "posts",
+            "questions", "scores", "sharedposts", "statuses", "subscribedto", "subscribers", "tagged",
+            "tags", "television", "updates", "videos", "votes",
+    };
+    private static final String[] ID_TEMPLATES = new String[CONNECTIONS.length];
+    private static final String[] ME_TEMPLATES = new String[CONNECTIONS.length];
+
+    private static final String[] SEARCH_TYPES = {
+            "checkin", "event", "group", "location", "page", "place", "post", "user",
+    };
+    private static final String[] SEARCH_TEMPLATES = new String[SEARCH_TYPES.length];
+
+    static {
+        for (int i = 0; i < CONNECTIONS.length; i++) {
+            ID_TEMPLATES[i] = ID + "/" + CONNECTIONS[i];
+            ME_TEMPLATES[i] = ME + "/" + CONNECTIONS[i];
+        }
+        for (int i = 0; i < SEARCH_TYPES.length; i++) {
+            SEARCH_TEMPLATES[i] = SEARCH + "?type=" + SEARCH_TYPES[i];
+        }
+    }
+
+    private EndpointClassifier() {
+        throw new AssertionError("not intended to be instantiated.");
+    }
+
+    /**
+     * @param url Graph API URL
+     * @return the endpoint template of the URL
+     */
+    public static String classify(String url) {
+        if (url == null) {
+            return OTHER;
+        }
+        int length = url.length();
+        int hostStart = url.indexOf("://");
+        int pos = hostStart == -1 ? 0 : url.indexOf('/', hostStart + 3);
+        if (pos == -1) {
+            return IDS;
+        }
+        pos++;
+        int queryStart = url.indexOf('?', pos);
+        int pathEnd = queryStart == -1 ? length : queryStart;
+
+        int segmentEnd = segmentEnd(url, pos, pathEnd);
+        if (isVersion(url, pos, segmentEnd)) {
+            pos = segmentEnd + 1;
+            segmentEnd = segmentEnd(url, pos, pathEnd);
+        }
+        if (pos >= pathEnd || pos == segmentEnd) {
+            return IDS;
+        }
+
+        String root;
+        if (regionEquals(url, pos, segmentEnd, SEARCH)) {
+            return classifySearch(url, queryStart);
+        } else if (regionEquals(url, pos, segmentEnd, FQL)) {
+            return FQL;
+        } else if (regionEquals(url, pos, segmentEnd, ME)) {
+            root = ME;
+        } else if (regionEquals(url, pos, segmentEnd, OAUTH)) {
+            root = OAUTH;
+        } else {
+            // numeric ids, post ids ("123_456") and user names alike
+            root = ID;
+        }
+        if (segmentEnd >= pathEnd) {
+            return root;
+        }
+
+        pos = segmentEnd + 1;
+        segmentEnd = segmentEnd(url, pos, pathEnd);
+        if (pos == segmentEnd) {
+            return root;
+        }
+        if (segmentEnd >= pathEnd && (root == ID || root == ME)) {
+            int index = indexOf(CONNECTIONS, url, pos, segmentEnd);
+            if (index != -1) {
+                return root == ID ? ID_TEMPLATES[index] : ME_TEMPLATES[index];
+            }
+        }
+
+        StringBuilder template = new StringBuilder(root.length() + (pathEnd - pos) + 1).append(root);
+        for (int depth = 1; depth < MAX_DEPTH && pos < segmentEnd; depth++) {
+            template.append('/');
+            if (isLiteral(url, pos, segmentEnd)) {
+                template.append(url, pos, segmentEnd);
+            } else {
+                template.append(ID);
+            }
+            if (segmentEnd >= pathEnd) {
+                break;
+            }
+            pos = segmentEnd + 1;
+            segmentEnd = segmentEnd(url, pos, pathEnd);
+        }
+        return template.toString();
+    }
+
+    private static String classifySearch(String url, int queryStart) {
+        if (queryStart != -1) {
+            int typeStart = url.indexOf("type=", queryStart);
+            while (typeStart != -1) {
+                char prev = url.charAt(typeStart - 1);
+                if (prev == '?' || prev == '&') {
+                    typeStart += 5;
+                    int typeEnd = url.indexOf('&', typeStart);
+                    if (typeEnd == -1) {
+                        typeEnd = url.length();
+                    }
+                    int index = indexOf(SEARCH_TYPES, url, typeStart, typeEnd);
+                    return index != -1 ? SEARCH_TEMPLATES[index] : SEARCH + "?type=" + OTHER;
+                }
+                typeStart = url.indexOf("type=", typeStart + 5);
+            }
+        }
+        return SEARCH;
+    }
+
+    private static int segmentEnd(String url, int start, int pathEnd) {
+        int end = url.indexOf('/', start);
+        return end == -1 || end > pathEnd ? pathEnd : end;
+    }
+
+    // v2.0, v2.1, ...
+    private static boolean isVersion(String url, int start, int end) {
+        if (end - start < 2 || url.charAt(start) != 'v') {
+            return false;
+        }
+        for (int i = start + 1; i < end; i++) {
+            char c = url.charAt(i);
+            if ((c < '0' || c > '9') && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLiteral(String url, int start, int end) {
+        if (end - start > MAX_LITERAL_LENGTH) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if ((c < 'a' || c > 'z') && c != '_' && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(String[] names, String url, int start, int end) {
+        for (int i = 0; i < names.length; i++) {
+            if (regionEquals(url, start, end, names[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionEquals(String url, int start, int end, String name) {
+        return start >= 0 && end - start == name.length() && url.regionMatches(start, name, 0, name.length());
+    }
+}
@@ -44,4 +44,29 @@ public interface HttpClientConfiguration {
     boolean isPrettyDebugEnabled();
 
     boolean isGZIPEnabled();
+
+    /**
+     * @return the directory of the persistent response cache, or null if responses are not cached on disk
+     */
+    String getHttpCacheDirectory();
+
+    /**
+     * @return the maximum size of the persistent response cache in bytes
+     */
+    int getHttpCacheMaxBytes();
+
+    /**
+     * @return how long a cached response is used without revalidation, in seconds
+     */
+    int getHttpCacheTTLSeconds();
+
+    /**
+     * @return the highest number of concurrent requests the adaptive limiter lets run per endpoint, or 0 if requests are not limited
+     */
+    int getAdaptiveConcurrencyMaxLimit();
+
+    /**
+     * @return the number of concurrent requests the adaptive limiter starts with per endpoint
+     */
+    int getAdaptiveConcurrencyInitialLimit();
 }
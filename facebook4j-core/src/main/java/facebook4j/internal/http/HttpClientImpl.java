@@ -20,9 +20,11 @@ import facebook4j.FacebookException;
 import facebook4j.conf.ConfigurationContext;
 import facebook4j.internal.logging.Logger;
 import facebook4j.internal.util.z_F4JInternalStringUtil;
+import facebook4j.management.RequestPhase;
 
 import java.io.BufferedInputStream;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -31,12 +33,14 @@ import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.PasswordAuthentication;
 import java.net.Proxy;
+import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static facebook4j.internal.http.RequestMethod.GET;
 import static facebook4j.internal.http.RequestMethod.POST;
 
 /**
@@ -83,9 +87,12 @@ public class HttpClientImpl extends HttpClientBase implements HttpClient, HttpRe
         }
     }
 
+    private transient volatile DiskResponseCache responseCache;
+    private transient volatile ConcurrencyLimiter limiter;
+
     private static final Map<HttpClientConfiguration, HttpClient> instanceMap = new HashMap<HttpClientConfiguration, HttpClient>(1);
 
-    public static HttpClient getInstance(HttpClientConfiguration conf) {
+    public static synchronized HttpClient getInstance(HttpClientConfiguration conf) {
         HttpClient client = instanceMap.get(conf);
         if (null == client) {
             client = new HttpClientImpl(conf);
@@ -103,11 +110,27 @@ public class HttpClientImpl extends HttpClientBase implements HttpClient, HttpRe
     }
 
     public HttpResponse request(HttpRequest req) throws FacebookException {
+        DiskResponseCache cache = getResponseCache();
+        if (cache != null && req.getMethod() == GET && !DiskResponseCache.isCacheable(req.getURL())) {
+            cache = null;
+        }
+        DiskResponseCache.Entry cached = null;
+        if (cache != null && req.getMethod() == GET) {
+            cached = cache.get(req.getURL());
+            if (cached != null && !cached.isExpired()) {
+                return new CachedHttpResponse(CONF, cached);
+            }
+        }
+        ConcurrencyLimiter limiter = getConcurrencyLimiter();
+        String endpoint = limiter != null ? ConcurrencyLimiter.getEndpoint(req) : null;
         int retriedCount;
         int retry = CONF.getHttpRetryCount() + 1;
         HttpResponse res = null;
+        RequestTimings timings = new RequestTimings();
         for (retriedCount = 0; retriedCount < retry; retriedCount++) {
             int responseCode = -1;
+            ConcurrencyLimiter.Permit permit = limiter != null ? acquirePermit(limiter, endpoint) : null;
+            long attemptStart = System.nanoTime();
             try {
                 HttpURLConnection con;
                 OutputStream os = null;
@@ -115,14 +138,35 @@ public class HttpClientImpl extends HttpClientBase implements HttpClient, HttpRe
                     con = getConnection(req.getURL());
                     con.setDoInput(true);
                     setHeaders(req, con);
+                    if (cached != null && cached.getETag() != null) {
+                        con.setRequestProperty("If-None-Match", cached.getETag());
+                    }
                     con.setRequestMethod(req.getMethod().name());
+                    String boundary = null;
+                    byte[] postBytes = null;
                     if (req.getMethod() == POST) {
                         if (HttpParameter.containsFile(req.getParameters())) {
-                            String boundary = "----Facebook4J-upload" + System.currentTimeMillis();
+                            boundary = "----Facebook4J-upload" + System.currentTimeMillis();
                             con.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
                             boundary = "--" + boundary;
-                            con.setDoOutput(true);
-                            os = con.getOutputStream();
+                        } else {
+                            con.setRequestProperty("Content-Type",
+                                    "application/x-www-form-urlencoded");
+                            String postParam = HttpParameter.encodeParameters(req.getParameters());
+                            logger.debug("Post Params: ", postParam);
+                            postBytes = postParam.getBytes("UTF-8");
+                            con.setRequestProperty("Content-Length",
+                                    Integer.toString(postBytes.length));
+                        }
+                        con.setDoOutput(true);
+                    }
+                    long phaseStart = System.nanoTime();
+                    con.connect();
+                    timings.record(RequestPhase.CONNECT, System.nanoTime() - phaseStart);
+                    if (req.getMethod() == POST) {
+                        phaseStart = System.nanoTime();
+                        os = con.getOutputStream();
+                        if (boundary != null) {
                             DataOutputStream out = new DataOutputStream(os);
                             for (HttpParameter param : req.getParameters()) {
                                 if (param.isFile()) {
@@ -151,22 +195,30 @@ public class HttpClientImpl extends HttpClientBase implements HttpClient, HttpRe
                             write(out, "\r\n");
 
                         } else {
-                            con.setRequestProperty("Content-Type",
-                                    "application/x-www-form-urlencoded");
-                            String postParam = HttpParameter.encodeParameters(req.getParameters());
-                            logger.debug("Post Params: ", postParam);
-                            byte[] bytes = postParam.getBytes("UTF-8");
-                            con.setRequestProperty("Content-Length",
-                                    Integer.toString(bytes.length));
-                            con.setDoOutput(true);
-                            os = con.getOutputStream();
-                            os.write(bytes);
+                            os.write(postBytes);
                         }
                         os.flush();
                         os.close();
+                        timings.record(RequestPhase.WRITE, System.nanoTime() - phaseStart);
                     }
-                    res = new HttpResponseImpl(con, CONF);
+                    phaseStart = System.nanoTime();
                     responseCode = con.getResponseCode();
+                    long ttfbNanos = System.nanoTime() - phaseStart;
+                    timings.record(RequestPhase.TTFB, ttfbNanos);
+                    if (permit != null) {
+                        if (responseCode >= INTERNAL_SERVER_ERROR || responseCode == TOO_MANY_REQUESTS
+                                || responseCode == ENHANCE_YOUR_CLAIM) {
+                            permit.overloaded();
+                        } else if (responseCode < BAD_REQUEST) {
+                            permit.measured(ttfbNanos);
+                        }
+                    }
+                    RequestTracer tracer = RequestTracer.getInstance();
+                    if (tracer.isEnabled()) {
+                        tracer.attemptCompleted(EndpointClassifier.classify(req.getURL()), responseCode,
+                                con.getContentLength(), System.nanoTime() - attemptStart, retriedCount);
+                    }
+                    res = new HttpResponseImpl(con, CONF, timings);
                     if (logger.isDebugEnabled()) {
                         logger.debug("Response: ");
                         Map<String, List<String>> responseHeaders = con.getHeaderFields();
@@ -174,22 +226,35 @@ public class HttpClientImpl extends HttpClientBase implements HttpClient, HttpRe
                             List<String> values = responseHeaders.get(key);
                             for (String value : values) {
                                 if (key != null) {
-                                    logger.debug(key + ": " + value);
+                                    logger.debug("{}: {}", key, value);
                                 } else {
                                     logger.debug(value);
                                 }
                             }
                         }
                     }
+                    if (responseCode == NOT_MODIFIED && cached != null) {
+                        res.disconnect();
+                        cached = new DiskResponseCache.Entry(cached.getETag(), cached.getBody(), getCacheExpiry());
+                        cache.put(req.getURL(), cached.getETag(), cached.getBody(), cached.getExpiresAt());
+                        return new CachedHttpResponse(CONF, cached);
+                    }
                     if (responseCode < OK || (responseCode != FOUND && MULTIPLE_CHOICES <= responseCode)) {
                         if (responseCode == ENHANCE_YOUR_CLAIM ||
                                 responseCode == BAD_REQUEST ||
                                 responseCode < INTERNAL_SERVER_ERROR ||
                                 retriedCount == CONF.getHttpRetryCount()) {
-                            throw new FacebookException(res.asString(), res);
+                            FacebookException fe = new FacebookException(res.asString(), res);
+                            if (permit != null && fe.isCausedByThrottling()) {
+                                permit.overloaded();
+                            }
+                            throw fe;
                         }
                         // will retry if the status code is INTERNAL_SERVER_ERROR
                     } else {
+                        if (cache != null) {
+                            updateResponseCache(cache, req, res);
+                        }
                         break;
                     }
                 } finally {
@@ -200,15 +265,33 @@ public class HttpClientImpl extends HttpClientBase implements HttpClient, HttpRe
                 }
             } catch (IOException ioe) {
                 // connection timeout or read timeout
+                if (permit != null && ioe instanceof SocketTimeoutException) {
+                    permit.overloaded();
+                }
+                RequestTracer tracer = RequestTracer.getInstance();
+                if (responseCode == -1 && tracer.isEnabled()) {
+                    tracer.attemptCompleted(EndpointClassifier.classify(req.getURL()), responseCode,
+                            -1, System.nanoTime() - attemptStart, retriedCount);
+                }
                 if (retriedCount == CONF.getHttpRetryCount()) {
                     throw new FacebookException(ioe.getMessage(), ioe, responseCode);
                 }
+            } finally {
+                if (permit != null) {
+                    limiter.release(permit);
+                }
+            }
+            timings.retried();
+            RequestTracer tracer = RequestTracer.getInstance();
+            if (tracer.isEnabled()) {
+                tracer.backoff(EndpointClassifier.classify(req.getURL()), responseCode, retriedCount + 1,
+                        CONF.getHttpRetryIntervalSeconds() * 1000L);
             }
             try {
                 if (logger.isDebugEnabled() && res != null) {
                     res.asString();
                 }
-                logger.debug("Sleeping " + CONF.getHttpRetryIntervalSeconds() + " seconds until the next retry.");
+                logger.debug("Sleeping {} seconds until the next retry.", CONF.getHttpRetryIntervalSeconds());
                 Thread.sleep(CONF.getHttpRetryIntervalSeconds() * 1000);
             } catch (InterruptedException ignore) {
                 //nothing to do
@@ -217,6 +300,54 @@ public class HttpClientImpl extends HttpClientBase implements HttpClient, HttpRe
         return res;
     }
 
+    private DiskResponseCache getResponseCache() {
+        if (CONF.getHttpCacheDirectory() == null) {
+            return null;
+        }
+        DiskResponseCache cache = responseCache;
+        if (cache == null) {
+            cache = DiskResponseCache.getInstance(new File(CONF.getHttpCacheDirectory()), CONF.getHttpCacheMaxBytes());
+            responseCache = cache;
+        }
+        return cache;
+    }
+
+    private ConcurrencyLimiter getConcurrencyLimiter() {
+        if (CONF.getAdaptiveConcurrencyMaxLimit() <= 0) {
+            return null;
+        }
+        ConcurrencyLimiter limiter = this.limiter;
+        if (limiter == null) {
+            limiter = ConcurrencyLimiter.getInstance(CONF);
+            this.limiter = limiter;
+        }
+        return limiter;
+    }
+
+    private static ConcurrencyLimiter.Permit acquirePermit(ConcurrencyLimiter limiter, String endpoint) throws FacebookException {
+        try {
+            return limiter.acquire(endpoint);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new FacebookException("interrupted while waiting for the concurrency limiter", ie);
+        }
+    }
+
+    private long getCacheExpiry() {
+        return System.currentTimeMillis() + CONF.getHttpCacheTTLSeconds() * 1000L;
+    }
+
+    // stores successful GET responses, and drops the cached responses of an object once it is modified
+    private void updateResponseCache(DiskResponseCache cache, HttpRequest req, HttpResponse res) throws IOException {
+        if (req.getMethod() == GET) {
+            if (res.getStatusCode() == OK) {
+                cache.put(req.getURL(), res.getResponseHeader("ETag"), res.buffer(), getCacheExpiry());
+            }
+        } else {
+            cache.invalidate(DiskResponseCache.objectIdOf(req.getURL()));
+        }
+    }
+
     public static String encode(String str) {
         try {
             return URLEncoder.encode(str, "UTF-8");
@@ -234,13 +365,13 @@ public class HttpClientImpl extends HttpClientBase implements HttpClient, HttpRe
     private void setHeaders(HttpRequest req, HttpURLConnection connection) {
         if (logger.isDebugEnabled()) {
             logger.debug("Request: ");
-            logger.debug(req.getMethod().name() + " ", req.getURL());
+            logger.debug("{} {}", req.getMethod().name(), req.getURL());
         }
 
         if (req.getRequestHeaders() != null) {
             for (String key : req.getRequestHeaders().keySet()) {
                 connection.addRequestProperty(key, req.getRequestHeaders().get(key));
-                logger.debug(key + ": " + req.getRequestHeaders().get(key));
+                logger.debug("{}: {}", key, req.getRequestHeaders().get(key));
             }
         }
     }
@@ -270,7 +401,7 @@ public class HttpClientImpl extends HttpClientBase implements HttpClient, HttpRe
             final Proxy proxy = new Proxy(Proxy.Type.HTTP, InetSocketAddress
                     .createUnresolved(CONF.getHttpProxyHost(), CONF.getHttpProxyPort()));
             if (logger.isDebugEnabled()) {
-                logger.debug("Opening proxied connection(" + CONF.getHttpProxyHost() + ":" + CONF.getHttpProxyPort() + ")");
+                logger.debug("Opening proxied connection({}:{})", CONF.getHttpProxyHost(), CONF.getHttpProxyPort());
             }
             con = (HttpURLConnection) new URL(url).openConnection(proxy);
         } else {
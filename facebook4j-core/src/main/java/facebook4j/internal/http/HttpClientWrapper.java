@@ -17,6 +17,8 @@
 package facebook4j.internal.http;
 
 import facebook4j.FacebookException;
+import facebook4j.RequestPriority;
+import facebook4j.auth.AccessTokenManager;
 import facebook4j.auth.Authorization;
 import facebook4j.conf.ConfigurationContext;
 
@@ -40,7 +42,9 @@ public final class HttpClientWrapper implements java.io.Serializable {
 
     private final Map<String, String> requestHeaders;
     private static final long serialVersionUID = -6511977105603119379L;
-    private HttpResponseListener httpResponseListener;
+    private transient volatile HttpResponseEventBus eventBus;
+    private transient HttpResponseListener httpResponseListener;
+    private transient volatile RequestScheduler scheduler;
 
     public HttpClientWrapper(HttpClientWrapperConfiguration wrapperConf) {
         this.wrapperConf = wrapperConf;
@@ -60,24 +64,109 @@ public final class HttpClientWrapper implements java.io.Serializable {
     }
 
     private HttpResponse request(HttpRequest req) throws FacebookException {
+        RequestScheduler scheduler = getRequestScheduler();
+        if (scheduler == null) {
+            return execute(req);
+        }
+        RequestScheduler.Ticket ticket;
+        try {
+            ticket = scheduler.acquire(RequestScheduler.getTenant(req), RequestPriority.getCurrent());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new FacebookException("interrupted while waiting for the request scheduler", ie);
+        }
+        try {
+            return execute(req);
+        } finally {
+            scheduler.release(ticket);
+        }
+    }
+
+    private HttpResponse execute(HttpRequest req) throws FacebookException {
         HttpResponse res;
+        long start = System.nanoTime();
+        HttpResponseEventBus bus = eventBus;
         try {
             res = http.request(req);
             //fire HttpResponseEvent
-            if (httpResponseListener != null) {
-                httpResponseListener.httpResponseReceived(new HttpResponseEvent(req, res, null));
+            if (bus != null && bus.hasListeners()) {
+                bus.publish(new HttpResponseEvent(req, res, null, System.nanoTime() - start));
             }
         } catch (FacebookException fe) {
-            if (httpResponseListener != null) {
-                httpResponseListener.httpResponseReceived(new HttpResponseEvent(req, null, fe));
+            if (bus != null && bus.hasListeners()) {
+                bus.publish(new HttpResponseEvent(req, null, fe, System.nanoTime() - start));
+            }
+            if (fe.isCausedByAccessToken()) {
+                // a cached app or page token that was revoked or expired is requested again next time
+                String token = RequestScheduler.getTenant(req);
+                if (!RequestScheduler.DEFAULT_TENANT.equals(token)) {
+                    AccessTokenManager.getInstance().invalidateToken(token);
+                }
             }
             throw fe;
         }
         return res;
     }
 
-    public void setHttpResponseListener(HttpResponseListener listener) {
+    /**
+     * Returns the scheduler sharing the requests of the clients with the same configuration fairly among tenants.
+     *
+     * @return the scheduler, or null if requests are not scheduled
+     * @see HttpClientWrapperConfiguration#getRequestSchedulerMaxConcurrency()
+     */
+    public RequestScheduler getRequestScheduler() {
+        RequestScheduler scheduler = this.scheduler;
+        if (scheduler == null) {
+            scheduler = RequestScheduler.getInstance(wrapperConf);
+            this.scheduler = scheduler;
+        }
+        return scheduler;
+    }
+
+    /**
+     * Returns the bus the HttpResponseEvents of this wrapper are published to. Listeners are called asynchronously.
+     *
+     * @return the event bus
+     */
+    public synchronized HttpResponseEventBus getHttpResponseEventBus() {
+        if (eventBus == null) {
+            eventBus = new HttpResponseEventBus();
+        }
+        return eventBus;
+    }
+
+    /**
+     * Publishes the HttpResponseEvents of this wrapper to the given bus, so that a bus and its listeners can be shared among wrappers.
+     *
+     * @param bus the event bus
+     */
+    public synchronized void setHttpResponseEventBus(HttpResponseEventBus bus) {
+        eventBus = bus;
+    }
+
+    public void addHttpResponseListener(HttpResponseListener listener) {
+        getHttpResponseEventBus().addListener(listener);
+    }
+
+    public void removeHttpResponseListener(HttpResponseListener listener) {
+        getHttpResponseEventBus().removeListener(listener);
+    }
+
+    /**
+     * Replaces the listener previously set with this method. The listener is called asynchronously.
+     *
+     * @param listener listener, or null to remove the previous one
+     * @deprecated use {@link #addHttpResponseListener(HttpResponseListener)}
+     */
+    @Deprecated
+    public synchronized void setHttpResponseListener(HttpResponseListener listener) {
+        if (httpResponseListener != null) {
+            removeHttpResponseListener(httpResponseListener);
+        }
         httpResponseListener = listener;
+        if (listener != null) {
+            addHttpResponseListener(listener);
+        }
     }
 
     public HttpResponse get(String url, HttpParameter[] parameters
@@ -23,4 +23,19 @@ public interface HttpClientWrapperConfiguration extends HttpClientConfiguration
      * @return request headers
      */
     Map<String, String> getRequestHeaders();
+
+    /**
+     * @return the number of requests the request scheduler lets run at once, or 0 if requests are not scheduled
+     */
+    int getRequestSchedulerMaxConcurrency();
+
+    /**
+     * @return the number of requests of a single tenant the request scheduler lets run at once, or 0 for no limit
+     */
+    int getRequestSchedulerTenantConcurrency();
+
+    /**
+     * @return the number of the request scheduler's slots background requests may not take, so that they are free for interactive ones
+     */
+    int getRequestSchedulerInteractiveReserve();
 }
@@ -84,9 +84,13 @@ public final class HttpRequest implements java.io.Serializable {
     private HttpParameter[] setAccessTokenParameter(HttpParameter[] parameters, Authorization authorization) {
         if (authorization == null) return parameters;
         if (!(authorization instanceof OAuthAuthorization)) return parameters;
-        AccessToken accessToken = ((OAuthAuthorization) authorization).getOAuthAccessToken();
+        OAuthAuthorization oauth = (OAuthAuthorization) authorization;
+        AccessToken accessToken = oauth.getOAuthAccessToken();
         if (accessToken == null) return parameters;
-        return HttpParameter.merge(parameters,  new HttpParameter("access_token", accessToken.getToken()));
+        parameters = HttpParameter.merge(parameters,  new HttpParameter("access_token", accessToken.getToken()));
+        String proof = oauth.getAppSecretProof(accessToken.getToken());
+        if (proof == null) return parameters;
+        return HttpParameter.merge(parameters, new HttpParameter("appsecret_proof", proof));
     }
 
     public RequestMethod getMethod() {
@@ -23,8 +23,11 @@ import facebook4j.internal.org.json.JSONArray;
 import facebook4j.internal.org.json.JSONException;
 import facebook4j.internal.org.json.JSONObject;
 import facebook4j.internal.org.json.JSONTokener;
+import facebook4j.management.RequestPhase;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -40,24 +43,44 @@ import java.util.Map;
 public abstract class HttpResponse {
     private static final Logger logger = Logger.getLogger(HttpResponseImpl.class);
     protected final HttpClientConfiguration CONF;
+    protected final RequestTimings timings;
 
     HttpResponse() {
         this.CONF = ConfigurationContext.getInstance();
+        this.timings = new RequestTimings();
     }
 
     public HttpResponse(HttpClientConfiguration conf) {
+        this(conf, new RequestTimings());
+    }
+
+    public HttpResponse(HttpClientConfiguration conf, RequestTimings timings) {
         this.CONF = conf;
+        this.timings = timings;
     }
 
     protected int statusCode;
     protected String responseAsString = null;
     protected InputStream is;
     private boolean streamConsumed = false;
+    // the raw (wire) stream and, for gzipped responses, the inflated stream. set by subclasses to get read/decompress timings
+    /*package*/ TimingInputStream wireStream;
+    /*package*/ TimingInputStream decodedStream;
+    private boolean streamTimingsRecorded = false;
 
     public int getStatusCode() {
         return statusCode;
     }
 
+    /**
+     * Returns the time spent in each phase of the request. Read, decompress and parse phases are available once the response body is consumed.
+     *
+     * @return timings of this request
+     */
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
     public abstract String getResponseHeader(String name);
 
     public abstract Map<String, List<String>> getResponseHeaderFields();
@@ -103,7 +126,7 @@ public abstract class HttpResponse {
                     buf.append(line).append("\n");
                 }
                 this.responseAsString = buf.toString();
-                logger.debug(responseAsString);
+                ResponseBodyLogger.log(logger, responseAsString, false);
                 stream.close();
                 streamConsumed = true;
             } catch (IOException ioe) {
@@ -139,6 +162,8 @@ public abstract class HttpResponse {
     public JSONObject asJSONObject() throws FacebookException {
         if (json == null) {
             Reader reader = null;
+            long start = System.nanoTime();
+            long streamStart = getStreamNanos();
             try {
                 if (responseAsString == null) {
                     reader = asReader();
@@ -146,11 +171,10 @@ public abstract class HttpResponse {
                 } else {
                     json = new JSONObject(responseAsString);
                 }
-                if (CONF.isPrettyDebugEnabled()) {
-                    logger.debug(json.toString(1));
-                } else {
-                    logger.debug(responseAsString != null ? responseAsString :
-                            json.toString());
+                recordParseTime(start, streamStart);
+                if (logger.isDebugEnabled()) {
+                    boolean pretty = CONF.isPrettyDebugEnabled();
+                    ResponseBodyLogger.log(logger, responseAsString != null && !pretty ? responseAsString : json, pretty);
                 }
             } catch (JSONException jsone) {
                 if (responseAsString == null) {
@@ -183,6 +207,8 @@ public abstract class HttpResponse {
     public JSONArray asJSONArray() throws FacebookException {
         if (jsonArray == null) {
             Reader reader = null;
+            long start = System.nanoTime();
+            long streamStart = getStreamNanos();
             try {
                 if (responseAsString == null) {
                     reader = asReader();
@@ -190,11 +216,10 @@ public abstract class HttpResponse {
                 } else {
                     jsonArray = new JSONArray(responseAsString);
                 }
-                if (CONF.isPrettyDebugEnabled()) {
-                    logger.debug(jsonArray.toString(1));
-                } else {
-                    logger.debug(responseAsString != null ? responseAsString :
-                            jsonArray.toString());
+                recordParseTime(start, streamStart);
+                if (logger.isDebugEnabled()) {
+                    boolean pretty = CONF.isPrettyDebugEnabled();
+                    ResponseBodyLogger.log(logger, responseAsString != null && !pretty ? responseAsString : jsonArray, pretty);
                 }
             } catch (JSONException jsone) {
                 if (logger.isDebugEnabled()) {
@@ -224,12 +249,70 @@ public abstract class HttpResponse {
     }
 
     private void disconnectForcibly() {
+        recordStreamTimings();
         try {
             disconnect();
         } catch (Exception ignore) {
         }
     }
 
+    private long getStreamNanos() {
+        if (decodedStream != null) {
+            return decodedStream.getNanos();
+        }
+        return wireStream != null ? wireStream.getNanos() : 0;
+    }
+
+    // the tokenizer pulls the body from the stream while parsing, so the time spent reading it is subtracted
+    private void recordParseTime(long start, long streamStart) {
+        long elapsed = System.nanoTime() - start;
+        long parseNanos = elapsed - (getStreamNanos() - streamStart);
+        timings.record(RequestPhase.PARSE, parseNanos);
+        RequestTracer tracer = RequestTracer.getInstance();
+        if (tracer.isEnabled()) {
+            tracer.responseParsed(getBodyLength(), parseNanos);
+        }
+    }
+
+    private long getBodyLength() {
+        if (decodedStream != null) {
+            return decodedStream.getBytes();
+        }
+        if (wireStream != null) {
+            return wireStream.getBytes();
+        }
+        return responseAsString != null ? responseAsString.length() : -1;
+    }
+
+    private void recordStreamTimings() {
+        if (streamTimingsRecorded || wireStream == null) {
+            return;
+        }
+        streamTimingsRecorded = true;
+        timings.addBytes(wireStream.getBytes());
+        timings.record(RequestPhase.READ, wireStream.getNanos());
+        if (decodedStream != null) {
+            timings.record(RequestPhase.DECOMPRESS, decodedStream.getNanos() - wireStream.getNanos());
+        }
+    }
+
+    // reads the whole body so that it can be kept, and serves it from memory from then on
+    /*package*/ byte[] buffer() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InputStream stream = asStream();
+        if (stream != null) {
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = stream.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            stream.close();
+        }
+        byte[] body = out.toByteArray();
+        is = new ByteArrayInputStream(body);
+        return body;
+    }
+
     public abstract void disconnect() throws IOException;
 
     @Override
@@ -35,6 +35,7 @@ public interface HttpResponseCode {
      * @see <a href="http://groups.google.com/group/twitter-api-announce/browse_thread/thread/3f3b0fd38deb9b0f?hl=en">Search API: new HTTP response code 420 for rate limiting starting 1/18/2010</a>
      */
     int ENHANCE_YOUR_CLAIM = 420;// Enhance Your Calm: Returned by the Search and Trends API  when you are being rate limited. Not registered in RFC.
+    int TOO_MANY_REQUESTS = 429;// Too Many Requests: The user has sent too many requests in a given amount of time.
     int INTERNAL_SERVER_ERROR = 500;// Internal Server Error: Something is broken. Please post to the group so the Twitter team can investigate.
     int BAD_GATEWAY = 502;// Bad Gateway: Twitter is down or being upgraded.
     int SERVICE_UNAVAILABLE = 503;// Service Unavailable: The Twitter servers are up, but overloaded with requests. Try again later. The search and trend methods use this to indicate when you are being rate limited.
@@ -19,21 +19,78 @@ package facebook4j.internal.http;
 
 import facebook4j.FacebookException;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
 /**
+ * An immutable record of a request and its outcome, published to the {@link HttpResponseListener}s.<br>
+ * The event holds a copy of the status, headers and timings of the response rather than the response itself,
+ * which is read and released by the request thread while the listeners run.
+ *
  * @author Andrew Hedges - andrew.hedges at gmail.com
  */
 public final class HttpResponseEvent {
 
-    private HttpRequest request;
+    private final HttpRequest request;
+
+    private final FacebookException FacebookException;
+
+    private final long timestamp;
+
+    private final long elapsedNanos;
+
+    private final int statusCode;
 
-    private HttpResponse response;
+    private final long contentLength;
 
-    private FacebookException FacebookException;
+    private final Map<String, List<String>> responseHeaders;
 
-    HttpResponseEvent(HttpRequest request, HttpResponse response, FacebookException te) {
+    private final RequestTimings timings;
+
+    HttpResponseEvent(HttpRequest request, HttpResponse response, FacebookException te, long elapsedNanos) {
         this.request = request;
-        this.response = response;
         this.FacebookException = te;
+        this.timestamp = System.currentTimeMillis();
+        this.elapsedNanos = elapsedNanos;
+        if (response != null) {
+            this.statusCode = response.getStatusCode();
+            this.contentLength = parseContentLength(response.getResponseHeader("Content-Length"));
+            this.timings = response.getTimings().snapshot();
+            this.responseHeaders = copyHeaders(response.getResponseHeaderFields());
+        } else {
+            this.statusCode = te != null ? te.getStatusCode() : -1;
+            this.contentLength = -1;
+            this.timings = null;
+            this.responseHeaders = Collections.emptyMap();
+        }
+    }
+
+    private static Map<String, List<String>> copyHeaders(Map<String, List<String>> fields) {
+        if (fields == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> field : fields.entrySet()) {
+            // the status line has no name
+            if (field.getKey() != null && field.getValue() != null) {
+                headers.put(field.getKey(), Collections.unmodifiableList(new ArrayList<String>(field.getValue())));
+            }
+        }
+        return Collections.unmodifiableMap(headers);
+    }
+
+    private static long parseContentLength(String contentLength) {
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
     }
 
     /**
@@ -46,12 +103,23 @@ public final class HttpResponseEvent {
     }
 
     /**
-     * returns the response associated with the event
+     * returns the value of a header of the response
      *
-     * @return the response associated with the event
+     * @param name the name of the header, case insensitive
+     * @return the first value of the header, or null if the response did not have it
      */
-    public HttpResponse getResponse() {
-        return response;
+    public String getResponseHeader(String name) {
+        List<String> values = responseHeaders.get(name);
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    /**
+     * returns the headers of the response
+     *
+     * @return an unmodifiable copy of the headers by name, empty if no response was received
+     */
+    public Map<String, List<String>> getResponseHeaderFields() {
+        return responseHeaders;
     }
 
     /**
@@ -63,6 +131,51 @@ public final class HttpResponseEvent {
         return FacebookException;
     }
 
+    /**
+     * returns the time the request completed at
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * returns the time the request took until the response headers were received, retries included
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * returns the status code of the response
+     *
+     * @return the status code, or -1 if no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * returns the length of the response body as sent on the wire
+     *
+     * @return the value of the Content-Length header, or -1 if unknown
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * returns the time spent in each phase of the request until the response headers were received
+     *
+     * @return a snapshot of the timings of the request, or null if the request failed
+     */
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
     public boolean isAuthenticated() {
         return request.getAuthorization().isEnabled();
     }
@@ -76,8 +189,9 @@ public final class HttpResponseEvent {
 
         if (request != null ? !request.equals(that.request) : that.request != null)
             return false;
-        if (response != null ? !response.equals(that.response) : that.response != null)
-            return false;
+        if (timestamp != that.timestamp) return false;
+        if (elapsedNanos != that.elapsedNanos) return false;
+        if (statusCode != that.statusCode) return false;
 
         return true;
     }
@@ -85,7 +199,9 @@ public final class HttpResponseEvent {
     @Override
     public int hashCode() {
         int result = request != null ? request.hashCode() : 0;
-        result = 31 * result + (response != null ? response.hashCode() : 0);
+        result = 31 * result + (int) (timestamp ^ (timestamp >>> 32));
+        result = 31 * result + (int) (elapsedNanos ^ (elapsedNanos >>> 32));
+        result = 31 * result + statusCode;
         return result;
     }
 
@@ -93,7 +209,9 @@ public final class HttpResponseEvent {
     public String toString() {
         return "HttpResponseEvent{" +
                 "request=" + request +
-                ", response=" + response +
+                ", statusCode=" + statusCode +
+                ", elapsedNanos=" + elapsedNanos +
+                ", contentLength=" + contentLength +
                 '}';
     }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import facebook4j.internal.logging.Logger;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers {@link HttpResponseEvent}s to any number of {@link HttpResponseListener}s off the request thread.<br>
+ * Events are put in a bounded lock-free queue, which is drained by a task run on the executor; at most one task
+ * per bus runs at a time, so listeners receive the events in order, one at a time.
+ * When the queue is full, the {@link OverflowPolicy} decides what happens to the event.<br>
+ * Unless an executor is given, the buses share a single daemon thread.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class HttpResponseEventBus {
+    private static final Logger logger = Logger.getLogger(HttpResponseEventBus.class);
+
+    /**
+     * What to do with an event published while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** discards the event being published */
+        DROP_NEWEST,
+        /** discards the oldest queued event to make room */
+        DROP_OLDEST,
+        /** delivers the event on the publishing thread, slowing the requests down to the pace of the listeners */
+        CALLER_RUNS,
+    }
+
+    /**
+     * the default capacity of the queue
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static ExecutorService defaultExecutor;
+
+    private final CopyOnWriteArrayList<HttpResponseListener> listeners = new CopyOnWriteArrayList<HttpResponseListener>();
+    private final ConcurrentLinkedQueue<HttpResponseEvent> queue = new ConcurrentLinkedQueue<HttpResponseEvent>();
+    // ConcurrentLinkedQueue.size() is O(n), the size is tracked separately
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Executor executor;
+
+    private final Runnable drainTask = new Runnable() {
+        public void run() {
+            drain();
+        }
+    };
+
+    public HttpResponseEventBus() {
+        this(DEFAULT_CAPACITY, OverflowPolicy.DROP_NEWEST, null);
+    }
+
+    /**
+     * @param capacity the number of events the queue holds
+     * @param policy   what to do with events published while the queue is full
+     * @param executor the executor the listeners are called on, or null to use the shared daemon thread
+     */
+    public HttpResponseEventBus(int capacity, OverflowPolicy policy, Executor executor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.executor = executor != null ? executor : getDefaultExecutor();
+    }
+
+    private static synchronized ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            defaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Facebook4J HttpResponseEvent Dispatcher");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return defaultExecutor;
+    }
+
+    public void addListener(HttpResponseListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(HttpResponseListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void removeAllListeners() {
+        listeners.clear();
+    }
+
+    /**
+     * @return true if at least one listener is registered. publishers can skip creating events otherwise
+     */
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * @return the number of events discarded because the queue was full
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return the number of events waiting to be delivered
+     */
+    public int getQueuedCount() {
+        return size.get();
+    }
+
+    /**
+     * Queues the event for delivery. Never blocks, unless the policy is {@link OverflowPolicy#CALLER_RUNS}
+     * and the queue is full.
+     *
+     * @param event event
+     */
+    public void publish(HttpResponseEvent event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            switch (policy) {
+                case DROP_NEWEST:
+                    droppedCount.incrementAndGet();
+                    return;
+                case DROP_OLDEST:
+                    if (queue.poll() != null) {
+                        droppedCount.incrementAndGet();
+                    } else {
+                        size.incrementAndGet();
+                    }
+                    // the freed slot is reused without touching the size
+                    queue.offer(event);
+                    scheduleDrain();
+                    return;
+                case CALLER_RUNS:
+                    deliver(event);
+                    return;
+            }
+        }
+        queue.offer(event);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(drainTask);
+            } catch (RejectedExecutionException ree) {
+                draining.set(false);
+                logger.warn("HttpResponseEvent dispatcher rejected the delivery: ", ree.getMessage());
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            HttpResponseEvent event;
+            while ((event = queue.poll()) != null) {
+                size.decrementAndGet();
+                deliver(event);
+            }
+        } finally {
+            draining.set(false);
+        }
+        // an event may have been queued after the last poll and before the flag was cleared
+        if (!queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void deliver(HttpResponseEvent event) {
+        for (HttpResponseListener listener : listeners) {
+            try {
+                listener.httpResponseReceived(event);
+            } catch (RuntimeException e) {
+                logger.warn("HttpResponseListener threw an exception: ", e.toString());
+            }
+        }
+    }
+}
@@ -30,15 +30,22 @@ public class HttpResponseImpl extends HttpResponse {
     private HttpURLConnection con;
 
     HttpResponseImpl(HttpURLConnection con, HttpClientConfiguration conf) throws IOException {
-        super(conf);
+        this(con, conf, new RequestTimings());
+    }
+
+    HttpResponseImpl(HttpURLConnection con, HttpClientConfiguration conf, RequestTimings timings) throws IOException {
+        super(conf, timings);
         this.con = con;
         this.statusCode = con.getResponseCode();
         if (null == (is = con.getErrorStream())) {
             is = con.getInputStream();
         }
-        if (is != null && "gzip".equals(con.getContentEncoding())) {
-            // the response is gzipped
-            is = new GZIPInputStream(is);
+        if (is != null) {
+            is = wireStream = new TimingInputStream(is);
+            if ("gzip".equals(con.getContentEncoding())) {
+                // the response is gzipped
+                is = decodedStream = new TimingInputStream(new GZIPInputStream(is));
+            }
         }
     }
 
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+/**
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+final class NullRequestTracer extends RequestTracer {
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void attemptCompleted(String endpoint, int statusCode, long contentLength, long durationNanos, int retryIndex) {
+    }
+
+    @Override
+    public void responseParsed(long bytes, long durationNanos) {
+    }
+
+    @Override
+    public void backoff(String endpoint, int statusCode, int retryIndex, long sleepMillis) {
+    }
+}
@@ -0,0 +1,480 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import facebook4j.RequestPriority;
+import facebook4j.auth.AccessToken;
+import facebook4j.auth.OAuthAuthorization;
+import facebook4j.conf.Configuration;
+import facebook4j.management.SchedulerStatistics;
+import facebook4j.management.TenantStatistics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares a fixed number of concurrent requests fairly among tenants, so that a tenant running a backfill
+ * does not hold up the others.<br>
+ * Requests wait in per-tenant queues, keyed by access token. Free slots are handed out by deficit round-robin:
+ * a tenant gets up to its weight of requests per round, and a tenant already running its maximum number of
+ * requests is skipped until one of them completes.<br>
+ * Requests are also either INTERACTIVE or BACKGROUND, see {@link RequestPriority}. Waiting interactive requests
+ * always go first, and background requests only borrow the slots left idle beyond the interactive reserve,
+ * so that a crawl never delays a user-facing call by more than the requests already running.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class RequestScheduler implements SchedulerStatistics.Source {
+    /**
+     * the tenant of requests without an access token
+     */
+    public static final String DEFAULT_TENANT = "default";
+
+    // idle tenants are forgotten beyond this number
+    private static final int MAX_IDLE_TENANTS = 10000;
+
+    // by app and settings, not by configuration, which differs by access token
+    private static final Map<String, RequestScheduler> instances = new HashMap<String, RequestScheduler>();
+
+    private final int maxConcurrency;
+    private final int tenantConcurrency;
+    private final int interactiveReserve;
+    private final SchedulerStatistics statistics;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Tenant> tenants = new HashMap<String, Tenant>();
+    // indexed by RequestPriority.ordinal(), most urgent first
+    private final PriorityClass[] classes;
+    private int inFlight = 0;
+
+    /**
+     * @param conf configuration
+     * @return the scheduler shared by the clients of the app and settings of the configuration,
+     *         or null if requests are not scheduled
+     */
+    public static RequestScheduler getInstance(HttpClientWrapperConfiguration conf) {
+        if (conf.getRequestSchedulerMaxConcurrency() <= 0) {
+            return null;
+        }
+        String key = (conf instanceof Configuration
+                ? ((Configuration) conf).getOAuthAppId() + "@" + ((Configuration) conf).getRestBaseURL() : "")
+                + "/" + conf.getRequestSchedulerMaxConcurrency() + "/" + conf.getRequestSchedulerTenantConcurrency()
+                + "/" + conf.getRequestSchedulerInteractiveReserve();
+        synchronized (instances) {
+            RequestScheduler scheduler = instances.get(key);
+            if (scheduler == null) {
+                scheduler = new RequestScheduler(conf.getRequestSchedulerMaxConcurrency(),
+                        conf.getRequestSchedulerTenantConcurrency(), conf.getRequestSchedulerInteractiveReserve());
+                instances.put(key, scheduler);
+            }
+            return scheduler;
+        }
+    }
+
+    /**
+     * @param maxConcurrency    the number of requests let run at once
+     * @param tenantConcurrency the number of requests of a tenant let run at once, or 0 for no limit
+     */
+    public RequestScheduler(int maxConcurrency, int tenantConcurrency) {
+        this(maxConcurrency, tenantConcurrency, 0);
+    }
+
+    /**
+     * @param maxConcurrency     the number of requests let run at once
+     * @param tenantConcurrency  the number of requests of a tenant let run at once, or 0 for no limit
+     * @param interactiveReserve the number of slots background requests may not take. They always get at least one.
+     */
+    public RequestScheduler(int maxConcurrency, int tenantConcurrency, int interactiveReserve) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.tenantConcurrency = tenantConcurrency;
+        this.interactiveReserve = interactiveReserve;
+        RequestPriority[] priorities = RequestPriority.values();
+        this.classes = new PriorityClass[priorities.length];
+        for (RequestPriority priority : priorities) {
+            int limit = priority == RequestPriority.INTERACTIVE ? maxConcurrency
+                    : Math.max(1, maxConcurrency - Math.max(0, interactiveReserve));
+            classes[priority.ordinal()] = new PriorityClass(limit);
+        }
+        this.statistics = new SchedulerStatistics("scheduler", this);
+    }
+
+    private static final class PriorityClass {
+        // the total number of requests running at which the class has to wait
+        private final int limit;
+        // lanes having waiting requests, in round-robin order
+        private final LinkedList<Lane> ring = new LinkedList<Lane>();
+        private int inFlight = 0;
+        private long grantedCount = 0;
+        private long totalWaitNanos = 0;
+
+        PriorityClass(int limit) {
+            this.limit = limit;
+        }
+    }
+
+    // the waiting requests of a tenant in a priority class
+    private static final class Lane {
+        private final Tenant tenant;
+        private final PriorityClass priorityClass;
+        private final LinkedList<Ticket> queue = new LinkedList<Ticket>();
+        private int deficit = 0;
+        private boolean scheduled = false;
+
+        Lane(Tenant tenant, PriorityClass priorityClass) {
+            this.tenant = tenant;
+            this.priorityClass = priorityClass;
+        }
+    }
+
+    private final class Tenant {
+        private final String key;
+        private String name;
+        private int weight = 1;
+        private final Lane[] lanes;
+        private int inFlight = 0;
+        private long grantedCount = 0;
+        private long totalWaitNanos = 0;
+        private long maxWaitNanos = 0;
+
+        Tenant(String key) {
+            this.key = key;
+            this.name = DEFAULT_TENANT.equals(key) ? key : "tenant-" + Integer.toHexString(key.hashCode());
+            this.lanes = new Lane[classes.length];
+            for (int i = 0; i < classes.length; i++) {
+                lanes[i] = new Lane(this, classes[i]);
+            }
+        }
+
+        boolean isCapped() {
+            return tenantConcurrency > 0 && inFlight >= tenantConcurrency;
+        }
+
+        int getQueueDepth() {
+            int depth = 0;
+            for (Lane lane : lanes) {
+                depth += lane.queue.size();
+            }
+            return depth;
+        }
+
+        boolean isIdle() {
+            return inFlight == 0 && getQueueDepth() == 0;
+        }
+    }
+
+    /**
+     * The permission of a request to run, to be passed to {@link RequestScheduler#release(Ticket)} once the request completes.
+     */
+    public static final class Ticket {
+        private final Lane lane;
+        private final Condition granted;
+        private final long enqueuedAt;
+        private boolean running = false;
+
+        private Ticket(Lane lane, Condition granted) {
+            this.lane = lane;
+            this.granted = granted;
+            this.enqueuedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Waits until the tenant's interactive request may run.
+     *
+     * @param tenantKey the tenant, see {@link #getTenant(HttpRequest)}
+     * @return the ticket to release when the request completes
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public Ticket acquire(String tenantKey) throws InterruptedException {
+        return acquire(tenantKey, RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * Waits until the tenant's request may run.
+     *
+     * @param tenantKey the tenant, see {@link #getTenant(HttpRequest)}
+     * @param priority  the priority class of the request
+     * @return the ticket to release when the request completes
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public Ticket acquire(String tenantKey, RequestPriority priority) throws InterruptedException {
+        lock.lock();
+        try {
+            Tenant tenant = getOrCreateTenant(tenantKey);
+            Lane lane = tenant.lanes[priority.ordinal()];
+            Ticket ticket = new Ticket(lane, lock.newCondition());
+            if (inFlight < lane.priorityClass.limit && !tenant.isCapped() && !isWaiting(priority)) {
+                grant(ticket);
+                return ticket;
+            }
+            lane.queue.addLast(ticket);
+            if (!lane.scheduled) {
+                lane.scheduled = true;
+                lane.priorityClass.ring.addLast(lane);
+            }
+            dispatch();
+            try {
+                while (!ticket.running) {
+                    ticket.granted.await();
+                }
+            } catch (InterruptedException ie) {
+                if (!ticket.running) {
+                    lane.queue.remove(ticket);
+                    throw ie;
+                }
+                // the request may run anyway, the interruption is left for the caller
+                Thread.currentThread().interrupt();
+            }
+            return ticket;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot of a completed request.
+     *
+     * @param ticket the ticket returned by {@link #acquire(String)}
+     */
+    public void release(Ticket ticket) {
+        lock.lock();
+        try {
+            Tenant tenant = ticket.lane.tenant;
+            inFlight--;
+            tenant.inFlight--;
+            ticket.lane.priorityClass.inFlight--;
+            dispatch();
+            if (tenant.isIdle() && tenants.size() > MAX_IDLE_TENANTS && tenant.weight == 1) {
+                tenants.remove(tenant.key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the weight of a tenant: it gets up to that many requests per round while others are waiting.
+     *
+     * @param tenantKey the tenant
+     * @param name      the name of the tenant in the statistics, or null to keep the default one
+     * @param weight    the weight, 1 by default
+     */
+    public void setTenant(String tenantKey, String name, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be positive: " + weight);
+        }
+        lock.lock();
+        try {
+            Tenant tenant = getOrCreateTenant(tenantKey);
+            if (name != null) {
+                tenant.name = name;
+            }
+            tenant.weight = weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the tenant of a request: its access token, or {@link #DEFAULT_TENANT} if it has none.
+     *
+     * @param req request
+     * @return the tenant key
+     */
+    public static String getTenant(HttpRequest req) {
+        if (req.getAuthorization() instanceof OAuthAuthorization) {
+            AccessToken accessToken = ((OAuthAuthorization) req.getAuthorization()).getOAuthAccessToken();
+            if (accessToken != null && accessToken.getToken() != null) {
+                return accessToken.getToken();
+            }
+        }
+        if (req.getParameters() != null) {
+            for (HttpParameter param : req.getParameters()) {
+                if ("access_token".equals(param.getName())) {
+                    return param.getValue();
+                }
+            }
+        }
+        return DEFAULT_TENANT;
+    }
+
+    public SchedulerStatistics getStatistics() {
+        return statistics;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInteractiveReserve() {
+        return interactiveReserve;
+    }
+
+    public int getInFlight(RequestPriority priority) {
+        lock.lock();
+        try {
+            return classes[priority.ordinal()].inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth(RequestPriority priority) {
+        lock.lock();
+        try {
+            int depth = 0;
+            for (Lane lane : classes[priority.ordinal()].ring) {
+                depth += lane.queue.size();
+            }
+            return depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getMeanWaitMillis(RequestPriority priority) {
+        lock.lock();
+        try {
+            PriorityClass priorityClass = classes[priority.ordinal()];
+            return priorityClass.grantedCount == 0 ? 0
+                    : priorityClass.totalWaitNanos / 1000000d / priorityClass.grantedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<TenantStatistics> getTenantStatistics() {
+        lock.lock();
+        try {
+            List<TenantStatistics> list = new ArrayList<TenantStatistics>(tenants.size());
+            for (Tenant tenant : tenants.values()) {
+                list.add(new TenantStatistics(tenant.name, tenant.weight, tenant.getQueueDepth(), tenant.inFlight,
+                        tenant.grantedCount, tenant.totalWaitNanos, tenant.maxWaitNanos));
+            }
+            return list;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Tenant getOrCreateTenant(String key) {
+        Tenant tenant = tenants.get(key);
+        if (tenant == null) {
+            if (tenants.size() >= MAX_IDLE_TENANTS) {
+                forgetIdleTenants();
+            }
+            tenant = new Tenant(key);
+            tenants.put(key, tenant);
+        }
+        return tenant;
+    }
+
+    private void forgetIdleTenants() {
+        for (Iterator<Tenant> iterator = tenants.values().iterator(); iterator.hasNext(); ) {
+            Tenant tenant = iterator.next();
+            if (tenant.isIdle() && tenant.weight == 1) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // whether requests of the same or a more urgent class are waiting
+    private boolean isWaiting(RequestPriority priority) {
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            if (!classes[i].ring.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // serves the classes in order, so that waiting background requests are only let run when no interactive one can
+    private void dispatch() {
+        for (PriorityClass priorityClass : classes) {
+            dispatch(priorityClass);
+        }
+    }
+
+    // deficit round-robin with a cost of one per request
+    private void dispatch(PriorityClass priorityClass) {
+        LinkedList<Lane> ring = priorityClass.ring;
+        int skipped = 0;
+        while (inFlight < priorityClass.limit && skipped < ring.size()) {
+            Lane lane = ring.getFirst();
+            if (lane.queue.isEmpty()) {
+                ring.removeFirst();
+                lane.scheduled = false;
+                lane.deficit = 0;
+                continue;
+            }
+            if (lane.tenant.isCapped()) {
+                ring.addLast(ring.removeFirst());
+                skipped++;
+                continue;
+            }
+            if (lane.deficit == 0) {
+                // its turn starts
+                lane.deficit = lane.tenant.weight;
+            }
+            grant(lane.queue.removeFirst());
+            lane.deficit--;
+            skipped = 0;
+            if (lane.deficit == 0 || lane.queue.isEmpty()) {
+                ring.removeFirst();
+                if (lane.queue.isEmpty()) {
+                    lane.scheduled = false;
+                    lane.deficit = 0;
+                } else {
+                    ring.addLast(lane);
+                }
+            }
+        }
+    }
+
+    private void grant(Ticket ticket) {
+        Tenant tenant = ticket.lane.tenant;
+        PriorityClass priorityClass = ticket.lane.priorityClass;
+        ticket.running = true;
+        inFlight++;
+        tenant.inFlight++;
+        priorityClass.inFlight++;
+        long waitNanos = System.nanoTime() - ticket.enqueuedAt;
+        priorityClass.grantedCount++;
+        priorityClass.totalWaitNanos += waitNanos;
+        tenant.grantedCount++;
+        tenant.totalWaitNanos += waitNanos;
+        tenant.maxWaitNanos = Math.max(tenant.maxWaitNanos, waitNanos);
+        ticket.granted.signal();
+    }
+}
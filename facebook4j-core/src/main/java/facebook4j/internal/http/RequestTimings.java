@@ -0,0 +1,136 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import facebook4j.management.RequestPhase;
+
+/**
+ * Breakdown of the time a single request spent in each {@link RequestPhase}.<br>
+ * Network phases are recorded by {@link HttpClientImpl} and {@link HttpResponse}, the bind phase by the JSON factory.
+ * Times of retried attempts are accumulated.<br>
+ * An instance is meant to be used by the thread executing the request only.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class RequestTimings implements java.io.Serializable {
+    private static final long serialVersionUID = -2383725349823149573L;
+
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+
+    /**
+     * Receives the phases of a request as they are recorded.
+     */
+    public interface Listener {
+        void phaseRecorded(RequestPhase phase, long nanos);
+    }
+
+    private final long[] nanos = new long[PHASES.length];
+    private long bytes;
+    private int retryCount;
+    private transient Listener listener;
+
+    public void record(RequestPhase phase, long elapsedNanos) {
+        if (elapsedNanos < 0) {
+            elapsedNanos = 0;
+        }
+        nanos[phase.ordinal()] += elapsedNanos;
+        if (listener != null) {
+            listener.phaseRecorded(phase, elapsedNanos);
+        }
+    }
+
+    /**
+     * @param phase the phase
+     * @return the time spent in the phase in nanoseconds
+     */
+    public long getNanos(RequestPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * @return the time spent in network phases (connect, write, ttfb, read) in nanoseconds
+     */
+    public long getNetworkNanos() {
+        return getNanos(RequestPhase.CONNECT) + getNanos(RequestPhase.WRITE)
+                + getNanos(RequestPhase.TTFB) + getNanos(RequestPhase.READ);
+    }
+
+    /**
+     * @return the time spent in CPU bound phases (decompress, parse, bind) in nanoseconds
+     */
+    public long getProcessingNanos() {
+        return getNanos(RequestPhase.DECOMPRESS) + getNanos(RequestPhase.PARSE) + getNanos(RequestPhase.BIND);
+    }
+
+    /**
+     * @return the number of bytes received on the wire
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /*package*/ void addBytes(long bytes) {
+        this.bytes += bytes;
+    }
+
+    /**
+     * @return the number of times the request has been retried
+     */
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    /*package*/ void retried() {
+        retryCount++;
+    }
+
+    /**
+     * @return a copy of the timings recorded so far, not notifying any listener
+     */
+    public RequestTimings snapshot() {
+        RequestTimings copy = new RequestTimings();
+        System.arraycopy(nanos, 0, copy.nanos, 0, nanos.length);
+        copy.bytes = bytes;
+        copy.retryCount = retryCount;
+        return copy;
+    }
+
+    /**
+     * Sets the listener notified of phases recorded from now on. The phases recorded so far are replayed to the listener.
+     *
+     * @param listener listener
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+        if (listener != null) {
+            for (RequestPhase phase : PHASES) {
+                if (nanos[phase.ordinal()] > 0) {
+                    listener.phaseRecorded(phase, nanos[phase.ordinal()]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("RequestTimings{");
+        for (RequestPhase phase : PHASES) {
+            sb.append(phase.getLabel()).append("=").append(nanos[phase.ordinal()] / 1000).append("us, ");
+        }
+        return sb.append("bytes=").append(bytes).append(", retryCount=").append(retryCount).append('}').toString();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import java.lang.reflect.InvocationTargetException;
+
+import facebook4j.internal.logging.Logger;
+
+/**
+ * Receives trace events of Graph API requests: each HTTP attempt, the parsing of response bodies, and the backoff
+ * before retries.<br>
+ * Tracing is disabled by default. An implementation is enabled with
+ * <code>-Dfacebook4j.http.requestTracer=&lt;class name&gt;</code> or {@link #setInstance(RequestTracer)}; if the named
+ * class cannot be instantiated, an error is logged and tracing stays disabled.
+ * Event arguments are computed only while {@link #isEnabled()} returns true, so a disabled tracer costs one check per call.<br>
+ * This library targets Java 5 and does not depend on Java Flight Recorder, but an implementation can commit
+ * <code>jdk.jfr.Event</code>s carrying the given values, and check <code>Event#isEnabled()</code> in {@link #isEnabled()}
+ * so that events are only built while a recording is running.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public abstract class RequestTracer {
+    private static final Logger logger = Logger.getLogger(RequestTracer.class);
+    private static final String REQUEST_TRACER_IMPLEMENTATION = "facebook4j.http.requestTracer";
+    private static final RequestTracer NULL_TRACER = new NullRequestTracer();
+
+    private static volatile RequestTracer tracer;
+
+    static {
+        String requestTracerImpl = null;
+        //-Dfacebook4j.http.requestTracer=com.example.JFRRequestTracer
+        try {
+            requestTracerImpl = System.getProperty(REQUEST_TRACER_IMPLEMENTATION);
+        } catch (SecurityException ignore) {
+            // Unsigned applets are not allowed to access System properties
+        }
+        tracer = requestTracerImpl != null ? newTracer(requestTracerImpl) : NULL_TRACER;
+    }
+
+    /**
+     * Instantiates the tracer named by <code>facebook4j.http.requestTracer</code>.<br>
+     * A misconfigured tracer must not make the HTTP classes fail to load, so any problem is logged as an error and
+     * tracing stays disabled.
+     *
+     * @param className the name of a RequestTracer subclass with a public no-arg constructor
+     * @return the tracer, or a tracer that reports nothing if it could not be created
+     */
+    /*package*/ static RequestTracer newTracer(String className) {
+        try {
+            Class<?> clazz = Class.forName(className);
+            if (!RequestTracer.class.isAssignableFrom(clazz)) {
+                logger.error("Request tracing is disabled: " + className + " (-D" + REQUEST_TRACER_IMPLEMENTATION
+                        + ") does not extend " + RequestTracer.class.getName());
+                return NULL_TRACER;
+            }
+            return (RequestTracer) clazz.getConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            logger.error("Request tracing is disabled: the constructor of " + className + " (-D"
+                    + REQUEST_TRACER_IMPLEMENTATION + ") failed", e.getCause());
+        } catch (Exception e) {
+            // ClassNotFoundException, NoSuchMethodException, InstantiationException, IllegalAccessException
+            logger.error("Request tracing is disabled: cannot instantiate " + className + " (-D"
+                    + REQUEST_TRACER_IMPLEMENTATION + ")", e);
+        } catch (LinkageError e) {
+            logger.error("Request tracing is disabled: cannot load " + className + " (-D"
+                    + REQUEST_TRACER_IMPLEMENTATION + ")", e);
+        }
+        return NULL_TRACER;
+    }
+
+    /**
+     * @return the current tracer
+     */
+    public static RequestTracer getInstance() {
+        return tracer;
+    }
+
+    /**
+     * @param requestTracer the tracer to use from now on, or null to disable tracing
+     */
+    public static void setInstance(RequestTracer requestTracer) {
+        tracer = requestTracer != null ? requestTracer : NULL_TRACER;
+    }
+
+    /**
+     * @return true if the events are to be reported
+     */
+    public abstract boolean isEnabled();
+
+    /**
+     * Called for each HTTP attempt, once the response headers are received or the attempt failed.
+     *
+     * @param endpoint      the endpoint template of the URL (see {@link EndpointClassifier})
+     * @param statusCode    the status code, or -1 if no response was received
+     * @param contentLength the length of the response body as announced, or -1 if unknown
+     * @param durationNanos the time from connecting to receiving the response headers
+     * @param retryIndex    0 for the first attempt, 1 for the first retry, ...
+     */
+    public abstract void attemptCompleted(String endpoint, int statusCode, long contentLength, long durationNanos, int retryIndex);
+
+    /**
+     * Called when a response body has been parsed into a JSONObject or JSONArray.
+     *
+     * @param bytes         the length of the parsed body (inflated, if gzipped)
+     * @param durationNanos the time spent parsing, excluding the time spent reading the body
+     */
+    public abstract void responseParsed(long bytes, long durationNanos);
+
+    /**
+     * Called before sleeping until the next retry.
+     *
+     * @param endpoint    the endpoint template of the URL
+     * @param statusCode  the status code of the failed attempt, or -1 if no response was received
+     * @param retryIndex  the index of the upcoming retry
+     * @param sleepMillis the time to sleep
+     */
+    public abstract void backoff(String endpoint, int statusCode, int retryIndex, long sleepMillis);
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import facebook4j.internal.logging.Logger;
+import facebook4j.internal.org.json.JSONArray;
+import facebook4j.internal.org.json.JSONException;
+import facebook4j.internal.org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs response bodies at debug level on a background thread, so that writing them out does not add to the
+ * requests.<br>
+ * The body is rendered on the calling thread, before the caller can modify it, and only the resulting string is
+ * handed to the background thread. Bodies are truncated to <code>-Dfacebook4j.http.bodyLogMaxLength</code> characters (4096 by default),
+ * and dropped when more than 256 bodies are waiting.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+final class ResponseBodyLogger {
+    private static final String BODY_LOG_MAX_LENGTH = "facebook4j.http.bodyLogMaxLength";
+    private static final int MAX_LENGTH;
+    private static final int QUEUE_CAPACITY = 256;
+
+    private static ExecutorService executor;
+
+    static {
+        int maxLength = 4096;
+        try {
+            String value = System.getProperty(BODY_LOG_MAX_LENGTH);
+            if (value != null) {
+                maxLength = Integer.parseInt(value);
+            }
+        } catch (SecurityException ignore) {
+            // Unsigned applets are not allowed to access System properties
+        } catch (NumberFormatException ignore) {
+        }
+        MAX_LENGTH = maxLength;
+    }
+
+    private ResponseBodyLogger() {
+        throw new AssertionError("not intended to be instantiated.");
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(QUEUE_CAPACITY), new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Facebook4J Response Body Logger");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }, new ThreadPoolExecutor.DiscardPolicy());
+        }
+        return executor;
+    }
+
+    /**
+     * @param logger logger to write the body to
+     * @param body   String, JSONObject or JSONArray
+     * @param pretty true to indent JSON bodies
+     */
+    static void log(final Logger logger, Object body, boolean pretty) {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+        final String rendered = render(body, pretty);
+        getExecutor().execute(new Runnable() {
+            public void run() {
+                logger.debug(rendered);
+            }
+        });
+    }
+
+    /*package*/ static String render(Object body, boolean pretty) {
+        if (body instanceof JSONObject || body instanceof JSONArray) {
+            // stops serializing once the limit is reached, indented or not
+            CappedWriter capped = new CappedWriter(MAX_LENGTH);
+            Writer writer = pretty ? new IndentingWriter(capped) : capped;
+            try {
+                if (body instanceof JSONObject) {
+                    ((JSONObject) body).write(writer);
+                } else {
+                    ((JSONArray) body).write(writer);
+                }
+            } catch (JSONException limitReached) {
+                // the writer is full
+            }
+            return capped.toString();
+        }
+        return truncate(String.valueOf(body));
+    }
+
+    private static String truncate(String body) {
+        if (body.length() <= MAX_LENGTH) {
+            return body;
+        }
+        return body.substring(0, MAX_LENGTH) + "...(" + body.length() + " chars)";
+    }
+
+    /**
+     * Indents the compact form written by JSONObject#write(Writer) and JSONArray#write(Writer) by one space per level.
+     */
+    private static final class IndentingWriter extends Writer {
+        private final Writer out;
+        private int depth = 0;
+        private boolean inString = false;
+        private boolean escaped = false;
+        // an opening brace or bracket has been written, and the line break after it is held back in case it is empty
+        private boolean opened = false;
+
+        private IndentingWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                write(cbuf[i]);
+            }
+        }
+
+        private void write(char c) throws IOException {
+            if (inString) {
+                out.write(c);
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                return;
+            }
+            if (opened) {
+                opened = false;
+                if (c == '}' || c == ']') {
+                    depth--;
+                    out.write(c);
+                    return;
+                }
+                newLine();
+            }
+            switch (c) {
+                case '"':
+                    inString = true;
+                    out.write(c);
+                    break;
+                case '{':
+                case '[':
+                    out.write(c);
+                    depth++;
+                    opened = true;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    newLine();
+                    out.write(c);
+                    break;
+                case ',':
+                    out.write(c);
+                    newLine();
+                    break;
+                case ':':
+                    out.write(": ");
+                    break;
+                default:
+                    out.write(c);
+            }
+        }
+
+        private void newLine() throws IOException {
+            out.write('\n');
+            for (int i = 0; i < depth; i++) {
+                out.write(' ');
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class CappedWriter extends Writer {
+        private final StringBuilder sb;
+        private final int capacity;
+        private boolean truncated = false;
+
+        private CappedWriter(int capacity) {
+            this.capacity = capacity;
+            this.sb = new StringBuilder(Math.min(capacity, 1024));
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            int room = capacity - sb.length();
+            if (len > room) {
+                sb.append(cbuf, off, room);
+                truncated = true;
+                throw new IOException("limit reached");
+            }
+            sb.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str) throws IOException {
+            int room = capacity - sb.length();
+            if (str.length() > room) {
+                sb.append(str, 0, room);
+                truncated = true;
+                throw new IOException("limit reached");
+            }
+            sb.append(str);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return truncated ? sb.toString() + "..." : sb.toString();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An InputStream that keeps track of the time spent in, and the bytes returned by, the underlying stream.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+/*package*/ final class TimingInputStream extends FilterInputStream {
+    private long nanos;
+    private long bytes;
+
+    /*package*/ TimingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        try {
+            int b = in.read();
+            if (b != -1) {
+                bytes++;
+            }
+            return b;
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        try {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                bytes += n;
+            }
+            return n;
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return in.skip(n);
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /*package*/ long getNanos() {
+        return nanos;
+    }
+
+    /*package*/ long getBytes() {
+        return bytes;
+    }
+}
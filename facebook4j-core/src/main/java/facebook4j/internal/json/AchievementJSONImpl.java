@@ -57,7 +57,6 @@ import facebook4j.internal.org.json.JSONObject;
         JSONObject json = res.asJSONObject();
         init(json);
         if (conf.isJSONStoreEnabled()) {
-            DataObjectFactoryUtil.clearThreadLocalMap();
             DataObjectFactoryUtil.registerJSONObject(this, json);
         }
     }
@@ -157,9 +156,6 @@ import facebook4j.internal.org.json.JSONObject;
     /*package*/
     static ResponseList<Achievement> createAchievementList(HttpResponse res, Configuration conf) throws FacebookException {
         try {
-            if (conf.isJSONStoreEnabled()) {
-                DataObjectFactoryUtil.clearThreadLocalMap();
-            }
             JSONObject json = res.asJSONObject();
             JSONArray list = json.getJSONArray("data");
             int size = list.length();
@@ -61,7 +61,6 @@ import facebook4j.internal.org.json.JSONObject;
         JSONObject json = res.asJSONObject();
         init(json);
         if (conf.isJSONStoreEnabled()) {
-            DataObjectFactoryUtil.clearThreadLocalMap();
             DataObjectFactoryUtil.registerJSONObject(this, json);
         }
     }
@@ -163,9 +162,6 @@ import facebook4j.internal.org.json.JSONObject;
     /*package*/
     static ResponseList<Album> createAlbumList(HttpResponse res, Configuration conf) throws FacebookException {
         try {
-            if (conf.isJSONStoreEnabled()) {
-                DataObjectFactoryUtil.clearThreadLocalMap();
-            }
             JSONObject json = res.asJSONObject();
             JSONArray list = json.getJSONArray("data");
             int size = list.length();
@@ -16,13 +16,8 @@
 
 package facebook4j.internal.json;
 
-import facebook4j.json.DataObjectFactory;
-
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-
 /**
- * provides public access to package private methods of facebook4j.json.DataObjectFactory class.<br>
+ * provides public access to the raw JSON forms stored for facebook4j.json.DataObjectFactory class.<br>
  * This class is not intended to be used by Twitter4J client.
  *
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -32,52 +27,20 @@ public class DataObjectFactoryUtil {
         throw new AssertionError("not intended to be instantiated.");
     }
 
-    private static final Method CLEAR_THREAD_LOCAL_MAP;
-    private static final Method REGISTER_JSON_OBJECT;
-
-    static {
-        Method[] methods = DataObjectFactory.class.getDeclaredMethods();
-        Method clearThreadLocalMap = null;
-        Method registerJSONObject = null;
-        for (Method method : methods) {
-            if (method.getName().equals("clearThreadLocalMap")) {
-                clearThreadLocalMap = method;
-                clearThreadLocalMap.setAccessible(true);
-            } else if (method.getName().equals("registerJSONObject")) {
-                registerJSONObject = method;
-                registerJSONObject.setAccessible(true);
-            }
-        }
-        if (null == clearThreadLocalMap || null == registerJSONObject) {
-            throw new AssertionError();
-        }
-        CLEAR_THREAD_LOCAL_MAP = clearThreadLocalMap;
-        REGISTER_JSON_OBJECT = registerJSONObject;
-    }
-
     /**
-     * provides a public access to {DAOFactory#clearThreadLocalMap}
+     * raw JSON forms are no longer bound to the thread, but kept in a bounded store shared by all threads.
+     *
+     * @deprecated does nothing
      */
+    @Deprecated
     public static void clearThreadLocalMap() {
-        try {
-            CLEAR_THREAD_LOCAL_MAP.invoke(null);
-        } catch (IllegalAccessException e) {
-            throw new AssertionError(e);
-        } catch (InvocationTargetException e) {
-            throw new AssertionError(e);
-        }
     }
 
     /**
-     * provides a public access to {DAOFactory#registerJSONObject}
+     * associates a raw JSON form to the object
      */
     public static <T> T registerJSONObject(T key, Object json) {
-        try {
-            return (T) REGISTER_JSON_OBJECT.invoke(null, key, json);
-        } catch (IllegalAccessException e) {
-            throw new AssertionError(e);
-        } catch (InvocationTargetException e) {
-            throw new AssertionError(e);
-        }
+        RawJSONStore.getInstance().put(key, json);
+        return key;
     }
 }
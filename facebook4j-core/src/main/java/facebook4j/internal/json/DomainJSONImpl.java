@@ -43,9 +43,6 @@ import facebook4j.internal.org.json.JSONObject;
     /*package*/
     static List<Domain> createDomainArray(HttpResponse res, Configuration conf) throws FacebookException {
         try {
-            if (conf.isJSONStoreEnabled()) {
-                DataObjectFactoryUtil.clearThreadLocalMap();
-            }
             JSONObject json = res.asJSONObject();
             List<Domain> domains = new ArrayList<Domain>();
             Iterator ids = json.keys();
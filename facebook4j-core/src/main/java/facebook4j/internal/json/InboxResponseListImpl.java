@@ -67,6 +67,7 @@ public class InboxResponseListImpl<T> extends ResponseListImpl<T> implements Inb
         private Integer unseenCount;
         private Integer unreadCount;
         private Date updatedTime;
+        private Integer totalCount;
 
         public SummaryJSONImpl(JSONObject json) throws FacebookException {
             if (!json.isNull("unseen_count")) {
@@ -76,6 +77,9 @@ public class InboxResponseListImpl<T> extends ResponseListImpl<T> implements Inb
                 unreadCount = getPrimitiveInt("unread_count", json);
             }
             updatedTime = getISO8601Datetime("updated_time", json);
+            if (!json.isNull("total_count")) {
+                totalCount = getPrimitiveInt("total_count", json);
+            }
         }
 
         public Integer getUnseenCount() {
@@ -90,11 +94,15 @@ public class InboxResponseListImpl<T> extends ResponseListImpl<T> implements Inb
             return updatedTime;
         }
 
+        public Integer getTotalCount() {
+            return totalCount;
+        }
+
         @Override
         public String toString() {
             return "SummaryJSONImpl [unseenCount=" + unseenCount
                     + ", unreadCount=" + unreadCount + ", updatedTime="
-                    + updatedTime + "]";
+                    + updatedTime + ", totalCount=" + totalCount + "]";
         }
         
     }
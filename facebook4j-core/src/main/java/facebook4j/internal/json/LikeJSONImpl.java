@@ -42,9 +42,6 @@ import facebook4j.internal.org.json.JSONObject;
     /*package*/
     static ResponseList<Like> createLikeList(HttpResponse res, Configuration conf) throws FacebookException {
         try {
-            if (conf.isJSONStoreEnabled()) {
-                DataObjectFactoryUtil.clearThreadLocalMap();
-            }
             JSONObject json = res.asJSONObject();
             JSONArray list = json.getJSONArray("data");
             int size = list.length();
@@ -50,7 +50,6 @@ import facebook4j.internal.org.json.JSONObject;
     /*package*/LocationJSONImpl(HttpResponse res, Configuration conf) throws FacebookException {
         super(res);
         JSONObject json = res.asJSONObject();        init(json);        if (conf.isJSONStoreEnabled()) {
-            DataObjectFactoryUtil.clearThreadLocalMap();
             DataObjectFactoryUtil.registerJSONObject(this, json);
         }
     }    /*package*/LocationJSONImpl(JSONObject json) throws FacebookException {        super();        init(json);    }    private void init(JSONObject json) throws FacebookException {        try {            id = getRawString("id", json);            if (!json.isNull("from")) {                JSONObject fromJSONObject = json.getJSONObject("from");                from = new IdNameEntityJSONImpl(fromJSONObject);            }            if (!json.isNull("tags")) {                JSONObject tagsJSONObject = json.getJSONObject("tags");                JSONArray list = tagsJSONObject.getJSONArray("data");                int size = list.length();                tags = new PagableListImpl<IdNameEntity>(size, tagsJSONObject);                for (int i = 0; i < size; i++) {                    IdNameEntityJSONImpl tag = new IdNameEntityJSONImpl(list.getJSONObject(i));                    tags.add(tag);                }            }            if (!json.isNull("place")) {                JSONObject placeJSONObject = json.getJSONObject("place");                place = new PlaceJSONImpl(placeJSONObject);            }            if (!json.isNull("application")) {                JSONObject applicationJSONObject = json.getJSONObject("application");                application = new ApplicationJSONImpl(applicationJSONObject);            }            createdTime = getISO8601Datetime("created_time", json);            type = getRawString("type", json);        } catch (JSONException jsone) {            throw new FacebookException(jsone.getMessage(), jsone);        }    }
@@ -85,9 +84,6 @@ import facebook4j.internal.org.json.JSONObject;
     /*package*/
     static ResponseList<Location> createLocationList(HttpResponse res, Configuration conf) throws FacebookException {
         try {
-            if (conf.isJSONStoreEnabled()) {
-                DataObjectFactoryUtil.clearThreadLocalMap();
-            }
             JSONObject json = res.asJSONObject();
             JSONArray list = json.getJSONArray("data");
             int size = list.length();
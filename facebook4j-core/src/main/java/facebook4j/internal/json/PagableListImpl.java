@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import facebook4j.FacebookException;
 import facebook4j.PagableList;
 import facebook4j.Paging;
+import facebook4j.Summary;
 import facebook4j.internal.org.json.JSONException;
 import facebook4j.internal.org.json.JSONObject;
 
@@ -31,6 +32,7 @@ import facebook4j.internal.org.json.JSONObject;
     private static final long serialVersionUID = 3562128202194010360L;
 
     private Paging<T> paging;
+    private Summary summary;
 
     /*package*/PagableListImpl(JSONObject json, T... t) throws FacebookException {
         super();
@@ -51,6 +53,9 @@ import facebook4j.internal.org.json.JSONObject;
                 JSONObject pagingJSONObject = json.getJSONObject("paging");
                 paging = new PagingJSONImpl<T>(pagingJSONObject, jsonObjectType);
             }
+            if (!json.isNull("summary")) {
+                summary = new SummaryJSONImpl(json.getJSONObject("summary"));
+            }
         } catch (JSONException jsone) {
             throw new FacebookException(jsone.getMessage(), jsone);
         }
@@ -60,9 +65,13 @@ import facebook4j.internal.org.json.JSONObject;
         return paging;
     }
 
+    public Summary getSummary() {
+        return summary;
+    }
+
     @Override
     public String toString() {
-        return "PagableListImpl [" + super.toString() + ", paging=" + paging + "]";
+        return "PagableListImpl [" + super.toString() + ", paging=" + paging + ", summary=" + summary + "]";
     }
 
 }
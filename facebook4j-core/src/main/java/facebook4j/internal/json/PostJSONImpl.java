@@ -80,7 +80,6 @@ final class PostJSONImpl extends FacebookResponseImpl implements Post, java.io.S
         JSONObject json = res.asJSONObject();
         init(json);
         if (conf.isJSONStoreEnabled()) {
-            DataObjectFactoryUtil.clearThreadLocalMap();
             DataObjectFactoryUtil.registerJSONObject(this, json);
         }
     }
@@ -331,9 +330,6 @@ final class PostJSONImpl extends FacebookResponseImpl implements Post, java.io.S
     /*package*/
     static ResponseList<Post> createPostList(HttpResponse res, Configuration conf) throws FacebookException {
         try {
-            if (conf.isJSONStoreEnabled()) {
-                DataObjectFactoryUtil.clearThreadLocalMap();
-            }
             JSONObject json = res.asJSONObject();
             JSONArray list = json.getJSONArray("data");
             int size = list.length();
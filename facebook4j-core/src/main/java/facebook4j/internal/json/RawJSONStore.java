@@ -0,0 +1,262 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import facebook4j.internal.org.json.JSONArray;
+import facebook4j.internal.org.json.JSONException;
+import facebook4j.internal.org.json.JSONObject;
+
+/**
+ * Holds the raw JSON forms of model objects for facebook4j.json.DataObjectFactory#getRawJSON(Object).<br>
+ * The JSON is kept as UTF-8 bytes rather than as the parsed tree, and objects are referenced weakly (by identity),
+ * so that an entry goes away together with the object it belongs to.
+ * Parsed trees are written out as UTF-8 directly, without an intermediate String, and writing stops as soon as
+ * the form turns out larger than the whole store.
+ * The store is shared by all threads and bounded both by the number of entries and by the total size of the JSON forms;
+ * the oldest entries are evicted first.<br>
+ * The bounds of the default store are set with the system properties <code>facebook4j.json.rawJSONStoreMaxEntries</code>
+ * (10000 by default) and <code>facebook4j.json.rawJSONStoreMaxBytes</code> (16MB by default).
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class RawJSONStore {
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static final RawJSONStore INSTANCE = new RawJSONStore(
+            Integer.getInteger("facebook4j.json.rawJSONStoreMaxEntries", DEFAULT_MAX_ENTRIES),
+            Long.getLong("facebook4j.json.rawJSONStoreMaxBytes", DEFAULT_MAX_BYTES));
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+    // keys in insertion order, including ones already collected or replaced
+    private final ConcurrentLinkedQueue<Key> insertionOrder = new ConcurrentLinkedQueue<Key>();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+    private final AtomicLong byteCount = new AtomicLong();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<Object>();
+
+    public RawJSONStore(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the store used by DataObjectFactory
+     */
+    public static RawJSONStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Associates the JSON form with the object, replacing the one previously associated.
+     *
+     * @param key  model object
+     * @param json JSONObject, JSONArray or String
+     */
+    public void put(Object key, Object json) {
+        if (key == null || json == null) {
+            return;
+        }
+        expungeCollected();
+        byte[] raw = encode(json);
+        if (raw == null || raw.length > maxBytes) {
+            return;
+        }
+        Key k = new Key(key, collected);
+        Entry previous = entries.put(k, new Entry(k, raw));
+        byteCount.addAndGet(previous == null ? raw.length : raw.length - previous.raw.length);
+        insertionOrder.offer(k);
+        queuedCount.incrementAndGet();
+        evict();
+    }
+
+    /**
+     * @param key model object
+     * @return the JSON form associated with the object, or null if there is none
+     */
+    public String get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        Entry entry = entries.get(new Key(key, null));
+        return entry != null ? decode(entry.raw) : null;
+    }
+
+    /**
+     * @return the number of objects having a JSON form associated
+     */
+    public int size() {
+        expungeCollected();
+        return entries.size();
+    }
+
+    /**
+     * @return the total size of the JSON forms in bytes
+     */
+    public long getByteCount() {
+        return byteCount.get();
+    }
+
+    public void clear() {
+        Key k;
+        while ((k = insertionOrder.poll()) != null) {
+            queuedCount.decrementAndGet();
+            remove(k, true);
+        }
+    }
+
+    private void evict() {
+        while (queuedCount.get() > maxEntries || byteCount.get() > maxBytes) {
+            Key oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queuedCount.decrementAndGet();
+            remove(oldest, true);
+        }
+    }
+
+    private void expungeCollected() {
+        Object k;
+        while ((k = collected.poll()) != null) {
+            remove((Key) k, false);
+        }
+    }
+
+    // the map keeps the first Key of an object while the entry refers to the latest one,
+    // so an outdated position in insertionOrder does not evict the entry that replaced it
+    private void remove(Key k, boolean onlyIfLatest) {
+        Entry entry = entries.get(k);
+        if (entry != null && (!onlyIfLatest || entry.key == k) && entries.remove(k, entry)) {
+            byteCount.addAndGet(-entry.raw.length);
+        }
+    }
+
+    // returns null if the JSON form is larger than maxBytes
+    private byte[] encode(Object json) {
+        if (json instanceof JSONObject || json instanceof JSONArray) {
+            CappedOutputStream out = new CappedOutputStream(maxBytes);
+            try {
+                Writer writer = new OutputStreamWriter(out, "UTF-8");
+                if (json instanceof JSONObject) {
+                    ((JSONObject) json).write(writer);
+                } else {
+                    ((JSONArray) json).write(writer);
+                }
+                writer.flush();
+            } catch (JSONException tooLarge) {
+                return null;
+            } catch (IOException tooLarge) {
+                return null;
+            }
+            return out.toByteArray();
+        }
+        String str = json.toString();
+        if (str == null) {
+            return null;
+        }
+        try {
+            return str.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException neverHappen) {
+            throw new AssertionError(neverHappen);
+        }
+    }
+
+    private static String decode(byte[] raw) {
+        try {
+            return new String(raw, "UTF-8");
+        } catch (UnsupportedEncodingException neverHappen) {
+            throw new AssertionError(neverHappen);
+        }
+    }
+
+    private static final class CappedOutputStream extends OutputStream {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final long capacity;
+
+        private CappedOutputStream(long capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (bytes.size() >= capacity) {
+                throw new IOException("limit reached");
+            }
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (bytes.size() + len > capacity) {
+                throw new IOException("limit reached");
+            }
+            bytes.write(b, off, len);
+        }
+
+        private byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final byte[] raw;
+
+        private Entry(Key key, byte[] raw) {
+            this.key = key;
+            this.raw = raw;
+        }
+    }
+
+    private static final class Key extends WeakReference<Object> {
+        private final int hash;
+
+        private Key(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Object referent = get();
+            return referent != null && referent == ((Key) o).get();
+        }
+    }
+}
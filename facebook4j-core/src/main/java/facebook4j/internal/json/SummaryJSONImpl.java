@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.json;
+
+import static facebook4j.internal.util.z_F4JInternalParseUtil.*;
+import facebook4j.FacebookException;
+import facebook4j.Summary;
+import facebook4j.internal.org.json.JSONObject;
+
+/**
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+/*package*/ class SummaryJSONImpl implements Summary, java.io.Serializable {
+    private static final long serialVersionUID = -2584235612749034542L;
+
+    private Integer totalCount;
+
+    /*package*/SummaryJSONImpl(JSONObject json) throws FacebookException {
+        if (!json.isNull("total_count")) {
+            totalCount = getPrimitiveInt("total_count", json);
+        }
+    }
+
+    public Integer getTotalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return totalCount == null ? 0 : totalCount.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof SummaryJSONImpl))
+            return false;
+        SummaryJSONImpl other = (SummaryJSONImpl) obj;
+        return totalCount == null ? other.totalCount == null : totalCount.equals(other.totalCount);
+    }
+
+    @Override
+    public String toString() {
+        return "SummaryJSONImpl [totalCount=" + totalCount + "]";
+    }
+}
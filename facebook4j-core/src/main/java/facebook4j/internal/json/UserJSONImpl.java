@@ -81,9 +81,6 @@ import facebook4j.internal.org.json.JSONObject;
     private List<User.Work> work = new ArrayList<User.Work>();
 
     /*package*/UserJSONImpl(HttpResponse res, Configuration conf) throws FacebookException {
-        if (conf.isJSONStoreEnabled()) {
-            DataObjectFactoryUtil.clearThreadLocalMap();
-        }
         JSONObject json = res.asJSONObject();
         init(json);
         if (conf.isJSONStoreEnabled()) {
@@ -331,9 +328,6 @@ import facebook4j.internal.org.json.JSONObject;
     /*package*/
     static ResponseList<User> createUserList(HttpResponse res, Configuration conf) throws FacebookException {
         try {
-            if (conf.isJSONStoreEnabled()) {
-                DataObjectFactoryUtil.clearThreadLocalMap();
-            }
             JSONObject json = res.asJSONObject();
             JSONArray list = json.getJSONArray("data");
             int size = list.length();
@@ -354,9 +348,6 @@ import facebook4j.internal.org.json.JSONObject;
     /*package*/
     static List<User> createUserArray(HttpResponse res, Configuration conf) throws FacebookException {
         try {
-            if (conf.isJSONStoreEnabled()) {
-                DataObjectFactoryUtil.clearThreadLocalMap();
-            }
             JSONObject json = res.asJSONObject();
             List<User> users = new ArrayList<User>();
             Iterator ids = json.keys();
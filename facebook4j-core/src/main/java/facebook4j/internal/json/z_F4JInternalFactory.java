@@ -17,6 +17,7 @@
 package facebook4j.internal.json;
 
 import java.util.List;
+import java.util.Map;
 
 import facebook4j.Account;
 import facebook4j.Achievement;
@@ -62,6 +63,7 @@ import facebook4j.ResponseList;
 import facebook4j.Score;
 import facebook4j.Subscribedto;
 import facebook4j.Subscriber;
+import facebook4j.Summary;
 import facebook4j.Tag;
 import facebook4j.Television;
 import facebook4j.TestUser;
@@ -190,4 +192,10 @@ public interface z_F4JInternalFactory extends java.io.Serializable {
     
     <T> ResponseList<T> createResponseList(HttpResponse res, Class<T> jsonObjectType) throws FacebookException;
 
+    <T> T createObject(JSONObject json, Class<T> jsonObjectType) throws FacebookException;
+
+    Summary createSummary(HttpResponse res) throws FacebookException;
+
+    <T> Map<String, T> createObjectMap(HttpResponse res, Class<T> jsonObjectType) throws FacebookException;
+
 }
@@ -16,7 +16,10 @@
 
 package facebook4j.internal.json;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import facebook4j.Account;
 import facebook4j.Achievement;
@@ -62,6 +65,7 @@ import facebook4j.ResponseList;
 import facebook4j.Score;
 import facebook4j.Subscribedto;
 import facebook4j.Subscriber;
+import facebook4j.Summary;
 import facebook4j.Tag;
 import facebook4j.Television;
 import facebook4j.TestUser;
@@ -69,6 +73,7 @@ import facebook4j.User;
 import facebook4j.Video;
 import facebook4j.conf.Configuration;
 import facebook4j.internal.http.HttpResponse;
+import facebook4j.internal.org.json.JSONException;
 import facebook4j.internal.org.json.JSONObject;
 
 /**
@@ -375,136 +380,182 @@ public class z_F4JInternalJSONImplFactory implements z_F4JInternalFactory {
 
     @SuppressWarnings("unchecked")
     public <T> ResponseList<T> createResponseList(HttpResponse res, Class<T> jsonObjectType) throws FacebookException {
-        if (jsonObjectType == Account.class) {
-            return (ResponseList<T>) createAccountList(res);
+        return (ResponseList<T>) create(jsonObjectType, res, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T createObject(JSONObject json, Class<T> jsonObjectType) throws FacebookException {
+        return (T) create(jsonObjectType, null, json);
+    }
+
+    // the list of the type from res if it is given, otherwise the object of the type from json
+    private Object create(Class<?> type, HttpResponse res, JSONObject json) throws FacebookException {
+        boolean list = res != null;
+        if (type == Account.class) {
+            return list ? createAccountList(res) : new AccountJSONImpl(json);
+        }
+        if (type == Activity.class) {
+            return list ? createActivityList(res) : new ActivityJSONImpl(json);
+        }
+        if (type == Album.class) {
+            return list ? createAlbumList(res) : new AlbumJSONImpl(json);
         }
-        if (jsonObjectType == Activity.class) {
-            return (ResponseList<T>) createActivityList(res);
+        if (type == Application.class && !list) {
+            return new ApplicationJSONImpl(json);
         }
-        if (jsonObjectType == Album.class) {
-            return (ResponseList<T>) createAlbumList(res);
+        if (type == Photo.class) {
+            return list ? createPhotoList(res) : new PhotoJSONImpl(json);
         }
-        if (jsonObjectType == Photo.class) {
-            return (ResponseList<T>) createPhotoList(res);
+        if (type == Comment.class) {
+            return list ? createCommentList(res) : new CommentJSONImpl(json);
         }
-        if (jsonObjectType == Comment.class) {
-            return (ResponseList<T>) createCommentList(res);
+        if (type == Like.class) {
+            return list ? createLikeList(res) : new LikeJSONImpl(json);
         }
-        if (jsonObjectType == Like.class) {
-            return (ResponseList<T>) createLikeList(res);
+        if (type == Checkin.class) {
+            return list ? createCheckinList(res) : new CheckinJSONImpl(json);
         }
-        if (jsonObjectType == Checkin.class) {
-            return (ResponseList<T>) createCheckinList(res);
+        if (type == Event.class) {
+            return list ? createEventList(res) : new EventJSONImpl(json);
         }
-        if (jsonObjectType == Event.class) {
-            return (ResponseList<T>) createEventList(res);
+        if (type == Post.class) {
+            return list ? createPostList(res) : new PostJSONImpl(json);
         }
-        if (jsonObjectType == Post.class) {
-            return (ResponseList<T>) createPostList(res);
+        if (type == RSVPStatus.class) {
+            return list ? createRSVPStatusList(res) : new RSVPStatusJSONImpl(json);
         }
-        if (jsonObjectType == RSVPStatus.class) {
-            return (ResponseList<T>) createRSVPStatusList(res);
+        if (type == Video.class) {
+            return list ? createVideoList(res) : new VideoJSONImpl(json);
         }
-        if (jsonObjectType == Video.class) {
-            return (ResponseList<T>) createVideoList(res);
+        if (type == Family.class) {
+            return list ? createFamilyList(res) : new FamilyJSONImpl(json);
         }
-        if (jsonObjectType == Family.class) {
-            return (ResponseList<T>) createFamilyList(res);
+        if (type == Book.class) {
+            return list ? createBookList(res) : new BookJSONImpl(json);
         }
-        if (jsonObjectType == Book.class) {
-            return (ResponseList<T>) createBookList(res);
+        if (type == Game.class) {
+            return list ? createGameList(res) : new GameJSONImpl(json);
         }
-        if (jsonObjectType == Game.class) {
-            return (ResponseList<T>) createGameList(res);
+        if (type == Movie.class) {
+            return list ? createMovieList(res) : new MovieJSONImpl(json);
         }
-        if (jsonObjectType == Movie.class) {
-            return (ResponseList<T>) createMovieList(res);
+        if (type == Music.class) {
+            return list ? createMusicList(res) : new MusicJSONImpl(json);
         }
-        if (jsonObjectType == Music.class) {
-            return (ResponseList<T>) createMusicList(res);
+        if (type == Television.class) {
+            return list ? createTelevisionList(res) : new TelevisionJSONImpl(json);
         }
-        if (jsonObjectType == Television.class) {
-            return (ResponseList<T>) createTelevisionList(res);
+        if (type == Interest.class) {
+            return list ? createInterestList(res) : new InterestJSONImpl(json);
         }
-        if (jsonObjectType == Interest.class) {
-            return (ResponseList<T>) createInterestList(res);
+        if (type == Friend.class) {
+            return list ? createFriendList(res) : new FriendJSONImpl(json);
         }
-        if (jsonObjectType == Friend.class) {
-            return (ResponseList<T>) createFriendList(res);
+        if (type == Friendlist.class) {
+            return list ? createFriendlistList(res) : new FriendlistJSONImpl(json);
         }
-        if (jsonObjectType == Friendlist.class) {
-            return (ResponseList<T>) createFriendlistList(res);
+        if (type == FriendRequest.class) {
+            return list ? createFriendRequestList(res) : new FriendRequestJSONImpl(json);
         }
-        if (jsonObjectType == FriendRequest.class) {
-            return (ResponseList<T>) createFriendRequestList(res);
+        if (type == Achievement.class) {
+            return list ? createAchievementList(res) : new AchievementJSONImpl(json);
         }
-        if (jsonObjectType == Achievement.class) {
-            return (ResponseList<T>) createAchievementList(res);
+        if (type == Score.class) {
+            return list ? createScoreList(res) : new ScoreJSONImpl(json);
         }
-        if (jsonObjectType == Score.class) {
-            return (ResponseList<T>) createScoreList(res);
+        if (type == Group.class) {
+            return list ? createGroupList(res) : new GroupJSONImpl(json);
         }
-        if (jsonObjectType == Group.class) {
-            return (ResponseList<T>) createGroupList(res);
+        if (type == GroupMember.class) {
+            return list ? createGroupMemberList(res) : new GroupMemberJSONImpl(json);
         }
-        if (jsonObjectType == GroupMember.class) {
-            return (ResponseList<T>) createGroupMemberList(res);
+        if (type == GroupDoc.class) {
+            return list ? createGroupDocList(res) : new GroupDocJSONImpl(json);
         }
-        if (jsonObjectType == GroupDoc.class) {
-            return (ResponseList<T>) createGroupDocList(res);
+        if (type == Insight.class) {
+            return list ? createInsightList(res) : new InsightJSONImpl(json);
         }
-        if (jsonObjectType == Insight.class) {
-            return (ResponseList<T>) createInsightList(res);
+        if (type == Location.class) {
+            return list ? createLocationList(res) : new LocationJSONImpl(json);
         }
-        if (jsonObjectType == Location.class) {
-            return (ResponseList<T>) createLocationList(res);
+        if (type == Inbox.class) {
+            return list ? createInboxList(res) : new InboxJSONImpl(json);
         }
-        if (jsonObjectType == Inbox.class) {
-            return (ResponseList<T>) createInboxList(res);
+        if (type == Message.class) {
+            return list ? createMessageList(res) : new MessageJSONImpl(json);
         }
-        if (jsonObjectType == Message.class) {
-            return (ResponseList<T>) createMessageList(res);
+        if (type == Note.class) {
+            return list ? createNoteList(res) : new NoteJSONImpl(json);
         }
-        if (jsonObjectType == Note.class) {
-            return (ResponseList<T>) createNoteList(res);
+        if (type == Notification.class) {
+            return list ? createNotificationList(res) : new NotificationJSONImpl(json);
         }
-        if (jsonObjectType == Notification.class) {
-            return (ResponseList<T>) createNotificationList(res);
+        if (type == Tag.class) {
+            return list ? createTagList(res) : new TagJSONImpl(json);
         }
-        if (jsonObjectType == Tag.class) {
-            return (ResponseList<T>) createTagList(res);
+        if (type == Poke.class) {
+            return list ? createPokeList(res) : new PokeJSONImpl(json);
         }
-        if (jsonObjectType == Poke.class) {
-            return (ResponseList<T>) createPokeList(res);
+        if (type == Link.class) {
+            return list ? createLinkList(res) : new LinkJSONImpl(json);
         }
-        if (jsonObjectType == Link.class) {
-            return (ResponseList<T>) createLinkList(res);
+        if (type == Question.class) {
+            return list ? createQuestionList(res) : new QuestionJSONImpl(json);
         }
-        if (jsonObjectType == Question.class) {
-            return (ResponseList<T>) createQuestionList(res);
+        if (type == Question.Option.class) {
+            return list ? createQuestionOptionList(res) : new QuestionJSONImpl.OptionJSONImpl(json);
         }
-        if (jsonObjectType == Question.Option.class) {
-            return (ResponseList<T>) createQuestionOptionList(res);
+        if (type == QuestionVotes.class) {
+            return list ? createQuestionVotesList(res) : new QuestionVotesJSONImpl(json);
         }
-        if (jsonObjectType == QuestionVotes.class) {
-            return (ResponseList<T>) createQuestionVotesList(res);
+        if (type == User.class) {
+            return list ? createUserList(res) : new UserJSONImpl(json);
         }
-        if (jsonObjectType == User.class) {
-            return (ResponseList<T>) createUserList(res);
+        if (type == Place.class) {
+            return list ? createPlaceList(res) : new PlaceJSONImpl(json);
         }
-        if (jsonObjectType == Place.class) {
-            return (ResponseList<T>) createPlaceList(res);
+        if (type == Subscribedto.class) {
+            return list ? createSubscribedtoList(res) : new SubscribedtoJSONImpl(json);
         }
-        if (jsonObjectType == Subscribedto.class) {
-            return (ResponseList<T>) createSubscribedtoList(res);
+        if (type == Subscriber.class) {
+            return list ? createSubscriberList(res) : new SubscriberJSONImpl(json);
         }
-        if (jsonObjectType == Subscriber.class) {
-            return (ResponseList<T>) createSubscriberList(res);
+        if (type == JSONObject.class) {
+            return list ? createJSONObjectList(res) : json;
         }
-        if (jsonObjectType == JSONObject.class) {
-            return (ResponseList<T>) createJSONObjectList(res);
+        if (type == Domain.class && !list) {
+            return new DomainJSONImpl(json);
+        }
+        throw new FacebookException("The json object type: '" + type + "' is unrecognized.");
+    }
+
+    public Summary createSummary(HttpResponse res) throws FacebookException {
+        JSONObject json = res.asJSONObject();
+        try {
+            return new SummaryJSONImpl(json.isNull("summary") ? new JSONObject() : json.getJSONObject("summary"));
+        } catch (JSONException jsone) {
+            throw new FacebookException(jsone);
+        }
+    }
+
+    public <T> Map<String, T> createObjectMap(HttpResponse res, Class<T> jsonObjectType) throws FacebookException {
+        try {
+            JSONObject json = res.asJSONObject();
+            Map<String, T> objects = new LinkedHashMap<String, T>();
+            Iterator ids = json.keys();
+            while (ids.hasNext()) {
+                String id = (String) ids.next();
+                JSONObject objectJSON = json.getJSONObject(id);
+                T object = createObject(objectJSON, jsonObjectType);
+                if (conf.isJSONStoreEnabled()) {
+                    DataObjectFactoryUtil.registerJSONObject(object, objectJSON);
+                }
+                objects.put(id, object);
+            }
+            return objects;
+        } catch (JSONException jsone) {
+            throw new FacebookException(jsone);
         }
-        throw new FacebookException("The json object type: '" + jsonObjectType + "' is unrecognized.");
     }
 
 }
@@ -0,0 +1,746 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.json;
+
+import java.util.List;
+import java.util.Map;
+
+import facebook4j.Account;
+import facebook4j.Achievement;
+import facebook4j.Activity;
+import facebook4j.Album;
+import facebook4j.Application;
+import facebook4j.Book;
+import facebook4j.Checkin;
+import facebook4j.Comment;
+import facebook4j.Domain;
+import facebook4j.Event;
+import facebook4j.FacebookException;
+import facebook4j.Family;
+import facebook4j.Friend;
+import facebook4j.FriendRequest;
+import facebook4j.Friendlist;
+import facebook4j.Game;
+import facebook4j.Group;
+import facebook4j.GroupDoc;
+import facebook4j.IdNameEntity;
+import facebook4j.Inbox;
+import facebook4j.InboxResponseList;
+import facebook4j.Insight;
+import facebook4j.Interest;
+import facebook4j.Like;
+import facebook4j.Link;
+import facebook4j.Location;
+import facebook4j.GroupMember;
+import facebook4j.Message;
+import facebook4j.Movie;
+import facebook4j.Music;
+import facebook4j.Note;
+import facebook4j.Notification;
+import facebook4j.Permission;
+import facebook4j.Photo;
+import facebook4j.Place;
+import facebook4j.Poke;
+import facebook4j.Post;
+import facebook4j.Question;
+import facebook4j.QuestionVotes;
+import facebook4j.RSVPStatus;
+import facebook4j.ResponseList;
+import facebook4j.Score;
+import facebook4j.Subscribedto;
+import facebook4j.Subscriber;
+import facebook4j.Summary;
+import facebook4j.Tag;
+import facebook4j.Television;
+import facebook4j.TestUser;
+import facebook4j.User;
+import facebook4j.Video;
+import facebook4j.internal.http.HttpResponse;
+import facebook4j.internal.http.RequestTimings;
+import facebook4j.internal.org.json.JSONObject;
+import facebook4j.management.RequestPhase;
+
+/**
+ * Decorates a {@link z_F4JInternalFactory} so that the time spent binding a response to model objects is recorded
+ * as {@link RequestPhase#BIND} in the response's {@link RequestTimings}.<br>
+ * Reading and parsing the body happen inside the factory methods, so they are subtracted from the measured time.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class z_F4JInternalTimingFactory implements z_F4JInternalFactory {
+    private static final long serialVersionUID = 6841276412793094726L;
+
+    private final z_F4JInternalFactory factory;
+
+    private z_F4JInternalTimingFactory(z_F4JInternalFactory factory) {
+        this.factory = factory;
+    }
+
+    public static z_F4JInternalFactory wrap(z_F4JInternalFactory factory) {
+        return new z_F4JInternalTimingFactory(factory);
+    }
+
+    public User createUser(JSONObject json) throws FacebookException {
+        return factory.createUser(json);
+    }
+
+    public User createUser(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createUser(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<User> createUserList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createUserList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public List<User> createUserArray(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createUserArray(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public IdNameEntity createIdNameEntity(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createIdNameEntity(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<IdNameEntity> createIdNameEntityList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createIdNameEntityList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Account> createAccountList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createAccountList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Achievement> createAchievementList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createAchievementList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Activity> createActivityList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createActivityList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Album createAlbum(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createAlbum(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Album> createAlbumList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createAlbumList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Book> createBookList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createBookList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Checkin createCheckin(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createCheckin(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Checkin> createCheckinList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createCheckinList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Comment createComment(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createComment(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Comment> createCommentList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createCommentList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Domain createDomain(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createDomain(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public List<Domain> createDomainArray(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createDomainArray(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Event createEvent(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createEvent(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Event> createEventList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createEventList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<RSVPStatus> createRSVPStatusList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createRSVPStatusList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Family> createFamilyList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createFamilyList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Post> createPostList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createPostList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Post createPost(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createPost(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Friendlist createFriendlist(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createFriendlist(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Friendlist> createFriendlistList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createFriendlistList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<FriendRequest> createFriendRequestList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createFriendRequestList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Friend> createFriendList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createFriendList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Game> createGameList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createGameList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Group createGroup(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createGroup(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Group> createGroupList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createGroupList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<GroupDoc> createGroupDocList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createGroupDocList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public InboxResponseList<Inbox> createInboxList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createInboxList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Interest> createInterestList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createInterestList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Like> createLikeList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createLikeList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Link createLink(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createLink(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Link> createLinkList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createLinkList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Location> createLocationList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createLocationList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Movie> createMovieList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createMovieList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Music> createMusicList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createMusicList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Note createNote(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createNote(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Note> createNoteList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createNoteList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Notification> createNotificationList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createNotificationList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Message createMessage(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createMessage(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Message> createMessageList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createMessageList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public List<Permission> createPermissions(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createPermissions(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Place> createPlaceList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createPlaceList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Photo createPhoto(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createPhoto(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Photo> createPhotoList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createPhotoList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Poke> createPokeList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createPokeList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Question createQuestion(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createQuestion(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Question> createQuestionList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createQuestionList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Question.Option> createQuestionOptionList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createQuestionOptionList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<QuestionVotes> createQuestionVotesList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createQuestionVotesList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Score> createScoreList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createScoreList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Subscribedto> createSubscribedtoList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createSubscribedtoList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Subscriber> createSubscriberList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createSubscriberList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Television> createTelevisionList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createTelevisionList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Video createVideo(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createVideo(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Video> createVideoList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createVideoList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Tag> createTagList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createTagList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<GroupMember> createGroupMemberList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createGroupMemberList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public ResponseList<Insight> createInsightList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createInsightList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public Application createApplication(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createApplication(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public TestUser createTestUser(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createTestUser(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public TestUser createTestUser(JSONObject json) throws FacebookException {
+        return factory.createTestUser(json);
+    }
+
+    public ResponseList<JSONObject> createJSONObjectList(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createJSONObjectList(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public <T> ResponseList<T> createResponseList(HttpResponse res, Class<T> jsonObjectType) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createResponseList(res, jsonObjectType);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public <T> T createObject(JSONObject json, Class<T> jsonObjectType) throws FacebookException {
+        return factory.createObject(json, jsonObjectType);
+    }
+
+    public Summary createSummary(HttpResponse res) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createSummary(res);
+        } finally {
+            bind.end();
+        }
+    }
+
+    public <T> Map<String, T> createObjectMap(HttpResponse res, Class<T> jsonObjectType) throws FacebookException {
+        Bind bind = new Bind(res);
+        try {
+            return factory.createObjectMap(res, jsonObjectType);
+        } finally {
+            bind.end();
+        }
+    }
+
+    /**
+     * Measures one factory call, leaving out the time the call spent reading, decompressing and parsing the body.
+     */
+    private static final class Bind {
+        private final RequestTimings timings;
+        private final long consumedBefore;
+        private final long start;
+
+        private Bind(HttpResponse res) {
+            timings = res.getTimings();
+            consumedBefore = consumedNanos(timings);
+            start = System.nanoTime();
+        }
+
+        private void end() {
+            long elapsed = System.nanoTime() - start;
+            timings.record(RequestPhase.BIND, elapsed - (consumedNanos(timings) - consumedBefore));
+        }
+    }
+
+    private static long consumedNanos(RequestTimings timings) {
+        return timings.getNanos(RequestPhase.READ)
+                + timings.getNanos(RequestPhase.DECOMPRESS)
+                + timings.getNanos(RequestPhase.PARSE);
+    }
+}
@@ -73,7 +73,9 @@ final class CommonsLoggingLogger extends Logger {
      */
     @Override
     public void debug(String message, String message2) {
-        LOGGER.debug(message + message2);
+        if (isDebugEnabled()) {
+            LOGGER.debug(format(message, message2));
+        }
     }
 
     /**
@@ -89,7 +91,9 @@ final class CommonsLoggingLogger extends Logger {
      */
     @Override
     public void info(String message, String message2) {
-        LOGGER.info(message + message2);
+        if (isInfoEnabled()) {
+            LOGGER.info(format(message, message2));
+        }
     }
 
     /**
@@ -105,7 +109,9 @@ final class CommonsLoggingLogger extends Logger {
      */
     @Override
     public void warn(String message, String message2) {
-        LOGGER.warn(message + message2);
+        if (isWarnEnabled()) {
+            LOGGER.warn(format(message, message2));
+        }
     }
 
     /**
@@ -72,7 +72,9 @@ final class Log4JLogger extends Logger {
      */
     @Override
     public void debug(String message, String message2) {
-        debug(message + message2);
+        if (isDebugEnabled()) {
+            debug(format(message, message2));
+        }
     }
 
     /**
@@ -88,7 +90,9 @@ final class Log4JLogger extends Logger {
      */
     @Override
     public void info(String message, String message2) {
-        info(message + message2);
+        if (isInfoEnabled()) {
+            info(format(message, message2));
+        }
     }
 
     /**
@@ -104,7 +108,9 @@ final class Log4JLogger extends Logger {
      */
     @Override
     public void warn(String message, String message2) {
-        warn(message + message2);
+        if (isWarnEnabled()) {
+            warn(format(message, message2));
+        }
     }
 
     /**
@@ -151,4 +151,148 @@ public abstract class Logger {
      */
     public abstract void error(String message, Throwable th);
 
+    /**
+     * @param format message with "{}" placeholders, formatted only if debug level logging is enabled
+     * @param arg    argument
+     */
+    public void debug(String format, Object arg) {
+        if (isDebugEnabled()) {
+            debug(format(format, arg));
+        }
+    }
+
+    /**
+     * @param format message with "{}" placeholders, formatted only if debug level logging is enabled
+     * @param arg1   argument
+     * @param arg2   argument
+     */
+    public void debug(String format, Object arg1, Object arg2) {
+        if (isDebugEnabled()) {
+            debug(format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * @param format message with "{}" placeholders, formatted only if debug level logging is enabled
+     * @param args   arguments
+     */
+    public void debug(String format, Object... args) {
+        if (isDebugEnabled()) {
+            debug(format(format, args));
+        }
+    }
+
+    /**
+     * @param supplier supplies the message, called only if debug level logging is enabled
+     */
+    public void debug(MessageSupplier supplier) {
+        if (isDebugEnabled()) {
+            debug(supplier.getMessage());
+        }
+    }
+
+    /**
+     * @param format message with "{}" placeholders, formatted only if info level logging is enabled
+     * @param arg    argument
+     */
+    public void info(String format, Object arg) {
+        if (isInfoEnabled()) {
+            info(format(format, arg));
+        }
+    }
+
+    /**
+     * @param format message with "{}" placeholders, formatted only if info level logging is enabled
+     * @param arg1   argument
+     * @param arg2   argument
+     */
+    public void info(String format, Object arg1, Object arg2) {
+        if (isInfoEnabled()) {
+            info(format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * @param format message with "{}" placeholders, formatted only if info level logging is enabled
+     * @param args   arguments
+     */
+    public void info(String format, Object... args) {
+        if (isInfoEnabled()) {
+            info(format(format, args));
+        }
+    }
+
+    /**
+     * @param supplier supplies the message, called only if info level logging is enabled
+     */
+    public void info(MessageSupplier supplier) {
+        if (isInfoEnabled()) {
+            info(supplier.getMessage());
+        }
+    }
+
+    /**
+     * @param format message with "{}" placeholders, formatted only if warn level logging is enabled
+     * @param arg    argument
+     */
+    public void warn(String format, Object arg) {
+        if (isWarnEnabled()) {
+            warn(format(format, arg));
+        }
+    }
+
+    /**
+     * @param format message with "{}" placeholders, formatted only if warn level logging is enabled
+     * @param arg1   argument
+     * @param arg2   argument
+     */
+    public void warn(String format, Object arg1, Object arg2) {
+        if (isWarnEnabled()) {
+            warn(format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * @param format message with "{}" placeholders, formatted only if warn level logging is enabled
+     * @param args   arguments
+     */
+    public void warn(String format, Object... args) {
+        if (isWarnEnabled()) {
+            warn(format(format, args));
+        }
+    }
+
+    /**
+     * @param supplier supplies the message, called only if warn level logging is enabled
+     */
+    public void warn(MessageSupplier supplier) {
+        if (isWarnEnabled()) {
+            warn(supplier.getMessage());
+        }
+    }
+
+    /**
+     * Formats a message, substituting the arguments for the "{}" placeholders in order.
+     * Arguments left without a placeholder are appended, so that <code>format("Post Params: ", params)</code>
+     * concatenates as the two-argument methods always did.
+     *
+     * @param format message with placeholders
+     * @param args   arguments
+     * @return formatted message
+     */
+    protected static String format(String format, Object... args) {
+        StringBuilder sb = new StringBuilder(format.length() + 16 * args.length);
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < args.length && (placeholder = format.indexOf("{}", start)) != -1) {
+            sb.append(format, start, placeholder).append(args[argIndex++]);
+            start = placeholder + 2;
+        }
+        sb.append(format, start, format.length());
+        while (argIndex < args.length) {
+            sb.append(args[argIndex++]);
+        }
+        return sb.toString();
+    }
 }
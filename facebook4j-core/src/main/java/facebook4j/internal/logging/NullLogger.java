@@ -108,4 +108,88 @@ final class NullLogger extends Logger {
     @Override
     public void error(String message, Throwable th) {
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void debug(String format, Object arg) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void debug(String format, Object arg1, Object arg2) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void debug(String format, Object... args) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void debug(MessageSupplier supplier) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void info(String format, Object arg) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void info(String format, Object arg1, Object arg2) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void info(String format, Object... args) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void info(MessageSupplier supplier) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void warn(String format, Object arg) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void warn(String format, Object arg1, Object arg2) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void warn(String format, Object... args) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void warn(MessageSupplier supplier) {
+    }
 }
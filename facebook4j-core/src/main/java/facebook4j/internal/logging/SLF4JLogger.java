@@ -72,7 +72,9 @@ final class SLF4JLogger extends Logger {
      */
     @Override
     public void debug(String message, String message2) {
-        LOGGER.debug(message + message2);
+        if (isDebugEnabled()) {
+            LOGGER.debug(format(message, message2));
+        }
     }
 
     /**
@@ -88,7 +90,9 @@ final class SLF4JLogger extends Logger {
      */
     @Override
     public void info(String message, String message2) {
-        LOGGER.info(message + message2);
+        if (isInfoEnabled()) {
+            LOGGER.info(format(message, message2));
+        }
     }
 
     /**
@@ -104,7 +108,9 @@ final class SLF4JLogger extends Logger {
      */
     @Override
     public void warn(String message, String message2) {
-        LOGGER.warn(message + message2);
+        if (isWarnEnabled()) {
+            LOGGER.warn(format(message, message2));
+        }
     }
 
     /**
@@ -57,7 +57,7 @@ final class StdOutLogger extends Logger {
     @Override
     public void debug(String message, String message2) {
         if (DEBUG) {
-            debug(message + message2);
+            debug(format(message, message2));
         }
     }
 
@@ -74,7 +74,7 @@ final class StdOutLogger extends Logger {
      */
     @Override
     public void info(String message, String message2) {
-        info(message + message2);
+        info(format(message, message2));
     }
 
     /**
@@ -90,7 +90,7 @@ final class StdOutLogger extends Logger {
      */
     @Override
     public void warn(String message, String message2) {
-        warn(message + message2);
+        warn(format(message, message2));
     }
 
     /**
@@ -0,0 +1,461 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.util;
+
+import facebook4j.FacebookException;
+import facebook4j.internal.logging.Logger;
+import facebook4j.management.CacheStatistics;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A cache of Graph API objects bounded by their approximate size in bytes.<br>
+ * Admission follows W-TinyLFU: new entries go to a small LRU window, and an entry leaving the window only
+ * replaces the least recently used entry of the main region when it has been requested more often, according to
+ * a count-min sketch of the recent lookups. A burst of one-off lookups therefore does not flush the entries
+ * that are requested over and over.<br>
+ * An entry past its time-to-live is still returned during the stale period, while it is reloaded in the background.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class EntityCache implements CacheStatistics.SizeSource {
+    private static final Logger logger = Logger.getLogger(EntityCache.class);
+    // the number of invalidation counters, shared by the objects whose IDs hash alike
+    private static final int VERSION_STRIPES = 1024;
+
+    /**
+     * Loads an entry on a miss, and again in the background once it is stale.
+     */
+    public interface Loader {
+        Object load() throws FacebookException;
+
+        /**
+         * @param value the value returned by the last call to {@link #load()}
+         * @return the approximate size of the value in bytes
+         */
+        int weigh(Object value);
+    }
+
+    /**
+     * The key of an entry: the object, the query of the request and the scope of the access token.
+     */
+    public static final class Key {
+        private final String type;
+        private final String id;
+        private final String query;
+        private final String scope;
+        private final int hash;
+
+        public Key(String type, String id, String query, String scope) {
+            this.type = type;
+            this.id = id;
+            this.query = query != null ? query : "";
+            this.scope = scope != null ? scope : "";
+            int h = type.hashCode();
+            h = 31 * h + id.hashCode();
+            h = 31 * h + this.query.hashCode();
+            h = 31 * h + this.scope.hashCode();
+            this.hash = h;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return hash == that.hash && type.equals(that.type) && id.equals(that.id)
+                    && query.equals(that.query) && scope.equals(that.scope);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return type + ":" + id + (query.length() == 0 ? "" : "?" + query);
+        }
+    }
+
+    private static final class Node {
+        private final Key key;
+        private final Object value;
+        private final int weight;
+        private final long freshUntil;
+        private final long staleUntil;
+        private final long ttlNanos;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Node(Key key, Object value, int weight, long now, long ttlNanos, long staleNanos) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.ttlNanos = ttlNanos;
+            this.freshUntil = now + ttlNanos;
+            this.staleUntil = freshUntil + staleNanos;
+        }
+    }
+
+    private final long maxWeight;
+    private final long maxWindowWeight;
+    private final long staleNanos;
+    private final Executor executor;
+    private final CacheStatistics statistics;
+    private final FrequencySketch sketch;
+
+    // guarded by this
+    private final LinkedHashMap<Key, Node> window = new LinkedHashMap<Key, Node>(16, 0.75f, true);
+    private final LinkedHashMap<Key, Node> main = new LinkedHashMap<Key, Node>(16, 0.75f, true);
+    private final Map<String, Set<Key>> keysById = new HashMap<String, Set<Key>>();
+    private long windowWeight;
+    private long mainWeight;
+    // incremented by each invalidation of an object, so that loads of the object started before it are not cached
+    private final long[] versions = new long[VERSION_STRIPES];
+
+    /**
+     * @param name       the name of the cache, as reported by its statistics
+     * @param maxWeight  the maximum size of the entries in bytes
+     * @param staleNanos how long an expired entry is still returned while it is reloaded
+     * @param executor   executor reloading stale entries
+     */
+    public EntityCache(String name, long maxWeight, long staleNanos, Executor executor) {
+        this.maxWeight = maxWeight;
+        // 1% of the capacity, as W-TinyLFU
+        this.maxWindowWeight = Math.max(1, maxWeight / 100);
+        this.staleNanos = staleNanos;
+        this.executor = executor;
+        this.statistics = new CacheStatistics(name, this);
+        // assuming a few kilobytes per object
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(64, maxWeight / 2048)));
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the cached value of the key, or loads it.
+     *
+     * @param key      key
+     * @param ttlNanos how long the loaded value is fresh
+     * @param loader   loader of the value
+     * @return the value
+     * @throws FacebookException when the value needs to be loaded and loading fails
+     */
+    public Object get(Key key, long ttlNanos, Loader loader) throws FacebookException {
+        long now = System.nanoTime();
+        Node node;
+        long epoch;
+        synchronized (this) {
+            sketch.increment(key.hashCode());
+            node = window.get(key);
+            if (node == null) {
+                node = main.get(key);
+            }
+            if (node != null && now - node.staleUntil >= 0) {
+                remove(key);
+                node = null;
+            }
+            epoch = versions[stripe(key)];
+        }
+        if (node != null) {
+            if (now - node.freshUntil < 0) {
+                statistics.hit();
+            } else {
+                statistics.staleHit();
+                refresh(node, loader);
+            }
+            return node.value;
+        }
+        statistics.miss();
+        Object value = loader.load();
+        if (value != null) {
+            put(key, value, loader.weigh(value), ttlNanos, epoch);
+        }
+        return value;
+    }
+
+    /**
+     * @param key key
+     * @return the fresh value of the key, or null
+     */
+    public Object getIfPresent(Key key) {
+        long now = System.nanoTime();
+        Node node;
+        synchronized (this) {
+            sketch.increment(key.hashCode());
+            node = window.get(key);
+            if (node == null) {
+                node = main.get(key);
+            }
+        }
+        if (node != null && now - node.freshUntil < 0) {
+            statistics.hit();
+            return node.value;
+        }
+        statistics.miss();
+        return null;
+    }
+
+    /**
+     * Caches a value loaded by the caller.
+     *
+     * @param key      key
+     * @param value    value
+     * @param weight   the approximate size of the value in bytes
+     * @param ttlNanos how long the value is fresh
+     */
+    public void put(Key key, Object value, int weight, long ttlNanos) {
+        long epoch;
+        synchronized (this) {
+            epoch = versions[stripe(key)];
+        }
+        put(key, value, weight, ttlNanos, epoch);
+    }
+
+    private void refresh(final Node node, final Loader loader) {
+        if (!node.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        final long epoch;
+        synchronized (this) {
+            epoch = versions[stripe(node.key)];
+        }
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        Object value = loader.load();
+                        if (value != null) {
+                            put(node.key, value, loader.weigh(value), node.ttlNanos, epoch);
+                        }
+                    } catch (Exception e) {
+                        // the stale value is served until the end of the stale period
+                        logger.debug("Failed to refresh {}: {}", node.key.toString(), e.getMessage());
+                        node.refreshing.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            node.refreshing.set(false);
+        }
+    }
+
+    private synchronized void put(Key key, Object value, int weight, long ttlNanos, long epoch) {
+        if (epoch != versions[stripe(key)] || weight > maxWeight) {
+            return;
+        }
+        remove(key);
+        Node node = new Node(key, value, weight, System.nanoTime(), ttlNanos, staleNanos);
+        window.put(key, node);
+        windowWeight += weight;
+        index(key);
+        while (windowWeight > maxWindowWeight && window.size() > 1) {
+            Iterator<Node> it = window.values().iterator();
+            Node candidate = it.next();
+            it.remove();
+            windowWeight -= candidate.weight;
+            admit(candidate);
+        }
+        // the window may hold a single entry heavier than itself
+        while (windowWeight + mainWeight > maxWeight && !main.isEmpty()) {
+            evict(main.values().iterator());
+        }
+    }
+
+    private void admit(Node candidate) {
+        long maxMainWeight = maxWeight - maxWindowWeight;
+        int candidateFrequency = sketch.frequency(candidate.key.hashCode());
+        while (mainWeight + candidate.weight > maxMainWeight && !main.isEmpty()) {
+            Iterator<Node> it = main.values().iterator();
+            Node victim = it.next();
+            if (candidateFrequency <= sketch.frequency(victim.key.hashCode())) {
+                // not admitted
+                unindex(candidate.key);
+                statistics.evicted();
+                return;
+            }
+            evict(it);
+        }
+        main.put(candidate.key, candidate);
+        mainWeight += candidate.weight;
+    }
+
+    private void evict(Iterator<Node> it) {
+        Node victim = it.next();
+        it.remove();
+        mainWeight -= victim.weight;
+        unindex(victim.key);
+        statistics.evicted();
+    }
+
+    private void remove(Key key) {
+        Node node = window.remove(key);
+        if (node != null) {
+            windowWeight -= node.weight;
+        } else {
+            node = main.remove(key);
+            if (node != null) {
+                mainWeight -= node.weight;
+            }
+        }
+        if (node != null) {
+            unindex(key);
+        }
+    }
+
+    private static int stripe(Key key) {
+        return stripe(key.id);
+    }
+
+    private static int stripe(String id) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    private void index(Key key) {
+        Set<Key> keys = keysById.get(key.id);
+        if (keys == null) {
+            keys = new HashSet<Key>(4);
+            keysById.put(key.id, keys);
+        }
+        keys.add(key);
+    }
+
+    private void unindex(Key key) {
+        Set<Key> keys = keysById.get(key.id);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysById.remove(key.id);
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of an object, whatever the fields or the access token they were requested with.
+     *
+     * @param id the ID of the object
+     */
+    public synchronized void invalidate(String id) {
+        versions[stripe(id)]++;
+        Set<Key> keys = keysById.remove(id);
+        if (keys == null) {
+            return;
+        }
+        for (Key key : keys) {
+            Node node = window.remove(key);
+            if (node != null) {
+                windowWeight -= node.weight;
+            } else if ((node = main.remove(key)) != null) {
+                mainWeight -= node.weight;
+            }
+            statistics.invalidated();
+        }
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < versions.length; i++) {
+            versions[i]++;
+        }
+        window.clear();
+        main.clear();
+        keysById.clear();
+        windowWeight = 0;
+        mainWeight = 0;
+    }
+
+    public synchronized int getSize() {
+        return window.size() + main.size();
+    }
+
+    public synchronized long getWeight() {
+        return windowWeight + mainWeight;
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters, halved periodically so that old popularity fades away.
+     */
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = {0x97cb3127, 0xb11feae5, 0x3b9ac0a5, 0x7f4a7c15};
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int expectedEntries) {
+            int size = Integer.highestOneBit(Math.max(16, expectedEntries) - 1) << 1;
+            // 16 counters per long
+            table = new long[Math.max(1, size / 4)];
+            mask = table.length * 16 - 1;
+            sampleSize = 10 * size;
+        }
+
+        private void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = index(hash, i);
+                int slot = index >>> 4;
+                int shift = (index & 15) << 2;
+                if (((table[slot] >>> shift) & 0xfL) != 0xfL) {
+                    table[slot] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                reset();
+            }
+        }
+
+        private int frequency(int hash) {
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = index(hash, i);
+                int count = (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int i) {
+            int h = (hash + SEEDS[i]) * SEEDS[i];
+            h ^= h >>> 17;
+            return h & mask;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                // halves each of the 4-bit counters
+                table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            }
+            additions = sampleSize / 2;
+        }
+    }
+}
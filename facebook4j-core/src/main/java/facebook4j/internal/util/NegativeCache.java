@@ -0,0 +1,215 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.util;
+
+import facebook4j.FacebookException;
+import facebook4j.management.CacheStatistics;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers the objects and connections known to be missing or inaccessible, so that requesting them again
+ * fails locally instead of going to the network.<br>
+ * Only failures that a retry will not fix are kept: objects that do not exist (HTTP 404, error 803),
+ * missing permissions (HTTP 403, error 10 and 200-299) and unsupported get requests (error 100).
+ * The entries expire after a short time, as an object may be created or shared later, and the oldest entries
+ * are evicted first once the cache is full.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class NegativeCache implements CacheStatistics.SizeSource {
+    private static final int ERROR_INVALID_PARAMETER = 100;
+    private static final int ERROR_PERMISSION = 10;
+    private static final int ERROR_PERMISSION_FIRST = 200;
+    private static final int ERROR_PERMISSION_LAST = 299;
+    private static final int ERROR_ALIAS_NOT_FOUND = 803;
+    private static final String UNSUPPORTED_GET_REQUEST = "Unsupported get request";
+
+    private static final class Failure {
+        private final String id;
+        private final String key;
+        private final FacebookException cause;
+        private final long expiresAt;
+
+        private Failure(String id, String key, FacebookException cause, long expiresAt) {
+            this.id = id;
+            this.key = key;
+            this.cause = cause;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlNanos;
+    private final CacheStatistics statistics;
+    // guarded by this, in insertion order
+    private final LinkedHashMap<String, Failure> entries;
+    // guarded by this, the keys of the entries of each object
+    private final Map<String, Set<String>> keysById = new HashMap<String, Set<String>>();
+
+    /**
+     * @param name       the name of the cache, as reported by its statistics
+     * @param maxEntries the maximum number of entries
+     * @param ttlNanos   how long a failure is remembered
+     */
+    public NegativeCache(String name, final int maxEntries, long ttlNanos) {
+        this.ttlNanos = ttlNanos;
+        this.statistics = new CacheStatistics(name, this);
+        this.entries = new LinkedHashMap<String, Failure>(16, 0.75f, false) {
+            private static final long serialVersionUID = -3291867285834437461L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Failure> eldest) {
+                if (size() > maxEntries) {
+                    unindex(eldest.getValue());
+                    statistics.evicted();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @param fe failure of a request
+     * @return whether the failure is the same whenever the request is repeated
+     */
+    public static boolean isPermanent(FacebookException fe) {
+        if (fe.isCausedByThrottling()) {
+            return false;
+        }
+        int errorCode = fe.getErrorCode();
+        if (fe.getStatusCode() == 404 || fe.getStatusCode() == 403 || errorCode == ERROR_ALIAS_NOT_FOUND
+                || errorCode == ERROR_PERMISSION
+                || (ERROR_PERMISSION_FIRST <= errorCode && errorCode <= ERROR_PERMISSION_LAST)) {
+            return true;
+        }
+        String message = fe.getErrorMessage();
+        return errorCode == ERROR_INVALID_PARAMETER && message != null && message.startsWith(UNSUPPORTED_GET_REQUEST);
+    }
+
+    /**
+     * Throws the failure remembered for the object and connection, if any.
+     *
+     * @param id    the ID of the object
+     * @param edge  the connection, or null for the object itself
+     * @param scope the scope of the access token
+     * @throws FacebookException a copy of the failure of the previous request
+     */
+    public void check(String id, String edge, String scope) throws FacebookException {
+        String key = key(id, edge, scope);
+        Failure failure;
+        synchronized (this) {
+            failure = entries.get(key);
+            if (failure != null && System.nanoTime() - failure.expiresAt >= 0) {
+                entries.remove(key);
+                unindex(failure);
+                failure = null;
+            }
+        }
+        if (failure == null) {
+            statistics.miss();
+            return;
+        }
+        statistics.hit();
+        FacebookException cause = failure.cause;
+        throw new FacebookException(cause.getMessage(), cause, cause.getStatusCode());
+    }
+
+    /**
+     * Remembers the failure if it is permanent.
+     *
+     * @param id    the ID of the object
+     * @param edge  the connection, or null for the object itself
+     * @param scope the scope of the access token
+     * @param fe    failure of the request
+     */
+    public void failed(String id, String edge, String scope, FacebookException fe) {
+        if (!isPermanent(fe)) {
+            return;
+        }
+        String key = key(id, edge, scope);
+        Failure failure = new Failure(id, key, fe, System.nanoTime() + ttlNanos);
+        synchronized (this) {
+            // moves the entry to the end of the eviction order
+            if (entries.remove(key) == null) {
+                index(failure);
+            }
+            entries.put(key, failure);
+        }
+    }
+
+    /**
+     * Forgets the failures of an object and its connections.
+     *
+     * @param id the ID of the object
+     */
+    public synchronized void invalidate(String id) {
+        Set<String> keys = keysById.remove(id);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            entries.remove(key);
+            statistics.invalidated();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        keysById.clear();
+    }
+
+    private void index(Failure failure) {
+        Set<String> keys = keysById.get(failure.id);
+        if (keys == null) {
+            keys = new HashSet<String>(4);
+            keysById.put(failure.id, keys);
+        }
+        keys.add(failure.key);
+    }
+
+    private void unindex(Failure failure) {
+        Set<String> keys = keysById.get(failure.id);
+        if (keys != null) {
+            keys.remove(failure.key);
+            if (keys.isEmpty()) {
+                keysById.remove(failure.id);
+            }
+        }
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    // failures are not weighed
+    public long getWeight() {
+        return 0;
+    }
+
+    private static String key(String id, String edge, String scope) {
+        return (scope != null ? scope : "") + " " + id + (edge != null ? "/" + edge : "");
+    }
+}
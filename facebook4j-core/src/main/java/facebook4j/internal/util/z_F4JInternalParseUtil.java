@@ -30,6 +30,10 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import facebook4j.FacebookException;
 import facebook4j.internal.http.HTMLEntity;
@@ -65,12 +69,51 @@ public final class z_F4JInternalParseUtil {
         throw new AssertionError();
     }
 
-    private static ThreadLocal<Map<String, SimpleDateFormat>> formatMap = new ThreadLocal<Map<String, SimpleDateFormat>>() {
-        @Override
-        protected Map<String, SimpleDateFormat> initialValue() {
-            return new HashMap<String, SimpleDateFormat>();
+    // SimpleDateFormat is not thread safe. instances are borrowed from a shared pool per format
+    // rather than cached per thread, which would allocate them again for every short-lived (virtual) thread
+    private static final int MAX_POOLED_FORMATS = 32;
+    private static final ConcurrentMap<String, FormatPool> formatPools = new ConcurrentHashMap<String, FormatPool>();
+
+    private static final class FormatPool {
+        private final String format;
+        private final ConcurrentLinkedQueue<SimpleDateFormat> formats = new ConcurrentLinkedQueue<SimpleDateFormat>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        private FormatPool(String format) {
+            this.format = format;
+        }
+
+        private SimpleDateFormat borrow() {
+            SimpleDateFormat sdf = formats.poll();
+            if (sdf != null) {
+                size.decrementAndGet();
+                return sdf;
+            }
+            sdf = new SimpleDateFormat(format, Locale.ENGLISH);
+            sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
+            return sdf;
         }
-    };
+
+        private void release(SimpleDateFormat sdf) {
+            if (size.incrementAndGet() <= MAX_POOLED_FORMATS) {
+                formats.offer(sdf);
+            } else {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private static FormatPool getFormatPool(String format) {
+        FormatPool pool = formatPools.get(format);
+        if (pool == null) {
+            FormatPool newPool = new FormatPool(format);
+            pool = formatPools.putIfAbsent(format, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
 
     public static String getUnescapedString(String str, JSONObject json) {
         return HTMLEntity.unescape(getRawString(str, json));
@@ -113,16 +156,14 @@ public final class z_F4JInternalParseUtil {
     }
 
     public static Date getDate(String name, String format) throws FacebookException {
-        SimpleDateFormat sdf = formatMap.get().get(format);
-        if (null == sdf) {
-            sdf = new SimpleDateFormat(format, Locale.ENGLISH);
-            sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
-            formatMap.get().put(format, sdf);
-        }
+        FormatPool pool = getFormatPool(format);
+        SimpleDateFormat sdf = pool.borrow();
         try {
             return sdf.parse(name);
         } catch (ParseException pe) {
             throw new FacebookException("Unexpected date format(" + name + ") returned from facebook.com", pe);
+        } finally {
+            pool.release(sdf);
         }
     }
 
@@ -18,8 +18,6 @@ package facebook4j.json;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
-import java.util.Map;
 
 import facebook4j.Album;
 import facebook4j.Checkin;
@@ -40,6 +38,7 @@ import facebook4j.RSVPStatus;
 import facebook4j.Tag;
 import facebook4j.User;
 import facebook4j.Video;
+import facebook4j.internal.json.RawJSONStore;
 import facebook4j.internal.org.json.JSONException;
 import facebook4j.internal.org.json.JSONObject;
 
@@ -133,30 +132,15 @@ public final class DataObjectFactory {
         }
     }
 
-    private static final ThreadLocal<Map> rawJsonMap = new ThreadLocal<Map>() {
-        @Override
-        protected Map initialValue() {
-            return new HashMap();
-        }
-    };
-
     /**
      * Returns a raw JSON form of the provided object.<br>
-     * Note that raw JSON forms can be retrieved only from the same thread invoked the last method call and will become inaccessible once another method call
+     * Raw JSON forms are available from any thread while the object is reachable, as long as they are not evicted from the bounded store (see facebook4j.internal.json.RawJSONStore).
      *
      * @param obj
      * @return raw JSON
      */
     public static String getRawJSON(Object obj) {
-        Object json = rawJsonMap.get().get(obj);
-        if (json instanceof String) {
-            return (String) json;
-        } else if (json != null) {
-            // object must be instance of JSONObject
-            return json.toString();
-        } else {
-            return null;
-        }
+        return RawJSONStore.getInstance().get(obj);
     }
 
     /**
@@ -554,21 +538,4 @@ public final class DataObjectFactory {
             throw new FacebookException(e);
         }
     }
-    
-    /**
-     * clear raw JSON forms associated with the current thread.<br>
-     * Currently this method is called indirectly by facebook4j.internal.util.DataObjectFactoryUtil, and should be called directly once *JSONImpl classes are migrated to facebook4j.json.* package.
-     */
-    static void clearThreadLocalMap() {
-        rawJsonMap.get().clear();
-    }
-
-    /**
-     * associate a raw JSON form to the current thread<br>
-     * Currently this method is called indirectly by facebook4j.internal.util.DataObjectFactoryUtil, and should be called directly once *JSONImpl classes are migrated to facebook4j.json.* package.
-     */
-    static <T> T registerJSONObject(T key, Object json) {
-        rawJsonMap.get().put(key, json);
-        return key;
-    }
-}
\ No newline at end of file
+}
@@ -18,6 +18,8 @@ package facebook4j.management;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Container for all InvocationStatisticsCalculators in a given API (like Twitter)
@@ -25,17 +27,41 @@ import java.util.Map;
  * @author Nick Dellamaggiore (nick.dellamaggiore <at> gmail.com)
  */
 public class APIStatistics implements APIStatisticsMBean {
+    /**
+     * the name of the bucket collecting the methods beyond the limit
+     */
+    public static final String OVERFLOW_METHOD_NAME = "other";
+    private static final int DEFAULT_MAX_METHODS = 200;
+
     private final InvocationStatisticsCalculator API_STATS_CALCULATOR;
     private final Map<String, InvocationStatisticsCalculator> METHOD_STATS_MAP;
+    private final Map<String, PhaseStatisticsCalculator> PHASE_STATS_MAP;
     private final int HISTORY_SIZE;
+    private final int MAX_METHODS;
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    // percentages of the app rate limit reported by Facebook, -1 until reported
+    private volatile int appCallCountUsage = -1;
+    private volatile int appTotalTimeUsage = -1;
+    private volatile int appTotalCPUTimeUsage = -1;
 
     /**
      * @param historySize the number of calls to track (for invocation time averaging)
      */
     public APIStatistics(int historySize) {
+        this(historySize, DEFAULT_MAX_METHODS);
+    }
+
+    /**
+     * @param historySize the number of calls to track (for invocation time averaging)
+     * @param maxMethods  the number of methods to track. calls to further methods are accounted to {@link #OVERFLOW_METHOD_NAME}
+     */
+    public APIStatistics(int historySize, int maxMethods) {
         API_STATS_CALCULATOR = new InvocationStatisticsCalculator("API", historySize);
-        METHOD_STATS_MAP = new HashMap<String, InvocationStatisticsCalculator>(100);
+        // concurrent maps, so that exporters can iterate them without blocking the callers
+        METHOD_STATS_MAP = new ConcurrentHashMap<String, InvocationStatisticsCalculator>(100);
+        PHASE_STATS_MAP = new ConcurrentHashMap<String, PhaseStatisticsCalculator>(100);
         HISTORY_SIZE = historySize;
+        MAX_METHODS = maxMethods;
     }
 
     /**
@@ -43,15 +69,48 @@ public class APIStatistics implements APIStatisticsMBean {
      * @param time   the method execution time
      */
     public synchronized void methodCalled(String method, long time, boolean success) {
-        getMethodStatistics(method).increment(time, success);
+        methodCalled(method, time, success, 0);
+    }
+
+    /**
+     * @param method  the method invoked
+     * @param time    the method execution time
+     * @param success whether the invocation succeeded
+     * @param retries the number of retries the invocation took
+     */
+    public synchronized void methodCalled(String method, long time, boolean success, int retries) {
+        getMethodStatistics(method).increment(time, success, retries);
 
         // increment for entire API
-        API_STATS_CALCULATOR.increment(time, success);
+        API_STATS_CALCULATOR.increment(time, success, retries);
+    }
+
+    public void requestStarted() {
+        inFlightCount.incrementAndGet();
+    }
+
+    public void requestFinished() {
+        inFlightCount.decrementAndGet();
+    }
+
+    /**
+     * @param callCount    the percentage of the call count limit used by the app
+     * @param totalTime    the percentage of the total time limit used by the app
+     * @param totalCPUTime the percentage of the CPU time limit used by the app
+     */
+    public void appUsageReported(int callCount, int totalTime, int totalCPUTime) {
+        appCallCountUsage = callCount;
+        appTotalTimeUsage = totalTime;
+        appTotalCPUTimeUsage = totalCPUTime;
     }
 
     private synchronized InvocationStatisticsCalculator getMethodStatistics(String method) {
         InvocationStatisticsCalculator methodStats = METHOD_STATS_MAP.get(method);
 
+        if (methodStats == null && METHOD_STATS_MAP.size() >= MAX_METHODS) {
+            method = OVERFLOW_METHOD_NAME;
+            methodStats = METHOD_STATS_MAP.get(method);
+        }
         if (methodStats == null) {
             methodStats = new InvocationStatisticsCalculator(method, HISTORY_SIZE);
             METHOD_STATS_MAP.put(method, methodStats);
@@ -59,13 +118,53 @@ public class APIStatistics implements APIStatisticsMBean {
         return methodStats;
     }
 
+    /**
+     * @param method the method invoked
+     * @param phase  the phase of the invocation
+     * @param nanos  the time spent in the phase in nanoseconds
+     */
+    public void phaseRecorded(String method, RequestPhase phase, long nanos) {
+        getPhaseStatistics(method).increment(phase, nanos);
+    }
+
+    private synchronized PhaseStatisticsCalculator getPhaseStatistics(String method) {
+        PhaseStatisticsCalculator phaseStats = PHASE_STATS_MAP.get(method);
+
+        if (phaseStats == null && PHASE_STATS_MAP.size() >= MAX_METHODS) {
+            method = OVERFLOW_METHOD_NAME;
+            phaseStats = PHASE_STATS_MAP.get(method);
+        }
+        if (phaseStats == null) {
+            phaseStats = new PhaseStatisticsCalculator(method);
+            PHASE_STATS_MAP.put(method, phaseStats);
+        }
+        return phaseStats;
+    }
+
     public synchronized Iterable<? extends InvocationStatistics> getInvocationStatistics() {
         return METHOD_STATS_MAP.values();
     }
 
+    public synchronized Iterable<? extends PhaseStatistics> getPhaseStatistics() {
+        return PHASE_STATS_MAP.values();
+    }
+
+    /*package*/ InvocationStatisticsCalculator getAPIStatisticsCalculator() {
+        return API_STATS_CALCULATOR;
+    }
+
+    /*package*/ Collection<InvocationStatisticsCalculator> getMethodStatisticsCalculators() {
+        return METHOD_STATS_MAP.values();
+    }
+
+    /*package*/ Collection<PhaseStatisticsCalculator> getPhaseStatisticsCalculators() {
+        return PHASE_STATS_MAP.values();
+    }
+
     public synchronized void reset() {
         API_STATS_CALCULATOR.reset();
         METHOD_STATS_MAP.clear();
+        PHASE_STATS_MAP.clear();
     }
 
     /**
@@ -92,6 +191,26 @@ public class APIStatistics implements APIStatisticsMBean {
         return API_STATS_CALCULATOR.getAverageTime();
     }
 
+    public long getRetryCount() {
+        return API_STATS_CALCULATOR.getRetryCount();
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    public int getAppCallCountUsage() {
+        return appCallCountUsage;
+    }
+
+    public int getAppTotalTimeUsage() {
+        return appTotalTimeUsage;
+    }
+
+    public int getAppTotalCPUTimeUsage() {
+        return appTotalCPUTimeUsage;
+    }
+
 
     public synchronized Map<String, String> getMethodLevelSummariesAsString() {
         Map<String, String> summariesMap = new HashMap<String, String>();
@@ -107,4 +226,14 @@ public class APIStatistics implements APIStatisticsMBean {
     public synchronized String getMethodLevelSummary(String methodName) {
         return METHOD_STATS_MAP.get(methodName).toString();
     }
+
+    public synchronized Map<String, String> getPhaseLevelSummariesAsString() {
+        Map<String, String> summariesMap = new HashMap<String, String>();
+
+        for (PhaseStatisticsCalculator phaseStats : PHASE_STATS_MAP.values()) {
+            summariesMap.put(phaseStats.getName(), phaseStats.toString());
+        }
+
+        return summariesMap;
+    }
 }
\ No newline at end of file
@@ -30,4 +30,11 @@ public interface APIStatisticsMBean extends InvocationStatistics {
     public String getMethodLevelSummary(String methodName);
 
     public Iterable<? extends InvocationStatistics> getInvocationStatistics();
+
+    /**
+     * @return average time spent in each {@link RequestPhase} per method, in microseconds
+     */
+    public Map<String, String> getPhaseLevelSummariesAsString();
+
+    public Iterable<? extends PhaseStatistics> getPhaseStatistics();
 }
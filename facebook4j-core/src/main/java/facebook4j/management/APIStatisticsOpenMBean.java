@@ -39,8 +39,30 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
                     "The average amount of time spent invoking this method in milliseconds"};
     private final CompositeType METHOD_STATS_TYPE;
 
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+    private static final String[] PHASE_ITEM_NAMES;
+    private static final OpenType[] PHASE_ITEM_TYPES;
+    private static final String[] PHASE_ITEM_DESCRIPTIONS;
+
+    static {
+        PHASE_ITEM_NAMES = new String[PHASES.length + 1];
+        PHASE_ITEM_TYPES = new OpenType[PHASES.length + 1];
+        PHASE_ITEM_DESCRIPTIONS = new String[PHASES.length + 1];
+        PHASE_ITEM_NAMES[0] = "methodName";
+        PHASE_ITEM_TYPES[0] = SimpleType.STRING;
+        PHASE_ITEM_DESCRIPTIONS[0] = "The method name";
+        for (int i = 0; i < PHASES.length; i++) {
+            PHASE_ITEM_NAMES[i + 1] = PHASES[i].getLabel();
+            PHASE_ITEM_TYPES[i + 1] = SimpleType.LONG;
+            PHASE_ITEM_DESCRIPTIONS[i + 1] = "The average amount of time spent in the " + PHASES[i].getLabel() + " phase in microseconds";
+        }
+    }
+
+    private final CompositeType PHASE_STATS_TYPE;
+
     private final APIStatisticsMBean API_STATISTICS;
     private final TabularType API_STATISTICS_TYPE;
+    private final TabularType PHASE_STATISTICS_TYPE;
 
     public APIStatisticsOpenMBean(APIStatistics apiStatistics) {
         API_STATISTICS = apiStatistics;
@@ -55,6 +77,14 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
                     "list of methods",
                     METHOD_STATS_TYPE,
                     index);
+
+            PHASE_STATS_TYPE =
+                    new CompositeType("phase statistics", "phase statistics",
+                            PHASE_ITEM_NAMES, PHASE_ITEM_DESCRIPTIONS, PHASE_ITEM_TYPES);
+            PHASE_STATISTICS_TYPE = new TabularType("API phase statistics",
+                    "list of methods",
+                    PHASE_STATS_TYPE,
+                    index);
         } catch (OpenDataException e) {
             throw new RuntimeException(e);
         }
@@ -62,7 +92,7 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
 
     public MBeanInfo getMBeanInfo() {
         OpenMBeanInfoSupport info;
-        OpenMBeanAttributeInfoSupport[] attributes = new OpenMBeanAttributeInfoSupport[5];
+        OpenMBeanAttributeInfoSupport[] attributes = new OpenMBeanAttributeInfoSupport[6];
         OpenMBeanConstructorInfoSupport[] constructors = new OpenMBeanConstructorInfoSupport[1];
         OpenMBeanOperationInfoSupport[] operations = new OpenMBeanOperationInfoSupport[1];
         MBeanNotificationInfo[] notifications = new MBeanNotificationInfo[0];
@@ -93,6 +123,11 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
                         "Table of statisics for all API methods",
                         API_STATISTICS_TYPE, true, false, false);
 
+        attributes[attrIdx++] =
+                new OpenMBeanAttributeInfoSupport("phaseStatisticsTable",
+                        "Table of average time spent in each request phase for all API methods",
+                        PHASE_STATISTICS_TYPE, true, false, false);
+
         constructors[0] = new OpenMBeanConstructorInfoSupport(
                 "APIStatisticsOpenMBean",
                 "Constructs an APIStatisticsOpenMBean instance",
@@ -139,6 +174,28 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
         return apiStatisticsTable;
     }
 
+    public synchronized TabularDataSupport getPhaseStatistics() {
+        TabularDataSupport phaseStatisticsTable = new TabularDataSupport(PHASE_STATISTICS_TYPE);
+
+        for (PhaseStatistics phaseStats : API_STATISTICS.getPhaseStatistics()) {
+            Object[] itemValues = new Object[PHASES.length + 1];
+            itemValues[0] = phaseStats.getName();
+            for (int i = 0; i < PHASES.length; i++) {
+                itemValues[i + 1] = phaseStats.getAverageTime(PHASES[i]);
+            }
+
+            try {
+                phaseStatisticsTable.put(new CompositeDataSupport(PHASE_STATS_TYPE,
+                        PHASE_ITEM_NAMES,
+                        itemValues));
+            } catch (OpenDataException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        return phaseStatisticsTable;
+    }
+
     public void reset() {
         API_STATISTICS.reset();
     }
@@ -148,6 +205,8 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
             throws AttributeNotFoundException, MBeanException, ReflectionException {
         if (attribute.equals("statisticsTable")) {
             return (TabularData) getStatistics();
+        } else if (attribute.equals("phaseStatisticsTable")) {
+            return (TabularData) getPhaseStatistics();
         } else if (attribute.equals("callCount")) {
             return API_STATISTICS.getCallCount();
         } else if (attribute.equals("errorCount")) {
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a cache, updated by the cache and exposed through JMX.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public class CacheStatistics implements CacheStatisticsMBean {
+    /**
+     * Reports the current size of the cache.
+     */
+    public interface SizeSource {
+        int getSize();
+
+        long getWeight();
+    }
+
+    private final String name;
+    private final SizeSource source;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong staleHitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    /**
+     * @param name   the name of the cache
+     * @param source the cache
+     */
+    public CacheStatistics(String name, SizeSource source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    public void hit() {
+        hitCount.incrementAndGet();
+    }
+
+    public void staleHit() {
+        staleHitCount.incrementAndGet();
+    }
+
+    public void miss() {
+        missCount.incrementAndGet();
+    }
+
+    public void evicted() {
+        evictionCount.incrementAndGet();
+    }
+
+    public void invalidated() {
+        invalidationCount.incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getStaleHitCount() {
+        return staleHitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    public double getHitRate() {
+        long hits = hitCount.get() + staleHitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int getSize() {
+        return source.getSize();
+    }
+
+    public long getWeight() {
+        return source.getWeight();
+    }
+
+    public void reset() {
+        hitCount.set(0);
+        staleHitCount.set(0);
+        missCount.set(0);
+        evictionCount.set(0);
+        invalidationCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" +
+                "name='" + name + '\'' +
+                ", hitCount=" + hitCount +
+                ", staleHitCount=" + staleHitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", invalidationCount=" + invalidationCount +
+                ", size=" + getSize() +
+                ", weight=" + getWeight() +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+/**
+ * Statistics of a cache in front of the Graph API.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public interface CacheStatisticsMBean {
+    public String getName();
+
+    /**
+     * @return the number of lookups answered with a fresh entry
+     */
+    public long getHitCount();
+
+    /**
+     * @return the number of lookups answered with an expired entry while it is refreshed in the background
+     */
+    public long getStaleHitCount();
+
+    public long getMissCount();
+
+    /**
+     * @return the number of entries evicted for size, including new entries not admitted
+     */
+    public long getEvictionCount();
+
+    /**
+     * @return the number of entries removed because the object was modified
+     */
+    public long getInvalidationCount();
+
+    /**
+     * @return the ratio of the lookups answered from the cache, fresh or stale
+     */
+    public double getHitRate();
+
+    public int getSize();
+
+    /**
+     * @return the approximate size of the entries, in bytes
+     */
+    public long getWeight();
+
+    public void reset();
+}
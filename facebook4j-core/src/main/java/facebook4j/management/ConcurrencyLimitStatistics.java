@@ -0,0 +1,118 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of an adaptive concurrency limiter, exposed through JMX.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public class ConcurrencyLimitStatistics implements ConcurrencyLimitStatisticsMBean {
+    /**
+     * Reports the current state of the limiter.
+     */
+    public interface Source {
+        int getMaxLimit();
+
+        List<EndpointLimitStatistics> getEndpointLimitStatistics();
+    }
+
+    private final String name;
+    private final Source source;
+
+    /**
+     * @param name   the name of the limiter
+     * @param source the limiter
+     */
+    public ConcurrencyLimitStatistics(String name, Source source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxLimit() {
+        return source.getMaxLimit();
+    }
+
+    public Map<String, Integer> getEndpointLimits() {
+        Map<String, Integer> limits = new LinkedHashMap<String, Integer>();
+        for (EndpointLimitStatistics endpoint : source.getEndpointLimitStatistics()) {
+            limits.put(endpoint.getEndpoint(), endpoint.getLimit());
+        }
+        return limits;
+    }
+
+    public Map<String, Integer> getEndpointInFlight() {
+        Map<String, Integer> inFlight = new LinkedHashMap<String, Integer>();
+        for (EndpointLimitStatistics endpoint : source.getEndpointLimitStatistics()) {
+            inFlight.put(endpoint.getEndpoint(), endpoint.getInFlight());
+        }
+        return inFlight;
+    }
+
+    public Map<String, Double> getEndpointSmoothedRttMillis() {
+        Map<String, Double> rtts = new LinkedHashMap<String, Double>();
+        for (EndpointLimitStatistics endpoint : source.getEndpointLimitStatistics()) {
+            rtts.put(endpoint.getEndpoint(), endpoint.getSmoothedRttMillis());
+        }
+        return rtts;
+    }
+
+    public Map<String, Double> getEndpointMinRttMillis() {
+        Map<String, Double> rtts = new LinkedHashMap<String, Double>();
+        for (EndpointLimitStatistics endpoint : source.getEndpointLimitStatistics()) {
+            rtts.put(endpoint.getEndpoint(), endpoint.getMinRttMillis());
+        }
+        return rtts;
+    }
+
+    /**
+     * @return the statistics of each endpoint
+     */
+    public List<EndpointLimitStatistics> getEndpointLimitStatistics() {
+        return source.getEndpointLimitStatistics();
+    }
+
+    /**
+     * @param endpoint the endpoint template
+     * @return the statistics of the endpoint, or null if no request was made to it
+     */
+    public EndpointLimitStatistics getEndpointLimitStatistics(String endpoint) {
+        for (EndpointLimitStatistics statistics : source.getEndpointLimitStatistics()) {
+            if (statistics.getEndpoint().equals(endpoint)) {
+                return statistics;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimitStatistics{" +
+                "name='" + name + '\'' +
+                ", maxLimit=" + getMaxLimit() +
+                ", endpoints=" + getEndpointLimitStatistics() +
+                '}';
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+import java.util.Map;
+
+/**
+ * Statistics of the limiter adapting the number of concurrent requests per endpoint to the observed latency.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public interface ConcurrencyLimitStatisticsMBean {
+    public String getName();
+
+    /**
+     * @return the highest limit an endpoint may reach
+     */
+    public int getMaxLimit();
+
+    /**
+     * @return the number of requests currently let run at once per endpoint
+     */
+    public Map<String, Integer> getEndpointLimits();
+
+    public Map<String, Integer> getEndpointInFlight();
+
+    /**
+     * @return the smoothed round-trip time per endpoint, in milliseconds
+     */
+    public Map<String, Double> getEndpointSmoothedRttMillis();
+
+    /**
+     * @return the round-trip time without load per endpoint, in milliseconds
+     */
+    public Map<String, Double> getEndpointMinRttMillis();
+}
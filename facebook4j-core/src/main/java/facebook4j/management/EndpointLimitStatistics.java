@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+/**
+ * A snapshot of the adaptive concurrency limit of an endpoint.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class EndpointLimitStatistics {
+    private final String endpoint;
+    private final int limit;
+    private final int inFlight;
+    private final long smoothedRttNanos;
+    private final long minRttNanos;
+    private final long increaseCount;
+    private final long decreaseCount;
+
+    public EndpointLimitStatistics(String endpoint, int limit, int inFlight, long smoothedRttNanos, long minRttNanos,
+                                   long increaseCount, long decreaseCount) {
+        this.endpoint = endpoint;
+        this.limit = limit;
+        this.inFlight = inFlight;
+        this.smoothedRttNanos = smoothedRttNanos;
+        this.minRttNanos = minRttNanos;
+        this.increaseCount = increaseCount;
+        this.decreaseCount = decreaseCount;
+    }
+
+    /**
+     * @return the endpoint template, see {@link facebook4j.internal.http.EndpointClassifier}
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the number of requests currently let run at once
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public double getSmoothedRttMillis() {
+        return smoothedRttNanos / 1000000d;
+    }
+
+    /**
+     * @return the round-trip time of the endpoint without load, which latency inflation is measured against
+     */
+    public double getMinRttMillis() {
+        return minRttNanos / 1000000d;
+    }
+
+    /**
+     * @return the number of times the limit was raised
+     */
+    public long getIncreaseCount() {
+        return increaseCount;
+    }
+
+    /**
+     * @return the number of times the limit was cut
+     */
+    public long getDecreaseCount() {
+        return decreaseCount;
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointLimitStatistics{" +
+                "endpoint='" + endpoint + '\'' +
+                ", limit=" + limit +
+                ", inFlight=" + inFlight +
+                ", smoothedRttMillis=" + getSmoothedRttMillis() +
+                ", minRttMillis=" + getMinRttMillis() +
+                ", increaseCount=" + increaseCount +
+                ", decreaseCount=" + decreaseCount +
+                '}';
+    }
+}
@@ -16,6 +16,7 @@
 
 package facebook4j.management;
 
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Object that collects/aggregates statistics for the invocation of a given method.
@@ -23,12 +24,20 @@ package facebook4j.management;
  * @author Nick Dellamaggiore (nick.dellamaggiore <at> gmail.com)
  */
 public class InvocationStatisticsCalculator implements InvocationStatistics {
+    /**
+     * upper bounds (inclusive, in milliseconds) of the latency histogram buckets, the last bucket being unbounded
+     */
+    public static final long[] LATENCY_BUCKETS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
     private String name;
     private long[] times;
     private int index;
-    private long callCount;
-    private long errorCount;
-    private long totalTime;
+    // written by a single thread at a time, read without locking
+    private volatile long callCount;
+    private volatile long errorCount;
+    private volatile long totalTime;
+    private volatile long retryCount;
+    private final AtomicLongArray latencyCounts = new AtomicLongArray(LATENCY_BUCKETS.length + 1);
 
     /**
      * @param name        the name of this API method
@@ -40,9 +49,25 @@ public class InvocationStatisticsCalculator implements InvocationStatistics {
     }
 
     public void increment(long time, boolean success) {
+        increment(time, success, 0);
+    }
+
+    /**
+     * @param time    the method execution time
+     * @param success whether the invocation succeeded
+     * @param retries the number of retries the invocation took
+     */
+    public void increment(long time, boolean success, int retries) {
         callCount++;
         errorCount += success ? 0 : 1;
         totalTime += time;
+        retryCount += retries;
+
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS.length && LATENCY_BUCKETS[bucket] < time) {
+            bucket++;
+        }
+        latencyCounts.incrementAndGet(bucket);
 
         times[index] = time;
 
@@ -66,6 +91,18 @@ public class InvocationStatisticsCalculator implements InvocationStatistics {
         return totalTime;
     }
 
+    public long getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * @param bucket index in {@link #LATENCY_BUCKETS}, or its length for the unbounded bucket
+     * @return the number of calls which took longer than the previous bound and up to the bound of the bucket
+     */
+    public long getLatencyCount(int bucket) {
+        return latencyCounts.get(bucket);
+    }
+
     public synchronized long getAverageTime() {
         int stopIndex = Math.min(Math.abs((int) callCount), times.length);
         if (stopIndex == 0) {
@@ -84,6 +121,10 @@ public class InvocationStatisticsCalculator implements InvocationStatistics {
         callCount = 0;
         errorCount = 0;
         totalTime = 0;
+        retryCount = 0;
+        for (int i = 0; i < latencyCounts.length(); i++) {
+            latencyCounts.set(i, 0);
+        }
         times = new long[times.length];
         index = 0;
     }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves {@link OpenMetricsExporter} over HTTP with the HTTP server embedded in the JDK (Java 6 or later).<br>
+ * Scrapes are handled on the dispatcher thread of the server, independently of the threads calling the Graph API.
+ *
+ * <pre>
+ * HttpServer server = OpenMetricsEndpoint.start(FacebookAPIMonitor.getOpenMetricsExporter(), new InetSocketAddress(9404));
+ * </pre>
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class OpenMetricsEndpoint implements HttpHandler {
+    /**
+     * the path the metrics are served at
+     */
+    public static final String PATH = "/metrics";
+
+    private final OpenMetricsExporter exporter;
+
+    public OpenMetricsEndpoint(OpenMetricsExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * Starts an HTTP server serving the metrics at {@link #PATH}.
+     *
+     * @param exporter exporter
+     * @param address  the address to listen on
+     * @return the started server. call {@link HttpServer#stop(int)} to stop it
+     * @throws IOException when the server cannot be bound
+     */
+    public static HttpServer start(OpenMetricsExporter exporter, InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext(PATH, new OpenMetricsEndpoint(exporter));
+        server.start();
+        return server;
+    }
+
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", OpenMetricsExporter.CONTENT_TYPE);
+            // chunked, the length is not known before rendering
+            exchange.sendResponseHeaders(200, 0);
+            Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), "UTF-8"), 8192);
+            exporter.write(out);
+            out.close();
+        } finally {
+            exchange.close();
+        }
+    }
+}
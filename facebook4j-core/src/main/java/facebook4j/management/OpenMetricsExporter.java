@@ -0,0 +1,287 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Renders {@link APIStatistics} in the OpenMetrics (Prometheus) text format.<br>
+ * Statistics are read without locking, and nothing is allocated per metric: numbers and labels are written
+ * to the writer character by character. Wrap the writer in a BufferedWriter when it is not buffered.
+ *
+ * <pre>
+ * facebook4j_api_calls_total{monitor="default",method="{id}/feed"} 12
+ * facebook4j_api_latency_seconds_bucket{monitor="default",method="{id}/feed",le="0.25"} 10
+ * </pre>
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class OpenMetricsExporter {
+    /**
+     * the content type of the rendered text
+     */
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+    private static final String[] LATENCY_BOUNDS = new String[InvocationStatisticsCalculator.LATENCY_BUCKETS.length + 1];
+
+    static {
+        for (int i = 0; i < InvocationStatisticsCalculator.LATENCY_BUCKETS.length; i++) {
+            LATENCY_BOUNDS[i] = String.valueOf(InvocationStatisticsCalculator.LATENCY_BUCKETS[i] / 1000d);
+        }
+        LATENCY_BOUNDS[LATENCY_BOUNDS.length - 1] = "+Inf";
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final APIStatistics statistics;
+
+        private Entry(String name, APIStatistics statistics) {
+            this.name = name;
+            this.statistics = statistics;
+        }
+    }
+
+    private final CopyOnWriteArrayList<Entry> entries = new CopyOnWriteArrayList<Entry>();
+
+    /**
+     * @param name       the value of the "monitor" label of the statistics
+     * @param statistics statistics
+     */
+    public void register(String name, APIStatistics statistics) {
+        entries.add(new Entry(name, statistics));
+    }
+
+    /**
+     * @param name the name the statistics have been registered with
+     */
+    public void unregister(String name) {
+        for (Entry entry : entries) {
+            if (entry.name.equals(name)) {
+                entries.remove(entry);
+            }
+        }
+    }
+
+    /**
+     * @return the statistics rendered in the OpenMetrics text format
+     */
+    public String scrape() {
+        StringWriter out = new StringWriter(4096);
+        try {
+            write(out);
+        } catch (IOException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the statistics in the OpenMetrics text format.
+     *
+     * @param out writer
+     * @throws IOException when the writer fails
+     */
+    public void write(Writer out) throws IOException {
+        char[] buf = new char[24];
+
+        family(out, "facebook4j_api_calls", "counter", "Graph API calls.");
+        for (Entry entry : entries) {
+            for (InvocationStatisticsCalculator stats : entry.statistics.getMethodStatisticsCalculators()) {
+                sample(out, buf, "facebook4j_api_calls_total", entry.name, stats.getName(), stats.getCallCount());
+            }
+        }
+        family(out, "facebook4j_api_errors", "counter", "Graph API calls which failed.");
+        for (Entry entry : entries) {
+            for (InvocationStatisticsCalculator stats : entry.statistics.getMethodStatisticsCalculators()) {
+                sample(out, buf, "facebook4j_api_errors_total", entry.name, stats.getName(), stats.getErrorCount());
+            }
+        }
+        family(out, "facebook4j_api_retries", "counter", "Retries of Graph API calls.");
+        for (Entry entry : entries) {
+            for (InvocationStatisticsCalculator stats : entry.statistics.getMethodStatisticsCalculators()) {
+                sample(out, buf, "facebook4j_api_retries_total", entry.name, stats.getName(), stats.getRetryCount());
+            }
+        }
+
+        family(out, "facebook4j_api_latency_seconds", "histogram", "Latency of Graph API calls.");
+        for (Entry entry : entries) {
+            for (InvocationStatisticsCalculator stats : entry.statistics.getMethodStatisticsCalculators()) {
+                long count = 0;
+                for (int i = 0; i < LATENCY_BOUNDS.length; i++) {
+                    count += stats.getLatencyCount(i);
+                    out.write("facebook4j_api_latency_seconds_bucket");
+                    labels(out, entry.name, stats.getName());
+                    out.write(",le=\"");
+                    out.write(LATENCY_BOUNDS[i]);
+                    out.write("\"} ");
+                    writeLong(out, buf, count);
+                    out.write('\n');
+                }
+                out.write("facebook4j_api_latency_seconds_count");
+                labels(out, entry.name, stats.getName());
+                out.write("} ");
+                writeLong(out, buf, count);
+                out.write('\n');
+                out.write("facebook4j_api_latency_seconds_sum");
+                labels(out, entry.name, stats.getName());
+                out.write("} ");
+                writeDecimal(out, buf, stats.getTotalTime(), 3);
+                out.write('\n');
+            }
+        }
+
+        family(out, "facebook4j_api_phase_seconds", "counter", "Time spent in each phase of Graph API calls.");
+        for (Entry entry : entries) {
+            for (PhaseStatisticsCalculator stats : entry.statistics.getPhaseStatisticsCalculators()) {
+                for (RequestPhase phase : PHASES) {
+                    out.write("facebook4j_api_phase_seconds_total");
+                    labels(out, entry.name, stats.getName());
+                    out.write(",phase=\"");
+                    out.write(phase.getLabel());
+                    out.write("\"} ");
+                    writeDecimal(out, buf, stats.getTotalNanos(phase), 9);
+                    out.write('\n');
+                }
+            }
+        }
+
+        family(out, "facebook4j_app_usage_percent", "gauge", "Usage of the app rate limit as reported by Facebook.");
+        for (Entry entry : entries) {
+            APIStatistics statistics = entry.statistics;
+            usage(out, buf, entry.name, "call_count", statistics.getAppCallCountUsage());
+            usage(out, buf, entry.name, "total_time", statistics.getAppTotalTimeUsage());
+            usage(out, buf, entry.name, "total_cputime", statistics.getAppTotalCPUTimeUsage());
+        }
+
+        family(out, "facebook4j_http_requests_in_flight", "gauge", "HTTP requests in progress.");
+        for (Entry entry : entries) {
+            out.write("facebook4j_http_requests_in_flight");
+            out.write("{monitor=\"");
+            escape(out, entry.name);
+            out.write("\"} ");
+            writeLong(out, buf, entry.statistics.getInFlightCount());
+            out.write('\n');
+        }
+
+        out.write("# EOF\n");
+        out.flush();
+    }
+
+    private static void family(Writer out, String name, String type, String help) throws IOException {
+        out.write("# TYPE ");
+        out.write(name);
+        out.write(' ');
+        out.write(type);
+        out.write("\n# HELP ");
+        out.write(name);
+        out.write(' ');
+        out.write(help);
+        out.write('\n');
+    }
+
+    private static void sample(Writer out, char[] buf, String name, String monitor, String method, long value) throws IOException {
+        out.write(name);
+        labels(out, monitor, method);
+        out.write("} ");
+        writeLong(out, buf, value);
+        out.write('\n');
+    }
+
+    private static void usage(Writer out, char[] buf, String monitor, String type, int value) throws IOException {
+        if (value < 0) {
+            // not reported yet
+            return;
+        }
+        out.write("facebook4j_app_usage_percent{monitor=\"");
+        escape(out, monitor);
+        out.write("\",type=\"");
+        out.write(type);
+        out.write("\"} ");
+        writeLong(out, buf, value);
+        out.write('\n');
+    }
+
+    // writes the labels without the closing brace
+    private static void labels(Writer out, String monitor, String method) throws IOException {
+        out.write("{monitor=\"");
+        escape(out, monitor);
+        out.write("\",method=\"");
+        escape(out, method);
+        out.write('"');
+    }
+
+    private static void escape(Writer out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                default:
+                    out.write(c);
+            }
+        }
+    }
+
+    /*package*/ static void writeLong(Writer out, char[] buf, long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            out.write(String.valueOf(value));
+            return;
+        }
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        int pos = buf.length;
+        do {
+            buf[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        out.write(buf, pos, buf.length - pos);
+    }
+
+    /**
+     * writes value / 10^scale with exactly scale fraction digits
+     */
+    /*package*/ static void writeDecimal(Writer out, char[] buf, long value, int scale) throws IOException {
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        int pos = buf.length;
+        for (int i = 0; i < scale; i++) {
+            buf[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        buf[--pos] = '.';
+        do {
+            buf[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        out.write(buf, pos, buf.length - pos);
+    }
+}
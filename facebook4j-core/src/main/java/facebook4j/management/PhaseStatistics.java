@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+/**
+ * Time spent in each {@link RequestPhase} for a given API method.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public interface PhaseStatistics {
+    public String getName();
+
+    /**
+     * @param phase the phase
+     * @return the number of calls that went through the phase
+     */
+    public long getCount(RequestPhase phase);
+
+    /**
+     * @param phase the phase
+     * @return the total amount of time spent in the phase in microseconds
+     */
+    public long getTotalTime(RequestPhase phase);
+
+    /**
+     * @param phase the phase
+     * @return the average amount of time spent in the phase in microseconds
+     */
+    public long getAverageTime(RequestPhase phase);
+
+    public void reset();
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Object that aggregates the time spent in each {@link RequestPhase} for a given method.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public class PhaseStatisticsCalculator implements PhaseStatistics {
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray totalNanos = new AtomicLongArray(PHASES.length);
+
+    /**
+     * @param name the name of this API method
+     */
+    public PhaseStatisticsCalculator(String name) {
+        this.name = name;
+    }
+
+    public void increment(RequestPhase phase, long nanos) {
+        counts.incrementAndGet(phase.ordinal());
+        totalNanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount(RequestPhase phase) {
+        return counts.get(phase.ordinal());
+    }
+
+    public long getTotalTime(RequestPhase phase) {
+        return totalNanos.get(phase.ordinal()) / 1000;
+    }
+
+    /**
+     * @param phase the phase
+     * @return the total time spent in the phase in nanoseconds
+     */
+    public long getTotalNanos(RequestPhase phase) {
+        return totalNanos.get(phase.ordinal());
+    }
+
+    public long getAverageTime(RequestPhase phase) {
+        long count = counts.get(phase.ordinal());
+        if (count == 0) {
+            return 0;
+        }
+        return totalNanos.get(phase.ordinal()) / count / 1000;
+    }
+
+    public void reset() {
+        for (int i = 0; i < PHASES.length; i++) {
+            counts.set(i, 0);
+            totalNanos.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuffer sb = new StringBuffer();
+        for (RequestPhase phase : PHASES) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(phase.getLabel()).append("=").append(getAverageTime(phase));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+/**
+ * The phases a Graph API call goes through, in the order they happen.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public enum RequestPhase {
+    /**
+     * Opening the connection. HttpURLConnection does not report DNS lookup, TCP connect and TLS handshake
+     * separately, so all of them are accounted here. Close to zero when a kept-alive connection is reused.
+     */
+    CONNECT("connect"),
+    /** Sending the request body (POST only). */
+    WRITE("write"),
+    /** Waiting for the status line and headers, i.e. time to first byte. */
+    TTFB("ttfb"),
+    /** Reading the response body from the socket. */
+    READ("read"),
+    /** Inflating a gzipped response body. */
+    DECOMPRESS("decompress"),
+    /** Tokenizing the response body into a JSONObject / JSONArray. */
+    PARSE("parse"),
+    /** Binding the parsed JSON to the model objects (*JSONImpl). */
+    BIND("bind"),
+    ;
+
+    private final String label;
+
+    private RequestPhase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+import facebook4j.RequestPriority;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of a request scheduler, exposed through JMX.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public class SchedulerStatistics implements SchedulerStatisticsMBean {
+    /**
+     * Reports the current state of the scheduler.
+     */
+    public interface Source {
+        int getMaxConcurrency();
+
+        int getInFlight();
+
+        int getInteractiveReserve();
+
+        int getInFlight(RequestPriority priority);
+
+        int getQueueDepth(RequestPriority priority);
+
+        double getMeanWaitMillis(RequestPriority priority);
+
+        List<TenantStatistics> getTenantStatistics();
+    }
+
+    private final String name;
+    private final Source source;
+
+    /**
+     * @param name   the name of the scheduler
+     * @param source the scheduler
+     */
+    public SchedulerStatistics(String name, Source source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return source.getMaxConcurrency();
+    }
+
+    public int getInFlight() {
+        return source.getInFlight();
+    }
+
+    public int getInteractiveReserve() {
+        return source.getInteractiveReserve();
+    }
+
+    public Map<String, Integer> getPriorityInFlight() {
+        Map<String, Integer> inFlight = new LinkedHashMap<String, Integer>();
+        for (RequestPriority priority : RequestPriority.values()) {
+            inFlight.put(priority.name(), source.getInFlight(priority));
+        }
+        return inFlight;
+    }
+
+    public Map<String, Integer> getPriorityQueueDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<String, Integer>();
+        for (RequestPriority priority : RequestPriority.values()) {
+            depths.put(priority.name(), source.getQueueDepth(priority));
+        }
+        return depths;
+    }
+
+    public Map<String, Double> getPriorityMeanWaitMillis() {
+        Map<String, Double> waits = new LinkedHashMap<String, Double>();
+        for (RequestPriority priority : RequestPriority.values()) {
+            waits.put(priority.name(), source.getMeanWaitMillis(priority));
+        }
+        return waits;
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (TenantStatistics tenant : source.getTenantStatistics()) {
+            depth += tenant.getQueueDepth();
+        }
+        return depth;
+    }
+
+    public Map<String, Integer> getTenantQueueDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<String, Integer>();
+        for (TenantStatistics tenant : source.getTenantStatistics()) {
+            depths.put(tenant.getName(), tenant.getQueueDepth());
+        }
+        return depths;
+    }
+
+    public Map<String, Double> getTenantMeanWaitMillis() {
+        Map<String, Double> waits = new LinkedHashMap<String, Double>();
+        for (TenantStatistics tenant : source.getTenantStatistics()) {
+            waits.put(tenant.getName(), tenant.getMeanWaitMillis());
+        }
+        return waits;
+    }
+
+    public Map<String, Double> getTenantMaxWaitMillis() {
+        Map<String, Double> waits = new LinkedHashMap<String, Double>();
+        for (TenantStatistics tenant : source.getTenantStatistics()) {
+            waits.put(tenant.getName(), tenant.getMaxWaitMillis());
+        }
+        return waits;
+    }
+
+    /**
+     * @return the statistics of each tenant
+     */
+    public List<TenantStatistics> getTenantStatistics() {
+        return source.getTenantStatistics();
+    }
+
+    @Override
+    public String toString() {
+        return "SchedulerStatistics{" +
+                "name='" + name + '\'' +
+                ", maxConcurrency=" + getMaxConcurrency() +
+                ", inFlight=" + getInFlight() +
+                ", interactiveReserve=" + getInteractiveReserve() +
+                ", priorityQueueDepths=" + getPriorityQueueDepths() +
+                ", tenants=" + getTenantStatistics() +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+import java.util.Map;
+
+/**
+ * Statistics of the request scheduler sharing the connections among tenants.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public interface SchedulerStatisticsMBean {
+    public String getName();
+
+    /**
+     * @return the number of requests let run at once
+     */
+    public int getMaxConcurrency();
+
+    public int getInFlight();
+
+    /**
+     * @return the number of slots background requests may not take
+     */
+    public int getInteractiveReserve();
+
+    /**
+     * @return the number of running requests per priority class
+     */
+    public Map<String, Integer> getPriorityInFlight();
+
+    /**
+     * @return the number of waiting requests per priority class
+     */
+    public Map<String, Integer> getPriorityQueueDepths();
+
+    /**
+     * @return the mean time requests waited for their turn per priority class, in milliseconds
+     */
+    public Map<String, Double> getPriorityMeanWaitMillis();
+
+    /**
+     * @return the number of requests waiting for their turn, of all tenants
+     */
+    public int getQueueDepth();
+
+    /**
+     * @return the number of waiting requests per tenant
+     */
+    public Map<String, Integer> getTenantQueueDepths();
+
+    /**
+     * @return the mean time requests waited for their turn per tenant, in milliseconds
+     */
+    public Map<String, Double> getTenantMeanWaitMillis();
+
+    /**
+     * @return the longest time a request waited for its turn per tenant, in milliseconds
+     */
+    public Map<String, Double> getTenantMaxWaitMillis();
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+/**
+ * A snapshot of the requests of a tenant in the request scheduler.
+ *
+ * @author Ryuji Yamashita - roundrop at gmail.com
+ */
+public final class TenantStatistics {
+    private final String name;
+    private final int weight;
+    private final int queueDepth;
+    private final int inFlight;
+    private final long grantedCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    public TenantStatistics(String name, int weight, int queueDepth, int inFlight,
+                            long grantedCount, long totalWaitNanos, long maxWaitNanos) {
+        this.name = name;
+        this.weight = weight;
+        this.queueDepth = queueDepth;
+        this.inFlight = inFlight;
+        this.grantedCount = grantedCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    /**
+     * @return the name of the tenant, which never contains its access token
+     */
+    public String getName() {
+        return name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the number of requests waiting for their turn
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the number of requests let run so far
+     */
+    public long getGrantedCount() {
+        return grantedCount;
+    }
+
+    public double getMeanWaitMillis() {
+        return grantedCount == 0 ? 0 : totalWaitNanos / 1000000d / grantedCount;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1000000d;
+    }
+
+    @Override
+    public String toString() {
+        return "TenantStatistics{" +
+                "name='" + name + '\'' +
+                ", weight=" + weight +
+                ", queueDepth=" + queueDepth +
+                ", inFlight=" + inFlight +
+                ", grantedCount=" + grantedCount +
+                ", meanWaitMillis=" + getMeanWaitMillis() +
+                ", maxWaitMillis=" + getMaxWaitMillis() +
+                '}';
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class EntityCachingTest {
+
+    private MockGraphServer server;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                if (method.equals("POST")) {
+                    return "true";
+                }
+                String id = path.substring(1);
+                return "{\"id\":\"" + id + "\",\"name\":\"name of " + id + "\"}";
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void cached() throws Exception {
+        Facebook facebook = server.newFacebook(server.newConfigurationBuilder()
+                .setEntityCacheEnabled(true).setEntityCacheTTLs("user=60,event=60"));
+        assertThat(facebook.getUser("1").getName(), is("name of 1"));
+        assertThat(facebook.getUser("1").getName(), is("name of 1"));
+        assertThat(server.getRequests().size(), is(1));
+        facebook.getUser("1", new Reading().fields("name"));
+        assertThat(server.getRequests().size(), is(2));
+        // no TTL for groups
+        facebook.getGroup("2");
+        facebook.getGroup("2");
+        assertThat(server.getRequests().size(), is(4));
+
+        facebook.getEvent("3");
+        facebook.getEvent("3");
+        assertThat(server.getRequests().size(), is(5));
+        facebook.editEvent("3", new EventUpdate("renamed", java.util.Calendar.getInstance()));
+        facebook.getEvent("3");
+        assertThat(server.getRequests().size(), is(7));
+    }
+
+    @Test
+    public void disabledByDefault() throws Exception {
+        Facebook facebook = server.newFacebook();
+        facebook.getUser("1");
+        facebook.getUser("1");
+        assertThat(server.getRequests().size(), is(2));
+    }
+
+}
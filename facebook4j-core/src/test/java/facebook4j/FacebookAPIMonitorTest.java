@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import facebook4j.conf.Configuration;
+import facebook4j.conf.ConfigurationBuilder;
+
+public class FacebookAPIMonitorTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void perConfiguration() throws Exception {
+        Configuration conf1 = new ConfigurationBuilder().setMBeanEnabled(true).setMBeanName("tenant1").build();
+        Configuration conf2 = new ConfigurationBuilder().setMBeanEnabled(true).setMBeanName("tenant2").setMBeanHistorySize(10).build();
+
+        FacebookAPIMonitor monitor1 = FacebookAPIMonitor.getInstance(conf1);
+        FacebookAPIMonitor monitor2 = FacebookAPIMonitor.getInstance(conf2);
+        assertThat(monitor1 != monitor2, is(true));
+        assertSame(monitor1, FacebookAPIMonitor.getInstance(conf1));
+        assertThat(monitor1.getName(), is("tenant1"));
+        assertThat(monitor2.getName(), is("tenant2"));
+
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(
+                new ObjectName("facebook4j.mbean:type=APIStatisticsOpenMBean,name=\"tenant1\"")), is(true));
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(
+                new ObjectName("facebook4j.mbean:type=APIStatisticsOpenMBean,name=\"tenant2\"")), is(true));
+
+        monitor1.methodCalled("https://graph.facebook.com/123/feed", 10, true, null);
+        assertThat(monitor1.getStatistics().getCallCount(), is(1L));
+        assertThat(monitor2.getStatistics().getCallCount(), is(0L));
+    }
+
+    @Test
+    public void sameName() throws Exception {
+        Configuration conf1 = new ConfigurationBuilder().setMBeanName("shared").setOAuthAppId("1").build();
+        Configuration conf2 = new ConfigurationBuilder().setMBeanName("shared").setOAuthAppId("2").build();
+
+        assertThat(FacebookAPIMonitor.getInstance(conf1).getName(), is("shared"));
+        assertThat(FacebookAPIMonitor.getInstance(conf2).getName(), is("shared#2"));
+    }
+
+    @Test
+    public void sharedByAccessTokens() throws Exception {
+        Configuration conf1 = new ConfigurationBuilder().setMBeanName("users").setOAuthAccessToken("token1").build();
+        Configuration conf2 = new ConfigurationBuilder().setMBeanName("users").setOAuthAccessToken("token2").build();
+
+        assertSame(FacebookAPIMonitor.getInstance(conf1), FacebookAPIMonitor.getInstance(conf2));
+        assertThat(FacebookAPIMonitor.getInstance(conf2).getName(), is("users"));
+    }
+}
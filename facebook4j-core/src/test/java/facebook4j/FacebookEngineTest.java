@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import facebook4j.auth.AccessToken;
+import facebook4j.conf.Configuration;
+
+public class FacebookEngineTest {
+
+    private MockGraphServer server;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                return "{\"id\":\"" + path.substring(1) + "\",\"name\":\"" + params.get("access_token") + "\"}";
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void views() throws Exception {
+        Configuration conf = server.newConfigurationBuilder().build();
+        FacebookEngine engine = new FacebookFactory(conf).getEngine();
+        assertThat(new FacebookFactory(conf).getEngine(), is(sameInstance(engine)));
+
+        Facebook page1 = engine.getInstance(new AccessToken("page1Token"));
+        Facebook page2 = engine.getInstance("page2Token");
+        assertThat(page1.getUser("1").getName(), is("page1Token"));
+        assertThat(page2.getUser("2").getName(), is("page2Token"));
+        assertThat(page1.getOAuthAccessToken().getToken(), is("page1Token"));
+        assertThat(page1.getConfiguration(), is(sameInstance(conf)));
+
+        FacebookImpl view1 = (FacebookImpl) page1;
+        FacebookImpl view2 = (FacebookImpl) page2;
+        assertThat(view1.http, is(sameInstance(view2.http)));
+        assertThat(view1.factory, is(sameInstance(view2.factory)));
+
+        // a view cannot shut the shared client down
+        page1.shutdown();
+        assertThat(page2.getUser("3").getName(), is("page2Token"));
+
+        // a token per call
+        for (int i = 0; i < 100; i++) {
+            assertThat(engine.getInstance("token" + i).getUser("4").getName(), is("token" + i));
+        }
+        assertThat(server.getRequests().size(), is(103));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void requiresApp() throws Exception {
+        new FacebookEngine(server.newConfigurationBuilder().setOAuthAppId(null).setOAuthAppSecret(null).build());
+    }
+}
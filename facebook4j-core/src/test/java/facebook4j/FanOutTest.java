@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class FanOutTest {
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        executor = FanOut.newExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void resultsInOrder() throws Exception {
+        // every task waits for the others, so this only completes when they run concurrently
+        final CountDownLatch started = new CountDownLatch(10);
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < 10; i++) {
+            final int n = i;
+            tasks.add(new Callable<Integer>() {
+                public Integer call() throws Exception {
+                    started.countDown();
+                    assertTrue(started.await(5, TimeUnit.SECONDS));
+                    return n * n;
+                }
+            });
+        }
+        List<Integer> results = FanOut.invokeAll(executor, tasks);
+        assertThat(results.size(), is(10));
+        for (int i = 0; i < 10; i++) {
+            assertThat(results.get(i), is(i * i));
+        }
+    }
+
+    @Test
+    public void failure() throws Exception {
+        final FacebookException expected = new FacebookException("failed");
+        List<Callable<String>> tasks = new ArrayList<Callable<String>>();
+        tasks.add(new Callable<String>() {
+            public String call() throws Exception {
+                return "ok";
+            }
+        });
+        tasks.add(new Callable<String>() {
+            public String call() throws Exception {
+                throw expected;
+            }
+        });
+        try {
+            FanOut.invokeAll(executor, tasks);
+            fail("FacebookException expected");
+        } catch (FacebookException e) {
+            assertThat(e, is(sameInstance(expected)));
+        }
+
+        tasks.clear();
+        tasks.add(new Callable<String>() {
+            public String call() throws Exception {
+                throw new IllegalStateException("unexpected");
+            }
+        });
+        try {
+            FanOut.invokeAll(executor, tasks);
+            fail("FacebookException expected");
+        } catch (FacebookException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+    }
+
+}
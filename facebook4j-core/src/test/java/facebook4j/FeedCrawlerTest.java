@@ -0,0 +1,140 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class FeedCrawlerTest {
+
+    private static final long START = 1356998400L; // 2013-01-01T00:00:00+0000
+    private static final int POSTS = 200;
+    private static final int INTERVAL = 30;
+    private static final int PAGE_SIZE = 10;
+
+    private MockGraphServer server;
+    private Facebook facebook;
+    private volatile int failAfter;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        failAfter = Integer.MAX_VALUE;
+        server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                if (getRequests().size() > failAfter) {
+                    throw new GraphError(500, 2, "unavailable");
+                }
+                long since = Long.parseLong(params.get("since"));
+                long until = Long.parseLong(params.get("until"));
+                int offset = params.containsKey("offset") ? Integer.parseInt(params.get("offset")) : 0;
+                SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+                format.setTimeZone(TimeZone.getTimeZone("UTC"));
+                StringBuilder json = new StringBuilder("{\"data\":[");
+                int matched = 0;
+                int written = 0;
+                // newest first
+                for (int i = POSTS - 1; i >= 0; i--) {
+                    long time = START + i * INTERVAL;
+                    if (time < since || until < time) {
+                        continue;
+                    }
+                    if (matched++ < offset || written == PAGE_SIZE) {
+                        continue;
+                    }
+                    json.append(written++ == 0 ? "" : ",").append("{\"id\":\"").append(i)
+                            .append("\",\"created_time\":\"").append(format.format(new Date(time * 1000))).append("\"}");
+                }
+                json.append("]");
+                if (offset + written < matched) {
+                    json.append(",\"paging\":{\"next\":\"").append(getBaseURL()).append("page/feed?since=").append(since)
+                            .append("&until=").append(until).append("&offset=").append(offset + written).append("\"}");
+                }
+                return json.append("}").toString();
+            }
+        };
+        facebook = server.newFacebook();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void crawl() throws Exception {
+        FeedCrawler crawler = new FeedCrawler(facebook, "page",
+                new Date(START * 1000), new Date((START + POSTS * INTERVAL) * 1000))
+                .windows(4).parallelism(3).maxPagesPerWindow(2);
+        List<Post> posts = crawler.crawl();
+        assertThat(posts.size(), is(POSTS));
+        Set<String> ids = new HashSet<String>();
+        for (int i = 0; i < posts.size(); i++) {
+            assertThat(posts.get(i).getId(), is(String.valueOf(POSTS - 1 - i)));
+            ids.add(posts.get(i).getId());
+        }
+        assertThat(ids.size(), is(POSTS));
+        assertTrue(crawler.getSplitCount() > 0);
+        assertThat(crawler.getPageCount(), is(server.getRequests().size()));
+    }
+
+    @Test
+    public void singleWindow() throws Exception {
+        FeedCrawler crawler = new FeedCrawler(facebook, "page",
+                new Date(START * 1000), new Date((START + 10 * INTERVAL) * 1000))
+                .windows(1).maxPagesPerWindow(100);
+        List<Post> posts = crawler.crawl();
+        assertThat(posts.size(), is(11));
+        assertThat(crawler.getSplitCount(), is(0));
+        assertThat(crawler.getPageCount(), is(2));
+    }
+
+    @Test
+    public void failure() throws Exception {
+        failAfter = 3;
+        try {
+            new FeedCrawler(facebook, "page", new Date(START * 1000), new Date((START + POSTS * INTERVAL) * 1000))
+                    .windows(4).parallelism(1).maxPagesPerWindow(2).crawl();
+            fail("should throw FacebookException");
+        } catch (FacebookException e) {
+            assertThat(e.getStatusCode(), is(500));
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class FeedSyncTest {
+
+    private static final long START = 1356998400L; // 2013-01-01T00:00:00+0000
+
+    private MockGraphServer server;
+    private Facebook facebook;
+    private File directory;
+    // id -> {created, updated} in seconds
+    private final Map<String, long[]> posts = new HashMap<String, long[]>();
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("checkpoints", "");
+        directory.delete();
+        server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                long since = params.containsKey("since") ? Long.parseLong(params.get("since")) : 0;
+                long until = params.containsKey("until") ? Long.parseLong(params.get("until")) : Long.MAX_VALUE;
+                int limit = params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : Integer.MAX_VALUE;
+                SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+                format.setTimeZone(TimeZone.getTimeZone("UTC"));
+                final Map<String, long[]> matched = new HashMap<String, long[]>();
+                synchronized (posts) {
+                    for (Map.Entry<String, long[]> post : posts.entrySet()) {
+                        long[] times = post.getValue();
+                        if (times[1] >= since && times[0] <= until) {
+                            matched.put(post.getKey(), times.clone());
+                        }
+                    }
+                }
+                // newest first, like the Graph API
+                List<String> ids = new ArrayList<String>(matched.keySet());
+                Collections.sort(ids, new Comparator<String>() {
+                    public int compare(String o1, String o2) {
+                        long created1 = matched.get(o1)[0];
+                        long created2 = matched.get(o2)[0];
+                        return created1 > created2 ? -1 : created1 < created2 ? 1 : 0;
+                    }
+                });
+                StringBuilder json = new StringBuilder("{\"data\":[");
+                int count = Math.min(limit, ids.size());
+                for (int i = 0; i < count; i++) {
+                    long[] times = matched.get(ids.get(i));
+                    json.append(i == 0 ? "" : ",").append("{\"id\":\"").append(ids.get(i))
+                            .append("\",\"created_time\":\"").append(format.format(new Date(times[0] * 1000)))
+                            .append("\",\"updated_time\":\"").append(format.format(new Date(times[1] * 1000))).append("\"}");
+                }
+                json.append("]");
+                if (count < ids.size()) {
+                    json.append(",\"paging\":{\"next\":\"").append(getBaseURL()).append(path.substring(1))
+                            .append("?limit=").append(limit).append("&since=").append(since)
+                            .append("&until=").append(matched.get(ids.get(count - 1))[0] - 1).append("\"}");
+                }
+                return json.append("}").toString();
+            }
+        };
+        facebook = server.newFacebook();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private void post(String id, long created, long updated) {
+        synchronized (posts) {
+            posts.put(id, new long[]{START + created, START + updated});
+        }
+    }
+
+    private static List<String> ids(List<Post> posts) {
+        List<String> ids = new ArrayList<String>();
+        for (Post post : posts) {
+            ids.add(post.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void incremental() throws Exception {
+        FeedSync sync = new FeedSync(facebook, new FileFeedCheckpointStore(directory)).lookBack(600 * 1000);
+        post("1", 0, 0);
+        post("2", 3000, 3000);
+        post("3", 6000, 6000);
+        assertThat(sync.sync(FeedSync.Edge.FEED, "page").size(), is(3));
+        assertFalse(server.getRequests().get(0).contains("since="));
+
+        assertThat(sync.sync(FeedSync.Edge.FEED, "page").size(), is(0));
+        assertTrue(server.getRequests().get(1).contains("since=" + (START + 6000 - 600)));
+
+        // a new post, an edit of a post within the look-back period and one of an older post
+        post("4", 6100, 6100);
+        post("3", 6000, 6200);
+        post("1", 0, 6300);
+        List<String> changed = ids(sync.sync(FeedSync.Edge.FEED, "page"));
+        assertThat(changed.size(), is(3));
+        assertTrue(changed.contains("1"));
+        assertTrue(changed.contains("3"));
+        assertTrue(changed.contains("4"));
+
+        // checkpoints survive a restart
+        FeedSync restarted = new FeedSync(facebook, new FileFeedCheckpointStore(directory)).lookBack(600 * 1000);
+        assertThat(restarted.sync(FeedSync.Edge.FEED, "page").size(), is(0));
+        // another edge of the same object has its own checkpoint
+        assertThat(restarted.sync(FeedSync.Edge.POSTS, "page").size(), is(4));
+    }
+
+    @Test
+    public void maxPages() throws Exception {
+        FeedSync sync = new FeedSync(facebook, new FileFeedCheckpointStore(directory))
+                .lookBack(50 * 1000).limit(2).maxPages(2);
+        for (int i = 0; i < 9; i++) {
+            post(String.valueOf(i), i * 100, i * 100);
+        }
+        // two posts in the same second, at the boundary of the first call
+        post("9", 500, 500);
+        List<String> all = new ArrayList<String>();
+        all.addAll(ids(sync.sync(FeedSync.Edge.FEED, "page")));
+        assertThat(all.size(), is(4));
+
+        // new posts while the backlog is read are returned once it is
+        post("10", 1000, 1000);
+        for (int i = 0; i < 3; i++) {
+            all.addAll(ids(sync.sync(FeedSync.Edge.FEED, "page")));
+        }
+        assertThat(all.size(), is(11));
+        assertThat(new HashSet<String>(all).size(), is(11));
+
+        assertThat(sync.sync(FeedSync.Edge.FEED, "page").size(), is(0));
+        String last = server.getRequests().get(server.getRequests().size() - 1);
+        assertTrue(last.contains("since=" + (START + 1000 - 50)));
+        assertFalse(last.contains("until="));
+    }
+
+    @Test
+    public void fileStore() throws Exception {
+        FileFeedCheckpointStore store = new FileFeedCheckpointStore(directory);
+        assertThat(store.load("feed/1"), is(nullValue()));
+        Map<String, Long> seen = new HashMap<String, Long>();
+        seen.put("1_2", 1000L);
+        seen.put("1_3", 2000L);
+        FeedCheckpoint checkpoint = new FeedCheckpoint(2000L, seen);
+        store.save("feed/1", checkpoint);
+        store.save("feed/1", checkpoint);
+        assertThat(store.load("feed/1"), is(checkpoint));
+        assertThat(directory.listFiles().length, is(1));
+
+        FeedCheckpoint backlog = new FeedCheckpoint(2000L, seen, 1000L, 3000L);
+        store.save("feed/1", backlog);
+        assertThat(store.load("feed/1"), is(backlog));
+        // a crash between moving the previous checkpoint aside and renaming the new one
+        File file = directory.listFiles()[0];
+        assertTrue(file.renameTo(new File(directory, file.getName() + ".bak")));
+        assertThat(store.load("feed/1"), is(backlog));
+        store.save("feed/1", checkpoint);
+        assertThat(store.load("feed/1"), is(checkpoint));
+        assertThat(directory.listFiles().length, is(1));
+    }
+
+}
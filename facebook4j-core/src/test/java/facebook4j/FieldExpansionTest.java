@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class FieldExpansionTest {
+
+    private MockGraphServer server;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                return "{\"data\":[{\"id\":\"1_2\",\"message\":\"hello\","
+                        + "\"comments\":{\"data\":[{\"id\":\"1_2_3\",\"from\":{\"id\":\"4\",\"name\":\"Commenter\"},\"message\":\"hi\"}],"
+                        + "\"paging\":{\"next\":\"" + getBaseURL() + "1_2/comments?after=x\"},\"summary\":{\"order\":\"chronological\",\"total_count\":12}},"
+                        + "\"likes\":{\"data\":[],\"summary\":{\"total_count\":34}}}]}";
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void expression() throws Exception {
+        Reading reading = new Reading().fields("id", "message",
+                Reading.edge("comments").limit(5).fields("from", "message"),
+                Reading.edge("likes").limit(0).summary(true));
+        assertThat(reading.getQuery(), is("fields=id,message,comments.limit(5).fields(from,message),likes.limit(0).summary(true)"));
+
+        Reading.Edge nested = Reading.edge("comments").fields("message", Reading.edge("likes").summary(true));
+        assertThat(nested.getExpression(), is("comments.fields(message,likes.summary(true))"));
+
+        assertThat(new Reading().fields("id").fields((Object) "name").getQuery(), is("fields=id,name"));
+        try {
+            Reading.edge("likes").limit(1).limit(2);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            new Reading().fields("id", Integer.valueOf(1));
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void nestedConnectionsAreParsed() throws Exception {
+        Facebook facebook = server.newFacebook();
+        ResponseList<Post> feed = facebook.getFeed(new Reading().fields("id", "message",
+                Reading.edge("comments").limit(5).summary(true).fields("from", "message"),
+                Reading.edge("likes").limit(0).summary(true)));
+        assertThat(server.getRequests().size(), is(1));
+        assertTrue(server.getRequests().get(0).contains("comments.limit(5).summary(true).fields(from,message)"));
+
+        Post post = feed.get(0);
+        assertThat(post.getComments().size(), is(1));
+        assertThat(post.getComments().get(0).getFrom().getName(), is("Commenter"));
+        assertThat(post.getComments().getPaging().getNext(), is(notNullValue()));
+        assertThat(post.getComments().getSummary().getTotalCount(), is(12));
+        assertThat(post.getLikes().size(), is(0));
+        assertThat(post.getLikes().getSummary().getTotalCount(), is(34));
+        assertThat(feed.getSummary(), is(nullValue()));
+    }
+
+}
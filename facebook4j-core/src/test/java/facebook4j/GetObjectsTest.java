@@ -0,0 +1,125 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class GetObjectsTest {
+
+    private MockGraphServer server;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                StringBuilder json = new StringBuilder("{");
+                for (String id : params.get("ids").split(",")) {
+                    if (id.equals("limited")) {
+                        throw new GraphError(403, 4, "Application request limit reached");
+                    }
+                    if (id.startsWith("bad")) {
+                        throw new GraphError(404, 803, "Some of the aliases you requested do not exist: " + id);
+                    }
+                    if (json.length() > 1) {
+                        json.append(',');
+                    }
+                    json.append('"').append(id).append("\":{\"id\":\"").append(id).append("\",\"name\":\"user ").append(id).append("\"}");
+                }
+                return json.append('}').toString();
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void chunked() throws Exception {
+        Facebook facebook = server.newFacebook(server.newConfigurationBuilder().setMultiGetParallelism(3));
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 120; i++) {
+            ids.add(String.valueOf(i));
+        }
+        ids.add("7");
+        ResponseMap<User> users = facebook.getObjects(User.class, ids.toArray(new String[ids.size()]));
+        assertThat(users.isComplete(), is(true));
+        assertThat(users.size(), is(120));
+        assertThat(users.keySet().iterator().next(), is("0"));
+        assertThat(users.get("119").getName(), is("user 119"));
+        // 50 + 50 + 20
+        assertThat(server.getRequests().size(), is(3));
+    }
+
+    @Test
+    public void badIdsAreIsolated() throws Exception {
+        Facebook facebook = server.newFacebook();
+        ResponseMap<Post> posts = facebook.getObjects(Post.class, "1", "2", "bad1", "3", "4", "5", "bad2", "6");
+        assertThat(posts.size(), is(6));
+        assertThat(posts.getErrors().size(), is(2));
+        assertThat(posts.getErrors().get("bad1").getStatusCode(), is(404));
+        assertThat(posts.getErrors().containsKey("bad2"), is(true));
+        assertThat(posts.get("6").getId(), is("6"));
+
+        List<User> users = facebook.getUsers("1", "bad1", "2");
+        assertThat(users.size(), is(2));
+        try {
+            facebook.getUsers("bad1");
+            fail("FacebookException expected");
+        } catch (FacebookException e) {
+            assertThat(e.getStatusCode(), is(404));
+        }
+    }
+
+    @Test
+    public void throttlingFailsEveryChunk() throws Exception {
+        Facebook facebook = server.newFacebook(server.newConfigurationBuilder().setMultiGetParallelism(1));
+        List<String> ids = new ArrayList<String>();
+        ids.add("limited");
+        for (int i = 0; i < 120; i++) {
+            ids.add(String.valueOf(i));
+        }
+        ResponseMap<User> users = facebook.getObjects(User.class, ids.toArray(new String[ids.size()]));
+        assertThat(users.size(), is(0));
+        assertThat(users.getErrors().size(), is(121));
+        assertThat(users.getErrors().get("119").isCausedByThrottling(), is(true));
+        // neither split nor repeated for the other chunks
+        assertThat(server.getRequests().size(), is(1));
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import facebook4j.auth.AccessToken;
+import facebook4j.conf.ConfigurationBuilder;
+
+/**
+ * A local HTTP server standing in for Graph API, for tests not depending on facebook.com.
+ */
+public abstract class MockGraphServer {
+    private final HttpServer server;
+    private final List<String> requests = new CopyOnWriteArrayList<String>();
+
+    public MockGraphServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                String path = exchange.getRequestURI().getPath();
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                requests.add(exchange.getRequestMethod() + " " + path
+                        + (exchange.getRequestURI().getRawQuery() != null ? "?" + exchange.getRequestURI().getRawQuery() : ""));
+                int status = 200;
+                String body;
+                try {
+                    body = respond(exchange.getRequestMethod(), path, params);
+                } catch (GraphError e) {
+                    status = e.status;
+                    body = "{\"error\":{\"message\":\"" + e.getMessage() + "\",\"type\":\"GraphMethodException\",\"code\":" + e.code + "}}";
+                }
+                byte[] bytes = body.getBytes("UTF-8");
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, bytes.length);
+                OutputStream os = exchange.getResponseBody();
+                os.write(bytes);
+                os.close();
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * @param method request method
+     * @param path   request path, e.g. "/me/feed"
+     * @param params query parameters
+     * @return response body
+     * @throws GraphError to respond with an error
+     */
+    protected abstract String respond(String method, String path, Map<String, String> params) throws GraphError;
+
+    public String getBaseURL() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public List<String> getRequests() {
+        return requests;
+    }
+
+    public ConfigurationBuilder newConfigurationBuilder() {
+        return new ConfigurationBuilder()
+                .setUseSSL(false)
+                .setRestBaseURL(getBaseURL())
+                .setOAuthAppId("appId")
+                .setOAuthAppSecret("appSecret")
+                .setHttpRetryCount(0);
+    }
+
+    public Facebook newFacebook(ConfigurationBuilder builder) {
+        return new FacebookFactory(builder.build()).getInstance(new AccessToken("token"));
+    }
+
+    public Facebook newFacebook() {
+        return newFacebook(newConfigurationBuilder());
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private static Map<String, String> parseQuery(String query) throws IOException {
+        Map<String, String> params = new LinkedHashMap<String, String>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int index = pair.indexOf('=');
+            if (index == -1) {
+                params.put(URLDecoder.decode(pair, "UTF-8"), "");
+            } else {
+                params.put(URLDecoder.decode(pair.substring(0, index), "UTF-8"), URLDecoder.decode(pair.substring(index + 1), "UTF-8"));
+            }
+        }
+        return params;
+    }
+
+    public static class GraphError extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+        private final int code;
+
+        public GraphError(int status, int code, String message) {
+            super(message);
+            this.status = status;
+            this.code = code;
+        }
+    }
+}
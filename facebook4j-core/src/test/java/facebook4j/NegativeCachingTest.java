@@ -0,0 +1,157 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class NegativeCachingTest {
+
+    private MockGraphServer server;
+    private Facebook facebook;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                if (method.equals("POST")) {
+                    return "{\"id\":\"1_2\"}";
+                }
+                if (path.equals("/1/feed")) {
+                    return "{\"data\":[{\"id\":\"1_1\"}],\"paging\":{\"next\":\"" + getBaseURL()
+                            + "v2.0/gone/feed?access_token=token&until=1\"}}";
+                }
+                if (path.startsWith("/gone") || path.startsWith("/v2.0/gone")) {
+                    throw new GraphError(404, 803, "Some of the aliases you requested do not exist: gone");
+                }
+                if (path.startsWith("/private")) {
+                    throw new GraphError(403, 10, "Requires extended permission");
+                }
+                if (path.startsWith("/busy")) {
+                    throw new GraphError(403, 4, "Application request limit reached");
+                }
+                if (path.startsWith("/broken")) {
+                    throw new GraphError(500, 2, "An unexpected error has occurred");
+                }
+                return "{\"id\":\"1\",\"name\":\"name\"}";
+            }
+        };
+        facebook = server.newFacebook(server.newConfigurationBuilder().setNegativeCacheTTLSeconds(60));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    private int fail(String id) {
+        try {
+            facebook.getUser(id);
+            fail("should throw FacebookException");
+        } catch (FacebookException e) {
+            return e.getStatusCode();
+        }
+        return -1;
+    }
+
+    @Test
+    public void failsFast() throws Exception {
+        assertThat(fail("gone"), is(404));
+        assertThat(fail("gone"), is(404));
+        assertThat(server.getRequests().size(), is(1));
+        try {
+            facebook.getUser("gone");
+        } catch (FacebookException e) {
+            assertThat(e.getErrorCode(), is(803));
+            assertTrue(e.resourceNotFound());
+        }
+
+        assertThat(fail("private"), is(403));
+        assertThat(fail("private"), is(403));
+        assertThat(server.getRequests().size(), is(2));
+
+        // a connection of the object is another entry
+        try {
+            facebook.getFeed("gone");
+            fail("should throw FacebookException");
+        } catch (FacebookException e) {
+            assertThat(e.getStatusCode(), is(404));
+        }
+        assertThat(server.getRequests().size(), is(3));
+    }
+
+    @Test
+    public void everyGetIsChecked() throws Exception {
+        // with parameters
+        for (int i = 0; i < 2; i++) {
+            try {
+                facebook.getNotifications("gone", true);
+                fail("should throw FacebookException");
+            } catch (FacebookException e) {
+                assertThat(e.getStatusCode(), is(404));
+            }
+        }
+        assertThat(server.getRequests().size(), is(1));
+
+        // paging, with the access token and API version in the url
+        ResponseList<Post> feed = facebook.getFeed("1");
+        for (int i = 0; i < 2; i++) {
+            try {
+                facebook.fetchNext(feed.getPaging());
+                fail("should throw FacebookException");
+            } catch (FacebookException e) {
+                assertThat(e.getStatusCode(), is(404));
+            }
+        }
+        assertThat(server.getRequests().size(), is(3));
+    }
+
+    @Test
+    public void transientFailures() throws Exception {
+        fail("busy");
+        fail("busy");
+        fail("broken");
+        fail("broken");
+        assertThat(server.getRequests().size(), is(4));
+    }
+
+    @Test
+    public void invalidatedByWrites() throws Exception {
+        fail("gone");
+        facebook.postStatusMessage("gone", "hello");
+        fail("gone");
+        assertThat(server.getRequests().size(), is(3));
+    }
+
+}
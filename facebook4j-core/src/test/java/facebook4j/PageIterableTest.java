@@ -0,0 +1,213 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PageIterableTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private MockGraphServer server;
+    private Facebook facebook;
+    private volatile int pages;
+    private volatile long delayMillis;
+    private volatile int failAt;
+    private CountDownLatch fetched;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        pages = 4;
+        delayMillis = 0;
+        failAt = -1;
+        fetched = new CountDownLatch(2);
+        server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                try {
+                    int index = params.containsKey("page") ? Integer.parseInt(params.get("page")) : 0;
+                    if (index > 0 && delayMillis > 0) {
+                        try {
+                            Thread.sleep(delayMillis);
+                        } catch (InterruptedException ignore) {
+                        }
+                    }
+                    if (index == failAt) {
+                        throw new GraphError(500, 1, "page " + index);
+                    }
+                    StringBuilder json = new StringBuilder("{\"data\":[");
+                    for (int i = 0; i < PAGE_SIZE; i++) {
+                        json.append(i == 0 ? "" : ",").append("{\"id\":\"").append(index * PAGE_SIZE + i).append("\"}");
+                    }
+                    json.append("]");
+                    if (index < pages - 1) {
+                        json.append(",\"paging\":{\"next\":\"").append(getBaseURL()).append("me/feed?access_token=token&page=").append(index + 1).append("\"}");
+                    }
+                    return json.append("}").toString();
+                } finally {
+                    fetched.countDown();
+                }
+            }
+        };
+        facebook = server.newFacebook();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void allPages() throws Exception {
+        List<String> ids = new ArrayList<String>();
+        for (Post post : facebook.iterate(facebook.getFeed())) {
+            ids.add(post.getId());
+        }
+        assertThat(ids.size(), is(12));
+        for (int i = 0; i < ids.size(); i++) {
+            assertThat(ids.get(i), is(String.valueOf(i)));
+        }
+        assertThat(server.getRequests().size(), is(4));
+
+        PageIterable.PageIterator<Post> it = facebook.iterate(facebook.getFeed()).timeBudget(60 * 1000).iterator();
+        while (it.hasNext()) {
+            it.next();
+        }
+        assertThat(it.isTimeBudgetExceeded(), is(false));
+    }
+
+    @Test
+    public void nextPageIsPrefetched() throws Exception {
+        PageIterable.PageIterator<Post> it = facebook.iterate(facebook.getFeed()).iterator();
+        // nothing consumed yet, the second page is already being fetched
+        assertTrue(fetched.await(5, TimeUnit.SECONDS));
+        assertThat(it.next().getId(), is("0"));
+        it.close();
+        assertThat(it.hasNext(), is(false));
+    }
+
+    @Test
+    public void limits() throws Exception {
+        pages = 10;
+        int count = 0;
+        // without prefetch, so that no request is in flight once the loop ends
+        for (Post ignore : facebook.iterate(facebook.getFeed()).maxItems(7).prefetch(false)) {
+            count++;
+        }
+        assertThat(count, is(7));
+
+        server.getRequests().clear();
+        PageIterable.PageIterator<Post> it = facebook.iterate(facebook.getFeed()).maxPages(2).prefetch(false).iterator();
+        count = 0;
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        assertThat(count, is(6));
+        assertThat(it.getPageCount(), is(2));
+        assertThat(server.getRequests().size(), is(2));
+
+    }
+
+    @Test
+    public void timeBudget() throws Exception {
+        pages = 10;
+        // the budget runs out between two pages
+        PageIterable.PageIterator<Post> it = facebook.iterate(facebook.getFeed()).timeBudget(100).prefetch(false).iterator();
+        int count = 0;
+        while (it.hasNext()) {
+            it.next();
+            if (count++ == 0) {
+                Thread.sleep(200);
+            }
+        }
+        assertThat(count, is(2 * PAGE_SIZE));
+        assertThat(it.isTimeBudgetExceeded(), is(true));
+
+        // the budget runs out while a page is being fetched
+        delayMillis = 2000;
+        long start = System.currentTimeMillis();
+        it = facebook.iterate(facebook.getFeed()).timeBudget(100).iterator();
+        count = 0;
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        assertThat(count, is(PAGE_SIZE));
+        assertThat(it.isTimeBudgetExceeded(), is(true));
+        assertTrue(System.currentTimeMillis() - start < 1500);
+    }
+
+    @Test
+    public void interrupted() throws Exception {
+        delayMillis = 2000;
+        PageIterable.PageIterator<Post> it = facebook.iterate(facebook.getFeed()).iterator();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            it.next();
+        }
+        Thread.currentThread().interrupt();
+        try {
+            it.hasNext();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause(), instanceOf(FacebookException.class));
+        }
+        assertThat(Thread.interrupted(), is(true));
+        assertThat(it.hasNext(), is(false));
+    }
+
+    @Test
+    public void failure() throws Exception {
+        pages = 3;
+        failAt = 2;
+        List<Post> posts = new ArrayList<Post>();
+        try {
+            for (Post post : facebook.iterate(facebook.getFeed())) {
+                posts.add(post);
+            }
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause(), instanceOf(FacebookException.class));
+            // the paging URL carries the access token
+            assertThat(e.getMessage().contains("token"), is(false));
+            assertThat(e.getMessage().contains("page 3"), is(true));
+        }
+        assertThat(posts.size(), is(6));
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.net.URL;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PictureURLsTest {
+
+    private MockGraphServer server;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                if (!path.equals("/picture") || !"false".equals(params.get("redirect"))) {
+                    throw new GraphError(400, 100, "unexpected request");
+                }
+                String[] ids = params.get("ids").split(",");
+                StringBuilder json = new StringBuilder("{");
+                for (int i = 0; i < ids.length; i++) {
+                    if (ids[i].equals("gone")) {
+                        throw new GraphError(404, 803, "Some of the aliases you requested do not exist: gone");
+                    }
+                    json.append(i == 0 ? "" : ",").append("\"").append(ids[i]).append("\":{\"data\":{\"url\":\"http://cdn.example.com/")
+                            .append(ids[i]).append("_").append(params.get("type")).append(".jpg\",\"is_silhouette\":false}}");
+                }
+                return json.append("}").toString();
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void bulk() throws Exception {
+        Facebook facebook = server.newFacebook();
+        String[] ids = new String[120];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = String.valueOf(i);
+        }
+        ResponseMap<URL> urls = facebook.getPictureURLs(PictureSize.large, ids);
+        assertThat(urls.size(), is(120));
+        assertThat(urls.get("7"), is(new URL("http://cdn.example.com/7_large.jpg")));
+        assertThat(server.getRequests().size(), is(3));
+    }
+
+    @Test
+    public void errors() throws Exception {
+        Facebook facebook = server.newFacebook();
+        ResponseMap<URL> urls = facebook.getPictureURLs(PictureSize.square, "1", "gone", "2");
+        assertThat(urls.size(), is(2));
+        assertThat(urls.getErrors().get("gone").getStatusCode(), is(404));
+    }
+
+    @Test
+    public void cached() throws Exception {
+        Facebook facebook = server.newFacebook(server.newConfigurationBuilder().setEntityCacheEnabled(true));
+        facebook.getPictureURLs(PictureSize.small, "1", "2");
+        assertThat(server.getRequests().size(), is(1));
+        ResponseMap<URL> urls = facebook.getPictureURLs(PictureSize.small, "1", "2", "3");
+        assertThat(urls.size(), is(3));
+        assertThat(server.getRequests().size(), is(2));
+        assertTrue(server.getRequests().get(1).contains("ids=3"));
+        // shared with the single lookups
+        assertThat(facebook.getPictureURL("1", PictureSize.small), is(new URL("http://cdn.example.com/1_small.jpg")));
+        assertThat(server.getRequests().size(), is(2));
+        // another size is another entry
+        facebook.getPictureURLs(PictureSize.large, "1");
+        assertThat(server.getRequests().size(), is(3));
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SummaryTest {
+
+    private MockGraphServer server;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                if (!"true".equals(params.get("summary")) || !"0".equals(params.get("limit"))) {
+                    throw new GraphError(400, 100, "summary expected");
+                }
+                if (path.endsWith("/likes")) {
+                    return "{\"data\":[],\"summary\":{\"total_count\":1234}}";
+                }
+                if (path.endsWith("/comments")) {
+                    return "{\"data\":[],\"summary\":{\"order\":\"ranked\",\"total_count\":56}}";
+                }
+                return "{\"data\":[]}";
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void counts() throws Exception {
+        Facebook facebook = server.newFacebook();
+        assertThat(facebook.getPostLikesCount("1_2"), is(1234));
+        assertThat(facebook.getPhotoCommentsCount("3"), is(56));
+        assertThat(facebook.getSummary("4", "sharedposts").getTotalCount(), is(nullValue()));
+        assertTrue(server.getRequests().get(0).startsWith("GET /1_2/likes?"));
+    }
+
+    @Test
+    public void reading() throws Exception {
+        assertThat(new Reading().summary().limit(0).getQuery(), is("summary=true&limit=0"));
+    }
+
+}
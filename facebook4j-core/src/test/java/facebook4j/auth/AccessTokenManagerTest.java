@@ -0,0 +1,202 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.auth;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import facebook4j.Facebook;
+import facebook4j.FacebookException;
+import facebook4j.FacebookFactory;
+import facebook4j.MockGraphServer;
+
+public class AccessTokenManagerTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    private static class CountingSource implements AccessTokenManager.TokenSource {
+        private final AtomicInteger count = new AtomicInteger();
+        private final Long expires;
+        private volatile boolean failing = false;
+
+        CountingSource(Long expires) {
+            this.expires = expires;
+        }
+
+        public AccessToken fetch() throws FacebookException {
+            int n = count.incrementAndGet();
+            if (failing) {
+                throw new FacebookException("token endpoint is down");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignore) {
+            }
+            return new AccessToken("token" + n, expires);
+        }
+    }
+
+    @Test
+    public void singleFlight() throws Exception {
+        final AccessTokenManager manager = new AccessTokenManager(100, 3600000);
+        final CountingSource source = new CountingSource(null);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<AccessToken>> futures = new ArrayList<Future<AccessToken>>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(executor.submit(new Callable<AccessToken>() {
+                public AccessToken call() throws Exception {
+                    start.await();
+                    return manager.get("app", source);
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<AccessToken> future : futures) {
+            assertThat(future.get().getToken(), is("token1"));
+        }
+        executor.shutdown();
+        assertThat(source.count.get(), is(1));
+        assertThat(manager.get("app", source).getToken(), is("token1"));
+        assertThat(source.count.get(), is(1));
+
+        manager.invalidate("app");
+        assertThat(manager.get("app", source).getToken(), is("token2"));
+
+        manager.invalidateToken("token2");
+        assertThat(manager.get("app", source).getToken(), is("token3"));
+    }
+
+    private static class ManualClock implements AccessTokenManager.Clock {
+        private volatile long now = 1000000L;
+
+        public long currentTimeMillis() {
+            return now;
+        }
+    }
+
+    @Test
+    public void refreshesBeforeExpiry() throws Exception {
+        ManualClock clock = new ManualClock();
+        AccessTokenManager manager = new AccessTokenManager(100, 3600000, clock);
+        // refreshed 0.2 seconds before expiry, a tenth of the lifetime
+        CountingSource source = new CountingSource(2L);
+        assertThat(manager.get("page", source).getToken(), is("token1"));
+        clock.now += 1799;
+        assertThat(manager.get("page", source).getToken(), is("token1"));
+        clock.now += 1;
+        assertThat(manager.get("page", source).getToken(), is("token2"));
+
+        // a failed refresh falls back on the token that is still valid
+        clock.now += 1850;
+        source.failing = true;
+        assertThat(manager.get("page", source).getToken(), is("token2"));
+        clock.now += 150;
+        try {
+            manager.get("page", source);
+            fail();
+        } catch (FacebookException expected) {
+            assertThat(expected.getMessage(), is("token endpoint is down"));
+        }
+    }
+
+    @Test
+    public void bounded() throws Exception {
+        AccessTokenManager manager = new AccessTokenManager(10, 3600000);
+        for (int i = 0; i < 100; i++) {
+            manager.put("page" + i, new AccessToken("token" + i, null));
+        }
+        assertThat(manager.getSize() <= 10, is(true));
+    }
+
+    @Test
+    public void appAccessToken() throws Exception {
+        MockGraphServer server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                if (path.equals("/oauth/access_token")) {
+                    assertThat(params.get("grant_type"), is("client_credentials"));
+                    return "access_token=appId|appToken";
+                }
+                if (path.equals("/1/feed")) {
+                    throw new GraphError(400, 190, "Error validating access token");
+                }
+                return "{\"id\":\"1\",\"access_token\":\"pageToken\"}";
+            }
+        };
+        try {
+            for (int i = 0; i < 3; i++) {
+                OAuthAuthorization auth = new OAuthAuthorization(server.newConfigurationBuilder()
+                        .setOAuthAccessTokenURL(server.getBaseURL() + "oauth/access_token")
+                        .build());
+                assertThat(auth.getOAuthAppAccessToken().getToken(), is("appId|appToken"));
+                assertThat(auth.getOAuthAccessToken().getToken(), is("appId|appToken"));
+            }
+            assertThat(server.getRequests().size(), is(1));
+
+            Facebook facebook = server.newFacebook();
+            assertThat(facebook.getPageAccessToken("1").getToken(), is("pageToken"));
+            assertThat(facebook.getPageAccessToken("1").getToken(), is("pageToken"));
+            assertThat(server.getRequests().size(), is(2));
+            assertThat(server.getRequests().get(1).startsWith("GET /1?fields=access_token"), is(true));
+
+            // the page token is requested again once it is rejected
+            Facebook page = new FacebookFactory(server.newConfigurationBuilder().build())
+                    .getInstance(facebook.getPageAccessToken("1"));
+            try {
+                page.getFeed("1");
+                fail();
+            } catch (FacebookException expected) {
+                assertThat(expected.isCausedByAccessToken(), is(true));
+            }
+            assertThat(facebook.getPageAccessToken("1").getToken(), is("pageToken"));
+            assertThat(server.getRequests().size(), is(4));
+        } finally {
+            server.stop();
+        }
+    }
+}
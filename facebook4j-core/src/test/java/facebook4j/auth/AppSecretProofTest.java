@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.auth;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import facebook4j.Facebook;
+import facebook4j.MockGraphServer;
+
+public class AppSecretProofTest {
+
+    private static final String PROOF = "16e3ae55ee113226824a482e3ce4abc6970514d6d469081025a2dd711aacc317";
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void compute() throws Exception {
+        assertThat(AppSecretProof.compute("appSecret", "token"), is(PROOF));
+        assertThat(AppSecretProof.get("appSecret", "token"), is(PROOF));
+        assertThat(AppSecretProof.get("appSecret", "token"), is(PROOF));
+        assertThat(AppSecretProof.get("otherSecret", "token"), is(not(PROOF)));
+    }
+
+    @Test
+    public void concurrent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < 1000; i++) {
+            final String token = "token" + (i % 50);
+            futures.add(executor.submit(new Callable<String>() {
+                public String call() throws Exception {
+                    return AppSecretProof.get("appSecret", token) + " " + AppSecretProof.compute("appSecret", token);
+                }
+            }));
+        }
+        for (Future<String> future : futures) {
+            String[] proofs = future.get().split(" ");
+            assertThat(proofs[0], is(proofs[1]));
+        }
+        executor.shutdown();
+        assertThat(AppSecretProof.getSize() <= 10000, is(true));
+    }
+
+    @Test
+    public void signsRequests() throws Exception {
+        final List<String> proofs = new ArrayList<String>();
+        MockGraphServer server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                proofs.add(params.get("appsecret_proof"));
+                return "{\"id\":\"1\",\"name\":\"Facebook4J\"}";
+            }
+        };
+        try {
+            Facebook facebook = server.newFacebook();
+            facebook.getUser("1");
+            assertThat(proofs.get(0), is(nullValue()));
+
+            facebook = server.newFacebook(server.newConfigurationBuilder().setAppSecretProofEnabled(true));
+            facebook.getUser("1");
+            assertThat(proofs.get(1), is(PROOF));
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -171,6 +171,25 @@ public class ConfigurationTest {
         assertThat(conf.getHttpReadTimeout(), is(10));
         System.getProperties().remove("facebook4j.http.readTimeout");
 
+        System.getProperties().remove("facebook4j.mbeanHistorySize");
+        conf = new PropertyConfiguration();
+        assertThat(conf.getMBeanHistorySize(), is(100));
+        assertThat(conf.getMBeanName(), is(nullValue()));
+        System.setProperty("facebook4j.mbeanHistorySize", "500");
+        System.setProperty("facebook4j.mbeanName", "app1");
+        conf = new PropertyConfiguration();
+        assertThat(conf.getMBeanHistorySize(), is(500));
+        assertThat(conf.getMBeanName(), is("app1"));
+        System.getProperties().remove("facebook4j.mbeanHistorySize");
+        System.getProperties().remove("facebook4j.mbeanName");
+
+        conf = new PropertyConfiguration();
+        assertThat(conf.getMultiGetParallelism(), is(4));
+        System.setProperty("facebook4j.multiGetParallelism", "8");
+        conf = new PropertyConfiguration();
+        assertThat(conf.getMultiGetParallelism(), is(8));
+        System.getProperties().remove("facebook4j.multiGetParallelism");
+
         assertFalse(conf.isDalvik());
 
         writeFile("./facebook4j.properties", "facebook4j.http.readTimeout=1234");
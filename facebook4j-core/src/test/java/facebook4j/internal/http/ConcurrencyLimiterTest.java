@@ -0,0 +1,223 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import facebook4j.Facebook;
+import facebook4j.FacebookException;
+import facebook4j.FacebookFactory;
+import facebook4j.MockGraphServer;
+import facebook4j.auth.AccessToken;
+import facebook4j.conf.Configuration;
+import facebook4j.management.EndpointLimitStatistics;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1000000L;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    // runs limit requests at once, all answered in rttNanos
+    private static void round(ConcurrencyLimiter limiter, String endpoint, long rttNanos) throws InterruptedException {
+        int limit = limiter.getLimit(endpoint);
+        ConcurrencyLimiter.Permit[] permits = new ConcurrencyLimiter.Permit[limit];
+        for (int i = 0; i < limit; i++) {
+            permits[i] = limiter.acquire(endpoint);
+        }
+        for (ConcurrencyLimiter.Permit permit : permits) {
+            permit.measured(rttNanos);
+            limiter.release(permit);
+        }
+    }
+
+    @Test
+    public void additiveIncrease() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 5);
+        round(limiter, "{id}/feed", 10 * MILLIS);
+        round(limiter, "{id}/feed", 10 * MILLIS);
+        assertThat(limiter.getLimit("{id}/feed"), is(3));
+        for (int i = 0; i < 20; i++) {
+            round(limiter, "{id}/feed", 10 * MILLIS);
+        }
+        assertThat(limiter.getLimit("{id}/feed"), is(5));
+        // other endpoints have their own limit
+        assertThat(limiter.getLimit("{id}/photos"), is(2));
+    }
+
+    @Test
+    public void idleCapacityIsNotRaised() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 10);
+        for (int i = 0; i < 20; i++) {
+            ConcurrencyLimiter.Permit permit = limiter.acquire("{id}");
+            permit.measured(10 * MILLIS);
+            limiter.release(permit);
+        }
+        assertThat(limiter.getLimit("{id}"), is(4));
+    }
+
+    @Test
+    public void latencyInflation() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 10);
+        round(limiter, "{id}/feed", 10 * MILLIS);
+        round(limiter, "{id}/feed", 100 * MILLIS);
+        int limit = limiter.getLimit("{id}/feed");
+        assertThat(limit, is(9));
+        // cut again once the requests sent after the cut are slow too
+        round(limiter, "{id}/feed", 100 * MILLIS);
+        assertThat(limiter.getLimit("{id}/feed") < limit, is(true));
+
+        EndpointLimitStatistics statistics = limiter.getStatistics().getEndpointLimitStatistics("{id}/feed");
+        assertThat(statistics.getMinRttMillis(), is(10d));
+        assertThat(statistics.getSmoothedRttMillis() > 20, is(true));
+        assertThat(statistics.getDecreaseCount(), is(2L));
+    }
+
+    @Test
+    public void minRttIsWindowed() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 10);
+        // the smoothed round-trip time is well above the fastest samples
+        for (int i = 0; i < 1500; i++) {
+            ConcurrencyLimiter.Permit permit = limiter.acquire("{id}");
+            permit.measured((i % 2 == 0 ? 10 : 50) * MILLIS);
+            limiter.release(permit);
+        }
+        assertThat(limiter.getStatistics().getEndpointLimitStatistics("{id}").getMinRttMillis(), is(10d));
+        // an endpoint that became slower for good
+        for (int i = 0; i < 2000; i++) {
+            ConcurrencyLimiter.Permit permit = limiter.acquire("{id}");
+            permit.measured(40 * MILLIS);
+            limiter.release(permit);
+        }
+        assertThat(limiter.getStatistics().getEndpointLimitStatistics("{id}").getMinRttMillis(), is(40d));
+    }
+
+    @Test
+    public void overloaded() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 8);
+        ConcurrencyLimiter.Permit p1 = limiter.acquire("{id}");
+        ConcurrencyLimiter.Permit p2 = limiter.acquire("{id}");
+        p1.overloaded();
+        limiter.release(p1);
+        assertThat(limiter.getLimit("{id}"), is(4));
+        // was sent before the cut
+        p2.overloaded();
+        limiter.release(p2);
+        assertThat(limiter.getLimit("{id}"), is(4));
+
+        ConcurrencyLimiter.Permit p3 = limiter.acquire("{id}");
+        p3.overloaded();
+        limiter.release(p3);
+        assertThat(limiter.getLimit("{id}"), is(2));
+        assertThat(limiter.getStatistics().getEndpointLimits().get("{id}"), is(2));
+        assertThat(limiter.getStatistics().getEndpointInFlight().get("{id}"), is(0));
+    }
+
+    @Test
+    public void waitsForLimit() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1);
+        ConcurrencyLimiter.Permit permit = limiter.acquire("{id}");
+        final CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiting = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    limiter.release(limiter.acquire("{id}"));
+                    acquired.countDown();
+                } catch (InterruptedException ignore) {
+                }
+            }
+        });
+        waiting.start();
+        assertThat(acquired.await(100, TimeUnit.MILLISECONDS), is(false));
+        limiter.release(permit);
+        assertThat(acquired.await(5, TimeUnit.SECONDS), is(true));
+        waiting.join();
+    }
+
+    @Test
+    public void serverErrors() throws Exception {
+        MockGraphServer server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                if (path.endsWith("/2")) {
+                    throw new GraphError(503, 2, "unavailable");
+                }
+                if (path.endsWith("/3")) {
+                    throw new GraphError(400, 613, "Calls to this api have exceeded the rate limit.");
+                }
+                return "{\"id\":\"1\"}";
+            }
+        };
+        try {
+            Configuration conf = server.newConfigurationBuilder()
+                    .setAdaptiveConcurrencyMaxLimit(8).setAdaptiveConcurrencyInitialLimit(8).build();
+            Facebook facebook = new FacebookFactory(conf).getInstance(new AccessToken("token"));
+            facebook.getUser("1");
+            ConcurrencyLimiter limiter = ConcurrencyLimiter.getInstance(conf);
+            List<EndpointLimitStatistics> endpoints = limiter.getEndpointLimitStatistics();
+            assertThat(endpoints.size(), is(1));
+            String endpoint = endpoints.get(0).getEndpoint();
+            assertThat(endpoints.get(0).getSmoothedRttMillis() > 0, is(true));
+
+            try {
+                facebook.getUser("2");
+                fail();
+            } catch (FacebookException expected) {
+            }
+            assertThat(limiter.getLimit(endpoint), is(4));
+            try {
+                facebook.getUser("3");
+                fail();
+            } catch (FacebookException expected) {
+            }
+            assertThat(limiter.getLimit(endpoint), is(2));
+            // another user of the app
+            assertSame(limiter, ConcurrencyLimiter.getInstance(server.newConfigurationBuilder()
+                    .setAdaptiveConcurrencyMaxLimit(8).setAdaptiveConcurrencyInitialLimit(8)
+                    .setOAuthAccessToken("token2").build()));
+            assertThat(ConcurrencyLimiter.getInstance(server.newConfigurationBuilder().build()), is(nullValue()));
+        } finally {
+            server.stop();
+        }
+    }
+}
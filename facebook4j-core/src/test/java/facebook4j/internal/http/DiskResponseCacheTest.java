@@ -0,0 +1,356 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import facebook4j.conf.ConfigurationBuilder;
+
+public class DiskResponseCacheTest {
+
+    private static final String URL = "https://graph.facebook.com/v2.0/";
+
+    private File dir;
+
+    // reclaims on the writing thread, so that the size is known when put returns
+    private static final Executor DIRECT = new Executor() {
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("facebook4j-cache", "");
+        dir.delete();
+        dir.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static byte[] bytes(String str) throws Exception {
+        return str.getBytes("UTF-8");
+    }
+
+    private static String body(DiskResponseCache.Entry entry) throws Exception {
+        return new String(entry.getBody(), "UTF-8");
+    }
+
+    @Test
+    public void putAndGet() throws Exception {
+        DiskResponseCache cache = new DiskResponseCache(dir, 1024 * 1024);
+        long future = System.currentTimeMillis() + 60000;
+        assertThat(cache.get(URL + "1?access_token=a"), is(nullValue()));
+
+        cache.put(URL + "1?access_token=a", "\"etag1\"", bytes("{\"id\":\"1\"}"), future);
+        cache.put(URL + "2?access_token=a", null, bytes("{\"id\":\"2\"}"), 0);
+        DiskResponseCache.Entry entry = cache.get(URL + "1?access_token=a");
+        assertThat(body(entry), is("{\"id\":\"1\"}"));
+        assertThat(entry.getETag(), is("\"etag1\""));
+        assertThat(entry.isExpired(), is(false));
+        assertThat(cache.get(URL + "1?access_token=b"), is(nullValue()));
+        entry = cache.get(URL + "2?access_token=a");
+        assertThat(entry.getETag(), is(nullValue()));
+        assertThat(entry.isExpired(), is(true));
+
+        cache.put(URL + "1?access_token=a", "\"etag2\"", bytes("{\"id\":\"1\",\"name\":\"x\"}"), future);
+        assertThat(cache.get(URL + "1?access_token=a").getETag(), is("\"etag2\""));
+        assertThat(cache.getSize(), is(2));
+        assertThat(cache.getStatistics().getHitCount(), is(2L));
+        assertThat(cache.getStatistics().getStaleHitCount(), is(1L));
+        assertThat(cache.getStatistics().getMissCount(), is(2L));
+        cache.close();
+    }
+
+    @Test
+    public void survivesRestart() throws Exception {
+        DiskResponseCache cache = new DiskResponseCache(dir, 1024 * 1024);
+        long future = System.currentTimeMillis() + 60000;
+        for (int i = 0; i < 1000; i++) {
+            cache.put(URL + i + "?access_token=a", "\"" + i + "\"", bytes("{\"id\":\"" + i + "\"}"), future);
+        }
+        cache.put(URL + "0?access_token=a", null, bytes("{\"id\":\"zero\"}"), future);
+        cache.close();
+
+        for (File file : dir.listFiles()) {
+            assertThat(new String(readFully(file), "ISO-8859-1").contains("access_token"), is(false));
+        }
+
+        cache = new DiskResponseCache(dir, 1024 * 1024);
+        assertThat(cache.getSize(), is(0));
+        assertThat(body(cache.get(URL + "0?access_token=a")), is("{\"id\":\"zero\"}"));
+        assertThat(cache.getSize(), is(1000));
+        for (int i = 1; i < 1000; i++) {
+            assertThat(body(cache.get(URL + i + "?access_token=a")), is("{\"id\":\"" + i + "\"}"));
+        }
+        cache.close();
+    }
+
+    @Test
+    public void truncatesTornRecord() throws Exception {
+        DiskResponseCache cache = new DiskResponseCache(dir, 1024 * 1024);
+        long future = System.currentTimeMillis() + 60000;
+        cache.put(URL + "1", null, bytes("{\"id\":\"1\"}"), future);
+        cache.put(URL + "2", null, bytes("{\"id\":\"2\"}"), future);
+        cache.close();
+
+        // a crash in the middle of the second write
+        RandomAccessFile segment = new RandomAccessFile(new File(dir, "segment-00000000.dat"), "rw");
+        segment.setLength(segment.length() - 5);
+        segment.close();
+
+        cache = new DiskResponseCache(dir, 1024 * 1024);
+        assertThat(body(cache.get(URL + "1")), is("{\"id\":\"1\"}"));
+        assertThat(cache.get(URL + "2"), is(nullValue()));
+        cache.put(URL + "3", null, bytes("{\"id\":\"3\"}"), future);
+        cache.close();
+
+        cache = new DiskResponseCache(dir, 1024 * 1024);
+        assertThat(body(cache.get(URL + "1")), is("{\"id\":\"1\"}"));
+        assertThat(body(cache.get(URL + "3")), is("{\"id\":\"3\"}"));
+        assertThat(cache.getSize(), is(2));
+        cache.close();
+    }
+
+    @Test
+    public void dropsCorruptRecord() throws Exception {
+        DiskResponseCache cache = new DiskResponseCache(dir, 1024 * 1024);
+        cache.put(URL + "1", null, bytes("{\"id\":\"1\"}"), System.currentTimeMillis() + 60000);
+        cache.close();
+
+        RandomAccessFile segment = new RandomAccessFile(new File(dir, "segment-00000000.dat"), "rw");
+        segment.seek(segment.length() - 8);
+        segment.write('X');
+        segment.close();
+
+        // only the last segment is verified on recovery
+        new File(dir, "segment-00000000.dat").renameTo(new File(dir, "segment-00000001.dat").getAbsoluteFile());
+        File empty = new File(dir, "segment-00000002.dat");
+        empty.createNewFile();
+        cache = new DiskResponseCache(dir, 1024 * 1024);
+        assertThat(cache.get(URL + "1"), is(nullValue()));
+        assertThat(cache.getSize(), is(0));
+        cache.close();
+    }
+
+    @Test
+    public void invalidate() throws Exception {
+        DiskResponseCache cache = new DiskResponseCache(dir, 1024 * 1024);
+        long future = System.currentTimeMillis() + 60000;
+        cache.put(URL + "123?access_token=a", null, bytes("{}"), future);
+        cache.put(URL + "123/feed?access_token=a", null, bytes("{}"), future);
+        cache.put("https://graph.facebook.com/123/likes", null, bytes("{}"), future);
+        cache.put(URL + "456?access_token=a", null, bytes("{}"), future);
+        cache.put(URL + "?ids=123,456&access_token=a", null, bytes("{}"), future);
+
+        cache.invalidate("123");
+        assertThat(cache.get(URL + "123?access_token=a"), is(nullValue()));
+        assertThat(cache.get(URL + "123/feed?access_token=a"), is(nullValue()));
+        assertThat(cache.get("https://graph.facebook.com/123/likes"), is(nullValue()));
+        assertThat(cache.get(URL + "456?access_token=a"), is(notNullValue()));
+        assertThat(cache.get(URL + "?ids=123,456&access_token=a"), is(notNullValue()));
+        assertThat(cache.getStatistics().getInvalidationCount(), is(3L));
+        cache.close();
+
+        cache = new DiskResponseCache(dir, 1024 * 1024);
+        assertThat(cache.get(URL + "123/feed?access_token=a"), is(nullValue()));
+        assertThat(cache.get(URL + "456?access_token=a"), is(notNullValue()));
+        assertThat(cache.getSize(), is(2));
+        cache.close();
+    }
+
+    @Test
+    public void objectIdOf() throws Exception {
+        assertThat(DiskResponseCache.objectIdOf(URL + "123/feed?limit=1"), is("123"));
+        assertThat(DiskResponseCache.objectIdOf("https://graph.facebook.com/me?fields=id"), is("me"));
+        assertThat(DiskResponseCache.objectIdOf(URL + "123_456"), is("123_456"));
+        assertThat(DiskResponseCache.objectIdOf(URL + "?ids=1,2"), is(nullValue()));
+        assertThat(DiskResponseCache.objectIdOf("https://graph.facebook.com"), is(nullValue()));
+    }
+
+    @Test
+    public void isCacheable() throws Exception {
+        assertThat(DiskResponseCache.isCacheable(URL + "123/feed?limit=1&access_token=token"), is(true));
+        assertThat(DiskResponseCache.isCacheable(URL + "123?fields=id%2Cname&access_token=token"), is(true));
+        assertThat(DiskResponseCache.isCacheable(URL + "v2.0/oauth/access_token?client_id=1"), is(false));
+        assertThat(DiskResponseCache.isCacheable(URL + "oauth/access_token?code=1"), is(false));
+        assertThat(DiskResponseCache.isCacheable(URL + "me/accounts?access_token=token"), is(false));
+        assertThat(DiskResponseCache.isCacheable(URL + "1/accounts/test-users"), is(false));
+        assertThat(DiskResponseCache.isCacheable(URL + "123?fields=name%2Caccess_token&access_token=token"), is(false));
+        assertThat(DiskResponseCache.isCacheable(URL + "123?fields=access_token"), is(false));
+        assertThat(DiskResponseCache.isCacheable(URL + "123?fields=access_token_expiry"), is(true));
+    }
+
+    @Test
+    public void compactsAndEvicts() throws Exception {
+        int maxBytes = 64 * 1024;
+        DiskResponseCache cache = new DiskResponseCache(dir, maxBytes, DIRECT);
+        long future = System.currentTimeMillis() + 60000;
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            padding.append('x');
+        }
+        // a small hot set rewritten over and over: compaction keeps it alive
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 10; i++) {
+                cache.put(URL + "hot" + i, null, bytes(round + padding.toString()), future);
+            }
+        }
+        assertThat(cache.getWeight() <= maxBytes + maxBytes / 8, is(true));
+        for (int i = 0; i < 10; i++) {
+            assertThat(body(cache.get(URL + "hot" + i)), is(49 + padding.toString()));
+        }
+
+        // more live data than fits: the oldest segments are dropped
+        for (int i = 0; i < 1000; i++) {
+            cache.put(URL + "cold" + i, null, bytes(padding.toString()), future);
+        }
+        assertThat(cache.getWeight() <= maxBytes + maxBytes / 8, is(true));
+        assertThat(cache.get(URL + "cold0"), is(nullValue()));
+        assertThat(cache.get(URL + "cold999"), is(notNullValue()));
+        assertThat(cache.getStatistics().getEvictionCount() > 0, is(true));
+        int size = cache.getSize();
+        int segments = cache.getSegmentCount();
+        cache.close();
+
+        assertThat(dir.listFiles().length, is(segments + 1));
+        cache = new DiskResponseCache(dir, maxBytes);
+        assertThat(cache.get(URL + "cold999"), is(notNullValue()));
+        assertThat(cache.getSize(), is(size));
+        cache.close();
+    }
+
+    @Test
+    public void reclaimsInBackground() throws Exception {
+        int maxBytes = 64 * 1024;
+        DiskResponseCache cache = new DiskResponseCache(dir, maxBytes);
+        long future = System.currentTimeMillis() + 60000;
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            padding.append('x');
+        }
+        for (int i = 0; i < 1000; i++) {
+            cache.put(URL + "cold" + i, null, bytes(padding.toString()), future);
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getWeight() > maxBytes + maxBytes / 8 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.getWeight() <= maxBytes + maxBytes / 8, is(true));
+        assertThat(cache.get(URL + "cold999"), is(notNullValue()));
+        cache.close();
+    }
+
+    @Test
+    public void revalidatesWithETag() throws Exception {
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger notModified = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                byte[] bytes = "{\"id\":\"1\",\"name\":\"Facebook4J\"}".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, bytes.length);
+                OutputStream os = exchange.getResponseBody();
+                os.write(bytes);
+                os.close();
+            }
+        });
+        server.start();
+        try {
+            String baseURL = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+            HttpClientImpl http = new HttpClientImpl(new ConfigurationBuilder()
+                    .setHttpCacheDirectory(dir.getPath())
+                    .setHttpCacheTTLSeconds(0)
+                    .build());
+
+            assertThat(http.get(baseURL + "1").asJSONObject().getString("name"), is("Facebook4J"));
+            HttpResponse res = http.get(baseURL + "1");
+            assertThat(res.getStatusCode(), is(200));
+            assertThat(res.asJSONObject().getString("name"), is("Facebook4J"));
+            assertThat(requests.get(), is(2));
+            assertThat(notModified.get(), is(1));
+
+            http.post(baseURL + "1", new HttpParameter[]{new HttpParameter("message", "test")});
+            assertThat(http.get(baseURL + "1").asJSONObject().getString("name"), is("Facebook4J"));
+            assertThat(requests.get(), is(4));
+            assertThat(notModified.get(), is(1));
+
+            HttpClientImpl fresh = new HttpClientImpl(new ConfigurationBuilder()
+                    .setHttpCacheDirectory(dir.getPath())
+                    .setHttpCacheTTLSeconds(60)
+                    .build());
+            fresh.get(baseURL + "2").asString();
+            assertThat(fresh.get(baseURL + "2").asJSONObject().getString("id"), is("1"));
+            assertThat(requests.get(), is(5));
+        } finally {
+            server.stop(0);
+            DiskResponseCache.getInstance(dir, 0).close();
+        }
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        byte[] bytes = new byte[(int) raf.length()];
+        raf.readFully(bytes);
+        raf.close();
+        return bytes;
+    }
+}
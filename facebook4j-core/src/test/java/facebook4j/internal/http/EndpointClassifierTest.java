@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class EndpointClassifierTest {
+
+    private static final String BASE = "https://graph.facebook.com/";
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void connections() throws Exception {
+        assertThat(EndpointClassifier.classify(BASE + "123456/feed"), is("{id}/feed"));
+        assertThat(EndpointClassifier.classify(BASE + "123456_789/comments?limit=25"), is("{id}/comments"));
+        assertThat(EndpointClassifier.classify(BASE + "roundrop/photos"), is("{id}/photos"));
+        assertThat(EndpointClassifier.classify(BASE + "me/friends?access_token=xxx"), is("me/friends"));
+        assertThat(EndpointClassifier.classify(BASE + "v2.0/me/feed"), is("me/feed"));
+        // same instance for every id
+        assertSame(EndpointClassifier.classify(BASE + "1/likes"), EndpointClassifier.classify(BASE + "2/likes"));
+    }
+
+    @Test
+    public void objects() throws Exception {
+        assertThat(EndpointClassifier.classify(BASE + "123456"), is("{id}"));
+        assertThat(EndpointClassifier.classify(BASE + "123456?fields=name"), is("{id}"));
+        assertThat(EndpointClassifier.classify(BASE + "me"), is("me"));
+        assertThat(EndpointClassifier.classify(BASE + "?ids=1,2,3"), is("?ids"));
+        assertThat(EndpointClassifier.classify(BASE), is("?ids"));
+    }
+
+    @Test
+    public void nested() throws Exception {
+        assertThat(EndpointClassifier.classify(BASE + "123/attending/456"), is("{id}/attending/{id}"));
+        assertThat(EndpointClassifier.classify(BASE + "123/accounts/test-users"), is("{id}/accounts/test-users"));
+        assertThat(EndpointClassifier.classify(BASE + "123/friendlists/Family"), is("{id}/friendlists/{id}"));
+        assertThat(EndpointClassifier.classify(BASE + "oauth/access_token?grant_type=client_credentials"), is("oauth/access_token"));
+        assertThat(EndpointClassifier.classify(BASE + "1/a/b/c/d/e/f"), is("{id}/a/b/c"));
+    }
+
+    @Test
+    public void searchAndFql() throws Exception {
+        assertThat(EndpointClassifier.classify(BASE + "search?q=coffee&type=place&center=37,-122"), is("search?type=place"));
+        assertThat(EndpointClassifier.classify(BASE + "search?type=user&q=roundrop"), is("search?type=user"));
+        assertThat(EndpointClassifier.classify(BASE + "search?q=watermelon&subtype=x"), is("search"));
+        assertThat(EndpointClassifier.classify(BASE + "search?type=unknown123&q=x"), is("search?type=other"));
+        assertThat(EndpointClassifier.classify(BASE + "fql?q=SELECT+uid+FROM+user"), is("fql"));
+    }
+
+    @Test
+    public void other() throws Exception {
+        assertThat(EndpointClassifier.classify(null), is(EndpointClassifier.OTHER));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import facebook4j.FacebookException;
+import facebook4j.conf.ConfigurationBuilder;
+import facebook4j.internal.org.json.JSONObject;
+import facebook4j.management.RequestPhase;
+
+public class HttpClientImplTest {
+
+    private HttpServer server;
+    private String baseURL;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+                gzip.write("{\"id\":\"1\",\"name\":\"Facebook4J\"}".getBytes("UTF-8"));
+                gzip.close();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.sendResponseHeaders(200, bytes.size());
+                OutputStream os = exchange.getResponseBody();
+                os.write(bytes.toByteArray());
+                os.close();
+            }
+        });
+        server.createContext("/error/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+        baseURL = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop(0);
+    }
+
+    @Test
+    public void timings() throws Exception {
+        HttpClientImpl http = new HttpClientImpl(new ConfigurationBuilder().build());
+
+        HttpResponse res = http.get(baseURL + "1");
+        RequestTimings timings = res.getTimings();
+        assertThat(timings.getNanos(RequestPhase.TTFB) > 0, is(true));
+        assertThat(timings.getNanos(RequestPhase.PARSE), is(0L));
+
+        JSONObject json = res.asJSONObject();
+        assertThat(json.getString("name"), is("Facebook4J"));
+        assertThat(timings.getNanos(RequestPhase.READ) > 0, is(true));
+        assertThat(timings.getNanos(RequestPhase.PARSE) > 0, is(true));
+        assertThat(timings.getBytes() > 0L, is(true));
+    }
+
+    @Test
+    public void post() throws Exception {
+        HttpClientImpl http = new HttpClientImpl(new ConfigurationBuilder().build());
+
+        HttpResponse res = http.post(baseURL + "1/feed", new HttpParameter[]{new HttpParameter("message", "test")});
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getTimings().getNanos(RequestPhase.WRITE) > 0, is(true));
+    }
+
+    private static class RecordingTracer extends RequestTracer {
+        private final List<String> events = new ArrayList<String>();
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void attemptCompleted(String endpoint, int statusCode, long contentLength, long durationNanos, int retryIndex) {
+            events.add("attempt " + endpoint + " " + statusCode + " " + retryIndex);
+        }
+
+        @Override
+        public void responseParsed(long bytes, long durationNanos) {
+            events.add("parsed " + bytes);
+        }
+
+        @Override
+        public void backoff(String endpoint, int statusCode, int retryIndex, long sleepMillis) {
+            events.add("backoff " + endpoint + " " + statusCode + " " + retryIndex);
+        }
+    }
+
+    @Test
+    public void tracer() throws Exception {
+        assertThat(RequestTracer.getInstance().isEnabled(), is(false));
+        RecordingTracer tracer = new RecordingTracer();
+        RequestTracer.setInstance(tracer);
+        try {
+            HttpClientImpl http = new HttpClientImpl(new ConfigurationBuilder()
+                    .setHttpRetryCount(1).setHttpRetryIntervalSeconds(0).build());
+            http.get(baseURL + "1").asJSONObject();
+            assertThat(tracer.events.get(0), is("attempt {id} 200 0"));
+            assertThat(tracer.events.get(1), is("parsed 30"));
+
+            tracer.events.clear();
+            try {
+                http.get(baseURL + "error/feed");
+                fail();
+            } catch (FacebookException expected) {
+            }
+            assertThat(tracer.events.size(), is(3));
+            assertThat(tracer.events.get(0), is("attempt {id}/feed 500 0"));
+            assertThat(tracer.events.get(1), is("backoff {id}/feed 500 1"));
+            assertThat(tracer.events.get(2), is("attempt {id}/feed 500 1"));
+        } finally {
+            RequestTracer.setInstance(null);
+        }
+        assertThat(RequestTracer.getInstance().isEnabled(), is(false));
+    }
+
+    public static class PublicTracer extends RecordingTracer {
+    }
+
+    @Test
+    public void misconfiguredTracer() throws Exception {
+        assertThat(RequestTracer.newTracer("com.example.NoSuchTracer").isEnabled(), is(false));
+        assertThat(RequestTracer.newTracer(String.class.getName()).isEnabled(), is(false));
+        // no public constructor
+        assertThat(RequestTracer.newTracer(RecordingTracer.class.getName()).isEnabled(), is(false));
+        assertThat(RequestTracer.newTracer(PublicTracer.class.getName()) instanceof PublicTracer, is(true));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import facebook4j.FacebookException;
+
+public class HttpResponseEventBusTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    private static HttpResponseEvent event(String url) {
+        HttpRequest request = new HttpRequest(RequestMethod.GET, url, null, null, null);
+        return new HttpResponseEvent(request, null, new FacebookException("error"), 1000L);
+    }
+
+    // runs the tasks only when asked to
+    private static class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    private static class RecordingListener implements HttpResponseListener {
+        private final List<String> urls = Collections.synchronizedList(new ArrayList<String>());
+        private final Thread publisher = Thread.currentThread();
+        private volatile boolean calledOnPublisher = false;
+
+        public void httpResponseReceived(HttpResponseEvent event) {
+            urls.add(event.getRequest().getURL());
+            calledOnPublisher |= Thread.currentThread() == publisher;
+        }
+    }
+
+    @Test
+    public void multipleListeners() throws Exception {
+        HttpResponseEventBus bus = new HttpResponseEventBus();
+        RecordingListener listener1 = new RecordingListener();
+        final CountDownLatch latch = new CountDownLatch(2);
+        bus.addListener(listener1);
+        bus.addListener(new HttpResponseListener() {
+            public void httpResponseReceived(HttpResponseEvent event) {
+                latch.countDown();
+            }
+        });
+        bus.publish(event("http://example.com/1"));
+        bus.publish(event("http://example.com/2"));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(listener1.urls.size(), is(2));
+        assertThat(listener1.urls.get(0), is("http://example.com/1"));
+        assertThat(listener1.calledOnPublisher, is(false));
+    }
+
+    @Test
+    public void dropNewest() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        HttpResponseEventBus bus = new HttpResponseEventBus(2, HttpResponseEventBus.OverflowPolicy.DROP_NEWEST, executor);
+        RecordingListener listener = new RecordingListener();
+        bus.addListener(listener);
+        for (int i = 1; i <= 4; i++) {
+            bus.publish(event("http://example.com/" + i));
+        }
+        assertThat(bus.getQueuedCount(), is(2));
+        assertThat(bus.getDroppedCount(), is(2L));
+
+        executor.runAll();
+        assertThat(listener.urls.size(), is(2));
+        assertThat(listener.urls.get(0), is("http://example.com/1"));
+        assertThat(listener.urls.get(1), is("http://example.com/2"));
+        assertThat(bus.getQueuedCount(), is(0));
+    }
+
+    @Test
+    public void dropOldest() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        HttpResponseEventBus bus = new HttpResponseEventBus(2, HttpResponseEventBus.OverflowPolicy.DROP_OLDEST, executor);
+        RecordingListener listener = new RecordingListener();
+        bus.addListener(listener);
+        for (int i = 1; i <= 4; i++) {
+            bus.publish(event("http://example.com/" + i));
+        }
+        assertThat(bus.getDroppedCount(), is(2L));
+
+        executor.runAll();
+        assertThat(listener.urls.size(), is(2));
+        assertThat(listener.urls.get(0), is("http://example.com/3"));
+        assertThat(listener.urls.get(1), is("http://example.com/4"));
+    }
+
+    @Test
+    public void callerRuns() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        HttpResponseEventBus bus = new HttpResponseEventBus(1, HttpResponseEventBus.OverflowPolicy.CALLER_RUNS, executor);
+        RecordingListener listener = new RecordingListener();
+        bus.addListener(listener);
+        bus.publish(event("http://example.com/1"));
+        bus.publish(event("http://example.com/2"));
+
+        assertThat(listener.urls.size(), is(1));
+        assertThat(listener.calledOnPublisher, is(true));
+        assertThat(bus.getDroppedCount(), is(0L));
+        executor.runAll();
+        assertThat(listener.urls.size(), is(2));
+    }
+
+    @Test
+    public void noListener() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        HttpResponseEventBus bus = new HttpResponseEventBus(1, HttpResponseEventBus.OverflowPolicy.DROP_NEWEST, executor);
+        assertThat(bus.hasListeners(), is(false));
+        bus.publish(event("http://example.com/1"));
+        assertThat(bus.getQueuedCount(), is(0));
+        assertThat(executor.tasks.isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import facebook4j.Facebook;
+import facebook4j.FacebookFactory;
+import facebook4j.MockGraphServer;
+import facebook4j.RequestPriority;
+import facebook4j.auth.AccessToken;
+import facebook4j.conf.Configuration;
+import facebook4j.management.TenantStatistics;
+
+public class RequestSchedulerTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    // a request that completes as soon as it is let run
+    private static Thread enqueue(RequestScheduler scheduler, String tenant, List<String> order) {
+        return enqueue(scheduler, tenant, RequestPriority.INTERACTIVE, order);
+    }
+
+    private static Thread enqueue(final RequestScheduler scheduler, final String tenant, final RequestPriority priority,
+                                  final List<String> order) {
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    RequestScheduler.Ticket ticket = scheduler.acquire(tenant, priority);
+                    synchronized (order) {
+                        order.add(tenant);
+                    }
+                    scheduler.release(ticket);
+                } catch (InterruptedException ignore) {
+                }
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitQueueDepth(RequestScheduler scheduler, int depth) throws InterruptedException {
+        while (scheduler.getStatistics().getQueueDepth() != depth) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static List<String> run(RequestScheduler scheduler, String... tenants) throws InterruptedException {
+        RequestScheduler.Ticket blocker = scheduler.acquire("blocker");
+        List<String> order = new ArrayList<String>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < tenants.length; i++) {
+            threads.add(enqueue(scheduler, tenants[i], order));
+            awaitQueueDepth(scheduler, i + 1);
+        }
+        scheduler.release(blocker);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return order;
+    }
+
+    @Test
+    public void roundRobin() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1, 0);
+        // a backfill queued first does not hold up the other tenant
+        List<String> order = run(scheduler, "a", "a", "a", "a", "a", "a", "b", "b");
+        assertThat(order, is(Arrays.asList("a", "b", "a", "b", "a", "a", "a", "a")));
+        assertThat(scheduler.getInFlight(), is(0));
+    }
+
+    @Test
+    public void weights() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1, 0);
+        scheduler.setTenant("a", "big", 3);
+        List<String> order = run(scheduler, "a", "a", "a", "a", "a", "a", "b", "b");
+        assertThat(order, is(Arrays.asList("a", "a", "a", "b", "a", "a", "a", "b")));
+
+        TenantStatistics big = null;
+        for (TenantStatistics tenant : scheduler.getTenantStatistics()) {
+            if (tenant.getName().equals("big")) {
+                big = tenant;
+            }
+        }
+        assertThat(big.getWeight(), is(3));
+        assertThat(big.getGrantedCount(), is(6L));
+        assertThat(big.getQueueDepth(), is(0));
+        assertThat(big.getMeanWaitMillis() > 0, is(true));
+        assertThat(scheduler.getStatistics().getTenantQueueDepths().get("big"), is(0));
+    }
+
+    @Test
+    public void tenantConcurrency() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(4, 1);
+        RequestScheduler.Ticket a1 = scheduler.acquire("a");
+        List<String> order = new ArrayList<String>();
+        Thread a2 = enqueue(scheduler, "a", order);
+        awaitQueueDepth(scheduler, 1);
+        // another tenant is not held up by the capped one
+        RequestScheduler.Ticket b1 = scheduler.acquire("b");
+        assertThat(scheduler.getInFlight(), is(2));
+        assertThat(order.isEmpty(), is(true));
+
+        scheduler.release(a1);
+        a2.join();
+        assertThat(order, is(Arrays.asList("a")));
+        scheduler.release(b1);
+        assertThat(scheduler.getInFlight(), is(0));
+    }
+
+    @Test
+    public void interactiveFirst() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1, 0);
+        RequestScheduler.Ticket blocker = scheduler.acquire("blocker");
+        List<String> order = new ArrayList<String>();
+        List<Thread> threads = new ArrayList<Thread>();
+        threads.add(enqueue(scheduler, "crawl1", RequestPriority.BACKGROUND, order));
+        awaitQueueDepth(scheduler, 1);
+        threads.add(enqueue(scheduler, "crawl2", RequestPriority.BACKGROUND, order));
+        awaitQueueDepth(scheduler, 2);
+        threads.add(enqueue(scheduler, "user", RequestPriority.INTERACTIVE, order));
+        awaitQueueDepth(scheduler, 3);
+        assertThat(scheduler.getQueueDepth(RequestPriority.BACKGROUND), is(2));
+        assertThat(scheduler.getStatistics().getPriorityQueueDepths().get("INTERACTIVE"), is(1));
+
+        // the interactive request queued last goes first
+        scheduler.release(blocker);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(order, is(Arrays.asList("user", "crawl1", "crawl2")));
+        assertThat(scheduler.getInFlight(), is(0));
+    }
+
+    @Test
+    public void interactiveReserve() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(3, 0, 1);
+        RequestScheduler.Ticket b1 = scheduler.acquire("crawl", RequestPriority.BACKGROUND);
+        RequestScheduler.Ticket b2 = scheduler.acquire("crawl", RequestPriority.BACKGROUND);
+        List<String> order = new ArrayList<String>();
+        Thread b3 = enqueue(scheduler, "crawl", RequestPriority.BACKGROUND, order);
+        awaitQueueDepth(scheduler, 1);
+        assertThat(scheduler.getInFlight(RequestPriority.BACKGROUND), is(2));
+
+        // the reserved slot is left for interactive requests
+        RequestScheduler.Ticket i1 = scheduler.acquire("user");
+        assertThat(scheduler.getInFlight(RequestPriority.INTERACTIVE), is(1));
+        scheduler.release(i1);
+        assertThat(order.isEmpty(), is(true));
+
+        scheduler.release(b1);
+        b3.join();
+        assertThat(order, is(Arrays.asList("crawl")));
+        scheduler.release(b2);
+        assertThat(scheduler.getInFlight(), is(0));
+        assertThat(scheduler.getStatistics().getInteractiveReserve(), is(1));
+    }
+
+    @Test
+    public void priorityOfThread() throws Exception {
+        assertThat(RequestPriority.getCurrent(), is(RequestPriority.INTERACTIVE));
+        RequestPriority previous = RequestPriority.setCurrent(RequestPriority.BACKGROUND);
+        try {
+            assertThat(previous, is(RequestPriority.INTERACTIVE));
+            assertThat(RequestPriority.getCurrent(), is(RequestPriority.BACKGROUND));
+        } finally {
+            RequestPriority.setCurrent(previous);
+        }
+        assertThat(RequestPriority.getCurrent(), is(RequestPriority.INTERACTIVE));
+    }
+
+    @Test
+    public void interrupted() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1, 0);
+        RequestScheduler.Ticket blocker = scheduler.acquire("blocker");
+        List<String> order = new ArrayList<String>();
+        Thread waiting = enqueue(scheduler, "a", order);
+        awaitQueueDepth(scheduler, 1);
+        waiting.interrupt();
+        waiting.join();
+        assertThat(scheduler.getStatistics().getQueueDepth(), is(0));
+        scheduler.release(blocker);
+        assertThat(scheduler.getInFlight(), is(0));
+        assertThat(order.isEmpty(), is(true));
+    }
+
+    @Test
+    public void tenantOfRequest() throws Exception {
+        MockGraphServer server = new MockGraphServer() {
+            @Override
+            protected String respond(String method, String path, Map<String, String> params) throws GraphError {
+                return "{\"id\":\"1\"}";
+            }
+        };
+        try {
+            Configuration conf = server.newConfigurationBuilder().setRequestSchedulerMaxConcurrency(2).build();
+            Facebook facebook = new FacebookFactory(conf).getInstance(new AccessToken("token1"));
+            facebook.getUser("1");
+            facebook.getUser("2");
+            RequestScheduler scheduler = RequestScheduler.getInstance(conf);
+            List<TenantStatistics> tenants = scheduler.getTenantStatistics();
+            assertThat(tenants.size(), is(1));
+            assertThat(tenants.get(0).getGrantedCount(), is(2L));
+            assertThat(tenants.get(0).getName().contains("token1"), is(false));
+            assertThat(scheduler.getInFlight(), is(0));
+            // another user of the app
+            assertSame(scheduler, RequestScheduler.getInstance(server.newConfigurationBuilder()
+                    .setRequestSchedulerMaxConcurrency(2).setOAuthAccessToken("token2").build()));
+
+            assertThat(RequestScheduler.getInstance(server.newConfigurationBuilder().build()), is(nullValue()));
+            assertThat(RequestScheduler.getTenant(new HttpRequest(RequestMethod.GET, "http://example.com/", null, null, null)),
+                    is(RequestScheduler.DEFAULT_TENANT));
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.http;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import facebook4j.internal.logging.Logger;
+import facebook4j.internal.org.json.JSONArray;
+import facebook4j.internal.org.json.JSONObject;
+
+public class ResponseBodyLoggerTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void render() throws Exception {
+        assertThat(ResponseBodyLogger.render(new JSONObject("{\"id\":\"1\"}"), false), is("{\"id\":\"1\"}"));
+        assertThat(ResponseBodyLogger.render("{\"id\":\"1\"}", false), is("{\"id\":\"1\"}"));
+        assertThat(ResponseBodyLogger.render(new JSONArray("[1,2]"), true).startsWith("["), is(true));
+        assertThat(ResponseBodyLogger.render(new JSONArray("[{\"a\":\"x,y:{\"},[],2]"), true),
+                is("[\n {\n  \"a\": \"x,y:{\"\n },\n [],\n 2\n]"));
+    }
+
+    @Test
+    public void truncatePretty() throws Exception {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 20000; i++) {
+            sb.append("{\"id\":\"").append(i).append("\",\"message\":\"m\"},");
+        }
+        sb.append("{}]");
+        String rendered = ResponseBodyLogger.render(new JSONArray(sb.toString()), true);
+        assertThat(rendered.length(), is(4096 + 3));
+        assertThat(rendered.startsWith("[\n {\n  \"id\": \"0\""), is(true));
+        assertThat(rendered.endsWith("..."), is(true));
+    }
+
+    @Test
+    public void truncate() throws Exception {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 2000; i++) {
+            sb.append("{\"id\":\"").append(i).append("\"},");
+        }
+        sb.append("{}]");
+        String rendered = ResponseBodyLogger.render(new JSONArray(sb.toString()), false);
+        assertThat(rendered.length(), is(4096 + 3));
+        assertThat(rendered.endsWith("..."), is(true));
+
+        String body = sb.toString();
+        rendered = ResponseBodyLogger.render(body, false);
+        assertThat(rendered, is(body.substring(0, 4096) + "...(" + body.length() + " chars)"));
+    }
+
+    @Test
+    public void rendersOnCallingThread() throws Exception {
+        final String[] logged = new String[1];
+        final CountDownLatch latch = new CountDownLatch(1);
+        Logger logger = new Logger() {
+            public boolean isDebugEnabled() { return true; }
+            public boolean isInfoEnabled() { return false; }
+            public boolean isWarnEnabled() { return false; }
+            public boolean isErrorEnabled() { return false; }
+            public void debug(String message) {
+                logged[0] = message;
+                latch.countDown();
+            }
+            public void debug(String message, String message2) {}
+            public void info(String message) {}
+            public void info(String message, String message2) {}
+            public void warn(String message) {}
+            public void warn(String message, String message2) {}
+            public void error(String message) {}
+            public void error(String message, Throwable th) {}
+        };
+        JSONObject body = new JSONObject("{\"id\":\"1\"}");
+        ResponseBodyLogger.log(logger, body, false);
+        // the caller is free to modify the body once log() returns
+        body.put("name", "changed");
+        assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(logged[0], is("{\"id\":\"1\"}"));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.json;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import facebook4j.internal.org.json.JSONArray;
+import facebook4j.internal.org.json.JSONObject;
+
+public class RawJSONStoreTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void putAndGet() throws Exception {
+        final RawJSONStore store = new RawJSONStore(10, 1024);
+        final Object key = new Object();
+        store.put(key, new JSONObject("{\"name\":\"f\u00f6\u00f6\"}"));
+        assertThat(store.getByteCount(), is(16L));
+        assertThat(store.get(new Object()), is(nullValue()));
+
+        final String[] fromAnotherThread = new String[1];
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                fromAnotherThread[0] = store.get(key);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertThat(fromAnotherThread[0], is("{\"name\":\"f\u00f6\u00f6\"}"));
+
+        store.put(key, "[]");
+        assertThat(store.get(key), is("[]"));
+        assertThat(store.size(), is(1));
+        assertThat(store.getByteCount(), is(2L));
+
+        store.clear();
+        assertThat(store.get(key), is(nullValue()));
+        assertThat(store.getByteCount(), is(0L));
+    }
+
+    @Test
+    public void bounded() throws Exception {
+        RawJSONStore store = new RawJSONStore(3, 1024);
+        Object[] keys = new Object[5];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Object();
+            store.put(keys[i], "{\"i\":" + i + "}");
+        }
+        assertThat(store.size(), is(3));
+        assertThat(store.get(keys[1]), is(nullValue()));
+        assertThat(store.get(keys[4]), is("{\"i\":4}"));
+
+        store = new RawJSONStore(100, 20);
+        for (int i = 0; i < keys.length; i++) {
+            store.put(keys[i], "{\"i\":" + i + "}");
+        }
+        assertThat(store.size(), is(2));
+        assertThat(store.getByteCount(), is(14L));
+        assertThat(store.get(keys[3]), is("{\"i\":3}"));
+
+        // larger than the store itself
+        store.put(keys[0], "{\"name\":\"too long to be stored\"}");
+        assertThat(store.get(keys[0]), is(nullValue()));
+    }
+
+    @Test
+    public void replacedEntryIsNotEvictedByItsOldPosition() throws Exception {
+        RawJSONStore store = new RawJSONStore(3, 1024);
+        Object first = new Object();
+        store.put(first, "1");
+        store.put(new Object(), "2");
+        store.put(first, "3");
+        store.put(new Object(), "4");
+        assertThat(store.get(first), is("3"));
+    }
+
+    @Test
+    public void weakKeys() throws Exception {
+        RawJSONStore store = new RawJSONStore(100, 1024);
+        Object key = new Object();
+        store.put(key, "{}");
+        key = null;
+        for (int i = 0; i < 50 && store.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertThat(store.size(), is(0));
+        assertThat(store.getByteCount(), is(0L));
+    }
+
+    @Test
+    public void treesAreNotRetained() throws Exception {
+        RawJSONStore store = new RawJSONStore(1000, 10000);
+        Object[] keys = new Object[50];
+        WeakReference<?>[] trees = new WeakReference<?>[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Object();
+            JSONArray tree = largeTree(i);
+            trees[i] = new WeakReference<Object>(tree);
+            store.put(keys[i], tree);
+            assertThat(store.getByteCount() <= 10000, is(true));
+        }
+        assertThat(store.getByteCount() > 0, is(true));
+        assertThat(store.size() < keys.length, is(true));
+
+        boolean collected = false;
+        for (int i = 0; i < 50 && !collected; i++) {
+            System.gc();
+            Thread.sleep(20);
+            collected = true;
+            for (WeakReference<?> tree : trees) {
+                collected &= tree.get() == null;
+            }
+        }
+        assertThat(collected, is(true));
+        assertThat(store.get(keys[keys.length - 1]), is(largeTree(keys.length - 1).toString()));
+
+        // larger than the store itself
+        Object key = new Object();
+        JSONArray tooLarge = new JSONArray();
+        for (int i = 0; i < 20; i++) {
+            tooLarge.put(largeTree(i));
+        }
+        store.put(key, tooLarge);
+        assertThat(store.get(key), is(nullValue()));
+        assertThat(store.getByteCount() <= 10000, is(true));
+    }
+
+    private static JSONArray largeTree(int seed) throws Exception {
+        JSONArray tree = new JSONArray();
+        for (int i = 0; i < 50; i++) {
+            tree.put(new JSONObject().put("id", seed + "_" + i).put("message", "f\u00f6\u00f6"));
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.logging;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class LoggerTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void format() throws Exception {
+        assertThat(Logger.format("{}: {}", "key", "value"), is("key: value"));
+        assertThat(Logger.format("Sleeping {} seconds.", 5), is("Sleeping 5 seconds."));
+        assertThat(Logger.format("Post Params: ", "a=b"), is("Post Params: a=b"));
+        assertThat(Logger.format("{} and {}", "one"), is("one and {}"));
+        assertThat(Logger.format("{}", (Object) null), is("null"));
+        assertThat(Logger.format("no args"), is("no args"));
+    }
+
+    @Test
+    public void lazy() throws Exception {
+        Logger logger = new NullLoggerFactory().getLogger(LoggerTest.class);
+        final boolean[] called = {false};
+        logger.debug(new MessageSupplier() {
+            public String getMessage() {
+                called[0] = true;
+                return "costly";
+            }
+        });
+        assertThat(called[0], is(false));
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.internal.util;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import facebook4j.FacebookException;
+
+public class EntityCacheTest {
+
+    private static final long TTL = TimeUnit.MINUTES.toNanos(1);
+
+    private static final Executor SAME_THREAD = new Executor() {
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    private static class CountingLoader implements EntityCache.Loader {
+        private final String value;
+        private final int weight;
+        private final AtomicInteger loads = new AtomicInteger();
+
+        CountingLoader(String value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+
+        public Object load() throws FacebookException {
+            return value + loads.incrementAndGet();
+        }
+
+        public int weigh(Object value) {
+            return weight;
+        }
+    }
+
+    private static EntityCache.Key key(String id) {
+        return new EntityCache.Key("user", id, null, "token");
+    }
+
+    @Test
+    public void hitAndMiss() throws Exception {
+        EntityCache cache = new EntityCache("test", 100000, 0, SAME_THREAD);
+        CountingLoader loader = new CountingLoader("a", 10);
+        assertThat((String) cache.get(key("1"), TTL, loader), is("a1"));
+        assertThat((String) cache.get(key("1"), TTL, loader), is("a1"));
+        // the fields requested and the access token are part of the key
+        assertThat((String) cache.get(new EntityCache.Key("user", "1", "fields=name", "token"), TTL, loader), is("a2"));
+        assertThat((String) cache.get(new EntityCache.Key("user", "1", null, "other"), TTL, loader), is("a3"));
+        assertThat(cache.getStatistics().getHitCount(), is(1L));
+        assertThat(cache.getStatistics().getMissCount(), is(3L));
+        assertThat(cache.getSize(), is(3));
+        assertThat(cache.getWeight(), is(30L));
+
+        cache.invalidate("1");
+        assertThat(cache.getSize(), is(0));
+        assertThat(cache.getWeight(), is(0L));
+        assertThat(cache.getStatistics().getInvalidationCount(), is(3L));
+        assertThat((String) cache.get(key("1"), TTL, loader), is("a4"));
+    }
+
+    @Test
+    public void invalidatedWhileLoading() throws Exception {
+        final EntityCache cache = new EntityCache("test", 100000, 0, SAME_THREAD);
+        // the object is written to while it is loaded
+        EntityCache.Loader loader = new CountingLoader("a", 10) {
+            @Override
+            public Object load() throws FacebookException {
+                cache.invalidate("1");
+                return super.load();
+            }
+        };
+        cache.get(key("1"), TTL, loader);
+        cache.get(key("2"), TTL, loader);
+        assertThat(cache.getIfPresent(key("1")), is(nullValue()));
+        // the loads of other objects are still cached
+        assertThat((String) cache.getIfPresent(key("2")), is("a2"));
+    }
+
+    @Test
+    public void staleWhileRevalidate() throws Exception {
+        final CountDownLatch refreshed = new CountDownLatch(1);
+        EntityCache cache = new EntityCache("test", 100000, TimeUnit.MINUTES.toNanos(1), new Executor() {
+            public void execute(Runnable command) {
+                command.run();
+                refreshed.countDown();
+            }
+        });
+        CountingLoader loader = new CountingLoader("a", 10);
+        assertThat((String) cache.get(key("1"), 0, loader), is("a1"));
+        // expired, the stale value is returned and reloaded
+        assertThat((String) cache.get(key("1"), 0, loader), is("a1"));
+        assertTrue(refreshed.await(1, TimeUnit.SECONDS));
+        assertThat(cache.getStatistics().getStaleHitCount(), is(1L));
+        assertThat((String) cache.get(key("1"), TTL, loader), is("a2"));
+    }
+
+    @Test
+    public void expired() throws Exception {
+        EntityCache cache = new EntityCache("test", 100000, 0, SAME_THREAD);
+        CountingLoader loader = new CountingLoader("a", 10);
+        assertThat((String) cache.get(key("1"), 0, loader), is("a1"));
+        assertThat((String) cache.get(key("1"), 0, loader), is("a2"));
+        assertThat(cache.getStatistics().getStaleHitCount(), is(0L));
+    }
+
+    @Test
+    public void boundedByWeight() throws Exception {
+        EntityCache cache = new EntityCache("test", 1000, 0, SAME_THREAD);
+        for (int i = 0; i < 100; i++) {
+            cache.get(key(String.valueOf(i)), TTL, new CountingLoader("v", 50));
+        }
+        assertTrue(cache.getWeight() <= 1000);
+        assertThat(cache.getStatistics().getEvictionCount(), is(100L - cache.getSize()));
+        // heavier than the whole cache
+        cache.get(key("huge"), TTL, new CountingLoader("v", 2000));
+        assertTrue(cache.getWeight() <= 1000);
+    }
+
+    @Test
+    public void frequentEntriesSurviveScans() throws Exception {
+        EntityCache cache = new EntityCache("test", 1000, 0, SAME_THREAD);
+        CountingLoader hot = new CountingLoader("hot", 50);
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 5; j++) {
+                cache.get(key("hot" + j), TTL, hot);
+            }
+        }
+        // a scan of one-off lookups
+        for (int i = 0; i < 200; i++) {
+            cache.get(key("scan" + i), TTL, new CountingLoader("v", 50));
+        }
+        int loads = hot.loads.get();
+        for (int j = 0; j < 5; j++) {
+            cache.get(key("hot" + j), TTL, hot);
+        }
+        assertThat(hot.loads.get(), is(loads));
+    }
+
+}
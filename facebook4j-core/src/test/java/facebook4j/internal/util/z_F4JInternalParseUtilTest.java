@@ -25,6 +25,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -160,4 +162,38 @@ public class z_F4JInternalParseUtilTest {
         z_F4JInternalParseUtil.getStringList("list", json);
     }
     
+    @Test
+    public void getDateConcurrently() throws Exception {
+        final String format = "yyyy-MM-dd'T'HH:mm:ssZ";
+        final SimpleDateFormat expectedFormat = new SimpleDateFormat(format);
+        final Date[] expected = new Date[16];
+        final String[] dates = new String[expected.length];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = "2012-0" + (i % 9 + 1) + "-1" + (i % 10) + "T0" + (i % 10) + ":1" + (i % 10) + ":00+0000";
+            expected[i] = expectedFormat.parse(dates[i]);
+        }
+        final AtomicInteger mismatches = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int n = 0; n < 500; n++) {
+                            int i = n % dates.length;
+                            if (!expected[i].equals(z_F4JInternalParseUtil.getDate(dates[i], format))) {
+                                mismatches.incrementAndGet();
+                            }
+                        }
+                    } catch (FacebookException e) {
+                        mismatches.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        done.await();
+        assertThat(mismatches.get(), is(0));
+    }
+
 }
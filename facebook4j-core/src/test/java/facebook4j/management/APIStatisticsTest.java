@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class APIStatisticsTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    @Test
+    public void overflow() throws Exception {
+        APIStatistics statistics = new APIStatistics(10, 2);
+        statistics.methodCalled("{id}/feed", 10, true);
+        statistics.methodCalled("me/friends", 10, true);
+        statistics.methodCalled("{id}/photos", 10, true);
+        statistics.methodCalled("{id}/videos", 10, false);
+        statistics.methodCalled("{id}/feed", 10, true);
+
+        assertThat(statistics.getCallCount(), is(5L));
+        assertThat(statistics.getMethodLevelSummariesAsString().size(), is(3));
+        assertThat(statistics.getMethodLevelSummary("{id}/feed").contains("calls=2"), is(true));
+        assertThat(statistics.getMethodLevelSummary(APIStatistics.OVERFLOW_METHOD_NAME).contains("calls=2"), is(true));
+        assertThat(statistics.getMethodLevelSummariesAsString().containsKey("{id}/photos"), is(false));
+
+        statistics.reset();
+        assertThat(statistics.getMethodLevelSummariesAsString().size(), is(0));
+    }
+}
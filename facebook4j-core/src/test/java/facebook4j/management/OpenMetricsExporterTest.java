@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012 Ryuji Yamashita
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package facebook4j.management;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class OpenMetricsExporterTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+    private static OpenMetricsExporter exporter() {
+        APIStatistics statistics = new APIStatistics(10);
+        statistics.methodCalled("{id}/feed", 3, true);
+        statistics.methodCalled("{id}/feed", 120, false, 2);
+        statistics.methodCalled("{id}/feed", 20000, true);
+        statistics.phaseRecorded("{id}/feed", RequestPhase.PARSE, 1500000L);
+        statistics.appUsageReported(28, 25, 5);
+        statistics.requestStarted();
+
+        OpenMetricsExporter exporter = new OpenMetricsExporter();
+        exporter.register("app\"1", statistics);
+        return exporter;
+    }
+
+    @Test
+    public void scrape() throws Exception {
+        String text = exporter().scrape();
+        String labels = "{monitor=\"app\\\"1\",method=\"{id}/feed\"";
+
+        assertTrue(text.contains("# TYPE facebook4j_api_calls counter\n"));
+        assertTrue(text.contains("facebook4j_api_calls_total" + labels + "} 3\n"));
+        assertTrue(text.contains("facebook4j_api_errors_total" + labels + "} 1\n"));
+        assertTrue(text.contains("facebook4j_api_retries_total" + labels + "} 2\n"));
+        assertTrue(text.contains("facebook4j_api_latency_seconds_bucket" + labels + ",le=\"0.005\"} 1\n"));
+        assertTrue(text.contains("facebook4j_api_latency_seconds_bucket" + labels + ",le=\"0.25\"} 2\n"));
+        assertTrue(text.contains("facebook4j_api_latency_seconds_bucket" + labels + ",le=\"10.0\"} 2\n"));
+        assertTrue(text.contains("facebook4j_api_latency_seconds_bucket" + labels + ",le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("facebook4j_api_latency_seconds_count" + labels + "} 3\n"));
+        assertTrue(text.contains("facebook4j_api_latency_seconds_sum" + labels + "} 20.123\n"));
+        assertTrue(text.contains("facebook4j_api_phase_seconds_total" + labels + ",phase=\"parse\"} 0.001500000\n"));
+        assertTrue(text.contains("facebook4j_app_usage_percent{monitor=\"app\\\"1\",type=\"call_count\"} 28\n"));
+        assertTrue(text.contains("facebook4j_http_requests_in_flight{monitor=\"app\\\"1\"} 1\n"));
+        assertThat(text.endsWith("# EOF\n"), is(true));
+    }
+
+    @Test
+    public void endpoint() throws Exception {
+        HttpServer server = OpenMetricsEndpoint.start(exporter(), new InetSocketAddress("127.0.0.1", 0));
+        try {
+            URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + OpenMetricsEndpoint.PATH);
+            HttpURLConnection con = (HttpURLConnection) url.openConnection();
+            assertThat(con.getResponseCode(), is(200));
+            assertThat(con.getContentType(), is(OpenMetricsExporter.CONTENT_TYPE));
+            InputStream is = con.getInputStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            int count;
+            while ((count = is.read(buf)) != -1) {
+                body.write(buf, 0, count);
+            }
+            is.close();
+            assertThat(body.toString("UTF-8"), is(exporter().scrape()));
+        } finally {
+            server.stop(0);
+        }
+    }
+}